@@ -0,0 +1,101 @@
+package com.example.hotelbooking.benchmark;
+
+import com.example.hotelbooking.dto.AvailableRoomsResponse;
+import com.example.hotelbooking.dto.RoomSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode time and bytes on the wire for a 1,000-room availability response
+ * in JSON, CBOR and Smile, using mappers configured like the application's
+ * message converters. The payloadBytes column is the encoded size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BinaryEncodingBenchmark {
+
+    private static final int ROOMS = 1_000;
+
+    private ObjectMapper json;
+    private ObjectMapper cbor;
+    private ObjectMapper smile;
+
+    private AvailableRoomsResponse availability;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Payload {
+
+        public long payloadBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            payloadBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        json = mapper(null);
+        cbor = mapper(new CBORFactory());
+        smile = mapper(new SmileFactory());
+
+        String[] types = { "Single", "Double", "Twin", "Suite" };
+        List<RoomSummary> rooms = new ArrayList<>(ROOMS);
+        for (int i = 0; i < ROOMS; i++) {
+            rooms.add(new RoomSummary((long) i + 1, String.valueOf(100 + i), types[i % types.length], 1 + i % 4,
+                    80.0 + (i % 12) * 15.5, i % 5 == 0 ? 10.0 : 0.0, true,
+                    types[i % types.length] + " room on floor " + (1 + i / 40), "/images/rooms/" + (i + 1) + ".jpg"));
+        }
+        LocalDate checkIn = LocalDate.of(2026, 6, 1);
+        availability = AvailableRoomsResponse.forDates(new PageImpl<>(rooms), checkIn, checkIn.plusDays(3));
+    }
+
+    @Benchmark
+    public byte[] json(Payload payload) throws Exception {
+        return encode(json, payload);
+    }
+
+    @Benchmark
+    public byte[] cbor(Payload payload) throws Exception {
+        return encode(cbor, payload);
+    }
+
+    @Benchmark
+    public byte[] smile(Payload payload) throws Exception {
+        return encode(smile, payload);
+    }
+
+    private byte[] encode(ObjectMapper mapper, Payload payload) throws Exception {
+        byte[] bytes = mapper.writeValueAsBytes(availability);
+        payload.payloadBytes = bytes.length;
+        return bytes;
+    }
+
+    private static ObjectMapper mapper(com.fasterxml.jackson.core.JsonFactory factory) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule());
+        if (factory != null) {
+            builder.factory(factory);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.hotelbooking.benchmark;
+
+import com.example.hotelbooking.dto.AvailableRoomsResponse;
+import com.example.hotelbooking.dto.BookingCursor;
+import com.example.hotelbooking.dto.BookingPageResponse;
+import com.example.hotelbooking.dto.BookingSummary;
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.model.BookingStatus;
+import com.example.hotelbooking.model.PaymentMethod;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serialization throughput of a getAllBookings page and an availability
+ * result: the old HashMap bodies against the typed response records, each
+ * with the default mapper and with Blackbird registered
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+public class ResponseSerializationBenchmark {
+
+    @Param({ "20", "100" })
+    private int pageSize;
+
+    private ObjectMapper defaultMapper;
+    private ObjectMapper blackbirdMapper;
+
+    private Map<String, Object> bookingPageMap;
+    private BookingPageResponse bookingPageRecord;
+    private Map<String, Object> availabilityMap;
+    private AvailableRoomsResponse availabilityRecord;
+
+    @Setup
+    public void setUp() {
+        // Same builder Boot uses for the application mapper, so both see identical defaults
+        defaultMapper = Jackson2ObjectMapperBuilder.json().build();
+        blackbirdMapper = Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).build();
+
+        LocalDate checkIn = LocalDate.of(2026, 6, 1);
+        LocalDateTime booked = LocalDateTime.of(2026, 1, 1, 12, 0);
+        List<BookingSummary> bookings = new ArrayList<>(pageSize);
+        List<RoomSummary> rooms = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            bookings.add(new BookingSummary((long) i, (long) i % 50, "Guest " + i, "guest" + i + "@hotel.com",
+                    (long) i, "R" + i, "Double", checkIn.plusDays(i), checkIn.plusDays(i + 3), 360.0,
+                    PaymentMethod.CREDIT_CARD, BookingStatus.CONFIRMED, booked.minusMinutes(i)));
+            rooms.add(new RoomSummary((long) i, "R" + i, "Double", 2, 120.0, 0.0, true,
+                    "Double room on floor " + (i / 10), "/images/rooms/" + i + ".jpg"));
+        }
+
+        SliceImpl<BookingSummary> slice = new SliceImpl<>(bookings, PageRequest.of(0, pageSize), true);
+        bookingPageRecord = BookingPageResponse.of(slice);
+        bookingPageMap = new HashMap<>();
+        bookingPageMap.put("success", true);
+        bookingPageMap.put("bookings", bookings);
+        bookingPageMap.put("size", bookings.size());
+        bookingPageMap.put("hasNext", true);
+        bookingPageMap.put("nextCursor", BookingCursor.after(bookings.get(bookings.size() - 1)).encode());
+
+        LocalDate checkOut = checkIn.plusDays(3);
+        availabilityRecord = AvailableRoomsResponse.forDates(new PageImpl<>(rooms), checkIn, checkOut);
+        availabilityMap = new HashMap<>();
+        availabilityMap.put("success", true);
+        availabilityMap.put("availableRooms", rooms);
+        availabilityMap.put("checkIn", checkIn);
+        availabilityMap.put("checkOut", checkOut);
+        availabilityMap.put("numberOfNights", ChronoUnit.DAYS.between(checkIn, checkOut));
+        availabilityMap.put("totalAvailableRooms", rooms.size());
+        availabilityMap.put("searchType", "date_specific");
+    }
+
+    @Benchmark
+    public byte[] bookingPageMap() throws Exception {
+        return defaultMapper.writeValueAsBytes(bookingPageMap);
+    }
+
+    @Benchmark
+    public byte[] bookingPageRecord() throws Exception {
+        return defaultMapper.writeValueAsBytes(bookingPageRecord);
+    }
+
+    @Benchmark
+    public byte[] bookingPageRecordBlackbird() throws Exception {
+        return blackbirdMapper.writeValueAsBytes(bookingPageRecord);
+    }
+
+    @Benchmark
+    public byte[] availabilityMap() throws Exception {
+        return defaultMapper.writeValueAsBytes(availabilityMap);
+    }
+
+    @Benchmark
+    public byte[] availabilityRecord() throws Exception {
+        return defaultMapper.writeValueAsBytes(availabilityRecord);
+    }
+
+    @Benchmark
+    public byte[] availabilityRecordBlackbird() throws Exception {
+        return blackbirdMapper.writeValueAsBytes(availabilityRecord);
+    }
+}
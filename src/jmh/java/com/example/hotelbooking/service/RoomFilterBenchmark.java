@@ -0,0 +1,124 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.RoomFilter;
+import com.example.hotelbooking.dto.RoomSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A four-criteria room filter (type, minimum capacity, price range, discounted)
+ * answered by the attribute index against the equivalent SQL on an indexed
+ * in-memory H2 table, at 10k, 100k and 1M rooms. Both return the matching ids.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RoomFilterBenchmark {
+
+    private static final String[] TYPES = { "Single", "Double", "Twin", "Suite", "Family", "Studio" };
+
+    private static final String FILTER_SQL = "SELECT id FROM room WHERE LOWER(type) = ? AND capacity >= ? " +
+            "AND price_per_night BETWEEN ? AND ? AND discount_percentage > 0";
+
+    @Param({ "10000", "100000", "1000000" })
+    private int rooms;
+
+    private final RoomFilter filter = new RoomFilter("double", 3, 90.0, 180.0, true, null, null);
+
+    private List<RoomSummary> summaries;
+    private RoomAttributeIndex index;
+    private Connection connection;
+    private PreparedStatement query;
+
+    @Setup
+    public void setUp() throws Exception {
+        Random random = new Random(42);
+        summaries = new ArrayList<>(rooms);
+        for (int i = 0; i < rooms; i++) {
+            summaries.add(new RoomSummary((long) i + 1, String.valueOf(i), TYPES[random.nextInt(TYPES.length)],
+                    1 + random.nextInt(6), 40 + random.nextInt(400), random.nextInt(5) == 0 ? 10.0 : 0.0,
+                    true, null, null));
+        }
+        index = new RoomAttributeIndex(summaries);
+
+        // The shaded benchmark jar loses the driver's service registration
+        Class.forName("org.h2.Driver");
+        connection = DriverManager.getConnection("jdbc:h2:mem:rooms" + rooms + ";MODE=MySQL;OPTIMIZE_REUSE_RESULTS=FALSE");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE room (id BIGINT PRIMARY KEY, type VARCHAR(50), capacity INT, " +
+                    "price_per_night DOUBLE, discount_percentage DOUBLE)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO room VALUES (?, ?, ?, ?, ?)")) {
+            for (RoomSummary room : summaries) {
+                insert.setLong(1, room.id());
+                insert.setString(2, room.type());
+                insert.setInt(3, room.capacity());
+                insert.setDouble(4, room.pricePerNight());
+                insert.setDouble(5, room.discountPercentage());
+                insert.addBatch();
+                if (room.id() % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        try (Statement ddl = connection.createStatement()) {
+            // Best case for the SQL path: an index matching the leading predicates
+            ddl.execute("CREATE INDEX idx_room_type_price ON room (type, price_per_night)");
+            ddl.execute("ANALYZE");
+        }
+        query = connection.prepareStatement(FILTER_SQL);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        query.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public long[] attributeIndex() {
+        BitSet matches = index.select(filter);
+        long[] ids = new long[matches.cardinality()];
+        int n = 0;
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            ids[n++] = summaries.get(i).id();
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public List<Long> sql() throws Exception {
+        query.setString(1, filter.type());
+        query.setInt(2, filter.minCapacity());
+        query.setDouble(3, filter.minPrice());
+        query.setDouble(4, filter.maxPrice());
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet rows = query.executeQuery()) {
+            while (rows.next()) {
+                ids.add(rows.getLong(1));
+            }
+        }
+        return ids;
+    }
+}
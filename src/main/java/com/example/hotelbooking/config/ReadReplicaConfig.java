@@ -0,0 +1,102 @@
+package com.example.hotelbooking.config;
+
+import com.example.hotelbooking.datasource.MySqlReplicaLagProbe;
+import com.example.hotelbooking.datasource.ReadYourWritesTracker;
+import com.example.hotelbooking.datasource.ReplicaLagProbe;
+import com.example.hotelbooking.datasource.ReplicaRoutingDataSource;
+import com.example.hotelbooking.datasource.ReplicaSet;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes read-only transactions to read replicas when
+ * hotel.datasource.replicas.enabled is set; otherwise Boot's single
+ * auto-configured DataSource is used unchanged
+ */
+@Configuration
+@ConditionalOnProperty(name = "hotel.datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Value("${hotel.datasource.replicas.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${hotel.datasource.replicas.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${hotel.datasource.replicas.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${hotel.datasource.replicas.pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${hotel.datasource.replicas.max-lag-ms:2000}")
+    private long maxLagMs;
+
+    @Value("${hotel.datasource.replicas.read-your-writes-ms:5000}")
+    private long readYourWritesMs;
+
+    @Value("${hotel.datasource.replicas.max-tracked-principals:100000}")
+    private int maxTrackedPrincipals;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ReplicaLagProbe replicaLagProbe() {
+        return new MySqlReplicaLagProbe();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaSet replicaSet(DataSourceProperties properties, ReplicaLagProbe replicaLagProbe,
+                                 MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setUsername(replicaUsername);
+            replica.setPassword(replicaPassword);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            replicas.put("replica-" + i, replica);
+        }
+
+        ReplicaSet replicaSet = new ReplicaSet(replicas, replicaLagProbe, Duration.ofMillis(maxLagMs), meterRegistry);
+        replicaSet.checkLag();
+        return replicaSet;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaSet replicaSet,
+                                 MeterRegistry meterRegistry) {
+        ReadYourWritesTracker readYourWrites = new ReadYourWritesTracker(
+                Duration.ofMillis(readYourWritesMs), Clock.systemUTC(), maxTrackedPrincipals);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                primaryDataSource, replicaSet, readYourWrites, meterRegistry);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.hotelbooking.config;
 
+import com.example.hotelbooking.security.BoundedPasswordEncoder;
+import com.example.hotelbooking.security.PasswordHashingRejectionFilter;
 import com.example.hotelbooking.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -16,6 +20,7 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -30,9 +35,25 @@ public class SecurityConfig {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${hotel.security.hashing.pool-size:4}")
+    private int hashingPoolSize;
+
+    @Value("${hotel.security.hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    @Value("${hotel.security.hashing.timeout-ms:2000}")
+    private long hashingTimeoutMs;
+
+    /**
+     * BCrypt, run on a bounded worker pool so logins cannot starve booking traffic
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), hashingPoolSize,
+                hashingQueueCapacity, hashingTimeoutMs, meterRegistry);
     }
 
     @Bean
@@ -72,18 +93,26 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.GET, "/api/rooms/search").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/rooms/{id}/availability").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/bookings/available-rooms").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/bookings/available-rooms/flexible").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/bookings/check-availability").permitAll()
+                .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                
+                // Operational metrics
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 
                 // Admin endpoints
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
                 
                 // Customer booking endpoints
                 .requestMatchers(HttpMethod.POST, "/api/bookings").hasRole("CUSTOMER")
+                .requestMatchers(HttpMethod.POST, "/api/bookings/room-type").hasRole("CUSTOMER")
                 .requestMatchers(HttpMethod.POST, "/api/bookings/validate").hasRole("CUSTOMER")
                 .requestMatchers(HttpMethod.GET, "/api/bookings/my").hasRole("CUSTOMER")
                 .requestMatchers(HttpMethod.DELETE, "/api/bookings/my/{id}").hasRole("CUSTOMER")
+                .requestMatchers(HttpMethod.PUT, "/api/bookings/my/{id}/dates").hasRole("CUSTOMER")
                 .requestMatchers(HttpMethod.GET, "/api/bookings/user/{userId}").hasRole("CUSTOMER")
                 .requestMatchers(HttpMethod.DELETE, "/api/bookings/{id}/user/{userId}").hasRole("CUSTOMER")
+                .requestMatchers("/api/waitlist/**").hasRole("CUSTOMER")
                 
                 // Admin booking management
                 .requestMatchers(HttpMethod.GET, "/api/bookings").hasRole("ADMIN")
@@ -103,6 +132,9 @@ public class SecurityConfig {
             // Configure HTTP Basic authentication
             .httpBasic(Customizer.withDefaults())
             
+            // Reject with 503 when the password hashing pool is saturated
+            .addFilterBefore(new PasswordHashingRejectionFilter(), BasicAuthenticationFilter.class)
+            
             // Set authentication provider
             .authenticationProvider(authenticationProvider());
 
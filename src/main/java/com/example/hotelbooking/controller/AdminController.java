@@ -0,0 +1,237 @@
+package com.example.hotelbooking.controller;
+
+import com.example.hotelbooking.dto.BookingCursor;
+import com.example.hotelbooking.dto.BookingSummary;
+import com.example.hotelbooking.dto.CacheRegionStats;
+import com.example.hotelbooking.dto.MessageResponse;
+import com.example.hotelbooking.dto.PromotionRequestDTO;
+import com.example.hotelbooking.dto.PromotionResponse;
+import com.example.hotelbooking.dto.StayRestrictionRequestDTO;
+import com.example.hotelbooking.dto.StayRestrictionResponse;
+import com.example.hotelbooking.dto.UserSummary;
+import com.example.hotelbooking.model.Promotion;
+import com.example.hotelbooking.model.StayRestriction;
+import com.example.hotelbooking.service.BookingService;
+import com.example.hotelbooking.service.CacheStatisticsService;
+import com.example.hotelbooking.service.PromotionService;
+import com.example.hotelbooking.service.SearchService;
+import com.example.hotelbooking.service.StayRestrictionService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "*")
+public class AdminController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+
+    @Autowired
+    private StayRestrictionService stayRestrictionService;
+
+    @Autowired
+    private PromotionService promotionService;
+
+    /**
+     * Search users by name, email or username, most relevant first
+     */
+    @GetMapping("/users/search")
+    public ResponseEntity<?> searchUsers(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (q.isBlank()) {
+            return blankSearchTerm();
+        }
+
+        Page<UserSummary> users = searchService.searchUsers(q, Math.max(0, page), clampPageSize(size));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("users", users.getContent());
+        response.put("page", users.getNumber());
+        response.put("size", users.getSize());
+        response.put("totalResults", users.getTotalElements());
+        response.put("totalPages", users.getTotalPages());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Search bookings by the guest's name, email or username, newest first
+     */
+    @GetMapping("/bookings/search")
+    public ResponseEntity<?> searchBookings(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        if (q.isBlank()) {
+            return blankSearchTerm();
+        }
+
+        try {
+            Slice<BookingSummary> bookings = bookingService.searchBookingsByUser(
+                    q, BookingCursor.decode(cursor), clampPageSize(size));
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("bookings", bookings.getContent());
+            response.put("size", bookings.getNumberOfElements());
+            response.put("hasNext", bookings.hasNext());
+            response.put("nextCursor", bookings.hasNext()
+                ? BookingCursor.after(bookings.getContent().get(bookings.getNumberOfElements() - 1)).encode()
+                : null);
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+    }
+
+    /**
+     * Rebuild the room and user search indexes from the database
+     */
+    @PostMapping("/search/rebuild")
+    public ResponseEntity<?> rebuildSearchIndexes() {
+        long start = System.currentTimeMillis();
+        searchService.rebuild();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Search indexes rebuilt");
+        response.put("durationMs", System.currentTimeMillis() - start);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Hit, miss and put counts for each second-level and query cache region
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getCacheStatistics() {
+        List<CacheRegionStats> regions = cacheStatisticsService.getRegionStatistics();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("regions", regions);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Evict one cache region, or every region when no region is given
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<?> evictCache(@RequestParam(required = false) String region) {
+        Map<String, Object> response = new HashMap<>();
+
+        if (region == null) {
+            cacheStatisticsService.evictAll();
+            response.put("success", true);
+            response.put("message", "All cache regions evicted");
+            return ResponseEntity.ok(response);
+        }
+
+        if (!cacheStatisticsService.evictRegion(region)) {
+            response.put("success", false);
+            response.put("message", "Unknown cache region: " + region);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+
+        response.put("success", true);
+        response.put("message", "Cache region evicted: " + region);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Stay restrictions that have not ended yet
+     */
+    @GetMapping("/stay-restrictions")
+    public ResponseEntity<?> getStayRestrictions() {
+        return ResponseEntity.ok(StayRestrictionResponse.of(
+            stayRestrictionService.getActiveRestrictions(), stayRestrictionService.version()));
+    }
+
+    /**
+     * Add a stay restriction; bookings and searches on this instance follow it
+     * as soon as this returns
+     */
+    @PostMapping("/stay-restrictions")
+    public ResponseEntity<?> addStayRestriction(@Valid @RequestBody StayRestrictionRequestDTO request) {
+        StayRestriction saved = stayRestrictionService.addRestriction(request.toRestriction());
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .body(StayRestrictionResponse.added(saved, stayRestrictionService.version()));
+    }
+
+    @DeleteMapping("/stay-restrictions/{id}")
+    public ResponseEntity<?> deleteStayRestriction(@PathVariable Long id) {
+        if (!stayRestrictionService.deleteRestriction(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(MessageResponse.error("Stay restriction not found with id: " + id));
+        }
+        return ResponseEntity.ok(StayRestrictionResponse.deleted(stayRestrictionService.version()));
+    }
+
+    /**
+     * Every promotion code, with the redemptions written back so far
+     */
+    @GetMapping("/promotions")
+    public ResponseEntity<?> getPromotions() {
+        return ResponseEntity.ok(PromotionResponse.of(promotionService.getPromotions()));
+    }
+
+    /**
+     * Add a promotion code; redeemable on this instance as soon as this returns
+     */
+    @PostMapping("/promotions")
+    public ResponseEntity<?> addPromotion(@Valid @RequestBody PromotionRequestDTO request) {
+        Promotion saved = promotionService.addPromotion(request.toPromotion());
+        return ResponseEntity.status(HttpStatus.CREATED).body(PromotionResponse.added(saved));
+    }
+
+    @DeleteMapping("/promotions/{id}")
+    public ResponseEntity<?> deactivatePromotion(@PathVariable Long id) {
+        if (!promotionService.deactivatePromotion(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(MessageResponse.error("Promotion not found with id: " + id));
+        }
+        return ResponseEntity.ok(MessageResponse.ok("Promotion deactivated"));
+    }
+
+    /**
+     * Keeps page sizes within sane bounds
+     */
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private ResponseEntity<?> blankSearchTerm() {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("success", false);
+        errorResponse.put("message", "Search term must not be blank");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+}
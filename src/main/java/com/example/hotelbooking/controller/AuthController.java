@@ -1,15 +1,22 @@
 package com.example.hotelbooking.controller;
 
+import com.example.hotelbooking.dto.AuthResponse;
+import com.example.hotelbooking.dto.EmailCheckResponse;
+import com.example.hotelbooking.dto.MessageResponse;
 import com.example.hotelbooking.dto.UserRegistrationDTO;
+import com.example.hotelbooking.exception.LoginThrottledException;
+import com.example.hotelbooking.exception.PasswordHashingUnavailableException;
 import com.example.hotelbooking.model.User;
+import com.example.hotelbooking.security.LoginRateLimiter;
 import com.example.hotelbooking.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
-import java.util.HashMap;
 import java.util.Map;
 
 @RestController
@@ -20,6 +27,9 @@ public class AuthController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private LoginRateLimiter loginRateLimiter;
+
     /**
      * Register a new user
      */
@@ -29,25 +39,16 @@ public class AuthController {
             // Register user as CUSTOMER by default using the overloaded method
             User user = userService.registerUser(registrationDTO);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "User registered successfully");
-            response.put("userId", user.getId());
-            response.put("email", user.getEmail());
-            response.put("fullName", user.getFullName());
-            
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.status(HttpStatus.CREATED).body(AuthResponse.registered(user));
             
+        } catch (PasswordHashingUnavailableException e) {
+            return serviceBusy(e);
         } catch (RuntimeException e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", e.getMessage());
+            MessageResponse errorResponse = MessageResponse.error(e.getMessage());
             
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", "Registration failed: " + e.getMessage());
+            MessageResponse errorResponse = MessageResponse.error("Registration failed: " + e.getMessage());
             
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
@@ -57,15 +58,16 @@ public class AuthController {
      * Login endpoint
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> loginRequest) {
+    public ResponseEntity<?> login(@RequestBody Map<String, String> loginRequest, HttpServletRequest request) {
         try {
             String email = loginRequest.get("email");
             String password = loginRequest.get("password");
             
+            // Throttle per client address and per account before any hashing work
+            loginRateLimiter.checkLoginAllowed(request.getRemoteAddr(), email);
+            
             if (email == null || password == null || email.trim().isEmpty() || password.trim().isEmpty()) {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("success", false);
-                errorResponse.put("message", "Email and password are required");
+                MessageResponse errorResponse = MessageResponse.error("Email and password are required");
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
             }
             
@@ -73,27 +75,23 @@ public class AuthController {
             if (userService.validateCredentials(email, password)) {
                 User user = userService.findByEmail(email);
                 
-                Map<String, Object> response = new HashMap<>();
-                response.put("success", true);
-                response.put("message", "Login successful");
-                response.put("userId", user.getId());
-                response.put("email", user.getEmail());
-                response.put("fullName", user.getFullName());
-                response.put("role", user.getRole());
-                
-                return ResponseEntity.ok(response);
+                return ResponseEntity.ok(AuthResponse.loggedIn(user));
             } else {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("success", false);
-                errorResponse.put("message", "Invalid email or password");
+                MessageResponse errorResponse = MessageResponse.error("Invalid email or password");
                 
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
             }
             
+        } catch (LoginThrottledException e) {
+            MessageResponse errorResponse = MessageResponse.error(e.getMessage());
+            
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(errorResponse);
+        } catch (PasswordHashingUnavailableException e) {
+            return serviceBusy(e);
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", "Login failed: " + e.getMessage());
+            MessageResponse errorResponse = MessageResponse.error("Login failed: " + e.getMessage());
             
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
@@ -104,11 +102,7 @@ public class AuthController {
      */
     @PostMapping("/logout")
     public ResponseEntity<?> logout() {
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("message", "Logged out successfully");
-        
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(MessageResponse.ok("Logged out successfully"));
     }
 
     /**
@@ -119,18 +113,23 @@ public class AuthController {
         try {
             boolean exists = userService.existsByEmail(email);
             
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("exists", exists);
-            
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(new EmailCheckResponse(true, exists));
             
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", e.getMessage());
+            MessageResponse errorResponse = MessageResponse.error(e.getMessage());
             
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
+
+    /**
+     * 503 response for when the password hashing pool is saturated
+     */
+    private ResponseEntity<?> serviceBusy(PasswordHashingUnavailableException e) {
+        MessageResponse errorResponse = MessageResponse.error(e.getMessage());
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
 }
\ No newline at end of file
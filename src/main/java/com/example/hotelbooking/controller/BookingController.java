@@ -1,15 +1,32 @@
 package com.example.hotelbooking.controller;
 
+import com.example.hotelbooking.dto.AvailableRoomsResponse;
+import com.example.hotelbooking.dto.BookingCursor;
+import com.example.hotelbooking.dto.BookingDateChangeDTO;
+import com.example.hotelbooking.dto.BookingPageResponse;
 import com.example.hotelbooking.dto.BookingRequestDTO;
+import com.example.hotelbooking.dto.BookingResponse;
+import com.example.hotelbooking.dto.BookingSummary;
+import com.example.hotelbooking.dto.BookingValidationResponse;
+import com.example.hotelbooking.dto.FlexibleStaysResponse;
+import com.example.hotelbooking.dto.MessageResponse;
+import com.example.hotelbooking.dto.PriceQuote;
+import com.example.hotelbooking.dto.RoomAvailabilityResponse;
+import com.example.hotelbooking.dto.RoomFilter;
+import com.example.hotelbooking.dto.RoomSort;
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.dto.RoomTypeBookingRequestDTO;
+import com.example.hotelbooking.dto.StayOption;
 import com.example.hotelbooking.model.Booking;
-import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.model.BookingStatus;
 import com.example.hotelbooking.model.User;
 import com.example.hotelbooking.service.BookingService;
+import com.example.hotelbooking.service.RoomAllocationService;
+import com.example.hotelbooking.service.RoomService;
 import com.example.hotelbooking.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -18,21 +35,27 @@ import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
 import java.time.LocalDate;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/bookings")
 @CrossOrigin(origins = "*")
 public class BookingController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private BookingService bookingService;
 
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomAllocationService roomAllocationService;
+
     /**
      * Create a new booking
      */
@@ -44,23 +67,38 @@ public class BookingController {
                 bookingRequest.getRoomId(),
                 bookingRequest.getCheckIn(),
                 bookingRequest.getCheckOut(),
-                bookingRequest.getPaymentMethod()
+                bookingRequest.getPaymentMethod(),
+                bookingRequest.getQuoteToken(),
+                bookingRequest.getPromoCode()
             );
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Booking created successfully");
-            response.put("booking", booking);
-            response.put("numberOfNights", bookingRequest.getNumberOfNights());
-
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .body(BookingResponse.created(BookingSummary.of(booking), bookingRequest.getNumberOfNights()));
 
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Book any free room of a type; the allocator picks the room
+     */
+    @PostMapping("/room-type")
+    public ResponseEntity<?> createRoomTypeBooking(@Valid @RequestBody RoomTypeBookingRequestDTO bookingRequest) {
+        try {
+            Booking booking = roomAllocationService.bookRoomOfType(
+                bookingRequest.getUserId(),
+                bookingRequest.getRoomType(),
+                bookingRequest.getCheckIn(),
+                bookingRequest.getCheckOut(),
+                bookingRequest.getPaymentMethod()
+            );
+
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .body(BookingResponse.created(BookingSummary.of(booking), bookingRequest.getNumberOfNights()));
 
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageResponse.error(e.getMessage()));
         }
     }
 
@@ -69,7 +107,7 @@ public class BookingController {
      */
     @GetMapping("/my")
     public ResponseEntity<?> getMyBookings(
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size) {
         try {
             // Get current authenticated user
@@ -77,38 +115,13 @@ public class BookingController {
             String userEmail = authentication.getName();
             User currentUser = userService.findByEmail(userEmail);
 
-            if (size > 0) {
-                // Paginated response
-                Pageable pageable = PageRequest.of(page, size);
-                Page<Booking> bookings = bookingService.getBookingsByUserId(currentUser.getId(), pageable);
-
-                Map<String, Object> response = new HashMap<>();
-                response.put("success", true);
-                response.put("bookings", bookings.getContent());
-                response.put("totalElements", bookings.getTotalElements());
-                response.put("totalPages", bookings.getTotalPages());
-                response.put("currentPage", bookings.getNumber());
-                response.put("userId", currentUser.getId());
-
-                return ResponseEntity.ok(response);
-            } else {
-                // Non-paginated response
-                List<Booking> bookings = bookingService.getBookingsByUserId(currentUser.getId());
-
-                Map<String, Object> response = new HashMap<>();
-                response.put("success", true);
-                response.put("bookings", bookings);
-                response.put("userId", currentUser.getId());
-
-                return ResponseEntity.ok(response);
-            }
+            Slice<BookingSummary> bookings = bookingService.getBookingsByUserId(
+                currentUser.getId(), BookingCursor.decode(cursor), clampPageSize(size));
 
-        } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.ok(BookingPageResponse.of(bookings, currentUser.getId()));
 
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(MessageResponse.error(e.getMessage()));
         }
     }
 
@@ -125,47 +138,52 @@ public class BookingController {
 
             bookingService.cancelBooking(id, currentUser.getId());
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Booking cancelled successfully");
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(MessageResponse.ok("Booking cancelled successfully"));
 
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Move, shorten or extend the current user's booking in place
+     */
+    @PutMapping("/my/{id}/dates")
+    public ResponseEntity<?> changeMyBookingDates(@PathVariable Long id,
+                                                  @Valid @RequestBody BookingDateChangeDTO dateChange) {
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String userEmail = authentication.getName();
+            User currentUser = userService.findByEmail(userEmail);
+
+            BookingSummary booking = bookingService.changeBookingDates(
+                id, currentUser.getId(), dateChange.getCheckIn(), dateChange.getCheckOut());
 
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            return ResponseEntity.ok(BookingResponse.changed(booking, dateChange.getNumberOfNights()));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageResponse.error(e.getMessage()));
         }
     }
 
     /**
-     * Get all bookings (Admin only)
+     * Get all bookings (Admin only), optionally filtered by status
      */
     @GetMapping
     public ResponseEntity<?> getAllBookings(
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) BookingStatus status,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size) {
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<Booking> bookings = bookingService.getAllBookings(pageable);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("bookings", bookings.getContent());
-            response.put("totalElements", bookings.getTotalElements());
-            response.put("totalPages", bookings.getTotalPages());
-            response.put("currentPage", bookings.getNumber());
+            BookingCursor position = BookingCursor.decode(cursor);
+            Slice<BookingSummary> bookings = status == null
+                ? bookingService.getAllBookings(position, clampPageSize(size))
+                : bookingService.getBookingsByStatus(status, position, clampPageSize(size));
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(BookingPageResponse.of(bookings));
 
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", e.getMessage());
-
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(MessageResponse.error(e.getMessage()));
         }
     }
 
@@ -177,18 +195,10 @@ public class BookingController {
         try {
             Booking booking = bookingService.getBookingById(id);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("booking", booking);
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(BookingResponse.of(BookingSummary.of(booking)));
 
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", e.getMessage());
-
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(MessageResponse.error(e.getMessage()));
         }
     }
 
@@ -198,7 +208,7 @@ public class BookingController {
     @GetMapping("/user/{userId}")
     public ResponseEntity<?> getUserBookings(
             @PathVariable Long userId,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "10") int size) {
         try {
             // Additional security check for customers
@@ -208,42 +218,17 @@ public class BookingController {
             
             // Customers can only access their own bookings
             if (currentUser.getRole().name().equals("CUSTOMER") && !currentUser.getId().equals(userId)) {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("success", false);
-                errorResponse.put("message", "Access denied: You can only view your own bookings");
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(MessageResponse.error("Access denied: You can only view your own bookings"));
             }
 
-            if (size > 0) {
-                // Paginated response
-                Pageable pageable = PageRequest.of(page, size);
-                Page<Booking> bookings = bookingService.getBookingsByUserId(userId, pageable);
-
-                Map<String, Object> response = new HashMap<>();
-                response.put("success", true);
-                response.put("bookings", bookings.getContent());
-                response.put("totalElements", bookings.getTotalElements());
-                response.put("totalPages", bookings.getTotalPages());
-                response.put("currentPage", bookings.getNumber());
-
-                return ResponseEntity.ok(response);
-            } else {
-                // Non-paginated response
-                List<Booking> bookings = bookingService.getBookingsByUserId(userId);
-
-                Map<String, Object> response = new HashMap<>();
-                response.put("success", true);
-                response.put("bookings", bookings);
+            Slice<BookingSummary> bookings = bookingService.getBookingsByUserId(
+                userId, BookingCursor.decode(cursor), clampPageSize(size));
 
-                return ResponseEntity.ok(response);
-            }
+            return ResponseEntity.ok(BookingPageResponse.of(bookings));
 
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", e.getMessage());
-
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(MessageResponse.error(e.getMessage()));
         }
     }
 
@@ -260,26 +245,16 @@ public class BookingController {
             
             // Customers can only cancel their own bookings
             if (currentUser.getRole().name().equals("CUSTOMER") && !currentUser.getId().equals(userId)) {
-                Map<String, Object> errorResponse = new HashMap<>();
-                errorResponse.put("success", false);
-                errorResponse.put("message", "Access denied: You can only cancel your own bookings");
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(MessageResponse.error("Access denied: You can only cancel your own bookings"));
             }
 
             bookingService.cancelBooking(id, userId);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Booking cancelled successfully");
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(MessageResponse.ok("Booking cancelled successfully"));
 
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", e.getMessage());
-
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageResponse.error(e.getMessage()));
         }
     }
 
@@ -291,18 +266,10 @@ public class BookingController {
         try {
             bookingService.cancelBooking(id);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Booking cancelled by admin successfully");
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(MessageResponse.ok("Booking cancelled by admin successfully"));
 
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", e.getMessage());
-
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageResponse.error(e.getMessage()));
         }
     }
 
@@ -312,30 +279,52 @@ public class BookingController {
     @GetMapping("/available-rooms")
     public ResponseEntity<?> getAvailableRooms(
             @RequestParam String checkIn,
-            @RequestParam String checkOut) {
+            @RequestParam String checkOut,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
         try {
             LocalDate checkInDate = LocalDate.parse(checkIn);
             LocalDate checkOutDate = LocalDate.parse(checkOut);
 
-            // Use the booking service to get truly available rooms
-            List<Room> availableRooms = bookingService.getAvailableRooms(checkInDate, checkOutDate);
+            // Rooms free for the whole stay, one page at a time
+            Page<RoomSummary> availableRooms = roomService.findRooms(RoomFilter.forDates(checkInDate, checkOutDate),
+                RoomSort.ID, Math.max(0, page), clampPageSize(size));
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("availableRooms", availableRooms);
-            response.put("checkIn", checkInDate);
-            response.put("checkOut", checkOutDate);
-            response.put("numberOfNights", java.time.temporal.ChronoUnit.DAYS.between(checkInDate, checkOutDate));
-            response.put("totalRoomsAvailable", availableRooms.size());
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(AvailableRoomsResponse.forDates(availableRooms, checkInDate, checkOutDate));
 
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Rooms for a stay of the given length starting on any date in a window,
+     * with the lowest total price per start date; one call instead of one
+     * available-rooms call per candidate date
+     */
+    @GetMapping("/available-rooms/flexible")
+    public ResponseEntity<?> getFlexibleAvailability(
+            @RequestParam String earliestCheckIn,
+            @RequestParam String latestCheckIn,
+            @RequestParam int nights,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer minCapacity,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "false") boolean discountedOnly,
+            @RequestParam(defaultValue = "10") int roomsPerDate) {
+        try {
+            LocalDate earliest = LocalDate.parse(earliestCheckIn);
+            LocalDate latest = LocalDate.parse(latestCheckIn);
+            RoomFilter filter = new RoomFilter(type, minCapacity, minPrice, maxPrice, discountedOnly, null, null);
 
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            List<StayOption> options = bookingService.findFlexibleStays(filter, earliest, latest, nights,
+                clampPageSize(roomsPerDate));
+
+            return ResponseEntity.ok(FlexibleStaysResponse.of(earliest, latest, nights, options));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageResponse.error(e.getMessage()));
         }
     }
 
@@ -346,35 +335,23 @@ public class BookingController {
     public ResponseEntity<?> checkRoomAvailability(
             @RequestParam Long roomId,
             @RequestParam String checkIn,
-            @RequestParam String checkOut) {
+            @RequestParam String checkOut,
+            @RequestParam(required = false) String promoCode) {
         try {
             LocalDate checkInDate = LocalDate.parse(checkIn);
             LocalDate checkOutDate = LocalDate.parse(checkOut);
 
             boolean available = bookingService.isRoomAvailable(roomId, checkInDate, checkOutDate);
-            double totalAmount = 0.0;
+            PriceQuote quote = null;
             
             if (available) {
-                totalAmount = bookingService.calculateTotalAmount(roomId, checkInDate, checkOutDate);
+                quote = bookingService.quotePrice(roomId, checkInDate, checkOutDate, promoCode);
             }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("available", available);
-            response.put("totalAmount", totalAmount);
-            response.put("roomId", roomId);
-            response.put("checkIn", checkInDate);
-            response.put("checkOut", checkOutDate);
-            response.put("numberOfNights", java.time.temporal.ChronoUnit.DAYS.between(checkInDate, checkOutDate));
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(RoomAvailabilityResponse.of(roomId, quote, checkInDate, checkOutDate));
 
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", e.getMessage());
-
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageResponse.error(e.getMessage()));
         }
     }
 
@@ -394,28 +371,25 @@ public class BookingController {
                 bookingRequest.getCheckOut()
             );
             
-            double totalAmount = bookingService.calculateTotalAmount(
+            PriceQuote quote = bookingService.quotePrice(
                 bookingRequest.getRoomId(), 
                 bookingRequest.getCheckIn(), 
-                bookingRequest.getCheckOut()
+                bookingRequest.getCheckOut(),
+                bookingRequest.getPromoCode()
             );
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("valid", roomAvailable);
-            response.put("totalAmount", totalAmount);
-            response.put("numberOfNights", bookingRequest.getNumberOfNights());
-            response.put("message", roomAvailable ? "Booking request is valid" : "Room is not available for selected dates");
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(BookingValidationResponse.of(
+                roomAvailable, quote, bookingRequest.getNumberOfNights()));
 
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("valid", false);
-//            response.put("message", e.getMessage());
-
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(BookingValidationResponse.failed());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Keeps page sizes within sane bounds
+     */
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+}
@@ -1,23 +1,50 @@
 package com.example.hotelbooking.controller;
 
-import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.dto.AvailableRoomsResponse;
+import com.example.hotelbooking.dto.MessageResponse;
+import com.example.hotelbooking.dto.PriceQuote;
+import com.example.hotelbooking.dto.RoomAvailabilityResponse;
+import com.example.hotelbooking.dto.RoomFilter;
+import com.example.hotelbooking.dto.RoomResponse;
+import com.example.hotelbooking.dto.RoomSearchResponse;
+import com.example.hotelbooking.dto.RoomSort;
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.service.AvailabilityVersion;
 import com.example.hotelbooking.service.BookingService;
+import com.example.hotelbooking.service.RoomCatalog;
 import com.example.hotelbooking.service.RoomService;
+import com.example.hotelbooking.service.SearchService;
+import com.example.hotelbooking.service.StayRestrictionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/rooms")
 @CrossOrigin(origins = "*")
 public class RoomController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final int NDJSON_FLUSH_EVERY = 100;
+
     @Autowired
     private RoomService roomService;
     
@@ -25,49 +52,107 @@ public class RoomController {
     @Autowired
     private BookingService bookingService;
 
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    @Autowired
+    private AvailabilityVersion availabilityVersion;
+
+    @Autowired
+    private StayRestrictionService stayRestrictionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${hotel.http.catalog-max-age-seconds:60}")
+    private long catalogMaxAgeSeconds;
+
+    @Value("${hotel.http.availability-max-age-seconds:10}")
+    private long availabilityMaxAgeSeconds;
+
     /**
-     * Get all rooms
+     * List rooms one page at a time, optionally filtered by type, minimum
+     * capacity, nightly price range, discount and availability for a stay
      */
     @GetMapping
-    public ResponseEntity<?> getAllRooms() {
+    public ResponseEntity<?> getAllRooms(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer minCapacity,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(defaultValue = "false") boolean discounted,
+            @RequestParam(required = false) String checkIn,
+            @RequestParam(required = false) String checkOut,
+            @RequestParam(defaultValue = "ID") RoomSort sort,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest) {
+        // Versions are read before the data, so a stale ETag can only cause a needless 200
+        boolean dateSpecific = checkIn != null && checkOut != null;
+        String etag = catalogETag("rooms", dateSpecific, webRequest);
+        long lastModified = catalogLastModified(dateSpecific);
+        long maxAgeSeconds = dateSpecific ? availabilityMaxAgeSeconds : catalogMaxAgeSeconds;
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return notModified(etag, lastModified, maxAgeSeconds);
+        }
+
         try {
-            List<Room> rooms = roomService.getAllRooms();
+            if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(MessageResponse.error("minPrice must not be greater than maxPrice"));
+            }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("rooms", rooms);
+            RoomFilter filter = new RoomFilter(type, minCapacity, minPrice, maxPrice, discounted,
+                    dateSpecific ? LocalDate.parse(checkIn) : null,
+                    dateSpecific ? LocalDate.parse(checkOut) : null);
+            Page<RoomSummary> rooms = roomService.findRooms(filter, sort, Math.max(0, page), clampPageSize(size));
 
-            return ResponseEntity.ok(response);
+            return cacheable(RoomSearchResponse.of(rooms), etag, lastModified, maxAgeSeconds);
 
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageResponse.error(e.getMessage()));
+        }
+    }
 
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+    /**
+     * Search rooms by number, type or description, most relevant first
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchRooms(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (q.isBlank()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(MessageResponse.error("Search term must not be blank"));
         }
+
+        Page<RoomSummary> rooms = searchService.searchRooms(q, Math.max(0, page), clampPageSize(size));
+
+        return ResponseEntity.ok(RoomSearchResponse.of(rooms));
     }
 
     /**
      * Get room by ID
      */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getRoomById(@PathVariable Long id) {
-        try {
-            Room room = roomService.getRoomById(id);
+    public ResponseEntity<?> getRoomById(@PathVariable Long id, WebRequest webRequest) {
+        String etag = "room-" + id + "-" + roomCatalog.version() + encodingSuffix(webRequest);
+        long lastModified = roomCatalog.lastModified();
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return notModified(etag, lastModified, catalogMaxAgeSeconds);
+        }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("room", room);
+        try {
+            RoomSummary room = roomService.getRoomById(id);
 
-            return ResponseEntity.ok(response);
+            return cacheable(RoomResponse.of(room), etag, lastModified, catalogMaxAgeSeconds);
 
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", e.getMessage());
-
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(MessageResponse.error(e.getMessage()));
         }
     }
 
@@ -80,10 +165,20 @@ public class RoomController {
     @GetMapping("/available")
     public ResponseEntity<?> getAvailableRooms(
             @RequestParam(required = false) String checkIn,
-            @RequestParam(required = false) String checkOut) {
+            @RequestParam(required = false) String checkOut,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size,
+            WebRequest webRequest) {
+        boolean dateSpecific = checkIn != null && checkOut != null;
+        String etag = catalogETag("available", dateSpecific, webRequest);
+        long lastModified = catalogLastModified(dateSpecific);
+        long maxAgeSeconds = dateSpecific ? availabilityMaxAgeSeconds : catalogMaxAgeSeconds;
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return notModified(etag, lastModified, maxAgeSeconds);
+        }
+
         try {
-            List<Room> availableRooms;
-            Map<String, Object> response = new HashMap<>();
+            AvailableRoomsResponse response;
             
             if (checkIn != null && checkOut != null) {
                 // Get rooms available for specific dates
@@ -92,49 +187,68 @@ public class RoomController {
                 
                 // Validate date range
                 if (!checkInDate.isBefore(checkOutDate)) {
-                    Map<String, Object> errorResponse = new HashMap<>();
-                    errorResponse.put("success", false);
-                    errorResponse.put("message", "Check-out date must be after check-in date");
-                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body(MessageResponse.error("Check-out date must be after check-in date"));
                 }
                 
                 if (checkInDate.isBefore(LocalDate.now())) {
-                    Map<String, Object> errorResponse = new HashMap<>();
-                    errorResponse.put("success", false);
-                    errorResponse.put("message", "Check-in date cannot be in the past");
-                    return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+                    return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                            .body(MessageResponse.error("Check-in date cannot be in the past"));
                 }
                 
-                availableRooms = bookingService.getAvailableRooms(checkInDate, checkOutDate);
-                
-                response.put("success", true);
-                response.put("availableRooms", availableRooms);
-                response.put("checkIn", checkInDate);
-                response.put("checkOut", checkOutDate);
-                response.put("numberOfNights", java.time.temporal.ChronoUnit.DAYS.between(checkInDate, checkOutDate));
-                response.put("totalAvailableRooms", availableRooms.size());
-                response.put("searchType", "date_specific");
+                Page<RoomSummary> rooms = roomService.findRooms(RoomFilter.forDates(checkInDate, checkOutDate),
+                        RoomSort.ID, Math.max(0, page), clampPageSize(size));
+                response = AvailableRoomsResponse.forDates(rooms, checkInDate, checkOutDate);
                 
             } else {
                 // Get all rooms (general availability - room exists and is not disabled)
-                availableRooms = roomService.getAllRooms();
-                
-                response.put("success", true);
-                response.put("availableRooms", availableRooms);
-                response.put("totalAvailableRooms", availableRooms.size());
-                response.put("searchType", "general");
-                response.put("message", "All rooms listed. For date-specific availability, provide checkIn and checkOut parameters.");
+                response = AvailableRoomsResponse.general(
+                        roomService.findRooms(RoomFilter.none(), RoomSort.ID, Math.max(0, page), clampPageSize(size)));
             }
 
-            return ResponseEntity.ok(response);
+            return cacheable(response, etag, lastModified, maxAgeSeconds);
 
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageResponse.error(e.getMessage()));
+        }
+    }
 
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    /**
+     * Get available rooms as newline-delimited JSON, one room per line. Rooms are
+     * written as they are filtered from the catalog, so the first bytes go out
+     * immediately and memory use does not grow with the size of the property.
+     */
+    @GetMapping(value = "/available", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAvailableRooms(
+            @RequestParam(required = false) String checkIn,
+            @RequestParam(required = false) String checkOut,
+            WebRequest webRequest) {
+        boolean dateSpecific = checkIn != null && checkOut != null;
+        String etag = catalogETag("available", dateSpecific, webRequest);
+        long lastModified = catalogLastModified(dateSpecific);
+        long maxAgeSeconds = dateSpecific ? availabilityMaxAgeSeconds : catalogMaxAgeSeconds;
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return notModified(etag, lastModified, maxAgeSeconds);
         }
+
+        Stream<RoomSummary> rooms;
+        try {
+            rooms = dateSpecific
+                ? bookingService.streamAvailableRooms(LocalDate.parse(checkIn), LocalDate.parse(checkOut))
+                : roomService.getAllRooms().stream();
+        } catch (Exception e) {
+            // Errors are a single JSON document, so the content type is set explicitly
+            MessageResponse error = MessageResponse.error(e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+
+        // Streaming bodies bypass message converters, so the content type is not derived from produces
+        StreamingResponseBody body = out -> writeLines(rooms, out);
+        return cacheableHeaders(etag, lastModified, maxAgeSeconds)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
@@ -150,35 +264,114 @@ public class RoomController {
             LocalDate checkOutDate = LocalDate.parse(checkOut);
 
             // Get the room first to ensure it exists
-            Room room = roomService.getRoomById(id);
+            RoomSummary room = roomService.getRoomById(id);
             
             // Check availability
             boolean available = bookingService.isRoomAvailable(id, checkInDate, checkOutDate);
-            double totalAmount = 0.0;
+            PriceQuote quote = null;
             
             if (available) {
-                totalAmount = bookingService.calculateTotalAmount(id, checkInDate, checkOutDate);
+                quote = bookingService.quotePrice(id, checkInDate, checkOutDate);
             }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("room", room);
-            response.put("available", available);
-            response.put("totalAmount", totalAmount);
-            response.put("pricePerNight", room.getPricePerNight());
-            response.put("checkIn", checkInDate);
-            response.put("checkOut", checkOutDate);
-            response.put("numberOfNights", java.time.temporal.ChronoUnit.DAYS.between(checkInDate, checkOutDate));
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(RoomAvailabilityResponse.of(room, quote, checkInDate, checkOutDate));
 
         } catch (Exception e) {
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("success", false);
-            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Keeps page sizes within sane bounds
+     */
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * 200 with validators and shared-cache headers so CDNs and clients can revalidate cheaply;
+     * the body is negotiated (JSON, CBOR or Smile), so shared caches must key on Accept too
+     */
+    private ResponseEntity<?> cacheable(Object body, String etag, long lastModified, long maxAgeSeconds) {
+        return cacheableHeaders(etag, lastModified, maxAgeSeconds).body(body);
+    }
+
+    private ResponseEntity.BodyBuilder cacheableHeaders(String etag, long lastModified, long maxAgeSeconds) {
+        return ResponseEntity.ok()
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(publicCache(maxAgeSeconds));
+    }
+
+    private <T> ResponseEntity<T> notModified(String etag, long lastModified, long maxAgeSeconds) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag(etag)
+                .lastModified(lastModified)
+                .cacheControl(publicCache(maxAgeSeconds))
+                .build();
+    }
+
+    /**
+     * Filters and dates are part of the URL, so the versions alone identify the
+     * response; availability only matters once dates are given
+     */
+    private String catalogETag(String resource, boolean dateSpecific, WebRequest webRequest) {
+        String versions = dateSpecific
+            ? roomCatalog.version() + "-" + availabilityVersion.get() + "-" + stayRestrictionService.version()
+            : String.valueOf(roomCatalog.version());
+        return resource + "-" + versions + encodingSuffix(webRequest);
+    }
+
+    private long catalogLastModified(boolean dateSpecific) {
+        return dateSpecific
+            ? Math.max(Math.max(roomCatalog.lastModified(), availabilityVersion.lastModified()),
+                       stayRestrictionService.lastModified())
+            : roomCatalog.lastModified();
+    }
 
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    /**
+     * Writes one JSON document per line, flushing after the first room and then
+     * in batches so clients can start parsing straight away
+     */
+    private void writeLines(Stream<RoomSummary> rooms, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(RoomSummary.class);
+        Iterator<RoomSummary> iterator = rooms.iterator();
+        int written = 0;
+        while (iterator.hasNext()) {
+            out.write(writer.writeValueAsBytes(iterator.next()));
+            out.write('\n');
+            if (++written == 1 || written % NDJSON_FLUSH_EVERY == 0) {
+                out.flush();
+            }
         }
+        out.flush();
     }
-}
 
+    /**
+     * Strong ETags must differ between encodings of the same content
+     */
+    private static String encodingSuffix(WebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return "";
+        }
+        if (accept.contains(MediaType.APPLICATION_CBOR_VALUE)) {
+            return "-cbor";
+        }
+        if (accept.contains("application/x-jackson-smile")) {
+            return "-smile";
+        }
+        if (accept.contains(MediaType.APPLICATION_NDJSON_VALUE)) {
+            return "-ndjson";
+        }
+        return "";
+    }
+
+    private static CacheControl publicCache(long maxAgeSeconds) {
+        return CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS)
+                .sMaxAge(maxAgeSeconds, TimeUnit.SECONDS)
+                .cachePublic();
+    }
+}
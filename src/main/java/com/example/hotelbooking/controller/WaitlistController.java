@@ -0,0 +1,104 @@
+package com.example.hotelbooking.controller;
+
+import com.example.hotelbooking.dto.BookingResponse;
+import com.example.hotelbooking.dto.BookingSummary;
+import com.example.hotelbooking.dto.MessageResponse;
+import com.example.hotelbooking.dto.WaitlistRequestDTO;
+import com.example.hotelbooking.dto.WaitlistResponse;
+import com.example.hotelbooking.model.Booking;
+import com.example.hotelbooking.model.User;
+import com.example.hotelbooking.model.WaitlistEntry;
+import com.example.hotelbooking.service.UserService;
+import com.example.hotelbooking.service.WaitlistService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import jakarta.validation.Valid;
+
+import java.time.temporal.ChronoUnit;
+
+@RestController
+@RequestMapping("/api/waitlist")
+@CrossOrigin(origins = "*")
+public class WaitlistController {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private UserService userService;
+
+    /**
+     * Wait for a sold-out stay; the room is held for the customer as soon as
+     * it frees up. A stay with a free room is booked directly instead.
+     */
+    @PostMapping
+    public ResponseEntity<?> joinWaitlist(@Valid @RequestBody WaitlistRequestDTO request) {
+        try {
+            WaitlistEntry entry = waitlistService.join(
+                currentUser().getId(),
+                request.getRoomId(),
+                request.getRoomType(),
+                request.getCheckIn(),
+                request.getCheckOut(),
+                request.getPaymentMethod()
+            );
+
+            return ResponseEntity.status(HttpStatus.CREATED).body(WaitlistResponse.joined(entry));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Current user's waitlist entries, with any room held for them
+     */
+    @GetMapping("/my")
+    public ResponseEntity<?> getMyEntries() {
+        try {
+            return ResponseEntity.ok(WaitlistResponse.of(waitlistService.getEntries(currentUser().getId())));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(MessageResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Book the room held for an entry, paying with the entry's payment method
+     */
+    @PostMapping("/my/{id}/confirm")
+    public ResponseEntity<?> confirmHold(@PathVariable Long id) {
+        try {
+            Booking booking = waitlistService.confirm(id, currentUser().getId());
+            long nights = ChronoUnit.DAYS.between(booking.getCheckInDate(), booking.getCheckOutDate());
+
+            return ResponseEntity.status(HttpStatus.CREATED)
+                .body(BookingResponse.created(BookingSummary.of(booking), nights));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Leave the waitlist, giving up any room held for the entry
+     */
+    @DeleteMapping("/my/{id}")
+    public ResponseEntity<?> leaveWaitlist(@PathVariable Long id) {
+        try {
+            waitlistService.leave(id, currentUser().getId());
+
+            return ResponseEntity.ok(MessageResponse.ok("Left the waitlist"));
+
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MessageResponse.error(e.getMessage()));
+        }
+    }
+
+    private User currentUser() {
+        return userService.findByEmail(SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.hotelbooking.datasource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Reads Seconds_Behind_Source from SHOW REPLICA STATUS (MySQL 8.0.22+)
+ */
+public class MySqlReplicaLagProbe implements ReplicaLagProbe {
+
+    @Override
+    public Duration measureLag(DataSource replica) throws SQLException {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!rs.next()) {
+                // Not configured as a replica at all, so nothing to lag behind
+                return Duration.ZERO;
+            }
+            long seconds = rs.getLong("Seconds_Behind_Source");
+            return rs.wasNull() ? null : Duration.ofSeconds(seconds);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.hotelbooking.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers who committed a write recently, so their reads stay on the primary
+ * until the replicas have had time to catch up. Writes are held in a bounded
+ * cache that forgets them once the window has passed.
+ */
+public class ReadYourWritesTracker {
+
+    private final Duration window;
+    private final Clock clock;
+    private final Cache<String, Instant> lastWrites;
+
+    public ReadYourWritesTracker(Duration window, Clock clock, int maxTrackedPrincipals) {
+        this.window = window;
+        this.clock = clock;
+        this.lastWrites = Caffeine.newBuilder()
+                .maximumSize(maxTrackedPrincipals)
+                .expireAfterWrite(window)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .build();
+    }
+
+    public void recordWrite(String principal) {
+        lastWrites.put(principal, clock.instant());
+    }
+
+    public boolean wroteRecently(String principal) {
+        Instant lastWrite = lastWrites.getIfPresent(principal);
+        return lastWrite != null && clock.instant().isBefore(lastWrite.plus(window));
+    }
+
+    /**
+     * Number of principals whose writes are still remembered
+     */
+    long trackedPrincipals() {
+        lastWrites.cleanUp();
+        return lastWrites.estimatedSize();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.hotelbooking.datasource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Measures how far a replica is behind the primary
+ */
+@FunctionalInterface
+public interface ReplicaLagProbe {
+
+    /**
+     * Current replication lag, or null if the replica cannot tell (for example
+     * because replication is stopped), which takes it out of rotation
+     */
+    Duration measureLag(DataSource replica) throws SQLException;
+}
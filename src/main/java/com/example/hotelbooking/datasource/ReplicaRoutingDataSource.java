@@ -0,0 +1,104 @@
+package com.example.hotelbooking.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to a replica in rotation and everything else to
+ * the primary. A caller who committed a write within the read-your-writes
+ * window keeps reading from the primary. Must sit behind a
+ * LazyConnectionDataSourceProxy so the transaction's read-only flag is known
+ * by the time a connection is actually taken.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final ReplicaSet replicaSet;
+    private final ReadYourWritesTracker readYourWrites;
+
+    private final Counter writeCounter;
+    private final Counter replicaCounter;
+    private final Counter readYourWritesCounter;
+    private final Counter noHealthyReplicaCounter;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaSet replicaSet,
+                                    ReadYourWritesTracker readYourWrites, MeterRegistry meterRegistry) {
+        this.replicaSet = replicaSet;
+        this.readYourWrites = readYourWrites;
+
+        Map<Object, Object> targets = new HashMap<>(replicaSet.getReplicas());
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+
+        this.writeCounter = routeCounter(meterRegistry, "write");
+        this.replicaCounter = routeCounter(meterRegistry, "replica");
+        this.readYourWritesCounter = routeCounter(meterRegistry, "read-your-writes");
+        this.noHealthyReplicaCounter = routeCounter(meterRegistry, "no-healthy-replica");
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+
+        String principal = currentPrincipal();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writeCounter.increment();
+            recordWriteOnCommit(principal);
+            return PRIMARY;
+        }
+
+        if (principal != null && readYourWrites.wroteRecently(principal)) {
+            readYourWritesCounter.increment();
+            return PRIMARY;
+        }
+
+        String replica = replicaSet.nextHealthy();
+        if (replica == null) {
+            noHealthyReplicaCounter.increment();
+            return PRIMARY;
+        }
+        replicaCounter.increment();
+        return replica;
+    }
+
+    private void recordWriteOnCommit(String principal) {
+        if (principal == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                readYourWrites.recordWrite(principal);
+            }
+        });
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static Counter routeCounter(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("datasource.routing").tag("route", route).register(meterRegistry);
+    }
+}
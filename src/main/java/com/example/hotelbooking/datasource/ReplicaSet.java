@@ -0,0 +1,96 @@
+package com.example.hotelbooking.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read replicas, each in rotation only while its last measured lag was
+ * within bounds. Replicas start out of rotation until their first lag check.
+ */
+public class ReplicaSet implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaSet.class);
+
+    private final Map<String, DataSource> replicas;
+    private final ReplicaLagProbe lagProbe;
+    private final Duration maxLag;
+
+    private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+    private volatile List<String> healthy = List.of();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaSet(Map<String, DataSource> replicas, ReplicaLagProbe lagProbe, Duration maxLag,
+                      MeterRegistry meterRegistry) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.lagProbe = lagProbe;
+        this.maxLag = maxLag;
+        for (String name : this.replicas.keySet()) {
+            Gauge.builder("datasource.replica.lag", lagMillis, m -> m.getOrDefault(name, -1L))
+                    .tag("replica", name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Probes every replica and rebuilds the rotation from those within the lag bound
+     */
+    @Scheduled(fixedDelayString = "${hotel.datasource.replicas.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        List<String> inBounds = new ArrayList<>();
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            String name = replica.getKey();
+            try {
+                Duration lag = lagProbe.measureLag(replica.getValue());
+                lagMillis.put(name, lag == null ? -1L : lag.toMillis());
+                if (lag != null && lag.compareTo(maxLag) <= 0) {
+                    inBounds.add(name);
+                } else if (healthy.contains(name)) {
+                    logger.warn("Replica {} out of rotation, lag {} exceeds {}", name, lag, maxLag);
+                }
+            } catch (Exception e) {
+                lagMillis.put(name, -1L);
+                if (healthy.contains(name)) {
+                    logger.warn("Replica {} out of rotation, lag check failed: {}", name, e.getMessage());
+                }
+            }
+        }
+        healthy = List.copyOf(inBounds);
+    }
+
+    /**
+     * Next replica in round-robin order among those in rotation, or null if none is
+     */
+    public String nextHealthy() {
+        List<String> current = healthy;
+        if (current.isEmpty()) {
+            return null;
+        }
+        return current.get(Math.floorMod(next.getAndIncrement(), current.size()));
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.hotelbooking.dto;
+
+import com.example.hotelbooking.model.Role;
+import com.example.hotelbooking.model.User;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Body for successful registration and login; role is only sent on login
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AuthResponse(
+        boolean success,
+        String message,
+        Long userId,
+        String email,
+        String fullName,
+        Role role) {
+
+    public static AuthResponse registered(User user) {
+        return new AuthResponse(true, "User registered successfully", user.getId(), user.getEmail(),
+                user.getFullName(), null);
+    }
+
+    public static AuthResponse loggedIn(User user) {
+        return new AuthResponse(true, "Login successful", user.getId(), user.getEmail(),
+                user.getFullName(), user.getRole());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.hotelbooking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.Page;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Body for one page of room availability, either for a date range or in
+ * general; totalAvailableRooms counts every match, not just this page
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AvailableRoomsResponse(
+        boolean success,
+        List<RoomSummary> availableRooms,
+        LocalDate checkIn,
+        LocalDate checkOut,
+        Long numberOfNights,
+        long totalAvailableRooms,
+        int page,
+        int totalPages,
+        String searchType,
+        String message) {
+
+    public static AvailableRoomsResponse forDates(Page<RoomSummary> rooms, LocalDate checkIn, LocalDate checkOut) {
+        return new AvailableRoomsResponse(true, rooms.getContent(), checkIn, checkOut,
+                ChronoUnit.DAYS.between(checkIn, checkOut), rooms.getTotalElements(), rooms.getNumber(),
+                rooms.getTotalPages(), "date_specific", null);
+    }
+
+    public static AvailableRoomsResponse general(Page<RoomSummary> rooms) {
+        return new AvailableRoomsResponse(true, rooms.getContent(), null, null, null, rooms.getTotalElements(),
+                rooms.getNumber(), rooms.getTotalPages(), "general",
+                "All rooms listed. For date-specific availability, provide checkIn and checkOut parameters.");
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.hotelbooking.dto;
+
+import java.time.LocalDate;
+
+/**
+ * The nights an active booking holds a room, selected directly by a JPQL
+ * constructor expression
+ */
+public record BookedStay(
+        Long bookingId,
+        Long roomId,
+        LocalDate checkInDate,
+        LocalDate checkOutDate) {
+}
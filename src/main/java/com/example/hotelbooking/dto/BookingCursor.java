@@ -0,0 +1,46 @@
+package com.example.hotelbooking.dto;
+
+import com.example.hotelbooking.exception.InvalidBookingDataException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a newest-first booking listing: the (bookingDate, id) of
+ * the last row already returned. Clients only ever see the opaque encoded form.
+ */
+public record BookingCursor(LocalDateTime bookingDate, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Cursor pointing just past the given row
+     */
+    public static BookingCursor after(BookingSummary booking) {
+        return new BookingCursor(booking.bookingDate(), booking.id());
+    }
+
+    /**
+     * Decodes a client supplied cursor; null or blank means the first page
+     */
+    public static BookingCursor decode(String encoded) {
+        if (encoded == null || encoded.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            return new BookingCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                                     Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidBookingDataException("Invalid pagination cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = bookingDate.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
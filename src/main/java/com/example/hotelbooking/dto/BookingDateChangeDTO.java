@@ -0,0 +1,59 @@
+package com.example.hotelbooking.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * New dates for an existing booking
+ */
+public class BookingDateChangeDTO {
+
+    @NotNull(message = "Check-in date is required")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate checkIn;
+
+    @NotNull(message = "Check-out date is required")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate checkOut;
+
+    @AssertTrue(message = "Check-out date must be after check-in date")
+    public boolean isValidDateRange() {
+        if (checkIn == null || checkOut == null) {
+            return true; // Let @NotNull handle null validation
+        }
+        return checkIn.isBefore(checkOut);
+    }
+
+    public BookingDateChangeDTO() {}
+
+    public BookingDateChangeDTO(LocalDate checkIn, LocalDate checkOut) {
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+    }
+
+    public LocalDate getCheckIn() {
+        return checkIn;
+    }
+
+    public void setCheckIn(LocalDate checkIn) {
+        this.checkIn = checkIn;
+    }
+
+    public LocalDate getCheckOut() {
+        return checkOut;
+    }
+
+    public void setCheckOut(LocalDate checkOut) {
+        this.checkOut = checkOut;
+    }
+
+    public long getNumberOfNights() {
+        if (checkIn != null && checkOut != null) {
+            return java.time.temporal.ChronoUnit.DAYS.between(checkIn, checkOut);
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.hotelbooking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * Body for a keyset page of bookings; pass nextCursor back as the cursor
+ * parameter to fetch the following page
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BookingPageResponse(
+        boolean success,
+        List<BookingSummary> bookings,
+        int size,
+        boolean hasNext,
+        @JsonInclude(JsonInclude.Include.ALWAYS) String nextCursor,
+        Long userId) {
+
+    public static BookingPageResponse of(Slice<BookingSummary> bookings) {
+        return of(bookings, null);
+    }
+
+    public static BookingPageResponse of(Slice<BookingSummary> bookings, Long userId) {
+        List<BookingSummary> content = bookings.getContent();
+        String nextCursor = bookings.hasNext()
+            ? BookingCursor.after(content.get(content.size() - 1)).encode()
+            : null;
+        return new BookingPageResponse(true, content, content.size(), bookings.hasNext(), nextCursor, userId);
+    }
+}
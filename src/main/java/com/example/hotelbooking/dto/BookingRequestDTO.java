@@ -3,6 +3,7 @@ package com.example.hotelbooking.dto;
 import com.example.hotelbooking.model.PaymentMethod;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Size;
 import org.springframework.format.annotation.DateTimeFormat;
 
 import java.time.LocalDate;
@@ -28,6 +29,12 @@ public class BookingRequestDTO {
 
     private String notes; // Optional field for special requests
 
+    @Size(max = 4096, message = "Quote token cannot exceed 4096 characters")
+    private String quoteToken; // Optional: books at the prices of a quote from availability or validation
+
+    @Size(max = 64, message = "Promotion code cannot exceed 64 characters")
+    private String promoCode; // Optional
+
     // Custom validation to ensure check-in is before check-out
     @AssertTrue(message = "Check-out date must be after check-in date")
     public boolean isValidDateRange() {
@@ -106,6 +113,22 @@ public class BookingRequestDTO {
         this.notes = notes;
     }
 
+    public String getQuoteToken() {
+        return quoteToken;
+    }
+
+    public void setQuoteToken(String quoteToken) {
+        this.quoteToken = quoteToken;
+    }
+
+    public String getPromoCode() {
+        return promoCode;
+    }
+
+    public void setPromoCode(String promoCode) {
+        this.promoCode = promoCode;
+    }
+
     // Utility method to calculate number of nights
     public long getNumberOfNights() {
         if (checkIn != null && checkOut != null) {
@@ -123,6 +146,8 @@ public class BookingRequestDTO {
                 ", checkOut=" + checkOut +
                 ", paymentMethod=" + paymentMethod +
                 ", notes='" + notes + '\'' +
+                ", quoteToken='" + quoteToken + '\'' +
+                ", promoCode='" + promoCode + '\'' +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.example.hotelbooking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Body for a single booking; message and numberOfNights are only sent on create
+ * and date change
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BookingResponse(
+        boolean success,
+        String message,
+        BookingSummary booking,
+        Long numberOfNights) {
+
+    public static BookingResponse of(BookingSummary booking) {
+        return new BookingResponse(true, null, booking, null);
+    }
+
+    public static BookingResponse created(BookingSummary booking, long numberOfNights) {
+        return new BookingResponse(true, "Booking created successfully", booking, numberOfNights);
+    }
+
+    public static BookingResponse changed(BookingSummary booking, long numberOfNights) {
+        return new BookingResponse(true, "Booking dates changed successfully", booking, numberOfNights);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.hotelbooking.dto;
+
+import com.example.hotelbooking.model.Booking;
+import com.example.hotelbooking.model.BookingStatus;
+import com.example.hotelbooking.model.PaymentMethod;
+import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read model for booking listings, selected directly by JPQL constructor
+ * expressions so no entities (or password hashes) are loaded
+ */
+public record BookingSummary(
+        Long id,
+        Long userId,
+        String guestName,
+        String guestEmail,
+        Long roomId,
+        String roomNumber,
+        String roomType,
+        LocalDate checkInDate,
+        LocalDate checkOutDate,
+        double totalPrice,
+        PaymentMethod paymentMethod,
+        BookingStatus status,
+        LocalDateTime bookingDate) {
+
+    /**
+     * Summary of a booking whose user and room are already loaded
+     */
+    public static BookingSummary of(Booking booking) {
+        User user = booking.getUser();
+        Room room = booking.getRoom();
+        return new BookingSummary(booking.getId(), user.getId(), user.getFullName(), user.getEmail(),
+                room.getId(), room.getRoomNumber(), room.getType(), booking.getCheckInDate(),
+                booking.getCheckOutDate(), booking.getTotalPrice(), booking.getPaymentMethod(),
+                booking.getStatus(), booking.getBookingDate());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.hotelbooking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Body for the booking pre-validation endpoint
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BookingValidationResponse(
+        boolean success,
+        boolean valid,
+        Double totalAmount,
+        String quoteToken,
+        Long numberOfNights,
+        String message) {
+
+    public static BookingValidationResponse of(boolean valid, PriceQuote quote, long numberOfNights) {
+        return new BookingValidationResponse(true, valid, quote.totalAmount(), quote.quoteToken(), numberOfNights,
+                valid ? "Booking request is valid" : "Room is not available for selected dates");
+    }
+
+    public static BookingValidationResponse failed() {
+        return new BookingValidationResponse(false, false, null, null, null, null);
+    }
+}
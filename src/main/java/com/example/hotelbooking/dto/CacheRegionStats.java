@@ -0,0 +1,13 @@
+package com.example.hotelbooking.dto;
+
+/**
+ * Hit/miss counters of one Hibernate cache region since startup
+ */
+public record CacheRegionStats(
+        String region,
+        long hits,
+        long misses,
+        long puts,
+        long elementsInMemory,
+        double hitRatio) {
+}
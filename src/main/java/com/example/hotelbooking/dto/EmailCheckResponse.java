@@ -0,0 +1,7 @@
+package com.example.hotelbooking.dto;
+
+/**
+ * Body for the email availability check
+ */
+public record EmailCheckResponse(boolean success, boolean exists) {
+}
@@ -0,0 +1,20 @@
+package com.example.hotelbooking.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Body for a flexible-date search; start dates with no free room are left out
+ */
+public record FlexibleStaysResponse(
+        boolean success,
+        LocalDate earliestCheckIn,
+        LocalDate latestCheckIn,
+        int numberOfNights,
+        List<StayOption> options) {
+
+    public static FlexibleStaysResponse of(LocalDate earliestCheckIn, LocalDate latestCheckIn, int nights,
+                                           List<StayOption> options) {
+        return new FlexibleStaysResponse(true, earliestCheckIn, latestCheckIn, nights, options);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.hotelbooking.dto;
+
+/**
+ * Body for endpoints that only report an outcome, and for controller-level errors
+ */
+public record MessageResponse(boolean success, String message) {
+
+    public static MessageResponse ok(String message) {
+        return new MessageResponse(true, message);
+    }
+
+    public static MessageResponse error(String message) {
+        return new MessageResponse(false, message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.hotelbooking.dto;
+
+/**
+ * Total price of a stay and a signed quote of the occupancy prices it was
+ * computed with; booking with the quote charges the same total until it expires
+ */
+public record PriceQuote(double totalAmount, String quoteToken) {
+}
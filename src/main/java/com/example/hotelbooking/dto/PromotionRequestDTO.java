@@ -0,0 +1,103 @@
+package com.example.hotelbooking.dto;
+
+import com.example.hotelbooking.model.Promotion;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * A promotion code to add; redemption counts are kept by the server
+ */
+public class PromotionRequestDTO {
+
+    @NotBlank(message = "Promotion code is required")
+    @Size(max = 64)
+    private String code;
+
+    @DecimalMin(value = "0.0", inclusive = false)
+    @DecimalMax(value = "100.0")
+    private double discountPercentage;
+
+    private String roomType; // Null for every room type
+
+    @NotNull(message = "Valid-from date is required")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate validFrom;
+
+    @NotNull(message = "Valid-until date is required")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate validUntil; // Inclusive
+
+    @Min(1)
+    private Integer maxRedemptions; // Null for no cap
+
+    public PromotionRequestDTO() {}
+
+    /**
+     * A new promotion with only the fields an admin may set
+     */
+    public Promotion toPromotion() {
+        Promotion promotion = new Promotion();
+        promotion.setCode(code);
+        promotion.setDiscountPercentage(discountPercentage);
+        promotion.setRoomType(roomType);
+        promotion.setValidFrom(validFrom);
+        promotion.setValidUntil(validUntil);
+        promotion.setMaxRedemptions(maxRedemptions);
+        return promotion;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public double getDiscountPercentage() {
+        return discountPercentage;
+    }
+
+    public void setDiscountPercentage(double discountPercentage) {
+        this.discountPercentage = discountPercentage;
+    }
+
+    public String getRoomType() {
+        return roomType;
+    }
+
+    public void setRoomType(String roomType) {
+        this.roomType = roomType;
+    }
+
+    public LocalDate getValidFrom() {
+        return validFrom;
+    }
+
+    public void setValidFrom(LocalDate validFrom) {
+        this.validFrom = validFrom;
+    }
+
+    public LocalDate getValidUntil() {
+        return validUntil;
+    }
+
+    public void setValidUntil(LocalDate validUntil) {
+        this.validUntil = validUntil;
+    }
+
+    public Integer getMaxRedemptions() {
+        return maxRedemptions;
+    }
+
+    public void setMaxRedemptions(Integer maxRedemptions) {
+        this.maxRedemptions = maxRedemptions;
+    }
+}
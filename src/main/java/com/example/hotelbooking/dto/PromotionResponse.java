@@ -0,0 +1,24 @@
+package com.example.hotelbooking.dto;
+
+import com.example.hotelbooking.model.Promotion;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Body for promotion admin requests: the code just added, or every code
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PromotionResponse(
+        boolean success,
+        Promotion promotion,
+        List<Promotion> promotions) {
+
+    public static PromotionResponse added(Promotion promotion) {
+        return new PromotionResponse(true, promotion, null);
+    }
+
+    public static PromotionResponse of(List<Promotion> promotions) {
+        return new PromotionResponse(true, null, promotions);
+    }
+}
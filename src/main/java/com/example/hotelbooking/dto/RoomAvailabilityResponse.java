@@ -0,0 +1,46 @@
+package com.example.hotelbooking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Body for a single room's availability and total price over a date range;
+ * room and pricePerNight are only sent by the room endpoint, and quoteToken,
+ * which books at the total shown, only when the room is available
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RoomAvailabilityResponse(
+        boolean success,
+        Long roomId,
+        RoomSummary room,
+        boolean available,
+        double totalAmount,
+        String quoteToken,
+        Double pricePerNight,
+        LocalDate checkIn,
+        LocalDate checkOut,
+        long numberOfNights) {
+
+    public static RoomAvailabilityResponse of(Long roomId, PriceQuote quote,
+                                              LocalDate checkIn, LocalDate checkOut) {
+        return new RoomAvailabilityResponse(true, roomId, null, quote != null, totalAmount(quote),
+                quoteToken(quote), null, checkIn, checkOut, ChronoUnit.DAYS.between(checkIn, checkOut));
+    }
+
+    public static RoomAvailabilityResponse of(RoomSummary room, PriceQuote quote,
+                                              LocalDate checkIn, LocalDate checkOut) {
+        return new RoomAvailabilityResponse(true, room.id(), room, quote != null, totalAmount(quote),
+                quoteToken(quote), room.pricePerNight(), checkIn, checkOut,
+                ChronoUnit.DAYS.between(checkIn, checkOut));
+    }
+
+    private static double totalAmount(PriceQuote quote) {
+        return quote == null ? 0.0 : quote.totalAmount();
+    }
+
+    private static String quoteToken(PriceQuote quote) {
+        return quote == null ? null : quote.quoteToken();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.hotelbooking.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Criteria for the room catalog query; null fields do not constrain. With
+ * both dates set, only rooms that are enabled and free for the stay match.
+ */
+public record RoomFilter(
+        String type,
+        Integer minCapacity,
+        Double minPrice,
+        Double maxPrice,
+        boolean discountedOnly,
+        LocalDate checkIn,
+        LocalDate checkOut) {
+
+    public static RoomFilter forDates(LocalDate checkIn, LocalDate checkOut) {
+        return new RoomFilter(null, null, null, null, false, checkIn, checkOut);
+    }
+
+    public static RoomFilter none() {
+        return new RoomFilter(null, null, null, null, false, null, null);
+    }
+
+    /**
+     * The same attribute criteria for another stay
+     */
+    public RoomFilter withDates(LocalDate checkIn, LocalDate checkOut) {
+        return new RoomFilter(type, minCapacity, minPrice, maxPrice, discountedOnly, checkIn, checkOut);
+    }
+
+    public boolean dateSpecific() {
+        return checkIn != null && checkOut != null;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.hotelbooking.dto;
+
+/**
+ * Body for a single room
+ */
+public record RoomResponse(boolean success, RoomSummary room) {
+
+    public static RoomResponse of(RoomSummary room) {
+        return new RoomResponse(true, room);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.hotelbooking.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Body for one page of rooms, from text search or the filtered catalog query
+ */
+public record RoomSearchResponse(
+        boolean success,
+        List<RoomSummary> rooms,
+        int page,
+        int size,
+        long totalResults,
+        int totalPages) {
+
+    public static RoomSearchResponse of(Page<RoomSummary> rooms) {
+        return new RoomSearchResponse(true, rooms.getContent(), rooms.getNumber(), rooms.getSize(),
+                rooms.getTotalElements(), rooms.getTotalPages());
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.hotelbooking.dto;
+
+import java.util.Comparator;
+
+/**
+ * Orders for the room catalog query; ties always break on id so pages are stable
+ */
+public enum RoomSort {
+
+    ID(Comparator.comparing(RoomSummary::id)),
+    PRICE_ASC(Comparator.comparingDouble(RoomSummary::pricePerNight).thenComparing(RoomSummary::id)),
+    PRICE_DESC(Comparator.comparingDouble(RoomSummary::pricePerNight).reversed().thenComparing(RoomSummary::id)),
+    DISCOUNT_DESC(Comparator.comparingDouble(RoomSummary::discountPercentage).reversed().thenComparing(RoomSummary::id));
+
+    private final Comparator<RoomSummary> comparator;
+
+    RoomSort(Comparator<RoomSummary> comparator) {
+        this.comparator = comparator;
+    }
+
+    public Comparator<RoomSummary> comparator() {
+        return comparator;
+    }
+}
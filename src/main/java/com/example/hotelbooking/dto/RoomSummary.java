@@ -0,0 +1,24 @@
+package com.example.hotelbooking.dto;
+
+import com.example.hotelbooking.model.Room;
+
+/**
+ * Read model for room listings, selected directly by JPQL constructor expressions
+ */
+public record RoomSummary(
+        Long id,
+        String roomNumber,
+        String type,
+        int capacity,
+        double pricePerNight,
+        double discountPercentage,
+        boolean available,
+        String description,
+        String imageUrl) {
+
+    public static RoomSummary of(Room room) {
+        return new RoomSummary(room.getId(), room.getRoomNumber(), room.getType(), room.getCapacity(),
+                room.getPricePerNight(), room.getDiscountPercentage(), room.isAvailable(),
+                room.getDescription(), room.getImageUrl());
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.hotelbooking.dto;
+
+import com.example.hotelbooking.model.PaymentMethod;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Booking request for any free room of a type; the allocator picks the room
+ */
+public class RoomTypeBookingRequestDTO {
+
+    @NotNull(message = "User ID is required")
+    private Long userId;
+
+    @NotBlank(message = "Room type is required")
+    private String roomType;
+
+    @NotNull(message = "Check-in date is required")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate checkIn;
+
+    @NotNull(message = "Check-out date is required")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate checkOut;
+
+    @NotNull(message = "Payment method is required")
+    private PaymentMethod paymentMethod;
+
+    @AssertTrue(message = "Check-out date must be after check-in date")
+    public boolean isValidDateRange() {
+        if (checkIn == null || checkOut == null) {
+            return true; // Let @NotNull handle null validation
+        }
+        return checkIn.isBefore(checkOut);
+    }
+
+    public RoomTypeBookingRequestDTO() {}
+
+    public RoomTypeBookingRequestDTO(Long userId, String roomType, LocalDate checkIn, LocalDate checkOut,
+                                     PaymentMethod paymentMethod) {
+        this.userId = userId;
+        this.roomType = roomType;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+        this.paymentMethod = paymentMethod;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getRoomType() {
+        return roomType;
+    }
+
+    public void setRoomType(String roomType) {
+        this.roomType = roomType;
+    }
+
+    public LocalDate getCheckIn() {
+        return checkIn;
+    }
+
+    public void setCheckIn(LocalDate checkIn) {
+        this.checkIn = checkIn;
+    }
+
+    public LocalDate getCheckOut() {
+        return checkOut;
+    }
+
+    public void setCheckOut(LocalDate checkOut) {
+        this.checkOut = checkOut;
+    }
+
+    public PaymentMethod getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(PaymentMethod paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+
+    public long getNumberOfNights() {
+        if (checkIn != null && checkOut != null) {
+            return java.time.temporal.ChronoUnit.DAYS.between(checkIn, checkOut);
+        }
+        return 0;
+    }
+}
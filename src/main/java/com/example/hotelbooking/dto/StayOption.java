@@ -0,0 +1,18 @@
+package com.example.hotelbooking.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One feasible start date of a flexible-date search: how many rooms are free
+ * for the whole stay, the lowest total price among them, and the cheapest rooms;
+ * quoteToken books any of them at the prices shown
+ */
+public record StayOption(
+        LocalDate checkIn,
+        LocalDate checkOut,
+        long availableRooms,
+        double lowestTotalPrice,
+        String quoteToken,
+        List<RoomSummary> rooms) {
+}
@@ -0,0 +1,97 @@
+package com.example.hotelbooking.dto;
+
+import com.example.hotelbooking.model.StayRestriction;
+import com.example.hotelbooking.model.StayRestrictionKind;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * A stay restriction to add, for one room or every room of a type
+ */
+public class StayRestrictionRequestDTO {
+
+    @NotNull(message = "Restriction kind is required")
+    private StayRestrictionKind kind;
+
+    private Long roomId; // Either a room...
+
+    private String roomType; // ...or every room of a type
+
+    @NotNull(message = "Start date is required")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date is required")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate endDate; // Inclusive
+
+    @Min(2)
+    private Integer minNights; // MIN_STAY only
+
+    public StayRestrictionRequestDTO() {}
+
+    /**
+     * A new restriction with only the fields an admin may set
+     */
+    public StayRestriction toRestriction() {
+        StayRestriction restriction = new StayRestriction();
+        restriction.setKind(kind);
+        restriction.setRoomId(roomId);
+        restriction.setRoomType(roomType);
+        restriction.setStartDate(startDate);
+        restriction.setEndDate(endDate);
+        restriction.setMinNights(minNights);
+        return restriction;
+    }
+
+    public StayRestrictionKind getKind() {
+        return kind;
+    }
+
+    public void setKind(StayRestrictionKind kind) {
+        this.kind = kind;
+    }
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public String getRoomType() {
+        return roomType;
+    }
+
+    public void setRoomType(String roomType) {
+        this.roomType = roomType;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public Integer getMinNights() {
+        return minNights;
+    }
+
+    public void setMinNights(Integer minNights) {
+        this.minNights = minNights;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.hotelbooking.dto;
+
+import com.example.hotelbooking.model.StayRestriction;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Body for stay restriction admin requests, with the rules version the
+ * change produced on this instance
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StayRestrictionResponse(
+        boolean success,
+        String message,
+        StayRestriction restriction,
+        List<StayRestriction> restrictions,
+        long version) {
+
+    public static StayRestrictionResponse of(List<StayRestriction> restrictions, long version) {
+        return new StayRestrictionResponse(true, null, null, restrictions, version);
+    }
+
+    public static StayRestrictionResponse added(StayRestriction restriction, long version) {
+        return new StayRestrictionResponse(true, null, restriction, null, version);
+    }
+
+    public static StayRestrictionResponse deleted(long version) {
+        return new StayRestrictionResponse(true, "Stay restriction deleted", null, null, version);
+    }
+}
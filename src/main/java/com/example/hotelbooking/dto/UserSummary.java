@@ -0,0 +1,14 @@
+package com.example.hotelbooking.dto;
+
+import com.example.hotelbooking.model.Role;
+
+/**
+ * Read-only view of a user for admin listings and search results
+ */
+public record UserSummary(
+        Long id,
+        String username,
+        String fullName,
+        String email,
+        Role role) {
+}
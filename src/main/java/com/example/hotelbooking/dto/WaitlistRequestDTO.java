@@ -0,0 +1,79 @@
+package com.example.hotelbooking.dto;
+
+import com.example.hotelbooking.model.PaymentMethod;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Request to wait for a sold-out stay, in one room or any room of a type
+ */
+public class WaitlistRequestDTO {
+
+    private Long roomId; // Either a room...
+
+    private String roomType; // ...or any room of a type
+
+    @NotNull(message = "Check-in date is required")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate checkIn;
+
+    @NotNull(message = "Check-out date is required")
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    private LocalDate checkOut;
+
+    @NotNull(message = "Payment method is required")
+    private PaymentMethod paymentMethod;
+
+    @AssertTrue(message = "Check-out date must be after check-in date")
+    public boolean isValidDateRange() {
+        if (checkIn == null || checkOut == null) {
+            return true; // Let @NotNull handle null validation
+        }
+        return checkIn.isBefore(checkOut);
+    }
+
+    public WaitlistRequestDTO() {}
+
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    public String getRoomType() {
+        return roomType;
+    }
+
+    public void setRoomType(String roomType) {
+        this.roomType = roomType;
+    }
+
+    public LocalDate getCheckIn() {
+        return checkIn;
+    }
+
+    public void setCheckIn(LocalDate checkIn) {
+        this.checkIn = checkIn;
+    }
+
+    public LocalDate getCheckOut() {
+        return checkOut;
+    }
+
+    public void setCheckOut(LocalDate checkOut) {
+        this.checkOut = checkOut;
+    }
+
+    public PaymentMethod getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public void setPaymentMethod(PaymentMethod paymentMethod) {
+        this.paymentMethod = paymentMethod;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.hotelbooking.dto;
+
+import com.example.hotelbooking.model.WaitlistEntry;
+import com.example.hotelbooking.model.WaitlistStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Body for waitlist requests: the entry just joined, or the customer's entries
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record WaitlistResponse(
+        boolean success,
+        String message,
+        WaitlistEntry entry,
+        List<WaitlistEntry> entries) {
+
+    public static WaitlistResponse joined(WaitlistEntry entry) {
+        String message = entry.getStatus() == WaitlistStatus.OFFERED
+            ? "A room is being held for you until " + entry.getHoldExpiresAt()
+            : "Added to the waitlist";
+        return new WaitlistResponse(true, message, entry, null);
+    }
+
+    public static WaitlistResponse of(List<WaitlistEntry> entries) {
+        return new WaitlistResponse(true, null, null, entries);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.hotelbooking.event;
+
+import com.example.hotelbooking.model.Booking;
+
+import java.time.LocalDate;
+
+/**
+ * Published when a booking starts or stops holding a room for its dates
+ */
+public record BookingChangedEvent(
+        Long bookingId,
+        Long roomId,
+        LocalDate checkInDate,
+        LocalDate checkOutDate,
+        Change change) {
+
+    public enum Change {
+        BOOKED,
+        RELEASED
+    }
+
+    public static BookingChangedEvent booked(Booking booking) {
+        return of(booking, Change.BOOKED);
+    }
+
+    public static BookingChangedEvent released(Booking booking) {
+        return of(booking, Change.RELEASED);
+    }
+
+    /**
+     * Nights a changed booking took on, when it still holds its other nights
+     */
+    public static BookingChangedEvent booked(Booking booking, LocalDate from, LocalDate to) {
+        return new BookingChangedEvent(booking.getId(), booking.getRoom().getId(), from, to, Change.BOOKED);
+    }
+
+    /**
+     * Nights a changed booking gave up, when it still holds its other nights
+     */
+    public static BookingChangedEvent released(Booking booking, LocalDate from, LocalDate to) {
+        return new BookingChangedEvent(booking.getId(), booking.getRoom().getId(), from, to, Change.RELEASED);
+    }
+
+    private static BookingChangedEvent of(Booking booking, Change change) {
+        return new BookingChangedEvent(booking.getId(), booking.getRoom().getId(),
+                booking.getCheckInDate(), booking.getCheckOutDate(), change);
+    }
+}
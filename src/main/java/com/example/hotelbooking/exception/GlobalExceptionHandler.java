@@ -2,6 +2,7 @@ package com.example.hotelbooking.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -81,6 +82,43 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    @ExceptionHandler(PriceQuoteExpiredException.class)
+    public ResponseEntity<ErrorResponse> handlePriceQuoteExpired(PriceQuoteExpiredException ex) {
+        logger.warn("Price quote expired: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse("PRICE_QUOTE_EXPIRED", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(StayRestrictedException.class)
+    public ResponseEntity<ErrorResponse> handleStayRestricted(StayRestrictedException ex) {
+        logger.warn("Stay restricted: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse("STAY_RESTRICTED", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(PromotionNotApplicableException.class)
+    public ResponseEntity<ErrorResponse> handlePromotionNotApplicable(PromotionNotApplicableException ex) {
+        logger.warn("Promotion not applicable: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse("PROMOTION_NOT_APPLICABLE", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
+
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingUnavailable(PasswordHashingUnavailableException ex) {
+        logger.warn("Password hashing unavailable: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse("SERVICE_BUSY", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+    }
+
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<ErrorResponse> handleLoginThrottled(LoginThrottledException ex) {
+        logger.warn("Login throttled: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse("TOO_MANY_REQUESTS", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
     @ExceptionHandler(AccessDeniedException.class)
     public ResponseEntity<ErrorResponse> handleAccessDenied(AccessDeniedException ex) {
         logger.warn("Access denied: {}", ex.getMessage());
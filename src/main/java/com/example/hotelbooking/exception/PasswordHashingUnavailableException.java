@@ -0,0 +1,7 @@
+package com.example.hotelbooking.exception;
+
+public class PasswordHashingUnavailableException extends BusinessException {
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.hotelbooking.exception;
+
+public class PriceQuoteExpiredException extends BusinessException {
+    public PriceQuoteExpiredException(String message) {
+        super(message);
+    }
+}
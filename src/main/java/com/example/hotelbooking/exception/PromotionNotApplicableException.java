@@ -0,0 +1,7 @@
+package com.example.hotelbooking.exception;
+
+public class PromotionNotApplicableException extends BusinessException {
+    public PromotionNotApplicableException(String message) {
+        super(message);
+    }
+}
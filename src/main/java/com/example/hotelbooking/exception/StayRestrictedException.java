@@ -0,0 +1,7 @@
+package com.example.hotelbooking.exception;
+
+public class StayRestrictedException extends BusinessException {
+    public StayRestrictedException(String message) {
+        super(message);
+    }
+}
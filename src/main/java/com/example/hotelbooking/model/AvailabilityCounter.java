@@ -0,0 +1,33 @@
+package com.example.hotelbooking.model;
+
+import jakarta.persistence.*;
+import lombok.NoArgsConstructor;
+
+/**
+ * One shard of the shared count of committed booking changes
+ */
+@Entity
+@NoArgsConstructor
+public class AvailabilityCounter {
+
+    @Id
+    private Integer shard;
+
+    private long changes;
+
+	public Integer getShard() {
+		return shard;
+	}
+
+	public void setShard(Integer shard) {
+		this.shard = shard;
+	}
+
+	public long getChanges() {
+		return changes;
+	}
+
+	public void setChanges(long changes) {
+		this.changes = changes;
+	}
+}
@@ -9,6 +9,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
+@NamedEntityGraph(name = "Booking.userAndRoom", attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("room")
+})
 @NoArgsConstructor
 public class Booking {
 
@@ -16,11 +20,11 @@ public class Booking {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
     @JoinColumn(name = "room_id")
     private Room room;
 
@@ -47,6 +51,8 @@ public class Booking {
     // Optional: notes, special requests, etc.
     private String notes;
 
+    private String promoCode; // Promotion code redeemed by the booking, if any
+
 	public Long getId() {
 		return id;
 	}
@@ -126,6 +132,14 @@ public class Booking {
 	public void setNotes(String notes) {
 		this.notes = notes;
 	}
+
+	public String getPromoCode() {
+		return promoCode;
+	}
+
+	public void setPromoCode(String promoCode) {
+		this.promoCode = promoCode;
+	}
     
     
 }
@@ -0,0 +1,124 @@
+package com.example.hotelbooking.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Entity
+@NoArgsConstructor
+public class Promotion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank(message = "Promotion code is required")
+    @Size(max = 64)
+    @Column(unique = true)
+    private String code; // Stored upper-case
+
+    @DecimalMin(value = "0.0", inclusive = false)
+    @DecimalMax(value = "100.0")
+    private double discountPercentage; // e.g., 15 for 15%, on top of the room's own discount
+
+    private String roomType; // Null for every room type
+
+    @NotNull(message = "Valid-from date is required")
+    private LocalDate validFrom;
+
+    @NotNull(message = "Valid-until date is required")
+    private LocalDate validUntil; // Inclusive
+
+    @Min(1)
+    private Integer maxRedemptions; // Null for no cap
+
+    // Redemptions handed out to instances; never exceeds maxRedemptions
+    private int claimedRedemptions;
+
+    // Redemptions used by bookings, written back in batches
+    private int redemptions;
+
+    private boolean active = true;
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	public void setCode(String code) {
+		this.code = code;
+	}
+
+	public double getDiscountPercentage() {
+		return discountPercentage;
+	}
+
+	public void setDiscountPercentage(double discountPercentage) {
+		this.discountPercentage = discountPercentage;
+	}
+
+	public String getRoomType() {
+		return roomType;
+	}
+
+	public void setRoomType(String roomType) {
+		this.roomType = roomType;
+	}
+
+	public LocalDate getValidFrom() {
+		return validFrom;
+	}
+
+	public void setValidFrom(LocalDate validFrom) {
+		this.validFrom = validFrom;
+	}
+
+	public LocalDate getValidUntil() {
+		return validUntil;
+	}
+
+	public void setValidUntil(LocalDate validUntil) {
+		this.validUntil = validUntil;
+	}
+
+	public Integer getMaxRedemptions() {
+		return maxRedemptions;
+	}
+
+	public void setMaxRedemptions(Integer maxRedemptions) {
+		this.maxRedemptions = maxRedemptions;
+	}
+
+	public int getClaimedRedemptions() {
+		return claimedRedemptions;
+	}
+
+	public void setClaimedRedemptions(int claimedRedemptions) {
+		this.claimedRedemptions = claimedRedemptions;
+	}
+
+	public int getRedemptions() {
+		return redemptions;
+	}
+
+	public void setRedemptions(int redemptions) {
+		this.redemptions = redemptions;
+	}
+
+	public boolean isActive() {
+		return active;
+	}
+
+	public void setActive(boolean active) {
+		this.active = active;
+	}
+}
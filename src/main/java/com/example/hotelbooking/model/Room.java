@@ -4,8 +4,12 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "rooms")
 @NoArgsConstructor
 public class Room {
 
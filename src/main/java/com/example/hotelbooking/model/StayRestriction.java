@@ -0,0 +1,89 @@
+package com.example.hotelbooking.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.*;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Entity
+@NoArgsConstructor
+public class StayRestriction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @NotNull(message = "Restriction kind is required")
+    private StayRestrictionKind kind;
+
+    private Long roomId; // Set for a rule on one room
+
+    private String roomType; // Set for a rule on every room of a type
+
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date is required")
+    private LocalDate endDate; // Inclusive
+
+    @Min(2)
+    private Integer minNights; // MIN_STAY only
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public StayRestrictionKind getKind() {
+		return kind;
+	}
+
+	public void setKind(StayRestrictionKind kind) {
+		this.kind = kind;
+	}
+
+	public Long getRoomId() {
+		return roomId;
+	}
+
+	public void setRoomId(Long roomId) {
+		this.roomId = roomId;
+	}
+
+	public String getRoomType() {
+		return roomType;
+	}
+
+	public void setRoomType(String roomType) {
+		this.roomType = roomType;
+	}
+
+	public LocalDate getStartDate() {
+		return startDate;
+	}
+
+	public void setStartDate(LocalDate startDate) {
+		this.startDate = startDate;
+	}
+
+	public LocalDate getEndDate() {
+		return endDate;
+	}
+
+	public void setEndDate(LocalDate endDate) {
+		this.endDate = endDate;
+	}
+
+	public Integer getMinNights() {
+		return minNights;
+	}
+
+	public void setMinNights(Integer minNights) {
+		this.minNights = minNights;
+	}
+}
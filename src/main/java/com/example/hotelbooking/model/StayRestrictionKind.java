@@ -0,0 +1,8 @@
+package com.example.hotelbooking.model;
+
+public enum StayRestrictionKind {
+    MIN_STAY,             // Stays arriving on these dates must last at least minNights
+    CLOSED_TO_ARRIVAL,    // No check-in on these dates
+    CLOSED_TO_DEPARTURE,  // No check-out on these dates
+    BLACKOUT              // No stay may include these nights
+}
@@ -0,0 +1,9 @@
+package com.example.hotelbooking.model;
+
+public enum WaitlistStatus {
+    WAITING,
+    OFFERED, // Holding a room for the customer until holdExpiresAt
+    BOOKED,
+    EXPIRED,
+    CANCELLED
+}
@@ -0,0 +1,25 @@
+package com.example.hotelbooking.repository;
+
+import com.example.hotelbooking.model.AvailabilityCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface AvailabilityCounterRepository extends JpaRepository<AvailabilityCounter, Integer> {
+
+    // Counts one booking change; joins the booking's transaction, so it commits or rolls back with it
+    @Modifying
+    @Transactional
+    @Query("UPDATE AvailabilityCounter c SET c.changes = c.changes + 1 WHERE c.shard = :shard")
+    int increment(@Param("shard") int shard);
+
+    // Committed booking changes across all instances; read from the primary, since a
+    // lagging replica would hide a change this instance just made
+    @Transactional
+    @Query("SELECT COALESCE(SUM(c.changes), 0) FROM AvailabilityCounter c")
+    long sumChanges();
+}
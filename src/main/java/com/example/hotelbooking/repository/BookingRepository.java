@@ -1,34 +1,96 @@
 package com.example.hotelbooking.repository;
 
+import com.example.hotelbooking.dto.BookedStay;
+import com.example.hotelbooking.dto.BookingSummary;
 import com.example.hotelbooking.model.Booking;
 import com.example.hotelbooking.model.BookingStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     
-    // Find bookings by user ID with ordering
-    List<Booking> findByUserIdOrderByBookingDateDesc(Long userId);
+    // Constructor expression shared by the summary projections below
+    String BOOKING_SUMMARY_SELECT = "SELECT new com.example.hotelbooking.dto.BookingSummary(" +
+           "b.id, u.id, u.fullName, u.email, r.id, r.roomNumber, r.type, b.checkInDate, b.checkOutDate, " +
+           "b.totalPrice, b.paymentMethod, b.status, b.bookingDate) " +
+           "FROM Booking b JOIN b.user u JOIN b.room r ";
     
-    // Find bookings by user ID with pagination
-    Page<Booking> findByUserIdOrderByBookingDateDesc(Long userId, Pageable pageable);
+    // Keyset condition: rows strictly after the cursor in (bookingDate, id) descending order
+    String AFTER_CURSOR = "(b.bookingDate < :bookingDate OR (b.bookingDate = :bookingDate AND b.id < :id)) ";
+    String NEWEST_FIRST = "ORDER BY b.bookingDate DESC, b.id DESC";
+    
+    // First page of booking summaries, newest first
+    @Query(BOOKING_SUMMARY_SELECT + NEWEST_FIRST)
+    List<BookingSummary> findSummaries(Limit limit);
+    
+    // Booking summaries after a keyset cursor, newest first
+    @Query(BOOKING_SUMMARY_SELECT + "WHERE " + AFTER_CURSOR + NEWEST_FIRST)
+    List<BookingSummary> findSummariesAfter(@Param("bookingDate") LocalDateTime bookingDate,
+                                            @Param("id") Long id,
+                                            Limit limit);
+    
+    // First page of a user's booking summaries, newest first
+    @Query(BOOKING_SUMMARY_SELECT + "WHERE b.user.id = :userId " + NEWEST_FIRST)
+    List<BookingSummary> findSummariesByUserId(@Param("userId") Long userId, Limit limit);
+    
+    // A user's booking summaries after a keyset cursor, newest first
+    @Query(BOOKING_SUMMARY_SELECT + "WHERE b.user.id = :userId AND " + AFTER_CURSOR + NEWEST_FIRST)
+    List<BookingSummary> findSummariesByUserIdAfter(@Param("userId") Long userId,
+                                                    @Param("bookingDate") LocalDateTime bookingDate,
+                                                    @Param("id") Long id,
+                                                    Limit limit);
+    
+    // First page of booking summaries for any of the given users, newest first
+    @Query(BOOKING_SUMMARY_SELECT + "WHERE b.user.id IN :userIds " + NEWEST_FIRST)
+    List<BookingSummary> findSummariesByUserIdIn(@Param("userIds") Collection<Long> userIds, Limit limit);
+    
+    // Booking summaries for any of the given users after a keyset cursor, newest first
+    @Query(BOOKING_SUMMARY_SELECT + "WHERE b.user.id IN :userIds AND " + AFTER_CURSOR + NEWEST_FIRST)
+    List<BookingSummary> findSummariesByUserIdInAfter(@Param("userIds") Collection<Long> userIds,
+                                                      @Param("bookingDate") LocalDateTime bookingDate,
+                                                      @Param("id") Long id,
+                                                      Limit limit);
+    
+    // First page of booking summaries with a status, newest first
+    @Query(BOOKING_SUMMARY_SELECT + "WHERE b.status = :status " + NEWEST_FIRST)
+    List<BookingSummary> findSummariesByStatus(@Param("status") BookingStatus status, Limit limit);
+    
+    // Booking summaries with a status after a keyset cursor, newest first
+    @Query(BOOKING_SUMMARY_SELECT + "WHERE b.status = :status AND " + AFTER_CURSOR + NEWEST_FIRST)
+    List<BookingSummary> findSummariesByStatusAfter(@Param("status") BookingStatus status,
+                                                    @Param("bookingDate") LocalDateTime bookingDate,
+                                                    @Param("id") Long id,
+                                                    Limit limit);
+    
+    // Find a booking with its user and room fetched in the same select
+    @EntityGraph("Booking.userAndRoom")
+    Optional<Booking> findWithUserAndRoomById(Long id);
     
     // Find bookings by user ID and status
+    @EntityGraph(attributePaths = "room")
     List<Booking> findByUserIdAndStatus(Long userId, BookingStatus status);
     
     // Find bookings by user ID and status with pagination
+    @EntityGraph(attributePaths = "room")
     Page<Booking> findByUserIdAndStatus(Long userId, BookingStatus status, Pageable pageable);
     
-    // Count bookings by user ID and status
-    long countByUserIdAndStatus(Long userId, BookingStatus status);
+    // Count bookings by user ID and status (filters on the foreign key, no join to user)
+    @Query("SELECT COUNT(b) FROM Booking b WHERE b.user.id = :userId AND b.status = :status")
+    long countByUserIdAndStatus(@Param("userId") Long userId, @Param("status") BookingStatus status);
     
     // Find conflicting bookings for a room in a date range
     @Query("SELECT b FROM Booking b WHERE b.room.id = :roomId AND " +
@@ -47,7 +109,33 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                                @Param("checkIn") LocalDate checkIn,
                                                @Param("checkOut") LocalDate checkOut);
     
+    // Ids of rooms with an active booking overlapping the date range; read-only
+    // on its own so it can go to a replica when called outside a transaction
+    @Transactional(readOnly = true)
+    @Query("SELECT DISTINCT b.room.id FROM Booking b WHERE " +
+           "b.status IN ('CONFIRMED', 'PENDING') AND " +
+           "b.checkInDate < :checkOut AND b.checkOutDate > :checkIn")
+    List<Long> findBookedRoomIds(@Param("checkIn") LocalDate checkIn,
+                                 @Param("checkOut") LocalDate checkOut);
+    
+    // Active bookings overlapping the date range, as room and nights only
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.example.hotelbooking.dto.BookedStay(b.id, b.room.id, b.checkInDate, b.checkOutDate) " +
+           "FROM Booking b WHERE b.status IN ('CONFIRMED', 'PENDING') AND " +
+           "b.checkInDate < :checkOut AND b.checkOutDate > :checkIn")
+    List<BookedStay> findBookedStays(@Param("checkIn") LocalDate checkIn,
+                                     @Param("checkOut") LocalDate checkOut);
+    
+    // Active bookings of the given rooms overlapping the date range, as room and nights only
+    @Query("SELECT new com.example.hotelbooking.dto.BookedStay(b.id, b.room.id, b.checkInDate, b.checkOutDate) " +
+           "FROM Booking b WHERE b.room.id IN :roomIds AND b.status IN ('CONFIRMED', 'PENDING') AND " +
+           "b.checkInDate < :checkOut AND b.checkOutDate > :checkIn")
+    List<BookedStay> findBookedStaysForRooms(@Param("roomIds") Collection<Long> roomIds,
+                                             @Param("checkIn") LocalDate checkIn,
+                                             @Param("checkOut") LocalDate checkOut);
+    
     // Find bookings by room ID
+    @EntityGraph(attributePaths = "user")
     List<Booking> findByRoomIdOrderByCheckInDateDesc(Long roomId);
     
     // Find bookings within date range
@@ -55,16 +143,6 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findBookingsByDateRange(@Param("startDate") LocalDate startDate,
                                          @Param("endDate") LocalDate endDate);
     
-    // Find bookings by status with pagination
-    Page<Booking> findByStatusOrderByBookingDateDesc(BookingStatus status, Pageable pageable);
-    
-    // Search bookings by user name or email
-    @Query("SELECT b FROM Booking b WHERE " +
-           "LOWER(b.user.fullName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(b.user.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(b.user.username) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<Booking> searchBookingsByUser(@Param("searchTerm") String searchTerm, Pageable pageable);
-    
     // Find upcoming bookings (check-in date is today or later)
     @Query("SELECT b FROM Booking b WHERE b.checkInDate >= :today AND b.status = 'CONFIRMED'")
     List<Booking> findUpcomingBookings(@Param("today") LocalDate today);
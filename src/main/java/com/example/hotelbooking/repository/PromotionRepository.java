@@ -0,0 +1,51 @@
+package com.example.hotelbooking.repository;
+
+import com.example.hotelbooking.model.Promotion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PromotionRepository extends JpaRepository<Promotion, Long> {
+
+    // Codes that can currently be redeemed, oldest first
+    List<Promotion> findByActiveTrueOrderById();
+
+    boolean existsByCode(String code);
+
+    Optional<Promotion> findByCode(String code);
+
+    // Redemptions handed out to instances so far; read on the primary, outside any
+    // booking transaction, just before a claim
+    @Transactional
+    @Query("SELECT p.claimedRedemptions FROM Promotion p WHERE p.id = :id")
+    Optional<Integer> findClaimedRedemptions(@Param("id") Long id);
+
+    // Compare-and-set: hands out more redemptions only if nobody else claimed since
+    // claimed was read, and never past the cap. Runs before the booking that needs
+    // it starts its transaction, so a claim costs the redeemer one connection only.
+    @Modifying
+    @Transactional
+    @Query("UPDATE Promotion p SET p.claimedRedemptions = p.claimedRedemptions + :count " +
+           "WHERE p.id = :id AND p.claimedRedemptions = :claimed " +
+           "AND p.claimedRedemptions + :count <= p.maxRedemptions")
+    int claimRedemptions(@Param("id") Long id, @Param("claimed") int claimed, @Param("count") int count);
+
+    // Gives back claimed redemptions an instance did not use
+    @Modifying
+    @Transactional
+    @Query("UPDATE Promotion p SET p.claimedRedemptions = p.claimedRedemptions - :count WHERE p.id = :id")
+    int releaseRedemptions(@Param("id") Long id, @Param("count") int count);
+
+    // Batched write-back of redemptions used since the last flush
+    @Modifying
+    @Transactional
+    @Query("UPDATE Promotion p SET p.redemptions = p.redemptions + :count WHERE p.id = :id")
+    int addRedemptions(@Param("id") Long id, @Param("count") int count);
+}
@@ -1,10 +1,11 @@
 package com.example.hotelbooking.repository;
 
+import com.example.hotelbooking.dto.RoomSummary;
 import com.example.hotelbooking.model.Room;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -12,16 +13,36 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
     
+    // Query cache region for the stable room queries (sized in ehcache.xml)
+    String ROOM_QUERY_REGION = "room-queries";
+    
+    // Constructor expression shared by the summary projections below
+    String ROOM_SUMMARY_SELECT = "SELECT new com.example.hotelbooking.dto.RoomSummary(" +
+           "r.id, r.roomNumber, r.type, r.capacity, r.pricePerNight, r.discountPercentage, " +
+           "r.available, r.description, r.imageUrl) FROM Room r ";
+    
+    // Find all room summaries
+    @Query(ROOM_SUMMARY_SELECT + "ORDER BY r.id")
+    List<RoomSummary> findAllSummaries();
+    
+    
     // Find room by room number
     Optional<Room> findByRoomNumber(String roomNumber);
     
-    // Find available rooms
+    // Find available rooms (query cache)
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+                  @QueryHint(name = HINT_CACHE_REGION, value = ROOM_QUERY_REGION) })
     List<Room> findByAvailableTrue();
     
-    // Find rooms by type
+    // Find rooms by type (query cache)
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+                  @QueryHint(name = HINT_CACHE_REGION, value = ROOM_QUERY_REGION) })
     List<Room> findByTypeIgnoreCase(String type);
     
     // Find rooms by type and availability
@@ -65,14 +86,9 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
                                            @Param("checkOut") LocalDate checkOut,
                                            @Param("capacity") int capacity);
     
-    // Search rooms by description or type
-    @Query("SELECT r FROM Room r WHERE " +
-           "LOWER(r.type) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(r.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "r.roomNumber LIKE CONCAT('%', :searchTerm, '%')")
-    Page<Room> searchRooms(@Param("searchTerm") String searchTerm, Pageable pageable);
-    
-    // Find rooms ordered by price
+    // Find rooms ordered by price (query cache)
+    @QueryHints({ @QueryHint(name = HINT_CACHEABLE, value = "true"),
+                  @QueryHint(name = HINT_CACHE_REGION, value = ROOM_QUERY_REGION) })
     List<Room> findByAvailableTrueOrderByPricePerNightAsc();
     List<Room> findByAvailableTrueOrderByPricePerNightDesc();
     
@@ -0,0 +1,15 @@
+package com.example.hotelbooking.repository;
+
+import com.example.hotelbooking.model.StayRestriction;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface StayRestrictionRepository extends JpaRepository<StayRestriction, Long> {
+
+    // Rules still in effect on or after the date, oldest first
+    List<StayRestriction> findByEndDateGreaterThanEqualOrderById(LocalDate date);
+}
@@ -1,5 +1,6 @@
 package com.example.hotelbooking.repository;
 
+import com.example.hotelbooking.dto.UserSummary;
 import com.example.hotelbooking.model.Role;
 import com.example.hotelbooking.model.User;
 import org.springframework.data.domain.Page;
@@ -9,12 +10,18 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     
+    // Constructor expression shared by the summary projections below
+    String USER_SUMMARY_SELECT = "SELECT new com.example.hotelbooking.dto.UserSummary(" +
+           "u.id, u.username, u.fullName, u.email, u.role) FROM User u ";
+    
     // Find user by email
     Optional<User> findByEmail(String email);
     
@@ -28,6 +35,22 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Check if email exists
     boolean existsByEmail(String email);
     
+    // Stream the emails of users with ids in (afterId, upToId] (used to build and refresh the email filter)
+    @Query("SELECT u.email FROM User u WHERE u.id > :afterId AND u.id <= :upToId AND u.email IS NOT NULL")
+    Stream<String> streamEmailsBetween(@Param("afterId") Long afterId, @Param("upToId") Long upToId);
+    
+    // Highest user id (used to refresh the email filter incrementally)
+    @Query("SELECT COALESCE(MAX(u.id), 0) FROM User u")
+    Long findMaxId();
+    
+    // Stream every user summary (used to build the search index)
+    @Query(USER_SUMMARY_SELECT)
+    Stream<UserSummary> streamAllSummaries();
+    
+    // Find summaries of the given users (used to resolve search hits)
+    @Query(USER_SUMMARY_SELECT + "WHERE u.id IN :ids")
+    List<UserSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
     // Check if username exists
     boolean existsByUsername(String username);
     
@@ -37,13 +60,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Find users by role with pagination
     Page<User> findByRole(Role role, Pageable pageable);
     
-    // Search users by name or email
-    @Query("SELECT u FROM User u WHERE " +
-           "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(u.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(u.username) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<User> searchUsers(@Param("searchTerm") String searchTerm, Pageable pageable);
-    
     // Find users with low account balance
     @Query("SELECT u FROM User u WHERE u.accountBalance < :threshold AND u.role = 'CUSTOMER'")
     List<User> findUsersWithLowBalance(@Param("threshold") Double threshold);
@@ -0,0 +1,35 @@
+package com.example.hotelbooking.repository;
+
+import com.example.hotelbooking.model.WaitlistEntry;
+import com.example.hotelbooking.model.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    // Entries in a status, oldest first
+    List<WaitlistEntry> findByStatusOrderById(WaitlistStatus status);
+
+    // A customer's entries, newest first
+    List<WaitlistEntry> findByUserIdOrderByIdDesc(Long userId);
+
+    long countByUserIdAndStatusIn(Long userId, Collection<WaitlistStatus> statuses);
+
+    // Offers whose hold has run out
+    List<WaitlistEntry> findByStatusAndHoldExpiresAtBefore(WaitlistStatus status, LocalDateTime time);
+
+    // An entry locked against being offered or changed by anyone else meanwhile
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM WaitlistEntry w WHERE w.id = :id")
+    Optional<WaitlistEntry> findForUpdateById(@Param("id") Long id);
+}
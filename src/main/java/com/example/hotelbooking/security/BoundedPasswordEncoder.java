@@ -0,0 +1,151 @@
+package com.example.hotelbooking.security;
+
+import com.example.hotelbooking.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password hashing and verification on a dedicated, size-limited pool so
+ * that a burst of logins cannot take every request thread's CPU. When the pool
+ * and its queue are full, callers are rejected immediately instead of waiting.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private static final String ENCODE = "encode";
+    private static final String MATCHES = "matches";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    private final Timer encodeWaitTimer;
+    private final Timer matchesWaitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+    private final Counter timedOutCounter;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity,
+                                  long timeoutMillis, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.password.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing workers currently busy")
+                .register(meterRegistry);
+
+        this.encodeWaitTimer = waitTimer(ENCODE, meterRegistry);
+        this.matchesWaitTimer = waitTimer(MATCHES, meterRegistry);
+        this.encodeTimer = executionTimer(ENCODE, meterRegistry);
+        this.matchesTimer = executionTimer(MATCHES, meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.hashing.rejected")
+                .tag("reason", "saturated")
+                .register(meterRegistry);
+        this.timedOutCounter = Counter.builder("auth.password.hashing.rejected")
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(encodeWaitTimer, encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(matchesWaitTimer, matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Stops the hashing workers; invoked by the container on shutdown
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Timer waitTimer, Timer executionTimer, Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return executionTimer.recordCallable(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            logger.warn("Password hashing pool saturated ({} queued), rejecting request", executor.getQueue().size());
+            throw new PasswordHashingUnavailableException("Authentication service is busy. Please try again shortly.");
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOutCounter.increment();
+            throw new PasswordHashingUnavailableException("Authentication service is busy. Please try again shortly.");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Password hashing was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static Timer waitTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("auth.password.hashing.wait")
+                .description("Time a password hashing task spent queued before a worker picked it up")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static Timer executionTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("auth.password.hashing.duration")
+                .description("Time spent computing a password hash or verification")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
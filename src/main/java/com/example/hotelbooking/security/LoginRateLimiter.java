@@ -0,0 +1,141 @@
+package com.example.hotelbooking.security;
+
+import com.example.hotelbooking.exception.LoginThrottledException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket throttling for the login endpoint, keyed both by client IP and
+ * by the account being logged into. Buckets live in bounded caches: a bucket
+ * untouched for as long as it takes to refill is full again and is dropped,
+ * and past the size limit the least useful keys are evicted, so a flood of
+ * distinct keys costs the same per attempt as a quiet day.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Cache<String, TokenBucket> ipBuckets;
+    private final Cache<String, TokenBucket> accountBuckets;
+
+    private final int ipCapacity;
+    private final double ipRefillPerSecond;
+    private final int accountCapacity;
+    private final double accountRefillPerSecond;
+
+    private final Counter ipThrottledCounter;
+    private final Counter accountThrottledCounter;
+
+    public LoginRateLimiter(@Value("${hotel.security.login-throttle.ip.capacity:20}") int ipCapacity,
+                            @Value("${hotel.security.login-throttle.ip.refill-per-minute:10}") int ipRefillPerMinute,
+                            @Value("${hotel.security.login-throttle.account.capacity:5}") int accountCapacity,
+                            @Value("${hotel.security.login-throttle.account.refill-per-minute:2}") int accountRefillPerMinute,
+                            @Value("${hotel.security.login-throttle.max-tracked-keys:100000}") int maxTrackedKeys,
+                            MeterRegistry meterRegistry) {
+        this.ipCapacity = ipCapacity;
+        this.ipRefillPerSecond = ipRefillPerMinute / 60.0;
+        this.accountCapacity = accountCapacity;
+        this.accountRefillPerSecond = accountRefillPerMinute / 60.0;
+        if (ipRefillPerMinute <= 0 || accountRefillPerMinute <= 0) {
+            throw new IllegalArgumentException("Login throttle refill rates must be positive");
+        }
+        this.ipBuckets = buckets(ipCapacity, ipRefillPerSecond, maxTrackedKeys);
+        this.accountBuckets = buckets(accountCapacity, accountRefillPerSecond, maxTrackedKeys);
+        this.ipThrottledCounter = Counter.builder("auth.login.throttled").tag("scope", "ip").register(meterRegistry);
+        this.accountThrottledCounter = Counter.builder("auth.login.throttled").tag("scope", "account").register(meterRegistry);
+    }
+
+    /**
+     * Consumes one login attempt for the client and account, throwing if either bucket is empty
+     */
+    public void checkLoginAllowed(String clientIp, String email) {
+        long now = System.nanoTime();
+
+        long ipWait = consume(ipBuckets, clientIp, ipCapacity, ipRefillPerSecond, now);
+        if (ipWait > 0) {
+            ipThrottledCounter.increment();
+            throw new LoginThrottledException("Too many login attempts from this address. Please try again later.",
+                    toRetryAfterSeconds(ipWait));
+        }
+
+        if (email != null) {
+            String account = email.trim().toLowerCase(Locale.ROOT);
+            long accountWait = consume(accountBuckets, account, accountCapacity, accountRefillPerSecond, now);
+            if (accountWait > 0) {
+                accountThrottledCounter.increment();
+                throw new LoginThrottledException("Too many login attempts for this account. Please try again later.",
+                        toRetryAfterSeconds(accountWait));
+            }
+        }
+    }
+
+    /**
+     * Number of client and account buckets currently tracked
+     */
+    long trackedKeys() {
+        ipBuckets.cleanUp();
+        accountBuckets.cleanUp();
+        return ipBuckets.estimatedSize() + accountBuckets.estimatedSize();
+    }
+
+    private static long consume(Cache<String, TokenBucket> buckets, String key, int capacity,
+                                double refillPerSecond, long now) {
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(capacity, refillPerSecond, now));
+        return bucket.tryConsume(now);
+    }
+
+    private static Cache<String, TokenBucket> buckets(int capacity, double refillPerSecond, int maxTrackedKeys) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxTrackedKeys)
+                .expireAfterAccess(Duration.ofNanos((long) Math.ceil(capacity / refillPerSecond * 1e9)))
+                .build();
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+    }
+
+    /**
+     * Classic token bucket: refills continuously up to its capacity
+     */
+    static class TokenBucket {
+        private final int capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(int capacity, double refillPerSecond, long now) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        /**
+         * Returns 0 if a token was taken, otherwise the nanoseconds until one is available
+         */
+        synchronized long tryConsume(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / refillPerNano);
+        }
+
+        private void refill(long now) {
+            long elapsed = now - lastRefill;
+            if (elapsed > 0) {
+                tokens = Math.min(capacity, tokens + elapsed * refillPerNano);
+                lastRefill = now;
+            }
+        }
+    }
+}
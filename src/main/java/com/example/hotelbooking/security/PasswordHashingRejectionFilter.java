@@ -0,0 +1,46 @@
+package com.example.hotelbooking.security;
+
+import com.example.hotelbooking.exception.PasswordHashingUnavailableException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Turns a saturated password hashing pool during HTTP Basic authentication into
+ * a fast 503 instead of a generic server error
+ */
+public class PasswordHashingRejectionFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try {
+            filterChain.doFilter(request, response);
+        } catch (RuntimeException e) {
+            PasswordHashingUnavailableException rejection = findRejection(e);
+            if (rejection == null || response.isCommitted()) {
+                throw e;
+            }
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"success\":false,\"message\":\"" + rejection.getMessage() + "\"}");
+        }
+    }
+
+    private static PasswordHashingUnavailableException findRejection(Throwable e) {
+        for (Throwable current = e; current != null; current = current.getCause()) {
+            if (current instanceof PasswordHashingUnavailableException rejection) {
+                return rejection;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.event.BookingChangedEvent;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Size-bounded cache of date-specific room search pages. A committed booking
+ * or cancellation invalidates exactly the entries whose stay overlaps it,
+ * found through an index of cached stays by check-in date; a room change or
+ * a stay restriction edit invalidates everything. Entries older than the
+ * refresh interval are still served while a background reload runs, which
+ * also picks up bookings made on other instances; entries are never served
+ * past the expiry interval.
+ */
+@Component
+public class AvailabilityResultCache {
+
+    private final BookingService bookingService;
+    private final RoomCatalog roomCatalog;
+    private final StayRestrictionService stayRestrictionService;
+    private final LoadingCache<Key, Page<RoomSummary>> cache;
+    private final boolean enabled;
+
+    // Cached keys by check-in date; guarded by itself
+    private final TreeMap<LocalDate, Set<Key>> byCheckIn = new TreeMap<>();
+    private long longestStayNights;
+
+    private volatile long catalogVersion;
+    private volatile long restrictionVersion;
+
+    @Autowired
+    public AvailabilityResultCache(@Value("${hotel.availability.cache.max-size:10000}") long maxSize,
+                                   @Value("${hotel.availability.cache.refresh-after-ms:5000}") long refreshAfterMs,
+                                   @Value("${hotel.availability.cache.expire-after-ms:30000}") long expireAfterMs,
+                                   BookingService bookingService,
+                                   RoomCatalog roomCatalog,
+                                   StayRestrictionService stayRestrictionService,
+                                   MeterRegistry meterRegistry) {
+        this(maxSize, Duration.ofMillis(refreshAfterMs), Duration.ofMillis(expireAfterMs), bookingService,
+                roomCatalog, stayRestrictionService, meterRegistry, Ticker.systemTicker(), ForkJoinPool.commonPool());
+    }
+
+    AvailabilityResultCache(long maxSize, Duration refreshAfter, Duration expireAfter,
+                            BookingService bookingService, RoomCatalog roomCatalog,
+                            StayRestrictionService stayRestrictionService,
+                            MeterRegistry meterRegistry, Ticker ticker, Executor executor) {
+        this.bookingService = bookingService;
+        this.roomCatalog = roomCatalog;
+        this.stayRestrictionService = stayRestrictionService;
+        this.enabled = maxSize > 0;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(Math.max(maxSize, 1))
+                .refreshAfterWrite(refreshAfter)
+                .expireAfterWrite(expireAfter)
+                .evictionListener((Key key, Page<RoomSummary> page, RemovalCause cause) -> unindex(key))
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "availability-results");
+    }
+
+    /**
+     * The page for a date-specific query, from the cache when possible
+     */
+    public Page<RoomSummary> get(RoomQuery query) {
+        long version = roomCatalog.version();
+        long restrictions = stayRestrictionService.version();
+        if (!enabled) {
+            return search(query);
+        }
+        if (version != catalogVersion || restrictions != restrictionVersion) {
+            // Entries are keyed by both versions, so this only frees memory
+            catalogVersion = version;
+            restrictionVersion = restrictions;
+            invalidateAll();
+        }
+        return cache.get(new Key(query, version, restrictions));
+    }
+
+    /**
+     * Drops cached stays overlapping the booking once it has committed; runs
+     * after the availability version is bumped, so reloads never reuse a
+     * coalesced booked-room lookup from before the change
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        invalidateOverlapping(event.checkInDate(), event.checkOutDate());
+    }
+
+    void invalidateOverlapping(LocalDate checkIn, LocalDate checkOut) {
+        List<Key> affected = new ArrayList<>();
+        synchronized (byCheckIn) {
+            // A cached stay overlaps if it starts before checkOut and ends after checkIn
+            LocalDate earliest = checkIn.minusDays(longestStayNights);
+            for (Set<Key> keys : byCheckIn.subMap(earliest, false, checkOut, false).values()) {
+                for (Key key : keys) {
+                    if (key.query().filter().checkOut().isAfter(checkIn)) {
+                        affected.add(key);
+                    }
+                }
+            }
+            affected.forEach(this::unindex);
+        }
+        // Unindexed first: a load indexing its key after this point reads the committed booking
+        cache.invalidateAll(affected);
+    }
+
+    private void invalidateAll() {
+        synchronized (byCheckIn) {
+            byCheckIn.clear();
+        }
+        cache.invalidateAll();
+    }
+
+    private Page<RoomSummary> load(Key key) {
+        // Indexed before reading bookings, so no overlapping change can slip between
+        index(key);
+        return search(key.query());
+    }
+
+    private Page<RoomSummary> search(RoomQuery query) {
+        LocalDate checkIn = query.filter().checkIn();
+        LocalDate checkOut = query.filter().checkOut();
+        // Never a held pre-change result: the page is cached, and served with an ETag, under the current version
+        Set<Long> booked = bookingService.getCurrentBookedRoomIds(checkIn, checkOut);
+        return query.run(roomCatalog, booked, stayRestrictionService.permitting(checkIn, checkOut));
+    }
+
+    private void index(Key key) {
+        LocalDate checkIn = key.query().filter().checkIn();
+        long nights = ChronoUnit.DAYS.between(checkIn, key.query().filter().checkOut());
+        synchronized (byCheckIn) {
+            byCheckIn.computeIfAbsent(checkIn, d -> new HashSet<>()).add(key);
+            longestStayNights = Math.max(longestStayNights, nights);
+        }
+    }
+
+    private void unindex(Key key) {
+        synchronized (byCheckIn) {
+            LocalDate checkIn = key.query().filter().checkIn();
+            Set<Key> keys = byCheckIn.get(checkIn);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                byCheckIn.remove(checkIn);
+            }
+        }
+    }
+
+    /**
+     * Number of cached stays the invalidation index currently tracks
+     */
+    int indexedEntries() {
+        synchronized (byCheckIn) {
+            return byCheckIn.values().stream().mapToInt(Set::size).sum();
+        }
+    }
+
+    record Key(RoomQuery query, long catalogVersion, long restrictionVersion) {
+    }
+}
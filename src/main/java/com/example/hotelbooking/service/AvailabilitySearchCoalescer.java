@@ -0,0 +1,188 @@
+package com.example.hotelbooking.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescing of the booked-room lookup behind every availability
+ * search. Concurrent searches for the same stay share one query through a
+ * CompletableFuture; a caller only joins a flight started at the availability
+ * version it sees, so nobody gets a result older than a booking they could
+ * have observed. Finished results can be held for a short window: within it,
+ * callers at the same version reuse the result, and once a booking has
+ * changed the version the first caller refreshes it while the others keep
+ * getting the held result instead of queueing behind the query. A follower
+ * waits for the leader only so long before running the lookup itself.
+ */
+@Component
+public class AvailabilitySearchCoalescer {
+
+    private final ConcurrentHashMap<StayKey, Flight> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<StayKey, Held> held = new ConcurrentHashMap<>();
+
+    private final long holdNanos;
+    private final int maxHeldResults;
+    private final long followerTimeoutMs;
+    private final AvailabilityVersion availabilityVersion;
+
+    private final Counter leaderCounter;
+    private final Counter joinedCounter;
+    private final Counter heldCounter;
+    private final Counter staleCounter;
+    private final Counter timedOutCounter;
+
+    public AvailabilitySearchCoalescer(@Value("${hotel.availability.coalescing.hold-ms:1000}") long holdMs,
+                                       @Value("${hotel.availability.coalescing.max-held-results:1000}") int maxHeldResults,
+                                       @Value("${hotel.availability.coalescing.follower-timeout-ms:5000}") long followerTimeoutMs,
+                                       AvailabilityVersion availabilityVersion,
+                                       MeterRegistry meterRegistry) {
+        this.holdNanos = TimeUnit.MILLISECONDS.toNanos(holdMs);
+        this.maxHeldResults = maxHeldResults;
+        this.followerTimeoutMs = followerTimeoutMs;
+        this.availabilityVersion = availabilityVersion;
+        this.leaderCounter = outcomeCounter(meterRegistry, "leader");
+        this.joinedCounter = outcomeCounter(meterRegistry, "joined");
+        this.heldCounter = outcomeCounter(meterRegistry, "held");
+        this.staleCounter = outcomeCounter(meterRegistry, "stale");
+        this.timedOutCounter = outcomeCounter(meterRegistry, "timed-out");
+        Gauge.builder("availability.search.collapse.ratio", this, AvailabilitySearchCoalescer::collapseRatio)
+                .description("Share of availability searches answered without running their own query")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Booked room ids for the stay, running the lookup only if no flight or
+     * held result can answer it; may be a held result from before the latest
+     * booking change while another caller refreshes it
+     */
+    public Set<Long> bookedRoomIds(LocalDate checkIn, LocalDate checkOut, Supplier<Set<Long>> lookup) {
+        return bookedRoomIds(checkIn, checkOut, lookup, true);
+    }
+
+    /**
+     * Booked room ids for the stay as of the current availability version:
+     * joins a flight started at that version or runs the lookup, but never
+     * takes a held result from before it. For results that are cached or
+     * validated under the current version.
+     */
+    public Set<Long> currentBookedRoomIds(LocalDate checkIn, LocalDate checkOut, Supplier<Set<Long>> lookup) {
+        return bookedRoomIds(checkIn, checkOut, lookup, false);
+    }
+
+    private Set<Long> bookedRoomIds(LocalDate checkIn, LocalDate checkOut, Supplier<Set<Long>> lookup,
+                                    boolean acceptStale) {
+        StayKey key = new StayKey(checkIn, checkOut);
+        long version = availabilityVersion.get();
+        long now = System.nanoTime();
+
+        Held result = held.get(key);
+        if (result != null && now - result.completedAt() < holdNanos) {
+            if (result.version() == version) {
+                heldCounter.increment();
+                return result.roomIds();
+            }
+            if (acceptStale && inFlight.containsKey(key)) {
+                // Someone is already revalidating; serve the held result meanwhile
+                staleCounter.increment();
+                return result.roomIds();
+            }
+        }
+
+        Flight flight = new Flight(version, new CompletableFuture<>());
+        Flight existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            if (existing.version() == version) {
+                joinedCounter.increment();
+                return await(existing.result(), lookup);
+            }
+            // The running flight predates a booking this caller can see
+            leaderCounter.increment();
+            return lookup.get();
+        }
+
+        leaderCounter.increment();
+        try {
+            Set<Long> roomIds = lookup.get();
+            hold(key, new Held(roomIds, version, System.nanoTime()));
+            flight.result().complete(roomIds);
+            return roomIds;
+        } catch (Throwable e) {
+            // Errors too, or followers would wait on the flight forever
+            flight.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Fraction of searches that did not run their own lookup
+     */
+    public double collapseRatio() {
+        double leaders = leaderCounter.count();
+        double collapsed = joinedCounter.count() + heldCounter.count() + staleCounter.count();
+        double total = leaders + collapsed;
+        // Followers that timed out joined a flight but ran their own lookup after all
+        return total == 0 ? 0.0 : (collapsed - timedOutCounter.count()) / total;
+    }
+
+    private void hold(StayKey key, Held result) {
+        if (holdNanos <= 0) {
+            return;
+        }
+        if (held.size() >= maxHeldResults) {
+            long now = System.nanoTime();
+            held.values().removeIf(h -> now - h.completedAt() >= holdNanos);
+        }
+        held.merge(key, result, (current, next) -> next.version() >= current.version() ? next : current);
+    }
+
+    private Set<Long> await(CompletableFuture<Set<Long>> result, Supplier<Set<Long>> lookup) {
+        try {
+            return result.get(followerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The leader is stuck; answer this search on its own
+            timedOutCounter.increment();
+            return lookup.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an availability lookup", e);
+        } catch (ExecutionException e) {
+            // Followers see the leader's failure as if they had run the lookup themselves
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Availability lookup failed", e.getCause());
+        }
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("availability.search.coalescing")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private record StayKey(LocalDate checkIn, LocalDate checkOut) {
+    }
+
+    private record Flight(long version, CompletableFuture<Set<Long>> result) {
+    }
+
+    private record Held(Set<Long> roomIds, long version, long completedAt) {
+    }
+}
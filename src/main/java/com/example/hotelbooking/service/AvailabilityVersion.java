@@ -0,0 +1,97 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.event.BookingChangedEvent;
+import com.example.hotelbooking.repository.AvailabilityCounterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.function.IntConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Version of room availability, used to validate cached availability
+ * responses. It is the number of committed booking changes, counted in the
+ * database by the transaction making each change, so every instance derives
+ * the same version from the same bookings. This instance re-reads it as soon
+ * as one of its own changes commits, and on a short interval to pick up
+ * changes made elsewhere.
+ */
+@Component
+public class AvailabilityVersion {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityVersion.class);
+
+    // Must match the rows seeded by V7__availability_counter.sql
+    static final int SHARDS = 16;
+
+    private final LongSupplier committedChanges;
+    private final IntConsumer changeCounter;
+
+    private volatile long version = -1;
+    private volatile long lastModified = System.currentTimeMillis();
+
+    @Autowired
+    public AvailabilityVersion(AvailabilityCounterRepository counterRepository) {
+        this(counterRepository::sumChanges, counterRepository::increment);
+    }
+
+    AvailabilityVersion(LongSupplier committedChanges, IntConsumer changeCounter) {
+        this.committedChanges = committedChanges;
+        this.changeCounter = changeCounter;
+    }
+
+    /**
+     * Counts the change in the transaction making it
+     */
+    @EventListener
+    public void countChange(BookingChangedEvent event) {
+        changeCounter.accept((int) Math.floorMod(event.roomId(), (long) SHARDS));
+    }
+
+    /**
+     * Picks up this instance's change as soon as it has committed, before any
+     * cache invalidation runs
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        refresh();
+    }
+
+    /**
+     * Reads the shared version; changes made on other instances show up here
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${hotel.availability.version-refresh-ms:1000}",
+               fixedDelayString = "${hotel.availability.version-refresh-ms:1000}")
+    public synchronized void refresh() {
+        long changes;
+        try {
+            changes = committedChanges.getAsLong();
+        } catch (RuntimeException e) {
+            // Keep the last version; the next refresh tries again
+            logger.warn("Could not read the availability version: {}", e.getMessage());
+            return;
+        }
+        if (changes != version) {
+            version = changes;
+            lastModified = System.currentTimeMillis();
+        }
+    }
+
+    public long get() {
+        return version;
+    }
+
+    public long lastModified() {
+        return lastModified;
+    }
+}
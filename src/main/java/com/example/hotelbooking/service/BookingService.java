@@ -1,13 +1,21 @@
 package com.example.hotelbooking.service;
 
+import com.example.hotelbooking.dto.BookingCursor;
+import com.example.hotelbooking.dto.BookingSummary;
+import com.example.hotelbooking.dto.PriceQuote;
+import com.example.hotelbooking.dto.RoomFilter;
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.dto.StayOption;
 import com.example.hotelbooking.model.Booking;
+import com.example.hotelbooking.model.BookingStatus;
 import com.example.hotelbooking.model.PaymentMethod;
-import com.example.hotelbooking.model.Room;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface BookingService {
 
@@ -18,14 +26,28 @@ public interface BookingService {
                          LocalDate checkOut, PaymentMethod paymentMethod);
 
     /**
-     * Retrieves all bookings
+     * Creates a new booking charged at the occupancy prices of a quote from a
+     * search; current prices when quoteToken is null
      */
-    List<Booking> getAllBookings();
+    Booking createBooking(Long userId, Long roomId, LocalDate checkIn,
+                         LocalDate checkOut, PaymentMethod paymentMethod, String quoteToken);
 
     /**
-     * Retrieves all bookings with pagination
+     * Creates a new booking at the prices of the given quote, redeeming a
+     * promotion code when promoCode is not null
      */
-    Page<Booking> getAllBookings(Pageable pageable);
+    Booking createBooking(Long userId, Long roomId, LocalDate checkIn, LocalDate checkOut,
+                         PaymentMethod paymentMethod, String quoteToken, String promoCode);
+
+    /**
+     * Retrieves all bookings, newest first, one keyset page at a time
+     */
+    Slice<BookingSummary> getAllBookings(BookingCursor cursor, int size);
+
+    /**
+     * Retrieves bookings with a status, newest first, one keyset page at a time
+     */
+    Slice<BookingSummary> getBookingsByStatus(BookingStatus status, BookingCursor cursor, int size);
 
     /**
      * Retrieves a booking by ID
@@ -33,14 +55,15 @@ public interface BookingService {
     Booking getBookingById(Long id);
 
     /**
-     * Retrieves bookings by user ID
+     * Retrieves bookings by user ID, newest first, one keyset page at a time
      */
-    List<Booking> getBookingsByUserId(Long userId);
+    Slice<BookingSummary> getBookingsByUserId(Long userId, BookingCursor cursor, int size);
 
     /**
-     * Retrieves bookings by user ID with pagination
+     * Retrieves bookings of users whose name, email or username match the
+     * search term, newest first, one keyset page at a time
      */
-    Page<Booking> getBookingsByUserId(Long userId, Pageable pageable);
+    Slice<BookingSummary> searchBookingsByUser(String searchTerm, BookingCursor cursor, int size);
 
     /**
      * Cancels a booking with user authorization
@@ -52,10 +75,64 @@ public interface BookingService {
      */
     void cancelBooking(Long bookingId);
 
+    /**
+     * Moves, shortens or extends a booking in place. Only nights the booking
+     * does not already hold are checked and charged, only nights it gives up
+     * are refunded, and the difference is settled in one payment or refund.
+     * As on cancellation, only account balance bookings are refunded; a card
+     * booking keeps the total it was charged.
+     */
+    BookingSummary changeBookingDates(Long bookingId, Long userId, LocalDate checkIn, LocalDate checkOut);
+
+    /**
+     * Holds a room for a waitlisted customer as a PENDING booking, priced
+     * now and paid on confirmation; empty when the room cannot be held for
+     * these dates or the customer could not book it
+     */
+    Optional<Booking> holdRoom(Long userId, Long roomId, LocalDate checkIn, LocalDate checkOut,
+                               PaymentMethod paymentMethod);
+
+    /**
+     * Pays for a held room and confirms the booking
+     */
+    Booking confirmHold(Long bookingId, Long userId);
+
+    /**
+     * Cancels a hold that was not confirmed; false if it was confirmed
+     */
+    boolean releaseHold(Long bookingId);
+
     /**
      * Gets available rooms for date range
      */
-    List<Room> getAvailableRooms(LocalDate checkIn, LocalDate checkOut);
+    List<RoomSummary> getAvailableRooms(LocalDate checkIn, LocalDate checkOut);
+
+    /**
+     * Lazily filters available rooms for a date range; the booked room ids are
+     * loaded up front, so the stream can be consumed outside a transaction
+     */
+    Stream<RoomSummary> streamAvailableRooms(LocalDate checkIn, LocalDate checkOut);
+
+    /**
+     * Ids of rooms with an active booking overlapping the date range; may lag
+     * the latest booking change briefly while a shared lookup refreshes
+     */
+    Set<Long> getBookedRoomIds(LocalDate checkIn, LocalDate checkOut);
+
+    /**
+     * Ids of rooms with an active booking overlapping the date range, as of
+     * the current availability version; for results cached or served with a
+     * validator under that version
+     */
+    Set<Long> getCurrentBookedRoomIds(LocalDate checkIn, LocalDate checkOut);
+
+    /**
+     * For each check-in date from earliestCheckIn to latestCheckIn, the rooms
+     * matching the filter's attributes that are free for the given number of
+     * nights, with the lowest total price; dates with no free room are omitted
+     */
+    List<StayOption> findFlexibleStays(RoomFilter filter, LocalDate earliestCheckIn, LocalDate latestCheckIn,
+                                       int nights, int roomsPerDate);
 
     /**
      * Checks if room is available
@@ -66,4 +143,16 @@ public interface BookingService {
      * Calculates total amount for booking
      */
     double calculateTotalAmount(Long roomId, LocalDate checkIn, LocalDate checkOut);
+
+    /**
+     * Total amount for booking at current prices, with the quote to book it
+     * at on any instance
+     */
+    PriceQuote quotePrice(Long roomId, LocalDate checkIn, LocalDate checkOut);
+
+    /**
+     * Quote with a promotion code's discount applied, without redeeming it;
+     * throws if the code cannot be used for the room
+     */
+    PriceQuote quotePrice(Long roomId, LocalDate checkIn, LocalDate checkOut, String promoCode);
 }
\ No newline at end of file
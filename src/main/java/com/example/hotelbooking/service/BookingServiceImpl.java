@@ -1,16 +1,31 @@
 package com.example.hotelbooking.service;
 
+import com.example.hotelbooking.dto.BookedStay;
+import com.example.hotelbooking.dto.BookingCursor;
+import com.example.hotelbooking.dto.BookingSummary;
+import com.example.hotelbooking.dto.PriceQuote;
+import com.example.hotelbooking.dto.RoomFilter;
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.dto.StayOption;
+import com.example.hotelbooking.event.BookingChangedEvent;
 import com.example.hotelbooking.exception.*;
 import com.example.hotelbooking.model.*;
 import com.example.hotelbooking.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.persistence.LockModeType;
 import jakarta.persistence.EntityManager;
@@ -20,13 +35,20 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class BookingServiceImpl implements BookingService {
 
     private static final Logger logger = LoggerFactory.getLogger(BookingServiceImpl.class);
+
+    private static final int MAX_FLEXIBLE_WINDOW_DAYS = 30;
     
     @Autowired
     private BookingRepository bookingRepository;
@@ -35,7 +57,28 @@ public class BookingServiceImpl implements BookingService {
     private UserRepository userRepository;
     
     @Autowired
-    private RoomRepository roomRepository;
+    private SearchService searchService;
+    
+    @Autowired
+    private RoomCatalog roomCatalog;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private AvailabilitySearchCoalescer availabilitySearchCoalescer;
+    
+    @Autowired
+    private StayRestrictionService stayRestrictionService;
+    
+    @Autowired
+    private OccupancyPricing occupancyPricing;
+    
+    @Autowired
+    private PromotionService promotionService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
     
     @PersistenceContext
     private EntityManager entityManager;
@@ -47,6 +90,57 @@ public class BookingServiceImpl implements BookingService {
     @Transactional(isolation = Isolation.SERIALIZABLE, rollbackFor = Exception.class)
     public Booking createBooking(Long userId, Long roomId, LocalDate checkIn, 
                                LocalDate checkOut, PaymentMethod paymentMethod) {
+        return book(userId, roomId, checkIn, checkOut, paymentMethod, null, null, 0);
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.SERIALIZABLE, rollbackFor = Exception.class)
+    public Booking createBooking(Long userId, Long roomId, LocalDate checkIn,
+                               LocalDate checkOut, PaymentMethod paymentMethod, String quoteToken) {
+        return book(userId, roomId, checkIn, checkOut, paymentMethod, quoteToken, null, 0);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Booking createBooking(Long userId, Long roomId, LocalDate checkIn, LocalDate checkOut,
+                               PaymentMethod paymentMethod, String quoteToken, String promoCode) {
+        if (promoCode == null || promoCode.isBlank()) {
+            return inBookingTransaction(() ->
+                book(userId, roomId, checkIn, checkOut, paymentMethod, quoteToken, null, 0));
+        }
+        validateBookingInput(userId, roomId, checkIn, checkOut, paymentMethod);
+        RoomSummary room = roomCatalog.find(roomId)
+            .orElseThrow(() -> new RoomNotFoundException("Room not found with id: " + roomId));
+        
+        // Redeemed before the booking transaction takes its connection: claiming a block of
+        // redemptions commits on a connection of its own, and redeemers waiting for the
+        // claim must not each hold one meanwhile. Handed back if the booking is not made.
+        PromotionService.Redemption redemption = promotionService.redeem(promoCode, room.type());
+        try {
+            return inBookingTransaction(() -> book(userId, roomId, checkIn, checkOut, paymentMethod, quoteToken,
+                promoCode, redemption.discountPercentage()));
+        } catch (RuntimeException | Error e) {
+            promotionService.handBack(redemption);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a booking in a serializable transaction of its own
+     */
+    private Booking inBookingTransaction(Supplier<Booking> booking) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+        return transaction.execute(status -> booking.get());
+    }
+
+    /**
+     * Books the room inside the booking transaction, at the discount of an
+     * already redeemed promotion code
+     */
+    private Booking book(Long userId, Long roomId, LocalDate checkIn, LocalDate checkOut,
+                         PaymentMethod paymentMethod, String quoteToken, String promoCode,
+                         double promotionPercentage) {
         
         logger.info("Creating booking for user {} and room {} from {} to {}", 
                    userId, roomId, checkIn, checkOut);
@@ -73,8 +167,12 @@ public class BookingServiceImpl implements BookingService {
                              room.getRoomNumber(), checkIn, checkOut));
         }
         
-        // Calculate pricing
-        BigDecimal totalPrice = calculateTotalPrice(room, checkIn, checkOut);
+        // Calculate pricing, at the quoted occupancy prices when there is a quote
+        BigDecimal nightMultipliers = quoteToken == null
+            ? occupancyPricing.current().multiplierSum(room.getType(), checkIn, checkOut)
+            : occupancyPricing.quoted(quoteToken, room.getType(), checkIn, checkOut);
+        BigDecimal totalPrice = calculateTotalPrice(nightMultipliers, room.getPricePerNight(),
+                                                    room.getDiscountPercentage(), promotionPercentage, checkIn, checkOut);
         
         // Process payment
         processPayment(user, totalPrice, paymentMethod);
@@ -82,8 +180,12 @@ public class BookingServiceImpl implements BookingService {
         // Create and save booking
         Booking booking = createBookingEntity(user, room, checkIn, checkOut, 
                                             paymentMethod, totalPrice);
+        if (promotionPercentage > 0) {
+            booking.setPromoCode(PromotionService.normalizeCode(promoCode));
+        }
         
         Booking savedBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.booked(savedBooking));
         logger.info("Successfully created booking with id: {}", savedBooking.getId());
         
         return savedBooking;
@@ -128,42 +230,73 @@ public class BookingServiceImpl implements BookingService {
             throw new RoomNotAvailableException("Room " + room.getRoomNumber() + " is not available");
         }
         
+        // Minimum stay, closed arrival/departure days and blackouts, from the compiled calendar
+        stayRestrictionService.checkStay(room.getId(), room.getType(), checkIn, checkOut);
+        
+        validateGuest(user, bookingRepository.countByUserIdAndStatus(user.getId(), BookingStatus.CONFIRMED));
+    }
+
+    /**
+     * Validates the guest-side rules, given how many active bookings the
+     * guest has
+     */
+    private void validateGuest(User user, long activeBookings) {
         if (user.getRole() != Role.CUSTOMER) {
             throw new UnauthorizedBookingException("Only customers can make bookings");
         }
         
         // Check if user has any active bookings (optional business rule)
-        long activeBookings = bookingRepository.countByUserIdAndStatus(user.getId(), BookingStatus.CONFIRMED);
         if (activeBookings >= 3) { // Max 3 active bookings per user
             throw new BookingLimitExceededException("User has reached maximum active bookings limit");
         }
     }
 
     /**
-     * Checks for booking conflicts using database-level locking
+     * Checks for booking conflicts using database-level locking; rooms held
+     * for the waitlist (PENDING bookings) conflict too
      */
     private boolean hasBookingConflict(Long roomId, LocalDate checkIn, LocalDate checkOut) {
-        List<Booking> conflictingBookings = bookingRepository.findConflictingBookings(
-            roomId, checkIn, checkOut, BookingStatus.CONFIRMED);
+        List<Booking> conflictingBookings = bookingRepository.findConflictingActiveBookings(
+            roomId, checkIn, checkOut);
         return !conflictingBookings.isEmpty();
     }
 
     /**
-     * Calculates total price with discounts
+     * Calculates total price with occupancy multipliers, the room's discount
+     * and any promotion code discount
      */
-    private BigDecimal calculateTotalPrice(Room room, LocalDate checkIn, LocalDate checkOut) {
-        long numberOfNights = ChronoUnit.DAYS.between(checkIn, checkOut);
-        BigDecimal basePrice = BigDecimal.valueOf(room.getPricePerNight())
-                                        .multiply(BigDecimal.valueOf(numberOfNights));
+    private BigDecimal calculateTotalPrice(PriceTable prices, String roomType, double pricePerNight,
+                                           double discountPercentage, double promotionPercentage,
+                                           LocalDate checkIn, LocalDate checkOut) {
+        // One multiplier lookup per night; equals the number of nights when no tier applies
+        return calculateTotalPrice(prices.multiplierSum(roomType, checkIn, checkOut), pricePerNight,
+                                   discountPercentage, promotionPercentage, checkIn, checkOut);
+    }
+
+    /**
+     * Calculates total price from the stay's summed occupancy multipliers
+     */
+    private BigDecimal calculateTotalPrice(BigDecimal nightMultipliers, double pricePerNight,
+                                           double discountPercentage, double promotionPercentage,
+                                           LocalDate checkIn, LocalDate checkOut) {
+        BigDecimal basePrice = BigDecimal.valueOf(pricePerNight).multiply(nightMultipliers);
         
         // Apply discount if available
-        if (room.getDiscountPercentage() > 0) {
+        if (discountPercentage > 0) {
             BigDecimal discountAmount = basePrice
-                .multiply(BigDecimal.valueOf(room.getDiscountPercentage()))
+                .multiply(BigDecimal.valueOf(discountPercentage))
                 .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
             basePrice = basePrice.subtract(discountAmount);
         }
         
+        // Promotion code discount, on the already discounted price
+        if (promotionPercentage > 0) {
+            BigDecimal promotionAmount = basePrice
+                .multiply(BigDecimal.valueOf(promotionPercentage))
+                .divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+            basePrice = basePrice.subtract(promotionAmount);
+        }
+        
         // Apply seasonal pricing (example business rule)
         if (isHighSeason(checkIn, checkOut)) {
             basePrice = basePrice.multiply(BigDecimal.valueOf(1.2)); // 20% surcharge
@@ -250,39 +383,62 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<Booking> getAllBookings() {
-        return bookingRepository.findAll();
+    public Slice<BookingSummary> getAllBookings(BookingCursor cursor, int size) {
+        List<BookingSummary> rows = cursor == null
+            ? bookingRepository.findSummaries(Limit.of(size + 1))
+            : bookingRepository.findSummariesAfter(cursor.bookingDate(), cursor.id(), Limit.of(size + 1));
+        return toSlice(rows, size);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Booking> getAllBookings(Pageable pageable) {
-        return bookingRepository.findAll(pageable);
+    public Slice<BookingSummary> getBookingsByStatus(BookingStatus status, BookingCursor cursor, int size) {
+        List<BookingSummary> rows = cursor == null
+            ? bookingRepository.findSummariesByStatus(status, Limit.of(size + 1))
+            : bookingRepository.findSummariesByStatusAfter(status, cursor.bookingDate(), cursor.id(), Limit.of(size + 1));
+        return toSlice(rows, size);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Booking getBookingById(Long id) {
-        return bookingRepository.findById(id)
+        return bookingRepository.findWithUserAndRoomById(id)
             .orElseThrow(() -> new BookingNotFoundException("Booking not found with id: " + id));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Booking> getBookingsByUserId(Long userId) {
+    public Slice<BookingSummary> getBookingsByUserId(Long userId, BookingCursor cursor, int size) {
         if (!userRepository.existsById(userId)) {
             throw new UserNotFoundException("User not found with id: " + userId);
         }
-        return bookingRepository.findByUserIdOrderByBookingDateDesc(userId);
+        List<BookingSummary> rows = cursor == null
+            ? bookingRepository.findSummariesByUserId(userId, Limit.of(size + 1))
+            : bookingRepository.findSummariesByUserIdAfter(userId, cursor.bookingDate(), cursor.id(), Limit.of(size + 1));
+        return toSlice(rows, size);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Page<Booking> getBookingsByUserId(Long userId, Pageable pageable) {
-        if (!userRepository.existsById(userId)) {
-            throw new UserNotFoundException("User not found with id: " + userId);
+    public Slice<BookingSummary> searchBookingsByUser(String searchTerm, BookingCursor cursor, int size) {
+        List<Long> userIds = searchService.findMatchingUserIds(searchTerm);
+        if (userIds.isEmpty()) {
+            return toSlice(List.of(), size);
         }
-        return bookingRepository.findByUserIdOrderByBookingDateDesc(userId, pageable);
+        List<BookingSummary> rows = cursor == null
+            ? bookingRepository.findSummariesByUserIdIn(userIds, Limit.of(size + 1))
+            : bookingRepository.findSummariesByUserIdInAfter(userIds, cursor.bookingDate(), cursor.id(), Limit.of(size + 1));
+        return toSlice(rows, size);
+    }
+
+    /**
+     * Builds a slice from a query that fetched one row more than requested;
+     * the extra row only tells us whether another page exists
+     */
+    private Slice<BookingSummary> toSlice(List<BookingSummary> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<BookingSummary> content = hasNext ? rows.subList(0, size) : rows;
+        return new SliceImpl<>(content, PageRequest.ofSize(size), hasNext);
     }
 
     @Override
@@ -303,18 +459,224 @@ public class BookingServiceImpl implements BookingService {
             throw new BookingCancellationException("Booking is already cancelled");
         }
         
+        // A waitlist hold has not been paid for
+        boolean paid = booking.getStatus() != BookingStatus.PENDING;
+        
         // Update booking status
         booking.setStatus(BookingStatus.CANCELLED);
         bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.released(booking));
         
         // Process refund if payment was via account balance
-        if (booking.getPaymentMethod() == PaymentMethod.ACCOUNT_BALANCE) {
+        if (paid && booking.getPaymentMethod() == PaymentMethod.ACCOUNT_BALANCE) {
             processRefund(booking);
         }
         
         logger.info("Successfully cancelled booking with id: {}", bookingId);
     }
 
+    @Override
+    @Transactional(isolation = Isolation.SERIALIZABLE, rollbackFor = Exception.class)
+    public BookingSummary changeBookingDates(Long bookingId, Long userId, LocalDate checkIn, LocalDate checkOut) {
+        // Locks the booking row only; the room is locked below, and only if nights are added
+        Booking booking = entityManager.find(Booking.class, bookingId, LockModeType.PESSIMISTIC_WRITE);
+        if (booking == null) {
+            throw new BookingNotFoundException("Booking not found with id: " + bookingId);
+        }
+        if (!booking.getUser().getId().equals(userId)) {
+            throw new UnauthorizedBookingException("User not authorized to change this booking");
+        }
+        if (booking.getStatus() != BookingStatus.CONFIRMED) {
+            throw new InvalidBookingDataException("Only confirmed bookings can be changed");
+        }
+        if (booking.getCheckInDate().isBefore(LocalDate.now().plusDays(1))) {
+            throw new InvalidBookingDataException("Cannot change booking less than 24 hours before check-in");
+        }
+        Long roomId = booking.getRoom().getId();
+        validateBookingInput(userId, roomId, checkIn, checkOut, booking.getPaymentMethod());
+
+        LocalDate oldCheckIn = booking.getCheckInDate();
+        LocalDate oldCheckOut = booking.getCheckOutDate();
+        List<NightRange> added = NightRange.difference(checkIn, checkOut, oldCheckIn, oldCheckOut);
+        List<NightRange> removed = NightRange.difference(oldCheckIn, oldCheckOut, checkIn, checkOut);
+        if (added.isEmpty() && removed.isEmpty()) {
+            return BookingSummary.of(booking);
+        }
+
+        Room room = booking.getRoom();
+        if (!added.isEmpty()) {
+            // Same lock as createBooking, so no new booking can take the added nights meanwhile
+            room = entityManager.find(Room.class, roomId, LockModeType.PESSIMISTIC_WRITE);
+            if (!room.isAvailable()) {
+                throw new RoomNotAvailableException("Room " + room.getRoomNumber() + " is not available");
+            }
+            for (NightRange nights : added) {
+                if (hasBookingConflict(roomId, nights.from(), nights.to())) {
+                    throw new BookingConflictException(
+                        String.format("Room %s is not available from %s to %s",
+                                     room.getRoomNumber(), nights.from(), nights.to()));
+                }
+            }
+        }
+        stayRestrictionService.checkStay(roomId, room.getType(), checkIn, checkOut);
+
+        // Added nights at current prices; given-up nights refunded at what the booking paid per night,
+        // to the account balance only, as on cancellation
+        PriceTable prices = occupancyPricing.current();
+        BigDecimal charge = BigDecimal.ZERO;
+        for (NightRange nights : added) {
+            charge = charge.add(calculateTotalPrice(prices, room.getType(), room.getPricePerNight(),
+                    room.getDiscountPercentage(), 0, nights.from(), nights.to()));
+        }
+        BigDecimal refund = BigDecimal.ZERO;
+        if (booking.getPaymentMethod() == PaymentMethod.ACCOUNT_BALANCE) {
+            long removedNights = removed.stream().mapToLong(NightRange::nights).sum();
+            refund = BigDecimal.valueOf(booking.getTotalPrice())
+                .multiply(BigDecimal.valueOf(removedNights))
+                .divide(BigDecimal.valueOf(ChronoUnit.DAYS.between(oldCheckIn, oldCheckOut)), 2, RoundingMode.HALF_UP);
+        }
+        BigDecimal difference = charge.subtract(refund);
+        settleDifference(booking, difference);
+
+        booking.setCheckInDate(checkIn);
+        booking.setCheckOutDate(checkOut);
+        booking.setTotalPrice(BigDecimal.valueOf(booking.getTotalPrice()).add(difference)
+            .setScale(2, RoundingMode.HALF_UP).doubleValue());
+        bookingRepository.save(booking);
+        for (NightRange nights : removed) {
+            eventPublisher.publishEvent(BookingChangedEvent.released(booking, nights.from(), nights.to()));
+        }
+        for (NightRange nights : added) {
+            eventPublisher.publishEvent(BookingChangedEvent.booked(booking, nights.from(), nights.to()));
+        }
+        logger.info("Changed booking {} from {} - {} to {} - {}, price difference ${}",
+                   bookingId, oldCheckIn, oldCheckOut, checkIn, checkOut, difference);
+
+        return BookingSummary.of(booking);
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.SERIALIZABLE, rollbackFor = Exception.class)
+    public Optional<Booking> holdRoom(Long userId, Long roomId, LocalDate checkIn, LocalDate checkOut,
+                                      PaymentMethod paymentMethod) {
+        // Checked again on confirmation; held rooms count as bookings, so holds cannot be stacked past the limit
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+        try {
+            validateGuest(user, bookingRepository.countByUserIdAndStatus(userId, BookingStatus.CONFIRMED)
+                + bookingRepository.countByUserIdAndStatus(userId, BookingStatus.PENDING));
+        } catch (UnauthorizedBookingException | BookingLimitExceededException e) {
+            logger.info("Not holding room {} for user {}: {}", roomId, userId, e.getMessage());
+            return Optional.empty();
+        }
+        
+        // Same lock as createBooking, so the hold and a direct booking cannot both win
+        Room room = entityManager.find(Room.class, roomId, LockModeType.PESSIMISTIC_WRITE);
+        if (room == null || !room.isAvailable()
+                || stayRestrictionService.calendar().violation(roomId, room.getType(), checkIn, checkOut) != null
+                || hasBookingConflict(roomId, checkIn, checkOut)) {
+            return Optional.empty();
+        }
+        
+        // Priced before the hold counts towards occupancy; charged as is on confirmation
+        BigDecimal totalPrice = calculateTotalPrice(occupancyPricing.current(), room.getType(),
+                                                    room.getPricePerNight(), room.getDiscountPercentage(), 0,
+                                                    checkIn, checkOut);
+        Booking booking = createBookingEntity(user, room, checkIn, checkOut, paymentMethod, totalPrice);
+        booking.setStatus(BookingStatus.PENDING);
+        
+        Booking savedBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.booked(savedBooking));
+        logger.info("Holding room {} from {} to {} for user {}", roomId, checkIn, checkOut, userId);
+        
+        return Optional.of(savedBooking);
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.SERIALIZABLE, rollbackFor = Exception.class)
+    public Booking confirmHold(Long bookingId, Long userId) {
+        Booking booking = entityManager.find(Booking.class, bookingId, LockModeType.PESSIMISTIC_WRITE);
+        if (booking == null || booking.getStatus() != BookingStatus.PENDING) {
+            throw new BookingNotFoundException("No room is being held with booking id: " + bookingId);
+        }
+        User user = booking.getUser();
+        if (!user.getId().equals(userId)) {
+            throw new UnauthorizedBookingException("User not authorized to confirm this booking");
+        }
+        
+        // The nights are already held, so only the guest-side rules are left to check
+        validateBookingRules(user, booking.getRoom(), booking.getCheckInDate(), booking.getCheckOutDate());
+        processPayment(user, BigDecimal.valueOf(booking.getTotalPrice()), booking.getPaymentMethod());
+        
+        booking.setStatus(BookingStatus.CONFIRMED);
+        Booking savedBooking = bookingRepository.save(booking);
+        logger.info("Confirmed held booking {} for user {}", bookingId, userId);
+        
+        return savedBooking;
+    }
+
+    @Override
+    public boolean releaseHold(Long bookingId) {
+        Booking booking = entityManager.find(Booking.class, bookingId, LockModeType.PESSIMISTIC_WRITE);
+        if (booking == null) {
+            return true;
+        }
+        if (booking.getStatus() == BookingStatus.CONFIRMED) {
+            return false;
+        }
+        if (booking.getStatus() == BookingStatus.PENDING) {
+            booking.setStatus(BookingStatus.CANCELLED);
+            bookingRepository.save(booking);
+            eventPublisher.publishEvent(BookingChangedEvent.released(booking));
+            logger.info("Released held booking {}", bookingId);
+        }
+        return true;
+    }
+
+    /**
+     * Charges or refunds the price difference of a date change in one
+     * movement; only account balance bookings have a refund to settle
+     */
+    private void settleDifference(Booking booking, BigDecimal difference) {
+        if (difference.signum() > 0) {
+            processPayment(booking.getUser(), difference, booking.getPaymentMethod());
+        } else if (difference.signum() < 0) {
+            User user = booking.getUser();
+            user.setAccountBalance(BigDecimal.valueOf(user.getAccountBalance()).subtract(difference).doubleValue());
+            userRepository.save(user);
+            logger.info("Refunded ${} for date change of booking {}", difference.negate(), booking.getId());
+        }
+    }
+
+    /**
+     * Nights from one date up to (not including) another
+     */
+    private record NightRange(LocalDate from, LocalDate to) {
+
+        long nights() {
+            return ChronoUnit.DAYS.between(from, to);
+        }
+
+        /**
+         * The nights of one stay that are not nights of the other; at most
+         * one range either side of the other stay
+         */
+        static List<NightRange> difference(LocalDate checkIn, LocalDate checkOut,
+                                           LocalDate otherCheckIn, LocalDate otherCheckOut) {
+            if (!checkIn.isBefore(otherCheckOut) || !checkOut.isAfter(otherCheckIn)) {
+                return List.of(new NightRange(checkIn, checkOut));
+            }
+            List<NightRange> ranges = new ArrayList<>(2);
+            if (checkIn.isBefore(otherCheckIn)) {
+                ranges.add(new NightRange(checkIn, otherCheckIn));
+            }
+            if (checkOut.isAfter(otherCheckOut)) {
+                ranges.add(new NightRange(otherCheckOut, checkOut));
+            }
+            return ranges;
+        }
+    }
+
     /**
      * Processes refund for cancelled booking
      */
@@ -335,10 +697,90 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public List<Room> getAvailableRooms(LocalDate checkIn, LocalDate checkOut) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<RoomSummary> getAvailableRooms(LocalDate checkIn, LocalDate checkOut) {
+        return streamAvailableRooms(checkIn, checkOut).toList();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Stream<RoomSummary> streamAvailableRooms(LocalDate checkIn, LocalDate checkOut) {
+        // Room data and stay rules come from memory; only the booked room ids need the database.
+        // Streamed responses carry the current availability version, so the ids must be current too.
+        return roomCatalog.select(RoomFilter.forDates(checkIn, checkOut), getCurrentBookedRoomIds(checkIn, checkOut))
+            .filter(stayRestrictionService.permitting(checkIn, checkOut));
+    }
+
+    /**
+     * Identical concurrent searches share one query. Runs outside a transaction
+     * so callers waiting on another's query do not hold a pooled connection;
+     * the query itself opens its own read-only transaction.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Set<Long> getBookedRoomIds(LocalDate checkIn, LocalDate checkOut) {
+        validateDateRange(checkIn, checkOut);
+        return availabilitySearchCoalescer.bookedRoomIds(checkIn, checkOut,
+                () -> Set.copyOf(bookingRepository.findBookedRoomIds(checkIn, checkOut)));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Set<Long> getCurrentBookedRoomIds(LocalDate checkIn, LocalDate checkOut) {
         validateDateRange(checkIn, checkOut);
-        return roomRepository.findAvailableRooms(checkIn, checkOut);
+        return availabilitySearchCoalescer.currentBookedRoomIds(checkIn, checkOut,
+                () -> Set.copyOf(bookingRepository.findBookedRoomIds(checkIn, checkOut)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StayOption> findFlexibleStays(RoomFilter filter, LocalDate earliestCheckIn, LocalDate latestCheckIn,
+                                              int nights, int roomsPerDate) {
+        validateFlexibleWindow(earliestCheckIn, latestCheckIn, nights);
+        LocalDate lastCheckOut = latestCheckIn.plusDays(nights);
+
+        // One read of every booked night in the window instead of a query per start date
+        List<BookedStay> stays = bookingRepository.findBookedStays(earliestCheckIn, lastCheckOut);
+        List<RoomSummary> rooms = roomCatalog.select(filter.withDates(earliestCheckIn, lastCheckOut), Set.of()).toList();
+
+        // Rooms are ranked by nightly rate; occupancy multipliers can reorder the totals across types
+        PriceTable prices = occupancyPricing.current();
+        return new FlexibleStaySearch(earliestCheckIn, latestCheckIn, nights)
+            .run(rooms, stays, stayRestrictionService.calendar(), roomsPerDate).stream()
+            .map(result -> {
+                BigDecimal lowestTotal = result.cheapest().stream()
+                    .map(room -> calculateTotalPrice(prices, room.type(), room.pricePerNight(),
+                            room.discountPercentage(), 0, result.checkIn(), result.checkOut()))
+                    .min(BigDecimal::compareTo)
+                    .orElseThrow();
+                String quoteToken = occupancyPricing.quote(prices,
+                        result.cheapest().stream().map(RoomSummary::type).toList(), result.checkIn(), result.checkOut());
+                return new StayOption(result.checkIn(), result.checkOut(), result.availableRooms(),
+                        lowestTotal.doubleValue(), quoteToken, result.cheapest());
+            })
+            .toList();
+    }
+
+    /**
+     * Validates the window and stay length of a flexible-date search
+     */
+    private void validateFlexibleWindow(LocalDate earliestCheckIn, LocalDate latestCheckIn, int nights) {
+        if (earliestCheckIn == null || latestCheckIn == null) {
+            throw new InvalidBookingDataException("Earliest and latest check-in dates are required");
+        }
+        if (earliestCheckIn.isBefore(LocalDate.now())) {
+            throw new InvalidBookingDataException("Check-in date cannot be in the past");
+        }
+        if (latestCheckIn.isBefore(earliestCheckIn)) {
+            throw new InvalidBookingDataException("Latest check-in cannot be before earliest check-in");
+        }
+        if (ChronoUnit.DAYS.between(earliestCheckIn, latestCheckIn) > MAX_FLEXIBLE_WINDOW_DAYS) {
+            throw new InvalidBookingDataException(
+                "Check-in window cannot exceed " + MAX_FLEXIBLE_WINDOW_DAYS + " days");
+        }
+        if (nights < 1 || nights > 30) {
+            throw new InvalidBookingDataException("Stay must be between 1 and 30 nights");
+        }
     }
 
     /**
@@ -365,12 +807,16 @@ public class BookingServiceImpl implements BookingService {
             throw new BookingCancellationException("Booking is already cancelled");
         }
         
+        // A waitlist hold has not been paid for
+        boolean paid = booking.getStatus() != BookingStatus.PENDING;
+        
         // Update booking status
         booking.setStatus(BookingStatus.CANCELLED);
         bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.released(booking));
         
         // Process refund if payment was via account balance
-        if (booking.getPaymentMethod() == PaymentMethod.ACCOUNT_BALANCE) {
+        if (paid && booking.getPaymentMethod() == PaymentMethod.ACCOUNT_BALANCE) {
             processRefund(booking);
         }
         
@@ -381,10 +827,10 @@ public class BookingServiceImpl implements BookingService {
     public boolean isRoomAvailable(Long roomId, LocalDate checkIn, LocalDate checkOut) {
         validateDateRange(checkIn, checkOut);
         
-        Room room = roomRepository.findById(roomId)
+        RoomSummary room = roomCatalog.find(roomId)
             .orElseThrow(() -> new RoomNotFoundException("Room not found with id: " + roomId));
         
-        if (!room.isAvailable()) {
+        if (!room.available() || !stayRestrictionService.permits(room, checkIn, checkOut)) {
             return false;
         }
         
@@ -393,12 +839,30 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public double calculateTotalAmount(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return quotePrice(roomId, checkIn, checkOut).totalAmount();
+    }
+
+    @Override
+    public PriceQuote quotePrice(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return quotePrice(roomId, checkIn, checkOut, null);
+    }
+
+    @Override
+    public PriceQuote quotePrice(Long roomId, LocalDate checkIn, LocalDate checkOut, String promoCode) {
         validateDateRange(checkIn, checkOut);
         
-        Room room = roomRepository.findById(roomId)
+        RoomSummary room = roomCatalog.find(roomId)
             .orElseThrow(() -> new RoomNotFoundException("Room not found with id: " + roomId));
         
-        BigDecimal totalPrice = calculateTotalPrice(room, checkIn, checkOut);
-        return totalPrice.doubleValue();
+        // Checks the code without redeeming it
+        double promotionPercentage = promoCode == null || promoCode.isBlank()
+            ? 0
+            : promotionService.discountFor(promoCode, room.type());
+        PriceTable prices = occupancyPricing.current();
+        BigDecimal totalPrice = calculateTotalPrice(prices, room.type(), room.pricePerNight(),
+                                                    room.discountPercentage(), promotionPercentage,
+                                                    checkIn, checkOut);
+        return new PriceQuote(totalPrice.doubleValue(),
+                occupancyPricing.quote(prices, List.of(room.type()), checkIn, checkOut));
     }
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.CacheRegionStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Per-region statistics and eviction for the Hibernate second-level and query caches
+ */
+@Service
+public class CacheStatisticsService {
+
+    private final SessionFactory sessionFactory;
+
+    public CacheStatisticsService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public List<CacheRegionStats> getRegionStatistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> toStats(region, statistics.getCacheRegionStatistics(region)))
+                .toList();
+    }
+
+    /**
+     * Drops every entry of one region; false if no such region exists
+     */
+    public boolean evictRegion(String region) {
+        if (!Arrays.asList(sessionFactory.getStatistics().getSecondLevelCacheRegionNames()).contains(region)) {
+            return false;
+        }
+        sessionFactory.getCache().evictRegion(region);
+        return true;
+    }
+
+    public void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    private static CacheRegionStats toStats(String region, CacheRegionStatistics stats) {
+        if (stats == null) {
+            return new CacheRegionStats(region, 0, 0, 0, 0, 0.0);
+        }
+        long hits = stats.getHitCount();
+        long misses = stats.getMissCount();
+        double hitRatio = hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+        return new CacheRegionStats(region, hits, misses, stats.getPutCount(),
+                stats.getElementCountInMemory(), hitRatio);
+    }
+}
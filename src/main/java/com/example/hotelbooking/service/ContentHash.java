@@ -0,0 +1,53 @@
+package com.example.hotelbooking.service;
+
+/**
+ * 64-bit FNV-1a hash over a sequence of field values. Unlike hashCode, whose
+ * combination for records is unspecified, it is the same on every instance and
+ * JVM, so versions derived from it agree across a cluster.
+ */
+final class ContentHash {
+
+    private static final long PRIME = 0x100000001b3L;
+
+    private long hash = 0xcbf29ce484222325L;
+
+    ContentHash add(long value) {
+        for (int shift = 0; shift < 64; shift += 8) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= PRIME;
+        }
+        return this;
+    }
+
+    ContentHash add(double value) {
+        return add(Double.doubleToLongBits(value));
+    }
+
+    ContentHash add(boolean value) {
+        return add(value ? 1L : 0L);
+    }
+
+    /**
+     * Hashes the value's string form, length first so adjacent values cannot
+     * run into each other; null is told apart from every string
+     */
+    ContentHash add(Object value) {
+        if (value == null) {
+            return add(-1L);
+        }
+        String text = value.toString();
+        add(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            hash ^= c & 0xff;
+            hash *= PRIME;
+            hash ^= c >>> 8;
+            hash *= PRIME;
+        }
+        return this;
+    }
+
+    long value() {
+        return hash;
+    }
+}
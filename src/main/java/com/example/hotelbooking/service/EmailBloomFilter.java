@@ -0,0 +1,195 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter of registered emails, advisory only. A negative
+ * answer means the email was not taken as of the last load, so uniqueness
+ * checks can skip the database; the unique index on user.email is what
+ * actually guarantees uniqueness, and callers must still handle it rejecting
+ * an insert. Until the startup build completes every email is reported as a
+ * possible hit. Users registered on other instances are added on a periodic
+ * refresh that reads users newer than the last one seen, re-reading a
+ * trailing window of ids below it: ids are handed out before commit, so a
+ * registration can become visible after a higher id already has.
+ */
+@Component
+public class EmailBloomFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailBloomFilter.class);
+
+    private final UserRepository userRepository;
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long expectedEmails;
+    private final long rescanIds;
+    private final AtomicLong insertedEmails = new AtomicLong();
+    private volatile boolean ready;
+    // Highest user id whose email has been loaded; guarded by this
+    private long loadedUpToId;
+
+    private final Counter negativeCounter;
+    private final Counter possibleCounter;
+
+    public EmailBloomFilter(UserRepository userRepository,
+                            @Value("${hotel.auth.email-filter.expected-emails:1000000}") long expectedEmails,
+                            @Value("${hotel.auth.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                            @Value("${hotel.auth.email-filter.max-memory-kb:4096}") long maxMemoryKb,
+                            @Value("${hotel.auth.email-filter.rescan-ids:1000}") long rescanIds,
+                            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.expectedEmails = Math.max(1, expectedEmails);
+        this.rescanIds = Math.max(0, rescanIds);
+
+        // Optimal sizing for n entries at rate p: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long optimalBits = (long) Math.ceil(-this.expectedEmails * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        long cappedBits = Math.min(optimalBits, Math.max(64, maxMemoryKb * 1024 * 8));
+        int words = (int) Math.min(Integer.MAX_VALUE, (cappedBits + 63) / 64);
+        this.bits = new AtomicLongArray(words);
+        this.bitCount = (long) words * 64;
+        this.hashCount = (int) Math.max(1, Math.min(16, Math.round((double) bitCount / this.expectedEmails * Math.log(2))));
+        if (cappedBits < optimalBits) {
+            logger.warn("Email filter capped at {} KB; false-positive rate will exceed {}", maxMemoryKb, falsePositiveRate);
+        }
+
+        this.negativeCounter = Counter.builder("auth.email.filter.lookups").tag("result", "negative").register(meterRegistry);
+        this.possibleCounter = Counter.builder("auth.email.filter.lookups").tag("result", "possible").register(meterRegistry);
+        Gauge.builder("auth.email.filter.memory", this, f -> f.bitCount / 8.0)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("auth.email.filter.false.positive.rate", this, EmailBloomFilter::estimatedFalsePositiveRate)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads every registered email once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void build() {
+        long start = System.currentTimeMillis();
+        loadNewEmails();
+        ready = true;
+        logger.info("Email filter built with {} emails in {} ms ({} KB, {} hashes)",
+                insertedEmails.get(), System.currentTimeMillis() - start, bitCount / 8192, hashCount);
+    }
+
+    /**
+     * Adds the emails of users registered since the last load, wherever they
+     * registered, and of the trailing window of ids below it that may have
+     * committed late
+     */
+    @Scheduled(initialDelayString = "${hotel.auth.email-filter.refresh-interval-ms:30000}",
+               fixedDelayString = "${hotel.auth.email-filter.refresh-interval-ms:30000}")
+    @Transactional(readOnly = true)
+    public synchronized void refresh() {
+        if (ready) {
+            loadNewEmails();
+        }
+    }
+
+    /**
+     * Records a registered email. Re-adding one is harmless and is not counted
+     * again (nor is a new email whose bits were all set already)
+     */
+    public void add(String email) {
+        if (email == null) {
+            return;
+        }
+        long[] hashes = hash(email);
+        boolean changed = false;
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(hashes[0] + i * hashes[1], bitCount);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            changed |= (bits.getAndAccumulate(word, mask, (current, bit) -> current | bit) & mask) == 0;
+        }
+        if (changed && insertedEmails.incrementAndGet() == expectedEmails + 1) {
+            logger.warn("Email filter holds more than {} emails; raise hotel.auth.email-filter.expected-emails", expectedEmails);
+        }
+    }
+
+    /**
+     * False means the email is definitely not registered; true means it may be
+     */
+    public boolean mightContain(String email) {
+        if (!ready || email == null) {
+            possibleCounter.increment();
+            return true;
+        }
+        long[] hashes = hash(email);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(hashes[0] + i * hashes[1], bitCount);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                negativeCounter.increment();
+                return false;
+            }
+        }
+        possibleCounter.increment();
+        return true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Expected false-positive rate for the current number of entries
+     */
+    public double estimatedFalsePositiveRate() {
+        double fill = 1 - Math.exp(-(double) hashCount * insertedEmails.get() / bitCount);
+        return Math.pow(fill, hashCount);
+    }
+
+    private void loadNewEmails() {
+        long upToId = userRepository.findMaxId();
+        long afterId = Math.max(0, loadedUpToId - rescanIds);
+        try (Stream<String> emails = userRepository.streamEmailsBetween(afterId, upToId)) {
+            emails.forEach(this::add);
+        }
+        loadedUpToId = Math.max(loadedUpToId, upToId);
+    }
+
+    /**
+     * Two independent 64-bit hashes of the normalized email for double hashing
+     */
+    private static long[] hash(String email) {
+        byte[] bytes = email.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        long h1 = mix(h);
+        long h2 = mix(h1 ^ 0x9e3779b97f4a7c15L) | 1;
+        return new long[] { h1, h2 };
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
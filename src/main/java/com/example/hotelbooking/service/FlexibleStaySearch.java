@@ -0,0 +1,128 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.BookedStay;
+import com.example.hotelbooking.dto.RoomSummary;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sliding-window sweep behind the flexible-date search. Booked nights are
+ * laid out per room over the whole window once; each room is then checked
+ * for every start date by sliding a stay-length window across its nights,
+ * adding the night that enters and dropping the one that leaves. Rooms with
+ * no booking in the window and no stay restriction are free for every start
+ * date outright.
+ */
+final class FlexibleStaySearch {
+
+    /**
+     * Cheapest nightly rate after discount first; totals for the same dates
+     * order the same way
+     */
+    static final Comparator<RoomSummary> BY_EFFECTIVE_RATE =
+            Comparator.comparingDouble(FlexibleStaySearch::effectiveRate).thenComparing(RoomSummary::id);
+
+    private final LocalDate earliestCheckIn;
+    private final int startDates;
+    private final int nights;
+    private final int span;
+
+    FlexibleStaySearch(LocalDate earliestCheckIn, LocalDate latestCheckIn, int nights) {
+        this.earliestCheckIn = earliestCheckIn;
+        this.startDates = (int) ChronoUnit.DAYS.between(earliestCheckIn, latestCheckIn) + 1;
+        this.nights = nights;
+        this.span = startDates + nights - 1;
+    }
+
+    /**
+     * For each start date with at least one free room, in date order, the
+     * number of free rooms and the cheapest roomsPerDate of them
+     */
+    List<Result> run(List<RoomSummary> rooms, List<BookedStay> stays, StayRestrictionCalendar restrictions,
+                     int roomsPerDate) {
+        Map<Long, int[]> bookedNights = bookedNights(stays);
+
+        List<TopK<RoomSummary>> cheapest = new ArrayList<>(startDates);
+        for (int s = 0; s < startDates; s++) {
+            cheapest.add(new TopK<>(BY_EFFECTIVE_RATE, roomsPerDate));
+        }
+
+        for (RoomSummary room : rooms) {
+            int[] booked = bookedNights.get(room.id());
+            boolean restricted = restrictions.restricts(room);
+            if (booked == null && !restricted) {
+                cheapest.forEach(best -> best.offer(room));
+                continue;
+            }
+            if (booked == null) {
+                booked = new int[span];
+            }
+            int bookedInWindow = 0;
+            for (int night = 0; night < nights; night++) {
+                bookedInWindow += booked[night];
+            }
+            for (int s = 0; s < startDates; s++) {
+                if (bookedInWindow == 0 && (!restricted || permits(restrictions, room, s))) {
+                    cheapest.get(s).offer(room);
+                }
+                if (s + nights < span) {
+                    bookedInWindow += booked[s + nights] - booked[s];
+                }
+            }
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (int s = 0; s < startDates; s++) {
+            TopK<RoomSummary> best = cheapest.get(s);
+            if (best.offered() > 0) {
+                LocalDate checkIn = earliestCheckIn.plusDays(s);
+                results.add(new Result(checkIn, checkIn.plusDays(nights), best.offered(), best.sorted()));
+            }
+        }
+        return results;
+    }
+
+    private boolean permits(StayRestrictionCalendar restrictions, RoomSummary room, int startDate) {
+        LocalDate checkIn = earliestCheckIn.plusDays(startDate);
+        return restrictions.permits(room, checkIn, checkIn.plusDays(nights));
+    }
+
+    /**
+     * 1 for each night of the window a room is booked, 0 otherwise, per room
+     * with any booking in the window
+     */
+    private Map<Long, int[]> bookedNights(List<BookedStay> stays) {
+        Map<Long, int[]> changes = new HashMap<>();
+        for (BookedStay stay : stays) {
+            int from = (int) Math.max(0, ChronoUnit.DAYS.between(earliestCheckIn, stay.checkInDate()));
+            int to = (int) Math.min(span, ChronoUnit.DAYS.between(earliestCheckIn, stay.checkOutDate()));
+            if (from < to) {
+                int[] change = changes.computeIfAbsent(stay.roomId(), id -> new int[span + 1]);
+                change[from]++;
+                change[to]--;
+            }
+        }
+        // Running sum of the change points; overlapping bookings still count a night once
+        for (int[] nightsBooked : changes.values()) {
+            int active = 0;
+            for (int night = 0; night < span; night++) {
+                active += nightsBooked[night];
+                nightsBooked[night] = active > 0 ? 1 : 0;
+            }
+        }
+        return changes;
+    }
+
+    private static double effectiveRate(RoomSummary room) {
+        return room.pricePerNight() * (1 - room.discountPercentage() / 100);
+    }
+
+    record Result(LocalDate checkIn, LocalDate checkOut, long availableRooms, List<RoomSummary> cheapest) {
+    }
+}
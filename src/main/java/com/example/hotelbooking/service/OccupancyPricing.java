@@ -0,0 +1,320 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.BookedStay;
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.event.BookingChangedEvent;
+import com.example.hotelbooking.exception.PriceQuoteExpiredException;
+import com.example.hotelbooking.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+
+/**
+ * Occupancy-driven nightly prices. Booked nights are counted per room type
+ * and night, updated from each committed booking change rather than counted
+ * per quote, and mapped to an occupancy tier per night, so pricing a night
+ * is one array lookup. A change that moves any night into another tier
+ * publishes a new PriceTable. A search hands out a quote of the multipliers
+ * it priced with, signed with a secret shared by every instance, so the
+ * price shown can be booked on any instance until the quote expires. Counts
+ * are reseeded from the database periodically, which picks up bookings made
+ * on other instances and moves the table on a day after midnight; each
+ * booking's nights are counted once, so a change that commits while the
+ * counts are read is not counted twice when its event follows.
+ */
+@Component
+public class OccupancyPricing {
+
+    private static final Logger logger = LoggerFactory.getLogger(OccupancyPricing.class);
+
+    private static final String QUOTE_MAC = "HmacSHA256";
+    private static final String QUOTE_EXPIRED = "Quoted prices have expired, please check availability again";
+    private static final String QUOTE_MISMATCH = "Price quote does not match this booking, please check availability again";
+
+    private final BookingRepository bookingRepository;
+    private final RoomCatalog roomCatalog;
+    private final int horizonDays;
+    private final double[] thresholds;
+    private final BigDecimal[] multipliers;
+    private final Duration quoteRetention;
+    private final SecretKeySpec quoteKey;
+    private final Clock clock;
+
+    // Booked nights per normalized type, and the nights counted for each booking,
+    // indexed from base; guarded by this
+    private final Map<String, int[]> bookedNights = new HashMap<>();
+    private final Map<Long, BitSet> countedNights = new HashMap<>();
+    private LocalDate base = LocalDate.now();
+    private Map<String, Integer> roomsByType = Map.of();
+    private volatile long catalogVersion = -1;
+
+    private volatile PriceTable current = PriceTable.FLAT;
+
+    @Autowired
+    public OccupancyPricing(@Value("${hotel.pricing.occupancy-tiers:0.5=1.1,0.75=1.25,0.9=1.5}") String tiers,
+                            @Value("${hotel.pricing.horizon-days:365}") int horizonDays,
+                            @Value("${hotel.pricing.quote-retention-ms:900000}") long quoteRetentionMs,
+                            @Value("${hotel.pricing.quote-secret}") String quoteSecret,
+                            BookingRepository bookingRepository,
+                            RoomCatalog roomCatalog) {
+        this(tiers, horizonDays, Duration.ofMillis(quoteRetentionMs), quoteSecret,
+                bookingRepository, roomCatalog, Clock.systemUTC());
+    }
+
+    OccupancyPricing(String tiers, int horizonDays, Duration quoteRetention, String quoteSecret,
+                     BookingRepository bookingRepository, RoomCatalog roomCatalog, Clock clock) {
+        if (quoteSecret == null || quoteSecret.isBlank()) {
+            throw new IllegalArgumentException("hotel.pricing.quote-secret must be set, to the same value on every instance");
+        }
+        this.bookingRepository = bookingRepository;
+        this.roomCatalog = roomCatalog;
+        this.horizonDays = horizonDays;
+        String[] parsed = tiers.isBlank() ? new String[0] : tiers.split(",");
+        if (parsed.length > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("At most " + Byte.MAX_VALUE + " occupancy tiers are supported");
+        }
+        this.thresholds = new double[parsed.length];
+        this.multipliers = new BigDecimal[parsed.length + 1];
+        this.multipliers[0] = BigDecimal.ONE;
+        for (int i = 0; i < parsed.length; i++) {
+            String[] tier = parsed[i].trim().split("=");
+            if (tier.length != 2) {
+                throw new IllegalArgumentException("Occupancy tiers must look like 0.5=1.1, got: " + parsed[i]);
+            }
+            thresholds[i] = Double.parseDouble(tier[0].trim());
+            multipliers[i + 1] = new BigDecimal(tier[1].trim());
+            if (i > 0 && thresholds[i] <= thresholds[i - 1]) {
+                throw new IllegalArgumentException("Occupancy tier thresholds must increase: " + tiers);
+            }
+        }
+        this.quoteRetention = quoteRetention;
+        this.quoteKey = new SecretKeySpec(quoteSecret.getBytes(StandardCharsets.UTF_8), QUOTE_MAC);
+        this.clock = clock;
+    }
+
+    /**
+     * Recounts booked nights from the database and republishes the tiers
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${hotel.pricing.refresh-interval-ms:300000}",
+               fixedDelayString = "${hotel.pricing.refresh-interval-ms:300000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        base = LocalDate.now();
+        bookedNights.clear();
+        countedNights.clear();
+        for (BookedStay stay : bookingRepository.findBookedStays(base, base.plusDays(horizonDays))) {
+            roomCatalog.find(stay.roomId()).ifPresent(room ->
+                    count(stay.bookingId(), room.type(), stay.checkInDate(), stay.checkOutDate(), true));
+        }
+        publishAll();
+        logger.debug("Occupancy counts rebuilt in {} ms", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Counts the nights of a committed booking or cancellation and re-tiers
+     * just those nights
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookingChanged(BookingChangedEvent event) {
+        Optional<RoomSummary> room = roomCatalog.find(event.roomId());
+        if (room.isEmpty()) {
+            return;
+        }
+        String type = room.get().type();
+        count(event.bookingId(), type, event.checkInDate(), event.checkOutDate(),
+                event.change() == BookingChangedEvent.Change.BOOKED);
+        if (catalogVersion != roomCatalog.version()) {
+            publishAll();
+            return;
+        }
+
+        int from = index(event.checkInDate());
+        int to = index(event.checkOutDate());
+        int[] booked = bookedNights.get(PriceTable.normalizeType(type));
+        byte[] tiers = current.tiers(type);
+        byte[] updated = null;
+        int rooms = roomsByType.getOrDefault(PriceTable.normalizeType(type), 0);
+        for (int night = from; night < to; night++) {
+            byte tier = tier(booked[night], rooms);
+            byte previous = tiers == null ? 0 : tiers[night];
+            if (tier != previous) {
+                if (updated == null) {
+                    updated = tiers == null ? new byte[horizonDays] : tiers.clone();
+                }
+                updated[night] = tier;
+            }
+        }
+        if (updated != null) {
+            current = current.with(type, updated);
+        }
+    }
+
+    /**
+     * The prices in effect now
+     */
+    PriceTable current() {
+        if (catalogVersion != roomCatalog.version()) {
+            // Room counts per type changed, so every tier may have
+            synchronized (this) {
+                if (catalogVersion != roomCatalog.version()) {
+                    publishAll();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * A quote of the stay's occupancy multipliers in these prices for each of
+     * the room types, which any instance can book at until it expires
+     */
+    String quote(PriceTable prices, Collection<String> roomTypes, LocalDate checkIn, LocalDate checkOut) {
+        StringJoiner payload = new StringJoiner("|");
+        payload.add(checkIn.toString()).add(checkOut.toString())
+               .add(Long.toString(clock.millis() + quoteRetention.toMillis()));
+        for (String type : new TreeSet<>(roomTypes.stream().map(PriceTable::normalizeType).toList())) {
+            payload.add(URLEncoder.encode(type, StandardCharsets.UTF_8) + "="
+                    + prices.multiplierSum(type, checkIn, checkOut).toPlainString());
+        }
+        String body = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.toString().getBytes(StandardCharsets.UTF_8));
+        return body + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(sign(body));
+    }
+
+    /**
+     * The occupancy multiplier sum a quote holds for the room type and stay
+     */
+    BigDecimal quoted(String quote, String roomType, LocalDate checkIn, LocalDate checkOut) {
+        String[] fields;
+        try {
+            int dot = quote.indexOf('.');
+            if (dot < 0 || !MessageDigest.isEqual(sign(quote.substring(0, dot)),
+                    Base64.getUrlDecoder().decode(quote.substring(dot + 1)))) {
+                throw new PriceQuoteExpiredException(QUOTE_MISMATCH);
+            }
+            fields = new String(Base64.getUrlDecoder().decode(quote.substring(0, dot)), StandardCharsets.UTF_8)
+                    .split("\\|");
+        } catch (IllegalArgumentException e) {
+            throw new PriceQuoteExpiredException(QUOTE_MISMATCH);
+        }
+        if (!fields[0].equals(checkIn.toString()) || !fields[1].equals(checkOut.toString())) {
+            throw new PriceQuoteExpiredException(QUOTE_MISMATCH);
+        }
+        if (clock.millis() > Long.parseLong(fields[2])) {
+            throw new PriceQuoteExpiredException(QUOTE_EXPIRED);
+        }
+        String key = URLEncoder.encode(PriceTable.normalizeType(roomType), StandardCharsets.UTF_8) + "=";
+        for (int i = 3; i < fields.length; i++) {
+            if (fields[i].startsWith(key)) {
+                return new BigDecimal(fields[i].substring(key.length()));
+            }
+        }
+        throw new PriceQuoteExpiredException(QUOTE_MISMATCH);
+    }
+
+    private byte[] sign(String body) {
+        try {
+            Mac mac = Mac.getInstance(QUOTE_MAC);
+            mac.init(quoteKey);
+            return mac.doFinal(body.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign price quotes", e);
+        }
+    }
+
+    /**
+     * Counts or uncounts the booking's nights in the stay; nights already in
+     * that state are left alone, so replaying a change is harmless
+     */
+    private void count(Long bookingId, String type, LocalDate checkIn, LocalDate checkOut, boolean booked) {
+        int from = index(checkIn);
+        int to = index(checkOut);
+        if (from >= to) {
+            return;
+        }
+        int[] nights = bookedNights.computeIfAbsent(PriceTable.normalizeType(type), t -> new int[horizonDays]);
+        BitSet counted = countedNights.computeIfAbsent(bookingId, id -> new BitSet(horizonDays));
+        for (int night = from; night < to; night++) {
+            if (counted.get(night) != booked) {
+                counted.set(night, booked);
+                nights[night] = Math.max(0, nights[night] + (booked ? 1 : -1));
+            }
+        }
+        if (counted.isEmpty()) {
+            countedNights.remove(bookingId);
+        }
+    }
+
+    /**
+     * Re-tiers every type from the counts; publishes only if a tier moved
+     */
+    private void publishAll() {
+        catalogVersion = roomCatalog.version();
+        Map<String, Integer> rooms = new HashMap<>();
+        for (RoomSummary room : roomCatalog.getAll()) {
+            if (room.available()) {
+                rooms.merge(PriceTable.normalizeType(room.type()), 1, Integer::sum);
+            }
+        }
+        roomsByType = rooms;
+
+        Map<String, byte[]> tiersByType = new HashMap<>();
+        for (Map.Entry<String, int[]> entry : bookedNights.entrySet()) {
+            int typeRooms = rooms.getOrDefault(entry.getKey(), 0);
+            byte[] tiers = new byte[horizonDays];
+            for (int night = 0; night < horizonDays; night++) {
+                tiers[night] = tier(entry.getValue()[night], typeRooms);
+            }
+            tiersByType.put(entry.getKey(), tiers);
+        }
+        if (!current.sameTiers(base, tiersByType)) {
+            current = new PriceTable(base, Map.copyOf(tiersByType), multipliers);
+        }
+    }
+
+    /**
+     * Index of a night in the counts, clamped to the horizon
+     */
+    private int index(LocalDate night) {
+        long days = ChronoUnit.DAYS.between(base, night);
+        return (int) Math.max(0, Math.min(days, horizonDays));
+    }
+
+    /**
+     * Number of thresholds the night's occupancy has reached
+     */
+    private byte tier(int booked, int rooms) {
+        byte tier = 0;
+        while (rooms > 0 && tier < thresholds.length && booked >= thresholds[tier] * rooms) {
+            tier++;
+        }
+        return tier;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.hotelbooking.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One snapshot of the occupancy price multipliers: per room type, the
+ * occupancy tier of each night from the base date, and the multiplier of
+ * each tier. Nights outside the table and types without bookings are priced
+ * at tier 0. Immutable, so every room a search prices sees the same tiers.
+ */
+final class PriceTable {
+
+    static final PriceTable FLAT = new PriceTable(LocalDate.EPOCH, Map.of(), new BigDecimal[] { BigDecimal.ONE });
+
+    private final long baseDay;
+    private final Map<String, byte[]> tiersByType;
+    private final BigDecimal[] multipliers;
+
+    PriceTable(LocalDate base, Map<String, byte[]> tiersByType, BigDecimal[] multipliers) {
+        this.baseDay = base.toEpochDay();
+        this.tiersByType = tiersByType;
+        this.multipliers = multipliers;
+    }
+
+    LocalDate base() {
+        return LocalDate.ofEpochDay(baseDay);
+    }
+
+    /**
+     * The multiplier for one night of a room of the type
+     */
+    BigDecimal multiplier(String roomType, LocalDate night) {
+        byte[] tiers = tiers(roomType);
+        long index = night.toEpochDay() - baseDay;
+        if (tiers == null || index < 0 || index >= tiers.length) {
+            return multipliers[0];
+        }
+        return multipliers[tiers[(int) index]];
+    }
+
+    /**
+     * Sum of the nightly multipliers over a stay, so the undiscounted price is
+     * the nightly rate times this
+     */
+    BigDecimal multiplierSum(String roomType, LocalDate checkIn, LocalDate checkOut) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (LocalDate night = checkIn; night.isBefore(checkOut); night = night.plusDays(1)) {
+            sum = sum.add(multiplier(roomType, night));
+        }
+        return sum;
+    }
+
+    byte[] tiers(String roomType) {
+        return tiersByType.get(normalizeType(roomType));
+    }
+
+    /**
+     * Whether the table holds exactly these tiers from this base date
+     */
+    boolean sameTiers(LocalDate base, Map<String, byte[]> tiers) {
+        if (base.toEpochDay() != baseDay || !tiers.keySet().equals(tiersByType.keySet())) {
+            return false;
+        }
+        return tiers.entrySet().stream().allMatch(e -> Arrays.equals(e.getValue(), tiersByType.get(e.getKey())));
+    }
+
+    /**
+     * The next table, with one type's tiers replaced
+     */
+    PriceTable with(String roomType, byte[] tiers) {
+        Map<String, byte[]> updated = new HashMap<>(tiersByType);
+        updated.put(normalizeType(roomType), tiers);
+        return new PriceTable(base(), Map.copyOf(updated), multipliers);
+    }
+
+    static String normalizeType(String type) {
+        return type.toLowerCase(Locale.ROOT);
+    }
+}
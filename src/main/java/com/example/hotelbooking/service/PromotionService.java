@@ -0,0 +1,397 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.exception.InvalidBookingDataException;
+import com.example.hotelbooking.exception.PromotionNotApplicableException;
+import com.example.hotelbooking.model.Promotion;
+import com.example.hotelbooking.repository.PromotionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Promotion codes with validity windows, room-type eligibility and
+ * redemption caps. Active codes are held in a hash index keyed by code, so
+ * looking one up never queries. A capped code is redeemed from a block of
+ * redemptions this instance has claimed in the database with a
+ * compare-and-set update that cannot take the claimed total past the cap;
+ * within a block, redeeming is a CAS on an in-memory counter, and the
+ * database is only touched when a block runs out. Codes are redeemed
+ * before the booking transaction starts, so a claim never needs a second
+ * pooled connection while redeemers queued behind it hold theirs. Used
+ * redemptions are written back in batches, and claimed redemptions a quiet
+ * code is not using are handed back so other instances can have them.
+ */
+@Service
+public class PromotionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionService.class);
+
+    private final PromotionRepository promotionRepository;
+    private final int claimSize;
+    private final Counter redeemedCounter;
+    private final Counter exhaustedCounter;
+    private final Counter rejectedCounter;
+    private final Counter claimCounter;
+
+    // Codes that can be redeemed, by normalized code; replaced whole on rebuild
+    private volatile Map<String, CodeState> index = Map.of();
+
+    // Codes dropped by a rebuild, flushed once more in case a redemption raced the drop or
+    // was handed back after it; guarded by this
+    private final List<CodeState> retired = new ArrayList<>();
+
+    public PromotionService(PromotionRepository promotionRepository,
+                            @Value("${hotel.promotions.claim-size:50}") int claimSize,
+                            MeterRegistry meterRegistry) {
+        this.promotionRepository = promotionRepository;
+        this.claimSize = claimSize;
+        this.redeemedCounter = outcomeCounter(meterRegistry, "redeemed");
+        this.exhaustedCounter = outcomeCounter(meterRegistry, "exhausted");
+        this.rejectedCounter = outcomeCounter(meterRegistry, "rejected");
+        this.claimCounter = Counter.builder("promotion.claims")
+                .description("Blocks of redemptions claimed from the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the active codes and swaps in a fresh index; redemption counters
+     * of codes that stay active carry over
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${hotel.promotions.refresh-interval-ms:60000}",
+               fixedDelayString = "${hotel.promotions.refresh-interval-ms:60000}")
+    public synchronized void rebuild() {
+        Map<Long, CodeState> previous = new HashMap<>();
+        for (CodeState state : index.values()) {
+            previous.put(state.id, state);
+        }
+        Map<String, CodeState> next = new HashMap<>();
+        for (Promotion promotion : promotionRepository.findByActiveTrueOrderById()) {
+            CodeState state = previous.remove(promotion.getId());
+            if (state == null) {
+                state = new CodeState(promotion.getId());
+            }
+            state.rule = Rule.of(promotion);
+            // Other instances may have handed redemptions back since this one ran out
+            Integer max = promotion.getMaxRedemptions();
+            state.exhausted = max != null && promotion.getClaimedRedemptions() >= max;
+            next.put(state.rule.code(), state);
+        }
+        index = Map.copyOf(next);
+        for (CodeState dropped : previous.values()) {
+            flush(dropped, true);
+            retired.add(dropped);
+        }
+        logger.debug("Indexed {} promotion codes", next.size());
+    }
+
+    /**
+     * Writes back redemptions used since the last flush; hands back the
+     * claimed redemptions of codes nobody redeemed meanwhile
+     */
+    @Scheduled(initialDelayString = "${hotel.promotions.flush-interval-ms:5000}",
+               fixedDelayString = "${hotel.promotions.flush-interval-ms:5000}")
+    public void flush() {
+        for (CodeState state : index.values()) {
+            flush(state, false);
+        }
+        flushRetired();
+    }
+
+    /**
+     * Writes back and hands back everything while the database is still open
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        for (CodeState state : index.values()) {
+            flush(state, true);
+        }
+        flushRetired();
+    }
+
+    public List<Promotion> getPromotions() {
+        return promotionRepository.findAll(Sort.by("id"));
+    }
+
+    /**
+     * Stores a code and makes it redeemable on this instance straight away
+     */
+    public Promotion addPromotion(Promotion promotion) {
+        validatePromotion(promotion);
+        promotion.setId(null);
+        promotion.setCode(normalizeCode(promotion.getCode()));
+        promotion.setClaimedRedemptions(0);
+        promotion.setRedemptions(0);
+        promotion.setActive(true);
+        if (promotionRepository.existsByCode(promotion.getCode())) {
+            throw new InvalidBookingDataException("Promotion code already exists: " + promotion.getCode());
+        }
+        Promotion saved = promotionRepository.save(promotion);
+        rebuild();
+        return saved;
+    }
+
+    /**
+     * Stops a code being redeemed; other instances stop on their next
+     * refresh. False when there is no code with the id.
+     */
+    public boolean deactivatePromotion(Long id) {
+        Promotion promotion = promotionRepository.findById(id).orElse(null);
+        if (promotion == null) {
+            return false;
+        }
+        promotion.setActive(false);
+        promotionRepository.save(promotion);
+        rebuild();
+        return true;
+    }
+
+    /**
+     * Discount percentage the code gives on a room of the type today, without
+     * redeeming it; throws if the code cannot be used
+     */
+    public double discountFor(String code, String roomType) {
+        CodeState state = applicable(code, roomType);
+        if (state.rule.maxRedemptions() != null && state.exhausted && state.available.get() == 0) {
+            throw fullyRedeemed(state.rule);
+        }
+        return state.rule.discountPercentage();
+    }
+
+    /**
+     * Uses one redemption of the code on a room of the type. Called outside
+     * any transaction; the caller hands the redemption back if the booking is
+     * not made.
+     */
+    public Redemption redeem(String code, String roomType) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Promotion codes must be redeemed before the booking transaction starts");
+        }
+        CodeState state;
+        try {
+            state = applicable(code, roomType);
+        } catch (PromotionNotApplicableException e) {
+            rejectedCounter.increment();
+            throw e;
+        }
+        Rule rule = state.rule;
+        if (rule.maxRedemptions() != null && !take(state)) {
+            exhaustedCounter.increment();
+            throw fullyRedeemed(rule);
+        }
+        state.unflushed.incrementAndGet();
+        redeemedCounter.increment();
+        return new Redemption(state.id, rule.maxRedemptions() != null, rule.discountPercentage());
+    }
+
+    /**
+     * Gives back a redemption whose booking was not made, even if its code
+     * has been deactivated or dropped meanwhile. Held under the same lock as
+     * rebuilds and the flush of retired codes, so a state cannot be retired
+     * or flushed for the last time while the redemption is returned to it.
+     */
+    public synchronized void handBack(Redemption redemption) {
+        CodeState state = stateOf(redemption.promotionId());
+        if (state != null) {
+            state.unflushed.decrementAndGet();
+            if (redemption.claimed()) {
+                state.available.incrementAndGet();
+            }
+            return;
+        }
+        // Retired and already written back; undo it in the database
+        try {
+            promotionRepository.addRedemptions(redemption.promotionId(), -1);
+            if (redemption.claimed()) {
+                promotionRepository.releaseRedemptions(redemption.promotionId(), 1);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not hand back a redemption of promotion {}: {}",
+                    redemption.promotionId(), e.getMessage());
+        }
+    }
+
+    public static String normalizeCode(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * This instance's state for the promotion, active or retired; null once a
+     * retired code has been written back for the last time
+     */
+    private CodeState stateOf(long promotionId) {
+        for (CodeState state : index.values()) {
+            if (state.id == promotionId) {
+                return state;
+            }
+        }
+        for (CodeState state : retired) {
+            if (state.id == promotionId) {
+                return state;
+            }
+        }
+        return null;
+    }
+
+    private synchronized void flushRetired() {
+        for (CodeState state : retired) {
+            flush(state, true);
+        }
+        retired.clear();
+    }
+
+    /**
+     * Takes one redemption from this instance's block, claiming another block
+     * when it is empty; false once the cap is reached
+     */
+    private boolean take(CodeState state) {
+        while (true) {
+            int left = state.available.get();
+            if (left > 0) {
+                if (state.available.compareAndSet(left, left - 1)) {
+                    return true;
+                }
+            } else if (state.exhausted || !claim(state)) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Claims the next block of redemptions from the database; false when none
+     * are left. One claim per code at a time, and only when the block is empty.
+     */
+    private boolean claim(CodeState state) {
+        synchronized (state) {
+            if (state.available.get() > 0) {
+                return true;
+            }
+            int max = state.rule.maxRedemptions();
+            while (true) {
+                int claimed = promotionRepository.findClaimedRedemptions(state.id).orElse(max);
+                int count = Math.min(claimSize, max - claimed);
+                if (count <= 0) {
+                    state.exhausted = true;
+                    return false;
+                }
+                claimCounter.increment();
+                if (promotionRepository.claimRedemptions(state.id, claimed, count) == 1) {
+                    state.available.addAndGet(count);
+                    return true;
+                }
+            }
+        }
+    }
+
+    private void flush(CodeState state, boolean releaseUnused) {
+        int used = state.unflushed.getAndSet(0);
+        try {
+            if (used != 0) {
+                promotionRepository.addRedemptions(state.id, used);
+            } else if (state.available.get() > 0) {
+                // Quiet since the last flush; let other instances have the rest
+                releaseUnused = true;
+            }
+            if (releaseUnused) {
+                int unused = state.available.getAndSet(0);
+                if (unused > 0) {
+                    promotionRepository.releaseRedemptions(state.id, unused);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keep the count for the next flush; unreleased claims only leave a code short
+            state.unflushed.addAndGet(used);
+            logger.warn("Could not write back redemptions of promotion {}: {}", state.id, e.getMessage());
+        }
+    }
+
+    private CodeState applicable(String code, String roomType) {
+        CodeState state = code == null ? null : index.get(normalizeCode(code));
+        LocalDate today = LocalDate.now();
+        if (state == null || today.isBefore(state.rule.validFrom()) || today.isAfter(state.rule.validUntil())) {
+            throw new PromotionNotApplicableException("Promotion code " + code + " is not valid");
+        }
+        if (state.rule.roomType() != null && !state.rule.roomType().equalsIgnoreCase(roomType)) {
+            throw new PromotionNotApplicableException(
+                "Promotion code " + state.rule.code() + " does not apply to " + roomType + " rooms");
+        }
+        return state;
+    }
+
+    private void validatePromotion(Promotion promotion) {
+        if (promotion.getValidUntil().isBefore(promotion.getValidFrom())) {
+            throw new InvalidBookingDataException("Valid-until date cannot be before valid-from date");
+        }
+        if (promotion.getValidUntil().isBefore(LocalDate.now())) {
+            throw new InvalidBookingDataException("Valid-until date cannot be in the past");
+        }
+        if (promotion.getRoomType() != null && promotion.getRoomType().isBlank()) {
+            promotion.setRoomType(null);
+        }
+    }
+
+    private static PromotionNotApplicableException fullyRedeemed(Rule rule) {
+        return new PromotionNotApplicableException("Promotion code " + rule.code() + " has been fully redeemed");
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("promotion.redemptions")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * One redemption of a code: its discount, and whether it came out of a
+     * claimed block (capped codes) so handing it back returns the claim too
+     */
+    public record Redemption(long promotionId, boolean claimed, double discountPercentage) {
+    }
+
+    /**
+     * One code as stored
+     */
+    private record Rule(String code, double discountPercentage, String roomType, LocalDate validFrom,
+                        LocalDate validUntil, Integer maxRedemptions) {
+
+        static Rule of(Promotion promotion) {
+            return new Rule(promotion.getCode(), promotion.getDiscountPercentage(), promotion.getRoomType(),
+                    promotion.getValidFrom(), promotion.getValidUntil(), promotion.getMaxRedemptions());
+        }
+    }
+
+    /**
+     * A code and this instance's counters for it
+     */
+    private static final class CodeState {
+
+        private final long id;
+        private volatile Rule rule;
+        // Claimed from the database and not yet redeemed
+        private final AtomicInteger available = new AtomicInteger();
+        // Redeemed and not yet written back
+        private final AtomicInteger unflushed = new AtomicInteger();
+        // The database had nothing left to claim at the last look
+        private volatile boolean exhausted;
+
+        CodeState(long id) {
+            this.id = id;
+        }
+    }
+}
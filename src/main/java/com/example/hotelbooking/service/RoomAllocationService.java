@@ -0,0 +1,241 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.BookedStay;
+import com.example.hotelbooking.dto.RoomFilter;
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.exception.BookingConflictException;
+import com.example.hotelbooking.exception.InvalidBookingDataException;
+import com.example.hotelbooking.exception.RoomNotAvailableException;
+import com.example.hotelbooking.model.Booking;
+import com.example.hotelbooking.model.PaymentMethod;
+import com.example.hotelbooking.repository.BookingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Run-of-house booking: books some free room of a requested type. Free rooms
+ * are ranked best-fit, by how snugly the stay fills the free interval it
+ * lands in, so short gaps between bookings get used up and long free runs
+ * stay whole for long stays. Rooms another request on this instance is
+ * booking for overlapping nights are tried last rather than first, and
+ * equally good rooms are tried in random order, so concurrent requests spread
+ * across rooms instead of racing for the first one; losing a race to another
+ * instance moves on to the next candidate.
+ */
+@Service
+public class RoomAllocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomAllocationService.class);
+
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final RoomCatalog roomCatalog;
+    private final StayRestrictionService stayRestrictionService;
+    private final int gapHorizonDays;
+    private final int maxAttempts;
+
+    // Stays with a booking attempt in progress on this instance, by room
+    private final ConcurrentHashMap<Long, List<Stay>> claims = new ConcurrentHashMap<>();
+
+    private final Counter bookedCounter;
+    private final Counter conflictCounter;
+    private final Counter unavailableCounter;
+
+    public RoomAllocationService(BookingService bookingService,
+                                 BookingRepository bookingRepository,
+                                 RoomCatalog roomCatalog,
+                                 StayRestrictionService stayRestrictionService,
+                                 @Value("${hotel.allocation.gap-horizon-days:14}") int gapHorizonDays,
+                                 @Value("${hotel.allocation.max-attempts:3}") int maxAttempts,
+                                 MeterRegistry meterRegistry) {
+        this.bookingService = bookingService;
+        this.bookingRepository = bookingRepository;
+        this.roomCatalog = roomCatalog;
+        this.stayRestrictionService = stayRestrictionService;
+        this.gapHorizonDays = gapHorizonDays;
+        this.maxAttempts = maxAttempts;
+        this.bookedCounter = outcomeCounter(meterRegistry, "booked");
+        this.conflictCounter = outcomeCounter(meterRegistry, "conflict");
+        this.unavailableCounter = outcomeCounter(meterRegistry, "unavailable");
+    }
+
+    /**
+     * Books the best-fitting free room of the type for the stay
+     */
+    public Booking bookRoomOfType(Long userId, String roomType, LocalDate checkIn, LocalDate checkOut,
+                                  PaymentMethod paymentMethod) {
+        if (roomType == null || roomType.isBlank()) {
+            throw new InvalidBookingDataException("Room type is required");
+        }
+        if (checkIn == null || checkOut == null || !checkIn.isBefore(checkOut)) {
+            throw new InvalidBookingDataException("Check-out must be at least one day after check-in");
+        }
+
+        Stay stay = new Stay(checkIn, checkOut);
+        List<RoomSummary> contended = new ArrayList<>();
+        int attempts = 0;
+        for (RoomSummary room : rankFreeRooms(roomType, checkIn, checkOut)) {
+            if (attempts == maxAttempts) {
+                break;
+            }
+            if (!claim(room.id(), stay)) {
+                // Another request here is booking overlapping nights; it may yet fail, so try it last
+                contended.add(room);
+                continue;
+            }
+            attempts++;
+            try {
+                Booking booking = tryBooking(userId, room, stay, paymentMethod);
+                if (booking != null) {
+                    return booking;
+                }
+            } finally {
+                release(room.id(), stay);
+            }
+        }
+        for (RoomSummary room : contended) {
+            if (attempts == maxAttempts) {
+                break;
+            }
+            attempts++;
+            // The room lock in createBooking settles who gets it
+            Booking booking = tryBooking(userId, room, stay, paymentMethod);
+            if (booking != null) {
+                return booking;
+            }
+        }
+
+        unavailableCounter.increment();
+        throw new RoomNotAvailableException(
+            String.format("No %s room is available from %s to %s", roomType, checkIn, checkOut));
+    }
+
+    /**
+     * The booking, or null if the room was taken since the ranking was read
+     */
+    private Booking tryBooking(Long userId, RoomSummary room, Stay stay, PaymentMethod paymentMethod) {
+        try {
+            Booking booking = bookingService.createBooking(userId, room.id(), stay.checkIn(), stay.checkOut(),
+                    paymentMethod);
+            bookedCounter.increment();
+            return booking;
+        } catch (BookingConflictException e) {
+            // Booked through another instance, or by the request holding the claim
+            conflictCounter.increment();
+            logger.debug("Room {} was taken for {} to {}, trying the next candidate", room.id(), stay.checkIn(),
+                    stay.checkOut());
+            return null;
+        }
+    }
+
+    /**
+     * Claims the room for the stay; false if another attempt on this instance
+     * holds a claim on overlapping nights
+     */
+    private boolean claim(Long roomId, Stay stay) {
+        boolean[] claimed = new boolean[1];
+        claims.compute(roomId, (id, stays) -> {
+            if (stays != null && stays.stream().anyMatch(stay::overlaps)) {
+                return stays;
+            }
+            List<Stay> updated = stays == null ? new ArrayList<>() : new ArrayList<>(stays);
+            updated.add(stay);
+            claimed[0] = true;
+            return updated;
+        });
+        return claimed[0];
+    }
+
+    private void release(Long roomId, Stay stay) {
+        claims.computeIfPresent(roomId, (id, stays) -> {
+            List<Stay> updated = new ArrayList<>(stays);
+            updated.remove(stay);
+            return updated.isEmpty() ? null : updated;
+        });
+    }
+
+    /**
+     * Free rooms of the type the stay rules allow, best fit first
+     */
+    private List<RoomSummary> rankFreeRooms(String roomType, LocalDate checkIn, LocalDate checkOut) {
+        RoomFilter filter = new RoomFilter(roomType, null, null, null, false, checkIn, checkOut);
+        List<RoomSummary> rooms = roomCatalog.select(filter, Set.of())
+                .filter(stayRestrictionService.permitting(checkIn, checkOut))
+                .toList();
+        if (rooms.isEmpty()) {
+            return rooms;
+        }
+        List<BookedStay> stays = bookingRepository.findBookedStaysForRooms(rooms.stream().map(RoomSummary::id).toList(),
+                checkIn.minusDays(gapHorizonDays), checkOut.plusDays(gapHorizonDays));
+        return rankByFit(rooms, stays, checkIn, checkOut, gapHorizonDays, ThreadLocalRandom.current());
+    }
+
+    /**
+     * The rooms free for the stay, ordered by the free nights the stay would
+     * leave on either side of it, each side counted up to horizonDays; a stay
+     * that exactly fills a gap scores 0 and a room with an open calendar
+     * scores 2 * horizonDays. Ties are broken randomly.
+     */
+    static List<RoomSummary> rankByFit(List<RoomSummary> rooms, List<BookedStay> stays, LocalDate checkIn,
+                                       LocalDate checkOut, int horizonDays, Random random) {
+        Map<Long, List<BookedStay>> staysByRoom = new HashMap<>();
+        for (BookedStay stay : stays) {
+            staysByRoom.computeIfAbsent(stay.roomId(), id -> new ArrayList<>()).add(stay);
+        }
+
+        record Candidate(RoomSummary room, long leftoverNights, int tieBreak) {
+        }
+        List<Candidate> candidates = new ArrayList<>();
+        for (RoomSummary room : rooms) {
+            long before = horizonDays;
+            long after = horizonDays;
+            boolean free = true;
+            for (BookedStay stay : staysByRoom.getOrDefault(room.id(), List.of())) {
+                if (stay.checkInDate().isBefore(checkOut) && stay.checkOutDate().isAfter(checkIn)) {
+                    free = false;
+                    break;
+                }
+                if (!stay.checkOutDate().isAfter(checkIn)) {
+                    before = Math.min(before, ChronoUnit.DAYS.between(stay.checkOutDate(), checkIn));
+                } else {
+                    after = Math.min(after, ChronoUnit.DAYS.between(checkOut, stay.checkInDate()));
+                }
+            }
+            if (free) {
+                candidates.add(new Candidate(room, before + after, random.nextInt()));
+            }
+        }
+
+        candidates.sort(Comparator.comparingLong(Candidate::leftoverNights).thenComparingInt(Candidate::tieBreak));
+        return candidates.stream().map(Candidate::room).toList();
+    }
+
+    private record Stay(LocalDate checkIn, LocalDate checkOut) {
+
+        boolean overlaps(Stay other) {
+            return checkIn.isBefore(other.checkOut) && checkOut.isAfter(other.checkIn);
+        }
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("booking.allocation")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
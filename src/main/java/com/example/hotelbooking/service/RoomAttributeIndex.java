@@ -0,0 +1,155 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.RoomFilter;
+import com.example.hotelbooking.dto.RoomSummary;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column-per-attribute copy of a catalog snapshot: primitive arrays for
+ * capacity and price, dictionary-encoded types, and bitsets for enabled and
+ * discounted rooms, all aligned with the snapshot's positions. A filter is
+ * answered by one branch-free pass per constrained column, each ANDing a
+ * 64-room word at a time into the selection, so combinations cost the same
+ * as single criteria and never touch the RoomSummary objects. Immutable.
+ */
+final class RoomAttributeIndex {
+
+    private final int size;
+    private final int[] capacity;
+    private final double[] price;
+    private final int[] typeCode;
+    private final Map<String, Integer> typeCodes;
+    private final long[] available;
+    private final long[] discounted;
+
+    RoomAttributeIndex(List<RoomSummary> rooms) {
+        this.size = rooms.size();
+        this.capacity = new int[size];
+        this.price = new double[size];
+        this.typeCode = new int[size];
+        this.typeCodes = new HashMap<>();
+        BitSet availableBits = new BitSet(size);
+        BitSet discountedBits = new BitSet(size);
+
+        for (int i = 0; i < size; i++) {
+            RoomSummary room = rooms.get(i);
+            capacity[i] = room.capacity();
+            price[i] = room.pricePerNight();
+            typeCode[i] = room.type() == null
+                    ? -1
+                    : typeCodes.computeIfAbsent(normalize(room.type()), t -> typeCodes.size());
+            availableBits.set(i, room.available());
+            discountedBits.set(i, room.discountPercentage() > 0);
+        }
+        this.available = words(availableBits);
+        this.discounted = words(discountedBits);
+    }
+
+    /**
+     * Positions of the rooms matching every attribute criterion of the filter;
+     * with dates, disabled rooms are excluded as well
+     */
+    BitSet select(RoomFilter filter) {
+        if (size == 0) {
+            return new BitSet();
+        }
+        long[] selection = new long[wordCount()];
+        Arrays.fill(selection, -1L);
+        selection[selection.length - 1] = lastWordMask();
+
+        if (filter.type() != null) {
+            Integer code = typeCodes.get(normalize(filter.type()));
+            if (code == null) {
+                return new BitSet();
+            }
+            matchType(selection, code);
+        }
+        if (filter.minCapacity() != null) {
+            matchMinCapacity(selection, filter.minCapacity());
+        }
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            matchPrice(selection,
+                    filter.minPrice() == null ? Double.NEGATIVE_INFINITY : filter.minPrice(),
+                    filter.maxPrice() == null ? Double.POSITIVE_INFINITY : filter.maxPrice());
+        }
+        if (filter.discountedOnly()) {
+            and(selection, discounted);
+        }
+        if (filter.dateSpecific()) {
+            and(selection, available);
+        }
+        return BitSet.valueOf(selection);
+    }
+
+    private void matchType(long[] selection, int code) {
+        for (int w = 0; w < selection.length; w++) {
+            int base = w << 6;
+            int end = Math.min(64, size - base);
+            long word = 0;
+            for (int b = 0; b < end; b++) {
+                word |= (typeCode[base + b] == code ? 1L : 0L) << b;
+            }
+            selection[w] &= word;
+        }
+    }
+
+    private void matchMinCapacity(long[] selection, int minCapacity) {
+        for (int w = 0; w < selection.length; w++) {
+            int base = w << 6;
+            int end = Math.min(64, size - base);
+            long word = 0;
+            for (int b = 0; b < end; b++) {
+                word |= (capacity[base + b] >= minCapacity ? 1L : 0L) << b;
+            }
+            selection[w] &= word;
+        }
+    }
+
+    private void matchPrice(long[] selection, double min, double max) {
+        for (int w = 0; w < selection.length; w++) {
+            int base = w << 6;
+            int end = Math.min(64, size - base);
+            long word = 0;
+            for (int b = 0; b < end; b++) {
+                double p = price[base + b];
+                word |= (p >= min & p <= max ? 1L : 0L) << b;
+            }
+            selection[w] &= word;
+        }
+    }
+
+    private static void and(long[] selection, long[] bits) {
+        for (int w = 0; w < selection.length; w++) {
+            selection[w] &= bits[w];
+        }
+    }
+
+    private int wordCount() {
+        return (size + 63) >>> 6;
+    }
+
+    private long lastWordMask() {
+        int used = size & 63;
+        return used == 0 ? -1L : (1L << used) - 1;
+    }
+
+    /**
+     * Fixed-length word array; BitSet.toLongArray drops trailing zero words
+     */
+    private long[] words(BitSet bits) {
+        long[] words = new long[wordCount()];
+        long[] set = bits.toLongArray();
+        System.arraycopy(set, 0, words, 0, set.length);
+        return words;
+    }
+
+    private static String normalize(String type) {
+        return type.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.RoomFilter;
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.repository.RoomRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Immutable in-memory snapshot of every room, ordered by id. Readers follow a
+ * volatile reference without locking; writers build a modified copy and swap
+ * it in. Rooms written by other instances appear on the next periodic refresh,
+ * or immediately on a lookup miss. The catalog version is a hash of the
+ * content, so every instance holding the same rooms reports the same version
+ * and the strong ETags built on it agree behind a load balancer.
+ */
+@Component
+public class RoomCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomCatalog.class);
+
+    private final RoomRepository roomRepository;
+
+    private volatile Snapshot snapshot;
+
+    public RoomCatalog(RoomRepository roomRepository, MeterRegistry meterRegistry) {
+        this.roomRepository = roomRepository;
+        Gauge.builder("catalog.rooms", this, c -> c.snapshot == null ? 0 : c.snapshot.size()).register(meterRegistry);
+    }
+
+    /**
+     * Loads every room from the database and swaps the result in
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${hotel.catalog.refresh-interval-ms:300000}",
+               fixedDelayString = "${hotel.catalog.refresh-interval-ms:300000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        List<RoomSummary> rooms = roomRepository.findAllSummaries();
+        Snapshot current = snapshot;
+        if (current == null || !current.sameRooms(rooms)) {
+            snapshot = new Snapshot(rooms);
+        }
+        logger.debug("Room catalog loaded {} rooms in {} ms", rooms.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Hash of the catalog content: changes whenever it changes, and is the
+     * same on every instance with the same rooms
+     */
+    public long version() {
+        return current().version;
+    }
+
+    /**
+     * When the catalog content last changed, in epoch milliseconds
+     */
+    public long lastModified() {
+        return current().lastModified;
+    }
+
+    /**
+     * Every room, ordered by id
+     */
+    public List<RoomSummary> getAll() {
+        return current().all();
+    }
+
+    /**
+     * The room with this id; a miss falls through to the database once and
+     * caches the row, so rooms added elsewhere are found before the next refresh
+     */
+    public Optional<RoomSummary> find(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        RoomSummary room = current().get(id);
+        if (room != null) {
+            return Optional.of(room);
+        }
+        Optional<RoomSummary> loaded = roomRepository.findById(id).map(RoomSummary::of);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    /**
+     * Rooms matching the filter's attribute criteria, in id order, answered
+     * from the snapshot's attribute index; rooms in excludedIds are left out
+     */
+    public Stream<RoomSummary> select(RoomFilter filter, Collection<Long> excludedIds) {
+        Snapshot current = current();
+        BitSet matches = current.index.select(filter);
+        for (Long id : excludedIds) {
+            Integer i = current.indexById.get(id);
+            if (i != null) {
+                matches.clear(i);
+            }
+        }
+        return matches.stream().mapToObj(i -> current.rooms[i]);
+    }
+
+    /**
+     * Adds or replaces a room
+     */
+    public synchronized void put(RoomSummary room) {
+        snapshot = current().with(room);
+    }
+
+    public synchronized void remove(Long id) {
+        snapshot = current().without(id);
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                rebuild();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Rooms sorted by id, plus an id to position map and an attribute index
+     * over the same positions; never modified after construction
+     */
+    private static final class Snapshot {
+
+        private final RoomSummary[] rooms;
+        private final Map<Long, Integer> indexById;
+        private final List<RoomSummary> view;
+        private final RoomAttributeIndex index;
+        private final long version;
+        private final long lastModified = System.currentTimeMillis();
+
+        Snapshot(Collection<RoomSummary> source) {
+            this.rooms = source.toArray(new RoomSummary[0]);
+            Arrays.sort(rooms, Comparator.comparing(RoomSummary::id));
+            Map<Long, Integer> index = new HashMap<>(rooms.length * 2);
+            ContentHash hash = new ContentHash();
+            for (int i = 0; i < rooms.length; i++) {
+                RoomSummary room = rooms[i];
+                index.put(room.id(), i);
+                hash.add(room.id()).add(room.roomNumber()).add(room.type()).add(room.capacity())
+                        .add(room.pricePerNight()).add(room.discountPercentage()).add(room.available())
+                        .add(room.description()).add(room.imageUrl());
+            }
+            this.version = hash.value();
+            this.indexById = index;
+            this.view = List.of(rooms);
+            this.index = new RoomAttributeIndex(view);
+        }
+
+        RoomSummary get(Long id) {
+            Integer i = indexById.get(id);
+            return i == null ? null : rooms[i];
+        }
+
+        List<RoomSummary> all() {
+            return view;
+        }
+
+        int size() {
+            return rooms.length;
+        }
+
+        boolean sameRooms(List<RoomSummary> other) {
+            return view.equals(other);
+        }
+
+        Snapshot with(RoomSummary room) {
+            Map<Long, RoomSummary> copy = toMap();
+            copy.put(room.id(), room);
+            return new Snapshot(copy.values());
+        }
+
+        Snapshot without(Long id) {
+            if (!indexById.containsKey(id)) {
+                return this;
+            }
+            Map<Long, RoomSummary> copy = toMap();
+            copy.remove(id);
+            return new Snapshot(copy.values());
+        }
+
+        private Map<Long, RoomSummary> toMap() {
+            Map<Long, RoomSummary> map = new HashMap<>(rooms.length * 2 + 2);
+            for (RoomSummary room : rooms) {
+                map.put(room.id(), room);
+            }
+            return map;
+        }
+    }
+}
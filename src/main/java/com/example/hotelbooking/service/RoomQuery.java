@@ -0,0 +1,43 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.RoomFilter;
+import com.example.hotelbooking.dto.RoomSort;
+import com.example.hotelbooking.dto.RoomSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * One page of a room search; equal queries give equal pages for the same
+ * catalog, bookings and stay restrictions, so it also keys cached availability results
+ */
+record RoomQuery(RoomFilter filter, RoomSort sort, int page, int size) {
+
+    /**
+     * Runs the query against the catalog. Matches come from the attribute
+     * index, and only the first (page + 1) * size are kept for sorting, so
+     * cheapest-N style queries never sort or hold the full result set.
+     */
+    Page<RoomSummary> run(RoomCatalog catalog, Collection<Long> bookedRoomIds) {
+        return run(catalog, bookedRoomIds, room -> true);
+    }
+
+    /**
+     * Runs the query, keeping only the rooms the stay rules allow
+     */
+    Page<RoomSummary> run(RoomCatalog catalog, Collection<Long> bookedRoomIds, Predicate<RoomSummary> allowed) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        int window = (int) Math.min(pageRequest.getOffset() + size, Integer.MAX_VALUE);
+
+        TopK<RoomSummary> best = new TopK<>(sort.comparator(), window);
+        catalog.select(filter, bookedRoomIds).filter(allowed).forEach(best::offer);
+
+        List<RoomSummary> sorted = best.sorted();
+        int from = (int) Math.min(pageRequest.getOffset(), sorted.size());
+        return new PageImpl<>(sorted.subList(from, sorted.size()), pageRequest, best.offered());
+    }
+}
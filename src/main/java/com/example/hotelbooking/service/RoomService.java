@@ -1,11 +1,16 @@
 package com.example.hotelbooking.service;
 
+import com.example.hotelbooking.dto.RoomFilter;
+import com.example.hotelbooking.dto.RoomSort;
+import com.example.hotelbooking.dto.RoomSummary;
 import com.example.hotelbooking.model.Room;
 import com.example.hotelbooking.repository.RoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class RoomService {
@@ -13,21 +18,47 @@ public class RoomService {
     @Autowired
     private RoomRepository roomRepository;
 
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    @Autowired
+    private AvailabilityResultCache availabilityResultCache;
+
     public Room addRoom(Room room) {
-        return roomRepository.save(room);
+        Room savedRoom = roomRepository.save(room);
+        roomCatalog.put(RoomSummary.of(savedRoom));
+        searchService.indexRoom(savedRoom);
+        return savedRoom;
     }
 
-    public List<Room> getAllRooms() {
-        return roomRepository.findAll();
+    public List<RoomSummary> getAllRooms() {
+        return roomCatalog.getAll();
     }
 
-    public Room getRoomById(Long id) {
-        return roomRepository.findById(id)
+    /**
+     * One page of rooms matching the filter, in the given order. Date-specific
+     * searches go through the availability result cache; the rest are answered
+     * from the catalog alone.
+     */
+    public Page<RoomSummary> findRooms(RoomFilter filter, RoomSort sort, int page, int size) {
+        RoomQuery query = new RoomQuery(filter, sort, page, size);
+        if (filter.dateSpecific()) {
+            return availabilityResultCache.get(query);
+        }
+        return query.run(roomCatalog, Set.of());
+    }
+
+    public RoomSummary getRoomById(Long id) {
+        return roomCatalog.find(id)
                 .orElseThrow(() -> new IllegalArgumentException("Room not found with ID: " + id));
     }
 
     public Room updateRoom(Long id, Room updatedRoom) {
-        Room existingRoom = getRoomById(id); // reuse method
+        Room existingRoom = roomRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Room not found with ID: " + id));
 
         existingRoom.setRoomNumber(updatedRoom.getRoomNumber());
         existingRoom.setType(updatedRoom.getType());
@@ -37,7 +68,10 @@ public class RoomService {
         existingRoom.setAvailable(updatedRoom.isAvailable());
         existingRoom.setDescription(updatedRoom.getDescription());
 
-        return roomRepository.save(existingRoom);
+        Room savedRoom = roomRepository.save(existingRoom);
+        roomCatalog.put(RoomSummary.of(savedRoom));
+        searchService.indexRoom(savedRoom);
+        return savedRoom;
     }
 
     public void deleteRoom(Long id) {
@@ -45,5 +79,7 @@ public class RoomService {
             throw new IllegalArgumentException("Room not found with ID: " + id);
         }
         roomRepository.deleteById(id);
+        roomCatalog.remove(id);
+        searchService.removeRoom(id);
     }
 }
@@ -0,0 +1,177 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.dto.UserSummary;
+import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.model.User;
+import com.example.hotelbooking.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Ranked text search over rooms (number, type, description) and users (email,
+ * username, full name), served from in-memory trigram indexes that are built
+ * at startup and kept current by the room and user write paths
+ */
+@Service
+public class SearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+
+    // Field weights, in the order fields are passed to the index
+    private static final int[] ROOM_WEIGHTS = { 5, 3, 1 };
+    private static final int[] USER_WEIGHTS = { 3, 3, 2 };
+
+    private final RoomCatalog roomCatalog;
+    private final UserRepository userRepository;
+    private final int maxBookingSearchUsers;
+
+    private volatile TrigramIndex roomIndex = new TrigramIndex(ROOM_WEIGHTS);
+    private volatile TrigramIndex userIndex = new TrigramIndex(USER_WEIGHTS);
+
+    // Serializes rebuilds with incremental updates so no write lands in an index about to be replaced
+    private final Object writeLock = new Object();
+
+    private final Timer roomSearchTimer;
+    private final Timer userSearchTimer;
+
+    public SearchService(RoomCatalog roomCatalog,
+                         UserRepository userRepository,
+                         @Value("${hotel.search.max-booking-search-users:500}") int maxBookingSearchUsers,
+                         MeterRegistry meterRegistry) {
+        this.roomCatalog = roomCatalog;
+        this.userRepository = userRepository;
+        this.maxBookingSearchUsers = maxBookingSearchUsers;
+
+        this.roomSearchTimer = Timer.builder("search.query").tag("index", "rooms").register(meterRegistry);
+        this.userSearchTimer = Timer.builder("search.query").tag("index", "users").register(meterRegistry);
+        Gauge.builder("search.index.documents", this, s -> s.roomIndex.size()).tag("index", "rooms").register(meterRegistry);
+        Gauge.builder("search.index.documents", this, s -> s.userIndex.size()).tag("index", "users").register(meterRegistry);
+    }
+
+    /**
+     * Builds both indexes from the database and swaps them in; searches keep
+     * using the previous indexes until the swap
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (writeLock) {
+            long start = System.currentTimeMillis();
+
+            TrigramIndex rooms = new TrigramIndex(ROOM_WEIGHTS);
+            for (RoomSummary room : roomCatalog.getAll()) {
+                rooms.put(room.id(), room.roomNumber(), room.type(), room.description());
+            }
+
+            TrigramIndex users = new TrigramIndex(USER_WEIGHTS);
+            try (Stream<UserSummary> summaries = userRepository.streamAllSummaries()) {
+                summaries.forEach(user -> users.put(user.id(), user.email(), user.username(), user.fullName()));
+            }
+
+            roomIndex = rooms;
+            userIndex = users;
+            logger.info("Search indexes built with {} rooms and {} users in {} ms",
+                    rooms.size(), users.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    public void indexRoom(Room room) {
+        synchronized (writeLock) {
+            roomIndex.put(room.getId(), room.getRoomNumber(), room.getType(), room.getDescription());
+        }
+    }
+
+    public void removeRoom(Long roomId) {
+        synchronized (writeLock) {
+            roomIndex.remove(roomId);
+        }
+    }
+
+    public void indexUser(User user) {
+        synchronized (writeLock) {
+            userIndex.put(user.getId(), user.getEmail(), user.getUsername(), user.getFullName());
+        }
+    }
+
+    /**
+     * One page of rooms matching the query, most relevant first
+     */
+    @Transactional(readOnly = true)
+    public Page<RoomSummary> searchRooms(String query, int page, int size) {
+        List<TrigramIndex.Hit> hits = roomSearchTimer.record(() -> roomIndex.search(query));
+        return toPage(hits, page, size, this::findRooms, RoomSummary::id);
+    }
+
+    /**
+     * One page of users matching the query, most relevant first
+     */
+    @Transactional(readOnly = true)
+    public Page<UserSummary> searchUsers(String query, int page, int size) {
+        List<TrigramIndex.Hit> hits = userSearchTimer.record(() -> userIndex.search(query));
+        return toPage(hits, page, size, userRepository::findSummariesByIdIn, UserSummary::id);
+    }
+
+    /**
+     * Ids of the most relevant users matching the query, capped so a booking
+     * search for a very common term stays a bounded IN list
+     */
+    public List<Long> findMatchingUserIds(String query) {
+        List<TrigramIndex.Hit> hits = userSearchTimer.record(() -> userIndex.search(query));
+        return hits.stream()
+                .limit(maxBookingSearchUsers)
+                .map(TrigramIndex.Hit::id)
+                .toList();
+    }
+
+    private List<RoomSummary> findRooms(List<Long> ids) {
+        return ids.stream()
+                .map(roomCatalog::find)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    /**
+     * Loads the hits for one page by primary key and puts them back in rank
+     * order; ids of rows deleted since indexing simply drop out
+     */
+    private static <T> Page<T> toPage(List<TrigramIndex.Hit> hits, int page, int size,
+                                      Function<List<Long>, List<T>> loader, Function<T, Long> idOf) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        int from = (int) Math.min(pageRequest.getOffset(), hits.size());
+        int to = Math.min(from + size, hits.size());
+
+        List<Long> ids = hits.subList(from, to).stream().map(TrigramIndex.Hit::id).toList();
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageRequest, hits.size());
+        }
+
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            rank.put(ids.get(i), i);
+        }
+        List<T> rows = loader.apply(ids).stream()
+                .sorted(Comparator.comparing(row -> rank.get(idOf.apply(row))))
+                .toList();
+        return new PageImpl<>(rows, pageRequest, hits.size());
+    }
+}
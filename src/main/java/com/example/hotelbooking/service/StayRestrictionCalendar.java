@@ -0,0 +1,178 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.model.StayRestriction;
+import com.example.hotelbooking.model.StayRestrictionKind;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Stay restrictions compiled into per-night bitsets, indexed by days from the
+ * base date. Each room with rules of its own and each room type with rules
+ * gets one set of bitsets plus a minimum stay per arrival night; a stay is
+ * checked against its room's set and its type's set with a couple of lookups
+ * and one bit scan over its nights. Immutable, so an edit compiles a new
+ * calendar and readers switch over in one step.
+ */
+final class StayRestrictionCalendar {
+
+    static final StayRestrictionCalendar EMPTY =
+            new StayRestrictionCalendar(List.of(), LocalDate.EPOCH, 0, 0, Map.of(), Map.of());
+
+    private final List<Rule> rules;
+    private final LocalDate base;
+    private final long version;
+    private final long lastModified;
+    private final Map<Long, Nights> byRoom;
+    private final Map<String, Nights> byType;
+
+    private StayRestrictionCalendar(List<Rule> rules, LocalDate base, long version, long lastModified,
+                                    Map<Long, Nights> byRoom, Map<String, Nights> byType) {
+        this.rules = rules;
+        this.base = base;
+        this.version = version;
+        this.lastModified = lastModified;
+        this.byRoom = byRoom;
+        this.byType = byType;
+    }
+
+    /**
+     * Compiles the rules for nights from the base date on; earlier nights are
+     * dropped, as no stay can include them any more
+     */
+    static StayRestrictionCalendar compile(List<Rule> rules, LocalDate base, long version, long lastModified) {
+        Map<Long, Nights> byRoom = new HashMap<>();
+        Map<String, Nights> byType = new HashMap<>();
+        for (Rule rule : rules) {
+            long from = Math.max(0, ChronoUnit.DAYS.between(base, rule.startDate()));
+            long to = ChronoUnit.DAYS.between(base, rule.endDate()) + 1;
+            if (from >= to) {
+                continue;
+            }
+            Nights nights = rule.roomId() != null
+                ? byRoom.computeIfAbsent(rule.roomId(), id -> new Nights())
+                : byType.computeIfAbsent(normalizeType(rule.roomType()), type -> new Nights());
+            nights.add(rule, (int) from, (int) to);
+        }
+        return new StayRestrictionCalendar(List.copyOf(rules), base, version, lastModified,
+                Map.copyOf(byRoom), Map.copyOf(byType));
+    }
+
+    List<Rule> rules() {
+        return rules;
+    }
+
+    long version() {
+        return version;
+    }
+
+    long lastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Whether any rule applies to the room, directly or through its type
+     */
+    boolean restricts(RoomSummary room) {
+        return byRoom.containsKey(room.id()) || (!byType.isEmpty() && byType.containsKey(normalizeType(room.type())));
+    }
+
+    boolean permits(RoomSummary room, LocalDate checkIn, LocalDate checkOut) {
+        return violation(room.id(), room.type(), checkIn, checkOut) == null;
+    }
+
+    /**
+     * Why the rules forbid the stay, or null when they allow it
+     */
+    String violation(Long roomId, String roomType, LocalDate checkIn, LocalDate checkOut) {
+        Nights roomNights = byRoom.get(roomId);
+        Nights typeNights = byType.isEmpty() || roomType == null ? null : byType.get(normalizeType(roomType));
+        if (roomNights == null && typeNights == null) {
+            return null;
+        }
+        int in = offset(checkIn);
+        int out = offset(checkOut);
+        long nights = ChronoUnit.DAYS.between(checkIn, checkOut);
+        String violation = roomNights == null ? null : roomNights.violation(base, in, out, nights);
+        if (violation == null && typeNights != null) {
+            violation = typeNights.violation(base, in, out, nights);
+        }
+        return violation;
+    }
+
+    /**
+     * Days from the base date, clamped to the int range; -1 for any earlier day
+     */
+    private int offset(LocalDate date) {
+        long days = ChronoUnit.DAYS.between(base, date);
+        return (int) Math.max(-1, Math.min(days, Integer.MAX_VALUE));
+    }
+
+    private static String normalizeType(String type) {
+        return type.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * One rule as stored; compared on rebuild to tell whether anything changed
+     */
+    record Rule(StayRestrictionKind kind, Long roomId, String roomType, LocalDate startDate, LocalDate endDate,
+                Integer minNights) {
+
+        static Rule of(StayRestriction restriction) {
+            return new Rule(restriction.getKind(), restriction.getRoomId(), restriction.getRoomType(),
+                    restriction.getStartDate(), restriction.getEndDate(), restriction.getMinNights());
+        }
+    }
+
+    /**
+     * The compiled rules of one room or room type. Bit n stands for the night
+     * (or arrival or departure day) n days after the base date.
+     */
+    private static final class Nights {
+
+        private final BitSet closedToArrival = new BitSet();
+        private final BitSet closedToDeparture = new BitSet();
+        private final BitSet blackout = new BitSet();
+        private int[] minStay = new int[0];
+
+        void add(Rule rule, int from, int to) {
+            switch (rule.kind()) {
+                case CLOSED_TO_ARRIVAL -> closedToArrival.set(from, to);
+                case CLOSED_TO_DEPARTURE -> closedToDeparture.set(from, to);
+                case BLACKOUT -> blackout.set(from, to);
+                case MIN_STAY -> {
+                    if (minStay.length < to) {
+                        minStay = Arrays.copyOf(minStay, to);
+                    }
+                    for (int night = from; night < to; night++) {
+                        minStay[night] = Math.max(minStay[night], rule.minNights());
+                    }
+                }
+            }
+        }
+
+        String violation(LocalDate base, int in, int out, long nights) {
+            if (in >= 0 && closedToArrival.get(in)) {
+                return "Arrival is not allowed on " + base.plusDays(in);
+            }
+            if (out >= 0 && closedToDeparture.get(out)) {
+                return "Departure is not allowed on " + base.plusDays(out);
+            }
+            int blocked = blackout.nextSetBit(Math.max(in, 0));
+            if (blocked >= 0 && blocked < out) {
+                return "Stays are closed on the night of " + base.plusDays(blocked);
+            }
+            if (in >= 0 && in < minStay.length && minStay[in] > nights) {
+                return "Stays arriving on " + base.plusDays(in) + " must be at least " + minStay[in] + " nights";
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.exception.InvalidBookingDataException;
+import com.example.hotelbooking.exception.RoomNotFoundException;
+import com.example.hotelbooking.exception.StayRestrictedException;
+import com.example.hotelbooking.model.StayRestriction;
+import com.example.hotelbooking.model.StayRestrictionKind;
+import com.example.hotelbooking.repository.StayRestrictionRepository;
+import com.example.hotelbooking.service.StayRestrictionCalendar.Rule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Minimum stays, closed-to-arrival and closed-to-departure days and blackout
+ * nights, enforced on bookings and availability searches. Rules are stored
+ * in the database and compiled into a bitset calendar that readers follow
+ * through a volatile reference, so checking a stay never queries. An edit
+ * recompiles every rule and swaps the calendar in whole, so a search sees
+ * either all of an edit or none of it; rules edited on other instances
+ * appear on the next periodic refresh.
+ */
+@Service
+public class StayRestrictionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StayRestrictionService.class);
+
+    // Bounds the compiled calendar to a few kilobytes per restricted room or type
+    static final int MAX_RULE_DAYS = 366;
+    static final int MAX_RULE_HORIZON_DAYS = 730;
+
+    private final StayRestrictionRepository stayRestrictionRepository;
+    private final RoomCatalog roomCatalog;
+
+    private volatile StayRestrictionCalendar calendar = StayRestrictionCalendar.EMPTY;
+
+    public StayRestrictionService(StayRestrictionRepository stayRestrictionRepository, RoomCatalog roomCatalog) {
+        this.stayRestrictionRepository = stayRestrictionRepository;
+        this.roomCatalog = roomCatalog;
+    }
+
+    /**
+     * Loads the rules still in effect and swaps in a freshly compiled calendar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${hotel.restrictions.refresh-interval-ms:60000}",
+               fixedDelayString = "${hotel.restrictions.refresh-interval-ms:60000}")
+    public synchronized void rebuild() {
+        LocalDate today = LocalDate.now();
+        List<Rule> rules = stayRestrictionRepository.findByEndDateGreaterThanEqualOrderById(today).stream()
+                .map(Rule::of)
+                .toList();
+        StayRestrictionCalendar current = calendar;
+        calendar = current != StayRestrictionCalendar.EMPTY && rules.equals(current.rules())
+            ? StayRestrictionCalendar.compile(rules, today, current.version(), current.lastModified())
+            : StayRestrictionCalendar.compile(rules, today, contentVersion(rules), System.currentTimeMillis());
+        logger.debug("Compiled {} stay restrictions", rules.size());
+    }
+
+    /**
+     * Hash of the rules in effect: changes whenever they change, and is the
+     * same on every instance with the same rules
+     */
+    public long version() {
+        return calendar.version();
+    }
+
+    /**
+     * When the rules last changed, in epoch milliseconds
+     */
+    public long lastModified() {
+        return calendar.lastModified();
+    }
+
+    public List<StayRestriction> getActiveRestrictions() {
+        return stayRestrictionRepository.findByEndDateGreaterThanEqualOrderById(LocalDate.now());
+    }
+
+    /**
+     * Stores a rule and makes it take effect on this instance straight away
+     */
+    public StayRestriction addRestriction(StayRestriction restriction) {
+        validateRestriction(restriction);
+        StayRestriction saved = stayRestrictionRepository.save(restriction);
+        rebuild();
+        return saved;
+    }
+
+    /**
+     * Removes a rule; false when there is no rule with the id
+     */
+    public boolean deleteRestriction(Long id) {
+        if (!stayRestrictionRepository.existsById(id)) {
+            return false;
+        }
+        stayRestrictionRepository.deleteById(id);
+        rebuild();
+        return true;
+    }
+
+    /**
+     * Throws if the rules forbid staying in the room for these dates
+     */
+    public void checkStay(Long roomId, String roomType, LocalDate checkIn, LocalDate checkOut) {
+        String violation = calendar.violation(roomId, roomType, checkIn, checkOut);
+        if (violation != null) {
+            throw new StayRestrictedException(violation);
+        }
+    }
+
+    public boolean permits(RoomSummary room, LocalDate checkIn, LocalDate checkOut) {
+        return calendar.permits(room, checkIn, checkOut);
+    }
+
+    /**
+     * Rooms the rules allow for these dates, all judged by the same calendar
+     */
+    public Predicate<RoomSummary> permitting(LocalDate checkIn, LocalDate checkOut) {
+        StayRestrictionCalendar current = calendar;
+        return room -> current.permits(room, checkIn, checkOut);
+    }
+
+    StayRestrictionCalendar calendar() {
+        return calendar;
+    }
+
+    private void validateRestriction(StayRestriction restriction) {
+        boolean forRoom = restriction.getRoomId() != null;
+        boolean forType = restriction.getRoomType() != null && !restriction.getRoomType().isBlank();
+        if (forRoom == forType) {
+            throw new InvalidBookingDataException("A restriction applies to either a room or a room type");
+        }
+        if (forRoom && roomCatalog.find(restriction.getRoomId()).isEmpty()) {
+            throw new RoomNotFoundException("Room not found with id: " + restriction.getRoomId());
+        }
+        if (restriction.getEndDate().isBefore(restriction.getStartDate())) {
+            throw new InvalidBookingDataException("End date cannot be before start date");
+        }
+        if (restriction.getEndDate().isBefore(LocalDate.now())) {
+            throw new InvalidBookingDataException("End date cannot be in the past");
+        }
+        if (ChronoUnit.DAYS.between(restriction.getStartDate(), restriction.getEndDate()) >= MAX_RULE_DAYS) {
+            throw new InvalidBookingDataException("A restriction cannot cover more than " + MAX_RULE_DAYS + " days");
+        }
+        if (ChronoUnit.DAYS.between(LocalDate.now(), restriction.getEndDate()) > MAX_RULE_HORIZON_DAYS) {
+            throw new InvalidBookingDataException(
+                "A restriction cannot end more than " + MAX_RULE_HORIZON_DAYS + " days ahead");
+        }
+        if (restriction.getKind() == StayRestrictionKind.MIN_STAY) {
+            if (restriction.getMinNights() == null) {
+                throw new InvalidBookingDataException("A minimum stay restriction needs minNights");
+            }
+        } else {
+            restriction.setMinNights(null);
+        }
+    }
+
+    private static long contentVersion(List<Rule> rules) {
+        ContentHash hash = new ContentHash();
+        for (Rule rule : rules) {
+            hash.add(rule.kind()).add(rule.roomId()).add(rule.roomType()).add(rule.startDate())
+                    .add(rule.endDate()).add(rule.minNights());
+        }
+        return hash.value();
+    }
+}
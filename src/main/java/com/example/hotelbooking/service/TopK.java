@@ -0,0 +1,51 @@
+package com.example.hotelbooking.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the first k elements offered under an order, in a heap whose head is
+ * the worst element kept; selecting k of n costs O(n log k) time and O(k)
+ * memory instead of sorting all n. Not thread-safe.
+ */
+final class TopK<T> {
+
+    private final Comparator<? super T> order;
+    private final int k;
+    private final PriorityQueue<T> heap;
+    private long offered;
+
+    TopK(Comparator<? super T> order, int k) {
+        this.order = order;
+        this.k = k;
+        this.heap = new PriorityQueue<>(Math.min(k, 1024) + 1, order.reversed());
+    }
+
+    void offer(T element) {
+        offered++;
+        if (heap.size() < k) {
+            heap.add(element);
+        } else if (k > 0 && order.compare(element, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(element);
+        }
+    }
+
+    /**
+     * Number of elements offered, kept or not
+     */
+    long offered() {
+        return offered;
+    }
+
+    /**
+     * The kept elements, best first
+     */
+    List<T> sorted() {
+        List<T> kept = new ArrayList<>(heap);
+        kept.sort(order);
+        return kept;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.hotelbooking.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index over a fixed set of weighted text fields.
+ * Trigram postings narrow the candidates; each candidate is then verified with
+ * a real substring match, so results are exactly what LIKE '%term%' would find.
+ */
+final class TrigramIndex {
+
+    private final int[] fieldWeights;
+    private final Map<Long, String[]> documents = new HashMap<>();
+    private final Map<Long, Set<Long>> postings = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    TrigramIndex(int... fieldWeights) {
+        this.fieldWeights = fieldWeights.clone();
+    }
+
+    /**
+     * Adds or replaces a document; fields are given in the order of the weights
+     */
+    void put(long id, String... fields) {
+        String[] normalized = new String[fieldWeights.length];
+        for (int i = 0; i < normalized.length; i++) {
+            normalized[i] = i < fields.length ? normalize(fields[i]) : "";
+        }
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            documents.put(id, normalized);
+            for (String field : normalized) {
+                for (long trigram : trigrams(field)) {
+                    postings.computeIfAbsent(trigram, t -> new HashSet<>()).add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Every document matching all whitespace-separated terms of the query,
+     * best score first and then by id
+     */
+    List<Hit> search(String query) {
+        String[] terms = normalize(query).split("\\s+");
+        if (terms.length == 0 || terms[0].isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Hit> hits = new ArrayList<>();
+            for (long id : candidates(terms)) {
+                int score = score(documents.get(id), terms);
+                if (score > 0) {
+                    hits.add(new Hit(id, score));
+                }
+            }
+            hits.sort(Comparator.comparingInt(Hit::score).reversed().thenComparingLong(Hit::id));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents containing every trigram of every term; terms shorter than a
+     * trigram cannot narrow anything, so a query made only of those checks all
+     */
+    private Set<Long> candidates(String[] terms) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String term : terms) {
+            for (long trigram : trigrams(term)) {
+                Set<Long> list = postings.get(trigram);
+                if (list == null) {
+                    return Set.of();
+                }
+                lists.add(list);
+            }
+        }
+        if (lists.isEmpty()) {
+            return documents.keySet();
+        }
+
+        // Intersect starting from the rarest trigram
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Sum over terms of the best field match: exact beats word prefix beats
+     * substring, scaled by the field weight; 0 if any term matches nowhere
+     */
+    private int score(String[] fields, String[] terms) {
+        int total = 0;
+        for (String term : terms) {
+            int best = 0;
+            for (int i = 0; i < fields.length; i++) {
+                String field = fields[i];
+                int at = field.indexOf(term);
+                if (at < 0) {
+                    continue;
+                }
+                int quality = field.length() == term.length() ? 4
+                        : at == 0 || !Character.isLetterOrDigit(field.charAt(at - 1)) ? 2
+                        : 1;
+                best = Math.max(best, quality * fieldWeights[i]);
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private void removeLocked(long id) {
+        String[] previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String field : previous) {
+            for (long trigram : trigrams(field)) {
+                Set<Long> list = postings.get(trigram);
+                if (list != null && list.remove(id) && list.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Three UTF-16 chars packed into one long
+     */
+    private static Set<Long> trigrams(String text) {
+        Set<Long> result = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            result.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return result;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    record Hit(long id, int score) {
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.hotelbooking.service;
 
 import com.example.hotelbooking.dto.UserRegistrationDTO;
+import com.example.hotelbooking.exception.PasswordHashingUnavailableException;
 import com.example.hotelbooking.exception.UserNotFoundException;
 import com.example.hotelbooking.model.Role;
 import com.example.hotelbooking.model.User;
 import com.example.hotelbooking.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -14,16 +16,21 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final EmailBloomFilter emailBloomFilter;
+    private final SearchService searchService;
 
     @Autowired
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       EmailBloomFilter emailBloomFilter, SearchService searchService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.emailBloomFilter = emailBloomFilter;
+        this.searchService = searchService;
     }
 
     // Original method - register user with specified role
     public User registerUser(UserRegistrationDTO registrationDTO, Role role) {
-        if (userRepository.findByEmail(registrationDTO.getEmail()).isPresent()) {
+        if (existsByEmail(registrationDTO.getEmail())) {
             throw new RuntimeException("Email already registered");
         }
 
@@ -35,7 +42,20 @@ public class UserService {
         user.setRole(role);
         user.setAccountBalance(0.0); // Set default balance
 
-        return userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            // Registered meanwhile, or on an instance whose registrations the email filter has not seen yet
+            if (!userRepository.existsByEmail(registrationDTO.getEmail())) {
+                throw e;
+            }
+            emailBloomFilter.add(registrationDTO.getEmail());
+            throw new RuntimeException("Email already registered");
+        }
+        emailBloomFilter.add(savedUser.getEmail());
+        searchService.indexUser(savedUser);
+        return savedUser;
     }
 
     // Overloaded method - register user as CUSTOMER by default (for REST API)
@@ -62,14 +82,20 @@ public class UserService {
                 return false;
             }
             return passwordEncoder.matches(password, user.getPassword());
+        } catch (PasswordHashingUnavailableException e) {
+            // Overload is not a wrong password; let the caller answer 503
+            throw e;
         } catch (Exception e) {
             return false;
         }
     }
 
-    // Check if user exists by email
+    // Check if user exists by email - the Bloom filter answers "definitely not" without a query
     public boolean existsByEmail(String email) {
-        return userRepository.findByEmail(email).isPresent();
+        if (!emailBloomFilter.mightContain(email)) {
+            return false;
+        }
+        return userRepository.existsByEmail(email);
     }
 
     // Get user by ID
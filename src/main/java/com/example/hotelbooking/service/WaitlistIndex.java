@@ -0,0 +1,194 @@
+package com.example.hotelbooking.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Waiting waitlist entries, in one interval tree per room and per room type,
+ * so the entries whose stays overlap nights a cancellation freed are found
+ * without looking at the rest. Each tree is a sorted array of stays with the
+ * latest check-out of every subtree alongside; a query skips any subtree
+ * that ends before the freed nights or starts after them, so it costs about
+ * log n plus the matches. Immutable: adding or removing an entry rebuilds
+ * only its own room's or type's tree.
+ */
+final class WaitlistIndex {
+
+    static final WaitlistIndex EMPTY = new WaitlistIndex(Map.of(), Map.of(), Map.of());
+
+    private final Map<Long, Stay> stays;
+    private final Map<Long, Intervals> byRoom;
+    private final Map<String, Intervals> byType;
+
+    private WaitlistIndex(Map<Long, Stay> stays, Map<Long, Intervals> byRoom, Map<String, Intervals> byType) {
+        this.stays = stays;
+        this.byRoom = byRoom;
+        this.byType = byType;
+    }
+
+    static WaitlistIndex of(List<Stay> entries) {
+        Map<Long, Stay> stays = new HashMap<>();
+        Map<Long, List<Stay>> rooms = new HashMap<>();
+        Map<String, List<Stay>> types = new HashMap<>();
+        for (Stay stay : entries) {
+            stays.put(stay.entryId(), stay);
+            if (stay.roomId() != null) {
+                rooms.computeIfAbsent(stay.roomId(), id -> new ArrayList<>()).add(stay);
+            } else {
+                types.computeIfAbsent(normalizeType(stay.roomType()), type -> new ArrayList<>()).add(stay);
+            }
+        }
+        Map<Long, Intervals> byRoom = new HashMap<>();
+        rooms.forEach((roomId, list) -> byRoom.put(roomId, new Intervals(list)));
+        Map<String, Intervals> byType = new HashMap<>();
+        types.forEach((type, list) -> byType.put(type, new Intervals(list)));
+        return new WaitlistIndex(Map.copyOf(stays), Map.copyOf(byRoom), Map.copyOf(byType));
+    }
+
+    int size() {
+        return stays.size();
+    }
+
+    WaitlistIndex with(Stay stay) {
+        if (stays.containsKey(stay.entryId())) {
+            return this;
+        }
+        Map<Long, Stay> updated = new HashMap<>(stays);
+        updated.put(stay.entryId(), stay);
+        return rebuild(updated, stay);
+    }
+
+    WaitlistIndex without(Long entryId) {
+        Stay stay = stays.get(entryId);
+        if (stay == null) {
+            return this;
+        }
+        Map<Long, Stay> updated = new HashMap<>(stays);
+        updated.remove(entryId);
+        return rebuild(updated, stay);
+    }
+
+    /**
+     * Entries for the room, or for its type, whose stays overlap the nights
+     * from checkIn up to checkOut; oldest first
+     */
+    List<Stay> overlapping(Long roomId, String roomType, LocalDate checkIn, LocalDate checkOut) {
+        List<Stay> matches = new ArrayList<>();
+        long from = checkIn.toEpochDay();
+        long to = checkOut.toEpochDay();
+        Intervals room = byRoom.get(roomId);
+        if (room != null) {
+            room.overlapping(from, to, matches);
+        }
+        Intervals type = roomType == null ? null : byType.get(normalizeType(roomType));
+        if (type != null) {
+            type.overlapping(from, to, matches);
+        }
+        matches.sort(Comparator.comparing(Stay::entryId));
+        return matches;
+    }
+
+    /**
+     * A new index sharing every tree but the one the changed stay belongs to
+     */
+    private WaitlistIndex rebuild(Map<Long, Stay> updated, Stay changed) {
+        Map<Long, Intervals> rooms = byRoom;
+        Map<String, Intervals> types = byType;
+        if (changed.roomId() != null) {
+            List<Stay> list = updated.values().stream().filter(s -> changed.roomId().equals(s.roomId())).toList();
+            rooms = new HashMap<>(byRoom);
+            if (list.isEmpty()) {
+                rooms.remove(changed.roomId());
+            } else {
+                rooms.put(changed.roomId(), new Intervals(list));
+            }
+            rooms = Map.copyOf(rooms);
+        } else {
+            String key = normalizeType(changed.roomType());
+            List<Stay> list = updated.values().stream()
+                    .filter(s -> s.roomId() == null && key.equals(normalizeType(s.roomType())))
+                    .toList();
+            types = new HashMap<>(byType);
+            if (list.isEmpty()) {
+                types.remove(key);
+            } else {
+                types.put(key, new Intervals(list));
+            }
+            types = Map.copyOf(types);
+        }
+        return new WaitlistIndex(Map.copyOf(updated), rooms, types);
+    }
+
+    private static String normalizeType(String type) {
+        return type.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A waiting entry's stay, for either a room or a room type
+     */
+    record Stay(Long entryId, Long roomId, String roomType, LocalDate checkIn, LocalDate checkOut) {
+    }
+
+    /**
+     * Stays sorted by check-in, read as an implicit balanced tree: the root
+     * of any slice is its middle element, and maxEnd holds the latest
+     * check-out within the slice rooted there
+     */
+    private static final class Intervals {
+
+        private final Stay[] stays;
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] maxEnd;
+
+        Intervals(List<Stay> list) {
+            stays = list.toArray(new Stay[0]);
+            Arrays.sort(stays, Comparator.comparing(Stay::checkIn).thenComparing(Stay::entryId));
+            starts = new long[stays.length];
+            ends = new long[stays.length];
+            for (int i = 0; i < stays.length; i++) {
+                starts[i] = stays[i].checkIn().toEpochDay();
+                ends[i] = stays[i].checkOut().toEpochDay();
+            }
+            maxEnd = new long[stays.length];
+            computeMaxEnd(0, stays.length);
+        }
+
+        private long computeMaxEnd(int lo, int hi) {
+            if (lo >= hi) {
+                return Long.MIN_VALUE;
+            }
+            int mid = (lo + hi) >>> 1;
+            maxEnd[mid] = Math.max(ends[mid], Math.max(computeMaxEnd(lo, mid), computeMaxEnd(mid + 1, hi)));
+            return maxEnd[mid];
+        }
+
+        void overlapping(long from, long to, List<Stay> matches) {
+            overlapping(0, stays.length, from, to, matches);
+        }
+
+        private void overlapping(int lo, int hi, long from, long to, List<Stay> matches) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (maxEnd[mid] <= from) {
+                return; // Everything in this slice checks out before the first freed night
+            }
+            overlapping(lo, mid, from, to, matches);
+            if (starts[mid] >= to) {
+                return; // This stay and everything after it checks in after the last freed night
+            }
+            if (ends[mid] > from) {
+                matches.add(stays[mid]);
+            }
+            overlapping(mid + 1, hi, from, to, matches);
+        }
+    }
+}
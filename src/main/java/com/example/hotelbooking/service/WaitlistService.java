@@ -0,0 +1,342 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.event.BookingChangedEvent;
+import com.example.hotelbooking.exception.BookingLimitExceededException;
+import com.example.hotelbooking.exception.InvalidBookingDataException;
+import com.example.hotelbooking.exception.RoomNotFoundException;
+import com.example.hotelbooking.exception.UnauthorizedBookingException;
+import com.example.hotelbooking.model.Booking;
+import com.example.hotelbooking.model.PaymentMethod;
+import com.example.hotelbooking.model.WaitlistEntry;
+import com.example.hotelbooking.model.WaitlistStatus;
+import com.example.hotelbooking.repository.BookingRepository;
+import com.example.hotelbooking.repository.WaitlistEntryRepository;
+import com.example.hotelbooking.service.WaitlistIndex.Stay;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Waitlist for sold-out stays. Waiting entries are kept in an interval
+ * index, so when a cancellation (or a shortened stay, or an expired hold)
+ * frees nights on a room, the entries those nights can now satisfy are
+ * found without scanning the list. They are offered the room in the order
+ * they joined: the room is held for them as a PENDING booking, which every
+ * availability check already treats as taken, until they confirm or the
+ * hold expires and the next entry gets its turn. Only freed nights are
+ * offered; a stay that can be booked already is booked directly, not
+ * waitlisted. Entries joined on other instances are picked up on the
+ * periodic refresh.
+ */
+@Service
+public class WaitlistService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistService.class);
+
+    private static final int MAX_STAY_NIGHTS = 30;
+
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final RoomCatalog roomCatalog;
+    private final TransactionTemplate offerTransaction;
+    private final Duration holdDuration;
+    private final int maxEntriesPerUser;
+
+    private volatile WaitlistIndex index = WaitlistIndex.EMPTY;
+
+    public WaitlistService(@Value("${hotel.waitlist.hold-minutes:15}") long holdMinutes,
+                           @Value("${hotel.waitlist.max-entries-per-user:5}") int maxEntriesPerUser,
+                           WaitlistEntryRepository waitlistEntryRepository,
+                           BookingRepository bookingRepository,
+                           BookingService bookingService,
+                           RoomCatalog roomCatalog,
+                           PlatformTransactionManager transactionManager) {
+        this.holdDuration = Duration.ofMinutes(holdMinutes);
+        this.maxEntriesPerUser = maxEntriesPerUser;
+        this.waitlistEntryRepository = waitlistEntryRepository;
+        this.bookingRepository = bookingRepository;
+        this.bookingService = bookingService;
+        this.roomCatalog = roomCatalog;
+        this.offerTransaction = new TransactionTemplate(transactionManager);
+        this.offerTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Reloads the waiting entries; entries whose check-in has passed expire
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${hotel.waitlist.refresh-interval-ms:60000}",
+               fixedDelayString = "${hotel.waitlist.refresh-interval-ms:60000}")
+    public synchronized void rebuild() {
+        LocalDate today = LocalDate.now();
+        List<Stay> stays = new ArrayList<>();
+        for (WaitlistEntry entry : waitlistEntryRepository.findByStatusOrderById(WaitlistStatus.WAITING)) {
+            if (entry.getCheckInDate().isBefore(today)) {
+                entry.setStatus(WaitlistStatus.EXPIRED);
+                waitlistEntryRepository.save(entry);
+            } else {
+                stays.add(stay(entry));
+            }
+        }
+        index = WaitlistIndex.of(stays);
+        logger.debug("Indexed {} waitlist entries", stays.size());
+    }
+
+    /**
+     * Offers freed nights to the waitlist once the change that freed them
+     * has committed; each offer commits on its own
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.change() == BookingChangedEvent.Change.RELEASED) {
+            match(event.roomId(), event.checkInDate(), event.checkOutDate());
+        }
+    }
+
+    /**
+     * Hands holds that ran out back to the waitlist
+     */
+    @Scheduled(initialDelayString = "${hotel.waitlist.hold-check-interval-ms:30000}",
+               fixedDelayString = "${hotel.waitlist.hold-check-interval-ms:30000}")
+    public void expireHolds() {
+        List<WaitlistEntry> expired = waitlistEntryRepository.findByStatusAndHoldExpiresAtBefore(
+            WaitlistStatus.OFFERED, LocalDateTime.now());
+        for (WaitlistEntry entry : expired) {
+            // Releasing the hold offers the room to the next entry in line
+            if (entry.getBookingId() == null || bookingService.releaseHold(entry.getBookingId())) {
+                entry.setStatus(WaitlistStatus.EXPIRED);
+                waitlistEntryRepository.save(entry);
+                logger.info("Hold for waitlist entry {} expired", entry.getId());
+            }
+        }
+    }
+
+    /**
+     * Puts the customer on the waitlist for one room or any room of a type;
+     * rejected while a room is free for the stay, which should be booked
+     * instead
+     */
+    @Transactional
+    public WaitlistEntry join(Long userId, Long roomId, String roomType, LocalDate checkIn, LocalDate checkOut,
+                              PaymentMethod paymentMethod) {
+        List<RoomSummary> rooms = validateEntry(userId, roomId, roomType, checkIn, checkOut);
+
+        // One query for every room of the type
+        Set<Long> booked = new HashSet<>(bookingRepository.findBookedRoomIds(checkIn, checkOut));
+        for (RoomSummary room : rooms) {
+            if (!booked.contains(room.id())) {
+                throw new InvalidBookingDataException(String.format(
+                    "Room %s is available from %s to %s, book it directly", room.roomNumber(), checkIn, checkOut));
+            }
+        }
+
+        WaitlistEntry entry = new WaitlistEntry();
+        entry.setUserId(userId);
+        entry.setRoomId(roomId);
+        entry.setRoomType(roomId == null ? roomType.trim() : null);
+        entry.setCheckInDate(checkIn);
+        entry.setCheckOutDate(checkOut);
+        entry.setPaymentMethod(paymentMethod);
+        entry.setStatus(WaitlistStatus.WAITING);
+        entry = waitlistEntryRepository.save(entry);
+        synchronized (this) {
+            index = index.with(stay(entry));
+        }
+        return entry;
+    }
+
+    public List<WaitlistEntry> getEntries(Long userId) {
+        return waitlistEntryRepository.findByUserIdOrderByIdDesc(userId);
+    }
+
+    /**
+     * Pays for the room held for an offered entry and confirms the booking
+     */
+    @Transactional
+    public Booking confirm(Long entryId, Long userId) {
+        WaitlistEntry entry = ownEntry(entryId, userId);
+        if (entry.getStatus() != WaitlistStatus.OFFERED) {
+            throw new InvalidBookingDataException("No room is being held for waitlist entry " + entryId);
+        }
+        if (entry.getHoldExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new InvalidBookingDataException("The hold for waitlist entry " + entryId + " has expired");
+        }
+        Booking booking = bookingService.confirmHold(entry.getBookingId(), userId);
+        entry.setStatus(WaitlistStatus.BOOKED);
+        waitlistEntryRepository.save(entry);
+        return booking;
+    }
+
+    /**
+     * Takes the customer off the waitlist, releasing any room held for them
+     */
+    @Transactional
+    public void leave(Long entryId, Long userId) {
+        WaitlistEntry entry = ownEntry(entryId, userId);
+        switch (entry.getStatus()) {
+            case WAITING -> removeFromIndex(entryId);
+            case OFFERED -> {
+                if (entry.getBookingId() != null && !bookingService.releaseHold(entry.getBookingId())) {
+                    throw new InvalidBookingDataException("Waitlist entry " + entryId + " has been booked already");
+                }
+            }
+            default -> throw new InvalidBookingDataException("Waitlist entry " + entryId + " is no longer active");
+        }
+        entry.setStatus(WaitlistStatus.CANCELLED);
+        waitlistEntryRepository.save(entry);
+    }
+
+    WaitlistIndex index() {
+        return index;
+    }
+
+    /**
+     * Offers a room, oldest entry first, to each waiting entry whose stay
+     * overlaps the freed nights, skipping entries that overlap a hold made in
+     * this same pass. Each offer is a transaction of its own, so one entry
+     * failing neither undoes the holds made for the others nor stops the
+     * rest being offered the room.
+     */
+    private void match(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        Optional<RoomSummary> room = roomCatalog.find(roomId);
+        if (room.isEmpty() || !room.get().available()) {
+            return;
+        }
+        List<Stay> held = new ArrayList<>();
+        for (Stay stay : index.overlapping(roomId, room.get().type(), checkIn, checkOut)) {
+            boolean clashes = held.stream().anyMatch(h ->
+                    h.checkIn().isBefore(stay.checkOut()) && h.checkOut().isAfter(stay.checkIn()));
+            if (!clashes && offer(stay.entryId(), roomId)) {
+                held.add(stay);
+            }
+        }
+    }
+
+    /**
+     * Holds the room for the entry if it is still waiting and the room is
+     * free for its whole stay. The entry leaves the index only once that has
+     * committed; an entry whose offer fails stays in it for the next release.
+     */
+    private boolean offer(Long entryId, Long roomId) {
+        Offer outcome;
+        try {
+            outcome = offerTransaction.execute(status -> hold(entryId, roomId));
+        } catch (RuntimeException e) {
+            logger.warn("Could not offer room {} to waitlist entry {}: {}", roomId, entryId, e.getMessage());
+            return false;
+        }
+        if (outcome != Offer.PASSED_OVER) {
+            removeFromIndex(entryId);
+        }
+        return outcome == Offer.HELD;
+    }
+
+    private Offer hold(Long entryId, Long roomId) {
+        WaitlistEntry entry = waitlistEntryRepository.findForUpdateById(entryId).orElse(null);
+        if (entry == null || entry.getStatus() != WaitlistStatus.WAITING) {
+            return Offer.NOT_WAITING;
+        }
+        Optional<Booking> hold = bookingService.holdRoom(entry.getUserId(), roomId, entry.getCheckInDate(),
+                entry.getCheckOutDate(), entry.getPaymentMethod());
+        if (hold.isEmpty()) {
+            return Offer.PASSED_OVER;
+        }
+        entry.setStatus(WaitlistStatus.OFFERED);
+        entry.setBookingId(hold.get().getId());
+        entry.setHoldExpiresAt(LocalDateTime.now().plus(holdDuration));
+        waitlistEntryRepository.save(entry);
+        logger.info("Holding room {} for waitlist entry {} until {}", roomId, entryId, entry.getHoldExpiresAt());
+        return Offer.HELD;
+    }
+
+    private WaitlistEntry ownEntry(Long entryId, Long userId) {
+        WaitlistEntry entry = waitlistEntryRepository.findForUpdateById(entryId)
+            .orElseThrow(() -> new InvalidBookingDataException("Waitlist entry not found with id: " + entryId));
+        if (!entry.getUserId().equals(userId)) {
+            throw new UnauthorizedBookingException("User not authorized to change this waitlist entry");
+        }
+        return entry;
+    }
+
+    /**
+     * Checks the entry and returns the rooms it could be offered
+     */
+    private List<RoomSummary> validateEntry(Long userId, Long roomId, String roomType,
+                                            LocalDate checkIn, LocalDate checkOut) {
+        boolean forRoom = roomId != null;
+        boolean forType = roomType != null && !roomType.isBlank();
+        if (forRoom == forType) {
+            throw new InvalidBookingDataException("Wait for either a room or a room type");
+        }
+        if (checkIn.isBefore(LocalDate.now())) {
+            throw new InvalidBookingDataException("Check-in date cannot be in the past");
+        }
+        if (!checkOut.isAfter(checkIn)) {
+            throw new InvalidBookingDataException("Check-out must be at least one day after check-in");
+        }
+        if (ChronoUnit.DAYS.between(checkIn, checkOut) > MAX_STAY_NIGHTS) {
+            throw new InvalidBookingDataException("Booking cannot exceed " + MAX_STAY_NIGHTS + " days");
+        }
+        if (waitlistEntryRepository.countByUserIdAndStatusIn(userId,
+                List.of(WaitlistStatus.WAITING, WaitlistStatus.OFFERED)) >= maxEntriesPerUser) {
+            throw new BookingLimitExceededException(
+                "User has reached the maximum of " + maxEntriesPerUser + " waitlist entries");
+        }
+
+        if (forRoom) {
+            RoomSummary room = roomCatalog.find(roomId)
+                .orElseThrow(() -> new RoomNotFoundException("Room not found with id: " + roomId));
+            return room.available() ? List.of(room) : List.of();
+        }
+        List<RoomSummary> rooms = roomCatalog.getAll().stream()
+            .filter(room -> room.type().equalsIgnoreCase(roomType.trim()))
+            .toList();
+        if (rooms.isEmpty()) {
+            throw new InvalidBookingDataException("There are no rooms of type " + roomType);
+        }
+        return rooms.stream()
+            .filter(RoomSummary::available)
+            .toList();
+    }
+
+    private synchronized void removeFromIndex(Long entryId) {
+        index = index.without(entryId);
+    }
+
+    private static Stay stay(WaitlistEntry entry) {
+        return new Stay(entry.getId(), entry.getRoomId(), entry.getRoomType(),
+                entry.getCheckInDate(), entry.getCheckOutDate());
+    }
+
+    /**
+     * What offering the room to one entry came to
+     */
+    private enum Offer {
+        HELD,
+        // Booked, cancelled or offered elsewhere meanwhile
+        NOT_WAITING,
+        // The room or the guest's rules do not allow the stay; the entry keeps waiting
+        PASSED_OVER
+    }
+}
@@ -0,0 +1,82 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Makes user.email unique. The registration email filter only sees
+ * registrations made on its own instance between refreshes, so the database
+ * is what finally rejects a duplicate.
+ * <p>
+ * Schemas created by ddl-auto=update before migrations were introduced are
+ * baselined at V1 and never got V1's idx_user_email, nor anything stopping
+ * duplicate emails. The plain index is therefore dropped only where it exists,
+ * and where an email is shared the oldest account keeps it while the others
+ * have it cleared (they can still sign in by username) before the unique
+ * index is added.
+ */
+public class V6__user_email_unique extends BaseJavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(V6__user_email_unique.class);
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        clearDuplicateEmails(connection);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE UNIQUE INDEX uk_user_email ON user (email)");
+            if (hasIndex(connection, "user", "idx_user_email")) {
+                statement.execute("DROP INDEX idx_user_email ON user");
+            }
+        }
+    }
+
+    private static void clearDuplicateEmails(Connection connection) throws SQLException {
+        List<String> shared = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery(
+                     "SELECT email FROM user WHERE email IS NOT NULL GROUP BY email HAVING COUNT(*) > 1")) {
+            while (rows.next()) {
+                shared.add(rows.getString(1));
+            }
+        }
+        try (PreparedStatement keeper = connection.prepareStatement("SELECT MIN(id) FROM user WHERE email = ?");
+             PreparedStatement clear = connection.prepareStatement("UPDATE user SET email = NULL WHERE email = ? AND id <> ?")) {
+            for (String email : shared) {
+                keeper.setString(1, email);
+                long keptId;
+                try (ResultSet rows = keeper.executeQuery()) {
+                    rows.next();
+                    keptId = rows.getLong(1);
+                }
+                clear.setString(1, email);
+                clear.setLong(2, keptId);
+                int cleared = clear.executeUpdate();
+                logger.warn("Email {} was shared by {} users; kept on user {}, cleared on the others",
+                        email, cleared + 1, keptId);
+            }
+        }
+    }
+
+    private static boolean hasIndex(Connection connection, String table, String index) throws SQLException {
+        try (ResultSet indexes = connection.getMetaData()
+                .getIndexInfo(connection.getCatalog(), connection.getSchema(), table, false, false)) {
+            while (indexes.next()) {
+                if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,48 @@
+-- Baseline schema, matching what ddl-auto=update produced before migrations were introduced.
+-- Databases that already have these tables are baselined at version 1 and skip this script.
+
+CREATE TABLE user (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    account_balance DOUBLE NOT NULL,
+    role VARCHAR(32) NOT NULL,
+    full_name VARCHAR(255),
+    email VARCHAR(255),
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_username UNIQUE (username)
+);
+
+CREATE INDEX idx_user_email ON user (email);
+
+CREATE TABLE room (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    room_number VARCHAR(255) NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    capacity INT NOT NULL,
+    price_per_night DOUBLE NOT NULL,
+    discount_percentage DOUBLE NOT NULL,
+    available BIT NOT NULL,
+    description VARCHAR(500),
+    image_url VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_room_room_number UNIQUE (room_number)
+);
+
+CREATE TABLE booking (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    room_id BIGINT NOT NULL,
+    check_in_date DATE NOT NULL,
+    check_out_date DATE NOT NULL,
+    total_price DOUBLE NOT NULL,
+    payment_method VARCHAR(32) NOT NULL,
+    booking_date DATETIME(6),
+    status VARCHAR(32),
+    notes VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_booking_user FOREIGN KEY (user_id) REFERENCES user (id),
+    CONSTRAINT fk_booking_room FOREIGN KEY (room_id) REFERENCES room (id)
+);
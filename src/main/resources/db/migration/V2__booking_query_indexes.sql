@@ -0,0 +1,19 @@
+-- Composite indexes for the hot booking queries. Each comment names the query it serves.
+
+-- findConflictingBookings / findConflictingActiveBookings: one room, one status, overlapping dates
+CREATE INDEX idx_booking_room_status_dates ON booking (room_id, status, check_in_date, check_out_date);
+
+-- findAvailableRooms* subquery: booked room ids for a status set and overlapping dates (covering)
+CREATE INDEX idx_booking_status_dates_room ON booking (status, check_in_date, check_out_date, room_id);
+
+-- countByUserIdAndStatus (active booking limit check)
+CREATE INDEX idx_booking_user_status ON booking (user_id, status);
+
+-- Per-user keyset listing ordered by (booking_date, id)
+CREATE INDEX idx_booking_user_date ON booking (user_id, booking_date, id);
+
+-- Admin keyset listing ordered by (booking_date, id)
+CREATE INDEX idx_booking_date ON booking (booking_date, id);
+
+-- Status-filtered keyset listing ordered by (booking_date, id)
+CREATE INDEX idx_booking_status_date ON booking (status, booking_date, id);
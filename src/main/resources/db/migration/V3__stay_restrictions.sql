@@ -0,0 +1,17 @@
+-- Stay restrictions: rules on arrival, departure and stay length over a date range
+-- (both ends inclusive), for one room or for every room of a type.
+
+CREATE TABLE stay_restriction (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    kind VARCHAR(32) NOT NULL,
+    room_id BIGINT,
+    room_type VARCHAR(255),
+    start_date DATE NOT NULL,
+    end_date DATE NOT NULL,
+    min_nights INT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_stay_restriction_room FOREIGN KEY (room_id) REFERENCES room (id) ON DELETE CASCADE
+);
+
+-- findByEndDateGreaterThanEqual (rules still in effect, loaded on every rebuild)
+CREATE INDEX idx_stay_restriction_end_date ON stay_restriction (end_date);
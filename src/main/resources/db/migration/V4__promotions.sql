@@ -0,0 +1,16 @@
+CREATE TABLE promotion (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    code VARCHAR(64) NOT NULL,
+    discount_percentage DOUBLE NOT NULL,
+    room_type VARCHAR(255),
+    valid_from DATE NOT NULL,
+    valid_until DATE NOT NULL,
+    max_redemptions INT,
+    claimed_redemptions INT NOT NULL DEFAULT 0,
+    redemptions INT NOT NULL DEFAULT 0,
+    active BIT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_promotion_code UNIQUE (code)
+);
+
+ALTER TABLE booking ADD COLUMN promo_code VARCHAR(64);
@@ -0,0 +1,26 @@
+-- Waitlist for sold-out stays, for one room or any room of a type. An entry that is
+-- offered a room holds it through a PENDING booking until the hold expires.
+
+CREATE TABLE waitlist_entry (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    room_id BIGINT,
+    room_type VARCHAR(255),
+    check_in_date DATE NOT NULL,
+    check_out_date DATE NOT NULL,
+    payment_method VARCHAR(32) NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    created_at DATETIME(6),
+    booking_id BIGINT,
+    hold_expires_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_waitlist_entry_user FOREIGN KEY (user_id) REFERENCES user (id),
+    CONSTRAINT fk_waitlist_entry_room FOREIGN KEY (room_id) REFERENCES room (id) ON DELETE CASCADE,
+    CONSTRAINT fk_waitlist_entry_booking FOREIGN KEY (booking_id) REFERENCES booking (id) ON DELETE SET NULL
+);
+
+-- findByStatusAndHoldExpiresAtBefore (expired holds, polled by the expiry job)
+CREATE INDEX idx_waitlist_entry_status_hold ON waitlist_entry (status, hold_expires_at);
+
+-- A customer's own entries
+CREATE INDEX idx_waitlist_entry_user ON waitlist_entry (user_id, status);
@@ -0,0 +1,12 @@
+-- Committed booking changes, counted in the changing transaction and summed into the
+-- availability version every instance validates cached availability against. Spread
+-- over shards (by room id) so concurrent bookings rarely wait on the same row.
+CREATE TABLE availability_counter (
+    shard INT NOT NULL,
+    changes BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (shard)
+);
+
+INSERT INTO availability_counter (shard, changes) VALUES
+    (0, 0), (1, 0), (2, 0), (3, 0), (4, 0), (5, 0), (6, 0), (7, 0),
+    (8, 0), (9, 0), (10, 0), (11, 0), (12, 0), (13, 0), (14, 0), (15, 0);
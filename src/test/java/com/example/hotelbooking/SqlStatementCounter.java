@@ -0,0 +1,35 @@
+package com.example.hotelbooking;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts every SQL statement Hibernate prepares so tests can pin query counts,
+ * and remembers the last one so tests can inspect its plan
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final AtomicInteger count = new AtomicInteger();
+    private static volatile String lastStatement;
+
+    @Override
+    public String inspect(String sql) {
+        count.incrementAndGet();
+        lastStatement = sql;
+        return sql;
+    }
+
+    public static void reset() {
+        count.set(0);
+        lastStatement = null;
+    }
+
+    public static String lastStatement() {
+        return lastStatement;
+    }
+
+    public static int count() {
+        return count.get();
+    }
+}
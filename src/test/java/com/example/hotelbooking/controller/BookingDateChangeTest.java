@@ -0,0 +1,178 @@
+package com.example.hotelbooking.controller;
+
+import com.example.hotelbooking.model.Booking;
+import com.example.hotelbooking.model.PaymentMethod;
+import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.model.User;
+import com.example.hotelbooking.repository.BookingRepository;
+import com.example.hotelbooking.repository.RoomRepository;
+import com.example.hotelbooking.repository.UserRepository;
+import com.example.hotelbooking.service.BookingService;
+import com.example.hotelbooking.service.OccupancyPricing;
+import com.example.hotelbooking.service.RoomCatalog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Changing a booking's dates charges only the added nights, refunds only
+ * the nights given up, and fails without side effects when an added night
+ * is taken
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookingDateChangeTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    @Autowired
+    private OccupancyPricing occupancyPricing;
+
+    private final LocalDate checkIn = LocalDate.now().plusDays(35);
+
+    private BookingFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new BookingFixtures(roomRepository, userRepository);
+        bookingRepository.deleteAll();
+        roomRepository.deleteAll();
+        roomCatalog.rebuild();
+        occupancyPricing.rebuild();
+    }
+
+    @Test
+    void extendThenShortenSettlesOnlyTheDifference() throws Exception {
+        Room room = fixtures.room("M1", "Deluxe");
+        roomCatalog.rebuild();
+        User customer = userRepository.findByEmail("customer@hotel.com").orElseThrow();
+        Booking booking = bookingService.createBooking(customer.getId(), room.getId(), checkIn, checkIn.plusDays(3),
+                PaymentMethod.ACCOUNT_BALANCE);
+        double balance = balance(customer);
+
+        double addedNights = quote(room, checkIn.plusDays(3), checkIn.plusDays(5));
+        changeDates(booking, checkIn, checkIn.plusDays(5))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.booking.checkOutDate").value(checkIn.plusDays(5).toString()))
+                .andExpect(jsonPath("$.numberOfNights").value(5));
+        double extendedTotal = booking.getTotalPrice() + addedNights;
+        assertEquals(extendedTotal, total(booking), 0.01);
+        assertEquals(balance - addedNights, balance(customer), 0.01);
+
+        changeDates(booking, checkIn.plusDays(1), checkIn.plusDays(5))
+                .andExpect(status().isOk());
+        assertEquals(extendedTotal * 4 / 5, total(booking), 0.01);
+        assertEquals(balance - addedNights + extendedTotal / 5, balance(customer), 0.01);
+        mockMvc.perform(get("/api/bookings/check-availability")
+                        .param("roomId", room.getId().toString())
+                        .param("checkIn", checkIn.toString())
+                        .param("checkOut", checkIn.plusDays(1).toString()))
+                .andExpect(jsonPath("$.available").value(true));
+    }
+
+    @Test
+    void shorteningACardBookingKeepsTheTotalCharged() throws Exception {
+        Room room = fixtures.room("M3", "Deluxe");
+        roomCatalog.rebuild();
+        User customer = userRepository.findByEmail("customer@hotel.com").orElseThrow();
+        // Booked from the balance, so the card's simulated failures cannot break the test, then paid by card
+        Booking booking = bookingService.createBooking(customer.getId(), room.getId(), checkIn, checkIn.plusDays(3),
+                PaymentMethod.ACCOUNT_BALANCE);
+        booking.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        bookingRepository.save(booking);
+        double balance = balance(customer);
+
+        changeDates(booking, checkIn, checkIn.plusDays(2))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.numberOfNights").value(2));
+
+        // Nothing goes back to the card, so the booking still records what was charged
+        assertEquals(booking.getTotalPrice(), total(booking), 0.01);
+        assertEquals(balance, balance(customer), 0.01);
+    }
+
+    @Test
+    void changeOntoTakenNightsLeavesTheBookingAsItWas() throws Exception {
+        Room room = fixtures.room("M2", "Deluxe");
+        roomCatalog.rebuild();
+        User customer = userRepository.findByEmail("customer@hotel.com").orElseThrow();
+        Booking booking = bookingService.createBooking(customer.getId(), room.getId(), checkIn, checkIn.plusDays(3),
+                PaymentMethod.ACCOUNT_BALANCE);
+        bookingService.createBooking(fixtures.customer("date-change").getId(), room.getId(), checkIn.plusDays(4), checkIn.plusDays(6),
+                PaymentMethod.ACCOUNT_BALANCE);
+        double balance = balance(customer);
+
+        changeDates(booking, checkIn.plusDays(2), checkIn.plusDays(5))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("not available")));
+
+        Booking unchanged = bookingRepository.findById(booking.getId()).orElseThrow();
+        assertEquals(checkIn, unchanged.getCheckInDate());
+        assertEquals(checkIn.plusDays(3), unchanged.getCheckOutDate());
+        assertEquals(balance, balance(customer), 0.01);
+    }
+
+    private ResultActions changeDates(Booking booking, LocalDate newCheckIn, LocalDate newCheckOut) throws Exception {
+        return mockMvc.perform(put("/api/bookings/my/" + booking.getId() + "/dates")
+                .with(httpBasic("customer@hotel.com", "cust123"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"checkIn": "%s", "checkOut": "%s"}
+                        """.formatted(newCheckIn, newCheckOut)));
+    }
+
+    private double quote(Room room, LocalDate from, LocalDate to) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/api/bookings/check-availability")
+                        .param("roomId", room.getId().toString())
+                        .param("checkIn", from.toString())
+                        .param("checkOut", to.toString()))
+                        .andExpect(jsonPath("$.available").value(true))
+                        .andReturn().getResponse().getContentAsString())
+                .path("totalAmount").asDouble();
+    }
+
+    private double total(Booking booking) {
+        return bookingRepository.findById(booking.getId()).orElseThrow().getTotalPrice();
+    }
+
+    private double balance(User user) {
+        return userRepository.findById(user.getId()).orElseThrow().getAccountBalance();
+    }
+}
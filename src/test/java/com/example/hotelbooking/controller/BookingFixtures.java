@@ -0,0 +1,53 @@
+package com.example.hotelbooking.controller;
+
+import com.example.hotelbooking.model.Role;
+import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.model.User;
+import com.example.hotelbooking.repository.RoomRepository;
+import com.example.hotelbooking.repository.UserRepository;
+
+/**
+ * Rooms and customers for booking tests: rooms sleep two at 100 a night
+ * unless priced otherwise, and customers start with a 5000 balance and are
+ * created once per name
+ */
+final class BookingFixtures {
+
+    private final RoomRepository roomRepository;
+    private final UserRepository userRepository;
+
+    BookingFixtures(RoomRepository roomRepository, UserRepository userRepository) {
+        this.roomRepository = roomRepository;
+        this.userRepository = userRepository;
+    }
+
+    Room room(String number, String type) {
+        return room(number, type, 100.0);
+    }
+
+    Room room(String number, String type, double pricePerNight) {
+        Room room = new Room();
+        room.setRoomNumber(number);
+        room.setType(type);
+        room.setCapacity(2);
+        room.setPricePerNight(pricePerNight);
+        return roomRepository.save(room);
+    }
+
+    /**
+     * The customer with email name@hotel.com, created on first use
+     */
+    User customer(String name) {
+        String email = name + "@hotel.com";
+        return userRepository.findByEmail(email).orElseGet(() -> {
+            User user = new User();
+            user.setUsername(name);
+            user.setEmail(email);
+            user.setFullName("Test Guest");
+            user.setPassword("not-used");
+            user.setRole(Role.CUSTOMER);
+            user.setAccountBalance(5000.0);
+            return userRepository.save(user);
+        });
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.hotelbooking.controller;
+
+import com.example.hotelbooking.SqlStatementCounter;
+import com.example.hotelbooking.model.Booking;
+import com.example.hotelbooking.model.BookingStatus;
+import com.example.hotelbooking.model.PaymentMethod;
+import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.model.User;
+import com.example.hotelbooking.repository.BookingRepository;
+import com.example.hotelbooking.repository.RoomRepository;
+import com.example.hotelbooking.repository.UserRepository;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the exact number of SQL statements each booking read endpoint issues,
+ * so an accidental N+1 or eager association shows up as a test failure
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookingQueryCountTest {
+
+    private static final int BOOKINGS = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User customer;
+    private Long bookingId;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository.deleteAll();
+        roomRepository.deleteAll();
+        customer = userRepository.findByEmail("customer@hotel.com").orElseThrow();
+
+        LocalDate start = LocalDate.now().plusDays(10);
+        for (int i = 0; i < BOOKINGS; i++) {
+            Room room = new Room();
+            room.setRoomNumber("Q" + i);
+            room.setType("Double");
+            room.setCapacity(2);
+            room.setPricePerNight(100.0);
+            room = roomRepository.save(room);
+
+            Booking booking = new Booking();
+            booking.setUser(customer);
+            booking.setRoom(room);
+            booking.setCheckInDate(start.plusDays(i));
+            booking.setCheckOutDate(start.plusDays(i + 2));
+            booking.setTotalPrice(200.0);
+            booking.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+            booking.setStatus(BookingStatus.CONFIRMED);
+            bookingId = bookingRepository.save(booking).getId();
+        }
+    }
+
+    @Test
+    void adminBookingPageUsesAuthPlusOneSummaryQuery() throws Exception {
+        // user lookup for Basic auth, summary slice (no count query)
+        assertStatements(2, get("/api/bookings").param("size", "5")
+                .with(httpBasic("admin@hotel.com", "admin123")));
+    }
+
+    @Test
+    void deeperKeysetPagesCostTheSameAsTheFirst() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/bookings").param("size", "5")
+                .with(httpBasic("admin@hotel.com", "admin123"))).andReturn();
+        String cursor = JsonPath.read(first.getResponse().getContentAsString(), "$.nextCursor");
+        assertNotNull(cursor);
+
+        assertStatements(2, get("/api/bookings").param("size", "5").param("cursor", cursor)
+                .with(httpBasic("admin@hotel.com", "admin123")));
+    }
+
+    @Test
+    void statusFilteredBookingPageUsesOneSummaryQuery() throws Exception {
+        assertStatements(2, get("/api/bookings").param("status", "CONFIRMED").param("size", "5")
+                .with(httpBasic("admin@hotel.com", "admin123")));
+    }
+
+    @Test
+    void myBookingsPageDoesNotFetchAssociationsPerRow() throws Exception {
+        // auth, current user, user existence check, summary slice
+        assertStatements(4, get("/api/bookings/my").param("size", "5")
+                .with(httpBasic("customer@hotel.com", "cust123")));
+    }
+
+    @Test
+    void userBookingsPageDoesNotFetchAssociationsPerRow() throws Exception {
+        // auth, current user, user existence check, summary slice
+        assertStatements(4, get("/api/bookings/user/" + customer.getId()).param("size", "5")
+                .with(httpBasic("customer@hotel.com", "cust123")));
+    }
+
+    @Test
+    void bookingByIdFetchesUserAndRoomInOneSelect() throws Exception {
+        // auth, booking joined with user and room
+        assertStatements(2, get("/api/bookings/" + bookingId)
+                .with(httpBasic("customer@hotel.com", "cust123")));
+    }
+
+    private void assertStatements(int expected, RequestBuilder request) throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(request).andExpect(status().isOk());
+        assertEquals(expected, SqlStatementCounter.count());
+    }
+}
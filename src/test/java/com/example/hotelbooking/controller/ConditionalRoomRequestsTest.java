@@ -0,0 +1,174 @@
+package com.example.hotelbooking.controller;
+
+import com.example.hotelbooking.SqlStatementCounter;
+import com.example.hotelbooking.model.Booking;
+import com.example.hotelbooking.model.PaymentMethod;
+import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.model.User;
+import com.example.hotelbooking.repository.AvailabilityCounterRepository;
+import com.example.hotelbooking.repository.BookingRepository;
+import com.example.hotelbooking.repository.RoomRepository;
+import com.example.hotelbooking.repository.UserRepository;
+import com.example.hotelbooking.service.AvailabilityVersion;
+import com.example.hotelbooking.service.BookingService;
+import com.example.hotelbooking.service.RoomCatalog;
+import com.example.hotelbooking.service.RoomService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Room reads carry strong ETags; a matching If-None-Match is answered with a
+ * 304 without touching the database, and room or booking writes change the
+ * tag, including bookings made on other instances once the version is re-read
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalRoomRequestsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AvailabilityCounterRepository availabilityCounterRepository;
+
+    @Autowired
+    private AvailabilityVersion availabilityVersion;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository.deleteAll();
+        roomRepository.deleteAll();
+        roomCatalog.rebuild();
+        room = roomService.addRoom(newRoom("E1", 120.0));
+    }
+
+    @Test
+    void matchingETagGetsNotModifiedWithoutQueries() throws Exception {
+        for (MockHttpServletRequestBuilder request : new MockHttpServletRequestBuilder[] {
+                get("/api/rooms"), get("/api/rooms/" + room.getId()), availability() }) {
+            String etag = etagOf(request);
+
+            SqlStatementCounter.reset();
+            mockMvc.perform(request.header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andExpect(header().exists(HttpHeaders.CACHE_CONTROL));
+            assertEquals(0, SqlStatementCounter.count());
+        }
+    }
+
+    @Test
+    void roomUpdateChangesCatalogETags() throws Exception {
+        String listing = etagOf(get("/api/rooms"));
+        String lookup = etagOf(get("/api/rooms/" + room.getId()));
+
+        roomService.updateRoom(room.getId(), newRoom("E1", 150.0));
+
+        assertNotEquals(listing, etagOf(get("/api/rooms")));
+        assertNotEquals(lookup, etagOf(get("/api/rooms/" + room.getId())));
+    }
+
+    @Test
+    void bookingChangesAvailabilityETag() throws Exception {
+        User customer = userRepository.findByEmail("customer@hotel.com").orElseThrow();
+        LocalDate checkIn = LocalDate.now().plusDays(3);
+
+        String before = etagOf(availability());
+        Booking booking = bookingService.createBooking(customer.getId(), room.getId(),
+                checkIn, checkIn.plusDays(2), PaymentMethod.ACCOUNT_BALANCE);
+        String booked = etagOf(availability());
+        assertNotEquals(before, booked);
+
+        bookingService.cancelBooking(booking.getId());
+        assertNotEquals(booked, etagOf(availability()));
+    }
+
+    @Test
+    void bookingOnAnotherInstanceChangesAvailabilityETagAfterRefresh() throws Exception {
+        String before = etagOf(availability());
+
+        // Another instance's booking transaction counts its change in the shared counter
+        transactionTemplate.executeWithoutResult(status -> availabilityCounterRepository.increment(3));
+        availabilityVersion.refresh();
+
+        mockMvc.perform(availability().header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk());
+        assertNotEquals(before, etagOf(availability()));
+    }
+
+    @Test
+    void responsesAreCacheableByIntermediaries() throws Exception {
+        String cacheControl = mockMvc.perform(get("/api/rooms"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.CACHE_CONTROL);
+        assertNotNull(cacheControl);
+        assertTrue(cacheControl.contains("public"));
+        assertTrue(cacheControl.contains("s-maxage"));
+    }
+
+    private static MockHttpServletRequestBuilder availability() {
+        LocalDate checkIn = LocalDate.now().plusDays(3);
+        return get("/api/rooms/available")
+                .param("checkIn", checkIn.toString())
+                .param("checkOut", checkIn.plusDays(2).toString());
+    }
+
+    private String etagOf(MockHttpServletRequestBuilder request) throws Exception {
+        String etag = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        return etag;
+    }
+
+    private static Room newRoom(String number, double price) {
+        Room room = new Room();
+        room.setRoomNumber(number);
+        room.setType("Double");
+        room.setCapacity(2);
+        room.setPricePerNight(price);
+        return room;
+    }
+}
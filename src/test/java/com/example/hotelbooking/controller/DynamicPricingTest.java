@@ -0,0 +1,133 @@
+package com.example.hotelbooking.controller;
+
+import com.example.hotelbooking.model.PaymentMethod;
+import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.repository.BookingRepository;
+import com.example.hotelbooking.repository.RoomRepository;
+import com.example.hotelbooking.repository.UserRepository;
+import com.example.hotelbooking.service.BookingService;
+import com.example.hotelbooking.service.OccupancyPricing;
+import com.example.hotelbooking.service.RoomCatalog;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Occupancy pricing end to end: a booking that fills the room type raises
+ * the quote, and booking with an earlier quote's token still pays the
+ * earlier total
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DynamicPricingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private OccupancyPricing occupancyPricing;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    private final LocalDate checkIn = LocalDate.now().plusDays(40);
+
+    private BookingFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new BookingFixtures(roomRepository, userRepository);
+        bookingRepository.deleteAll();
+        roomRepository.deleteAll();
+        roomCatalog.rebuild();
+        occupancyPricing.rebuild();
+    }
+
+    @Test
+    void quotedPriceIsHonoredAfterOccupancyRaisesIt() throws Exception {
+        Room first = fixtures.room("Y1", "Double");
+        Room second = fixtures.room("Y2", "Double");
+        roomCatalog.rebuild();
+
+        JsonNode quote = quote(first);
+        assertEquals(200.0, quote.path("totalAmount").asDouble());
+
+        // Half the doubles booked for these nights moves them into the first tier
+        bookingService.createBooking(fixtures.customer("dynamic-pricing-0").getId(), second.getId(), checkIn, checkIn.plusDays(2),
+                PaymentMethod.ACCOUNT_BALANCE);
+        JsonNode requote = quote(first);
+        assertEquals(220.0, requote.path("totalAmount").asDouble());
+        assertNotEquals(quote.path("quoteToken").asText(), requote.path("quoteToken").asText());
+
+        mockMvc.perform(post("/api/bookings")
+                        .with(httpBasic("customer@hotel.com", "cust123"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"userId": %d, "roomId": %d, "checkIn": "%s", "checkOut": "%s",
+                                 "paymentMethod": "ACCOUNT_BALANCE", "quoteToken": "%s"}
+                                """.formatted(fixtures.customer("dynamic-pricing-1").getId(), first.getId(), checkIn, checkIn.plusDays(2),
+                                quote.path("quoteToken").asText())))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.booking.totalPrice").value(200.0));
+    }
+
+    @Test
+    void forgedQuoteIsRejected() throws Exception {
+        Room room = fixtures.room("Y3", "Double");
+        roomCatalog.rebuild();
+
+        mockMvc.perform(post("/api/bookings")
+                        .with(httpBasic("customer@hotel.com", "cust123"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"userId": %d, "roomId": %d, "checkIn": "%s", "checkOut": "%s",
+                                 "paymentMethod": "ACCOUNT_BALANCE", "quoteToken": "42"}
+                                """.formatted(fixtures.customer("dynamic-pricing-0").getId(), room.getId(), checkIn, checkIn.plusDays(2))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("check availability again")));
+    }
+
+    private JsonNode quote(Room room) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/api/bookings/check-availability")
+                        .param("roomId", room.getId().toString())
+                        .param("checkIn", checkIn.toString())
+                        .param("checkOut", checkIn.plusDays(2).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.available").value(true))
+                .andReturn().getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.hotelbooking.controller;
+
+import com.example.hotelbooking.model.Role;
+import com.example.hotelbooking.model.User;
+import com.example.hotelbooking.repository.UserRepository;
+import com.example.hotelbooking.service.EmailBloomFilter;
+import com.example.hotelbooking.service.SearchService;
+import com.example.hotelbooking.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Email checks answer from the Bloom filter when it can, fall through to the
+ * database on a possible hit, and never let a registration the filter has
+ * not seen yet produce a second account
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EmailRegistrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmailBloomFilter emailBloomFilter;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void registeringAnEmailMakesItTaken() throws Exception {
+        checkEmail("first-signup@hotel.com").andExpect(jsonPath("$.exists").value(false));
+
+        register("First Signup", "first-signup@hotel.com").andExpect(status().isCreated());
+
+        assertTrue(emailBloomFilter.mightContain("First-Signup@hotel.com"));
+        checkEmail("first-signup@hotel.com").andExpect(jsonPath("$.exists").value(true));
+        register("First Signup Again", "first-signup@hotel.com")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Email already registered"));
+    }
+
+    @Test
+    void registrationOnAnotherInstanceIsRejectedAndPickedUpByTheRefresh() throws Exception {
+        // Saved behind the filter's back, as another instance would
+        userRepository.save(customer("elsewhere"));
+        assertFalse(emailBloomFilter.mightContain("elsewhere@hotel.com"));
+
+        register("Second Account", "elsewhere@hotel.com")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Email already registered"));
+
+        emailBloomFilter.refresh();
+        checkEmail("elsewhere@hotel.com").andExpect(jsonPath("$.exists").value(true));
+    }
+
+    @Test
+    void registrationCommittedBelowTheLastSeenIdIsPickedUpByTheRefresh() {
+        // Takes an id, then lets a higher one be seen first, as a slow commit would
+        User late = userRepository.save(customer("late-placeholder"));
+        userRepository.save(customer("early"));
+        emailBloomFilter.refresh();
+        userRepository.delete(late);
+        jdbcTemplate.update("INSERT INTO user (id, username, email, full_name, password, role, account_balance) "
+                + "VALUES (?, 'late', 'late@hotel.com', 'Late Commit', 'not-used', 'CUSTOMER', 0)", late.getId());
+        assertFalse(emailBloomFilter.mightContain("late@hotel.com"));
+
+        emailBloomFilter.refresh();
+        assertTrue(emailBloomFilter.mightContain("late@hotel.com"));
+    }
+
+    @Test
+    void possibleHitsFallThroughToTheDatabase() {
+        // 64 bits and no build: every email is a possible hit until it is ready, and most are after
+        EmailBloomFilter tiny = new EmailBloomFilter(userRepository, 1, 0.01, 0, 1000, new SimpleMeterRegistry());
+        assertFalse(tiny.isReady());
+        assertTrue(tiny.mightContain("anyone@hotel.com"));
+
+        transactionTemplate.executeWithoutResult(status -> tiny.build());
+        for (int i = 0; i < 200; i++) {
+            tiny.add("filler" + i + "@hotel.com");
+        }
+        assertTrue(tiny.mightContain("nobody-here@hotel.com"));
+
+        UserService userService = new UserService(userRepository, passwordEncoder, tiny, searchService);
+        assertFalse(userService.existsByEmail("nobody-here@hotel.com"));
+        assertTrue(userService.existsByEmail("customer@hotel.com"));
+    }
+
+    private static User customer(String name) {
+        User user = new User();
+        user.setUsername(name);
+        user.setEmail(name + "@hotel.com");
+        user.setFullName("Test Guest");
+        user.setPassword("not-used");
+        user.setRole(Role.CUSTOMER);
+        return user;
+    }
+
+    private ResultActions checkEmail(String email) throws Exception {
+        return mockMvc.perform(get("/api/auth/check-email").param("email", email));
+    }
+
+    private ResultActions register(String fullName, String email) throws Exception {
+        return mockMvc.perform(post("/api/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"fullName": "%s", "email": "%s", "password": "secret123"}
+                        """.formatted(fullName, email)));
+    }
+}
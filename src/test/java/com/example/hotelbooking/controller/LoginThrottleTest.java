@@ -0,0 +1,73 @@
+package com.example.hotelbooking.controller;
+
+import com.example.hotelbooking.exception.PasswordHashingUnavailableException;
+import com.example.hotelbooking.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Login answers 429 with Retry-After once an account's attempts run out, and
+ * 503 rather than 401 when password hashing is saturated
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoginThrottleTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoSpyBean
+    private UserService userService;
+
+    @Test
+    void repeatedFailuresForOneAccountAreThrottled() throws Exception {
+        // Account capacity is 5; each attempt comes from a different address
+        for (int attempt = 0; attempt < 5; attempt++) {
+            login("10.2.0." + attempt, "nobody@hotel.com").andExpect(status().isUnauthorized());
+        }
+
+        login("10.2.0.99", "nobody@hotel.com")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void saturatedHashingAnswersServiceUnavailable() throws Exception {
+        doThrow(new PasswordHashingUnavailableException("Authentication service is busy. Please try again shortly."))
+                .when(userService).validateCredentials(eq("busy@hotel.com"), anyString());
+
+        login("10.3.0.1", "busy@hotel.com")
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    private ResultActions login(String clientIp, String email) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .with(request -> {
+                    request.setRemoteAddr(clientIp);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"email": "%s", "password": "wrong-password"}
+                        """.formatted(email)));
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.hotelbooking.controller;
+
+import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.repository.BookingRepository;
+import com.example.hotelbooking.repository.PromotionRepository;
+import com.example.hotelbooking.repository.RoomRepository;
+import com.example.hotelbooking.repository.UserRepository;
+import com.example.hotelbooking.service.OccupancyPricing;
+import com.example.hotelbooking.service.PromotionService;
+import com.example.hotelbooking.service.RoomCatalog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Promotion codes end to end: the quoted discount is what the booking pays,
+ * a failed booking does not use up a redemption, the cap holds, and blocks
+ * of redemptions are claimed before the booking takes a connection
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PromotionCodeTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @MockitoSpyBean
+    private PromotionRepository promotionRepository;
+
+    @Autowired
+    private PromotionService promotionService;
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    @Autowired
+    private OccupancyPricing occupancyPricing;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final LocalDate checkIn = LocalDate.now().plusDays(50);
+
+    private BookingFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new BookingFixtures(roomRepository, userRepository);
+        bookingRepository.deleteAll();
+        roomRepository.deleteAll();
+        promotionService.flush();
+        promotionRepository.deleteAll();
+        roomCatalog.rebuild();
+        promotionService.rebuild();
+        occupancyPricing.rebuild();
+    }
+
+    @Test
+    void singleUseCodeDiscountsOneBookingOnly() throws Exception {
+        Room pricey = fixtures.room("P1", "Double", 4000.0);
+        Room first = fixtures.room("P2", "Double", 100.0);
+        Room second = fixtures.room("P3", "Double", 100.0);
+        roomCatalog.rebuild();
+        mockMvc.perform(post("/api/admin/promotions")
+                        .with(httpBasic("admin@hotel.com", "admin123"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"code": "launch25", "discountPercentage": 25, "roomType": "Double",
+                                 "validFrom": "%s", "validUntil": "%s", "maxRedemptions": 1}
+                                """.formatted(LocalDate.now(), LocalDate.now().plusDays(7))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.promotion.code").value("LAUNCH25"));
+
+        double listPrice = quote(first, null);
+        double promoPrice = quote(first, "LAUNCH25");
+        assertEquals(listPrice * 0.75, promoPrice, 0.01);
+
+        // More than the customer's balance: payment fails after the code was redeemed
+        book(pricey, "LAUNCH25")
+                .andExpect(status().isBadRequest());
+        book(first, "launch25")
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.booking.totalPrice").value(promoPrice));
+        book(second, "LAUNCH25")
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("fully redeemed")));
+
+        promotionService.flush();
+        assertEquals(1, promotionRepository.findByCode("LAUNCH25").orElseThrow().getRedemptions());
+    }
+
+    @Test
+    void blockIsClaimedWithoutABookingConnectionHeld() throws Exception {
+        Room room = fixtures.room("P4", "Double", 100.0);
+        roomCatalog.rebuild();
+        addPromotion("flash10", 100);
+
+        // The spy sits inside the repository's transaction, so the claim's own connection is in use
+        Answer<?> repository = mockingDetails(promotionRepository).getMockCreationSettings().getDefaultAnswer();
+        List<Integer> activeConnections = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            activeConnections.add(dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean()
+                    .getActiveConnections());
+            return repository.answer(invocation);
+        }).when(promotionRepository).claimRedemptions(anyLong(), anyInt(), anyInt());
+
+        book(room, "FLASH10")
+                .andExpect(status().isCreated());
+
+        // Inside the booking transaction, the booking's connection would be in use as well
+        assertEquals(List.of(1), activeConnections);
+    }
+
+    private void addPromotion(String code, int maxRedemptions) throws Exception {
+        mockMvc.perform(post("/api/admin/promotions")
+                        .with(httpBasic("admin@hotel.com", "admin123"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"code": "%s", "discountPercentage": 10, "validFrom": "%s", "validUntil": "%s",
+                                 "maxRedemptions": %d}
+                                """.formatted(code, LocalDate.now(), LocalDate.now().plusDays(7), maxRedemptions)))
+                .andExpect(status().isCreated());
+    }
+
+    private double quote(Room room, String promoCode) throws Exception {
+        var request = get("/api/bookings/check-availability")
+                .param("roomId", room.getId().toString())
+                .param("checkIn", checkIn.toString())
+                .param("checkOut", checkIn.plusDays(2).toString());
+        if (promoCode != null) {
+            request.param("promoCode", promoCode);
+        }
+        return objectMapper.readTree(mockMvc.perform(request)
+                        .andExpect(status().isOk())
+                        .andReturn().getResponse().getContentAsString())
+                .path("totalAmount").asDouble();
+    }
+
+    private ResultActions book(Room room, String promoCode) throws Exception {
+        return mockMvc.perform(post("/api/bookings")
+                .with(httpBasic("customer@hotel.com", "cust123"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {"userId": %d, "roomId": %d, "checkIn": "%s", "checkOut": "%s",
+                         "paymentMethod": "ACCOUNT_BALANCE", "promoCode": "%s"}
+                        """.formatted(customerId(), room.getId(), checkIn, checkIn.plusDays(2), promoCode)));
+    }
+
+    private Long customerId() {
+        return userRepository.findByEmail("customer@hotel.com").orElseThrow().getId();
+    }
+}
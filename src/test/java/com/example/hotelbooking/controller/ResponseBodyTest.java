@@ -0,0 +1,200 @@
+package com.example.hotelbooking.controller;
+
+import com.example.hotelbooking.model.Booking;
+import com.example.hotelbooking.model.BookingStatus;
+import com.example.hotelbooking.model.PaymentMethod;
+import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.model.User;
+import com.example.hotelbooking.repository.BookingRepository;
+import com.example.hotelbooking.repository.RoomRepository;
+import com.example.hotelbooking.repository.UserRepository;
+import com.example.hotelbooking.service.RoomCatalog;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the shape of the typed response bodies, including which optional
+ * fields are left out, and the binary and streaming encodings clients can negotiate
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ResponseBodyTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    private Long bookingId;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository.deleteAll();
+        roomRepository.deleteAll();
+
+        Room room = new Room();
+        room.setRoomNumber("J1");
+        room.setType("Double");
+        room.setCapacity(2);
+        room.setPricePerNight(100.0);
+        room = roomRepository.save(room);
+        roomCatalog.rebuild();
+
+        User customer = userRepository.findByEmail("customer@hotel.com").orElseThrow();
+        Booking booking = new Booking();
+        booking.setUser(customer);
+        booking.setRoom(room);
+        booking.setCheckInDate(LocalDate.now().plusDays(5));
+        booking.setCheckOutDate(LocalDate.now().plusDays(7));
+        booking.setTotalPrice(200.0);
+        booking.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        booking.setStatus(BookingStatus.CONFIRMED);
+        bookingId = bookingRepository.save(booking).getId();
+    }
+
+    @Test
+    void bookingIsSerializedAsSummaryWithoutTheUserEntity() throws Exception {
+        mockMvc.perform(get("/api/bookings/" + bookingId).with(httpBasic("customer@hotel.com", "cust123")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.booking.guestEmail").value("customer@hotel.com"))
+                .andExpect(jsonPath("$.booking.roomNumber").value("J1"))
+                .andExpect(jsonPath("$.booking.user").doesNotExist())
+                .andExpect(jsonPath("$.message").doesNotExist());
+    }
+
+    @Test
+    void lastBookingPageHasExplicitNullCursor() throws Exception {
+        mockMvc.perform(get("/api/bookings").with(httpBasic("admin@hotel.com", "admin123")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(1))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").isEmpty())
+                .andExpect(jsonPath("$.userId").doesNotExist());
+    }
+
+    @Test
+    void generalAvailabilityOmitsDateFields() throws Exception {
+        mockMvc.perform(get("/api/rooms/available"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.searchType").value("general"))
+                .andExpect(jsonPath("$.totalAvailableRooms").value(1))
+                .andExpect(jsonPath("$.checkIn").doesNotExist())
+                .andExpect(jsonPath("$.numberOfNights").doesNotExist());
+    }
+
+    @Test
+    void dateSpecificAvailabilityUsesIsoDates() throws Exception {
+        LocalDate checkIn = LocalDate.now().plusDays(20);
+        mockMvc.perform(get("/api/rooms/available")
+                        .param("checkIn", checkIn.toString())
+                        .param("checkOut", checkIn.plusDays(2).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.checkIn").value(checkIn.toString()))
+                .andExpect(jsonPath("$.numberOfNights").value(2))
+                .andExpect(jsonPath("$.availableRooms[0].roomNumber").value("J1"));
+    }
+
+    @Test
+    void availabilityIsNegotiatedAsCbor() throws Exception {
+        JsonNode body = fetch(get("/api/rooms/available").accept(MediaType.APPLICATION_CBOR),
+                MediaType.APPLICATION_CBOR, new ObjectMapper(new CBORFactory()));
+        assertEquals("general", body.get("searchType").asText());
+        assertEquals("J1", body.get("availableRooms").get(0).get("roomNumber").asText());
+    }
+
+    @Test
+    void bookingPageIsNegotiatedAsSmile() throws Exception {
+        MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+        JsonNode body = fetch(get("/api/bookings").accept(smile).with(httpBasic("admin@hotel.com", "admin123")),
+                smile, new ObjectMapper(new SmileFactory()));
+        assertEquals(1, body.get("size").asInt());
+        assertEquals("customer@hotel.com", body.get("bookings").get(0).get("guestEmail").asText());
+    }
+
+    @Test
+    void availabilityStreamsOneRoomPerLine() throws Exception {
+        Room second = new Room();
+        second.setRoomNumber("J2");
+        second.setType("Suite");
+        second.setCapacity(4);
+        second.setPricePerNight(250.0);
+        roomRepository.save(second);
+        roomCatalog.rebuild();
+
+        LocalDate checkIn = LocalDate.now().plusDays(20);
+        MvcResult started = mockMvc.perform(get("/api/rooms/available")
+                        .param("checkIn", checkIn.toString())
+                        .param("checkOut", checkIn.plusDays(2).toString())
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        ObjectMapper json = new ObjectMapper();
+        assertEquals("J1", json.readTree(lines[0]).get("roomNumber").asText());
+        assertEquals("J2", json.readTree(lines[1]).get("roomNumber").asText());
+    }
+
+    @Test
+    void invalidStreamingRequestGetsJsonError() throws Exception {
+        // The error document is written by the streaming handler too
+        MvcResult started = mockMvc.perform(get("/api/rooms/available")
+                        .param("checkIn", "not-a-date")
+                        .param("checkOut", "2030-01-01")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    private JsonNode fetch(RequestBuilder request, MediaType expected, ObjectMapper decoder) throws Exception {
+        byte[] content = mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(expected))
+                .andReturn().getResponse().getContentAsByteArray();
+        return decoder.readTree(content);
+    }
+}
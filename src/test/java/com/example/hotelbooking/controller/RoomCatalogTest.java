@@ -0,0 +1,125 @@
+package com.example.hotelbooking.controller;
+
+import com.example.hotelbooking.SqlStatementCounter;
+import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.repository.BookingRepository;
+import com.example.hotelbooking.repository.RoomRepository;
+import com.example.hotelbooking.service.RoomCatalog;
+import com.example.hotelbooking.service.RoomService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Room reads are served from the in-memory catalog, which follows every write
+ * made through RoomService
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RoomCatalogTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository.deleteAll();
+        roomRepository.deleteAll();
+        roomCatalog.rebuild();
+        room = roomService.addRoom(newRoom("C1", 120.0));
+        roomService.addRoom(newRoom("C2", 90.0));
+    }
+
+    @Test
+    void roomListingAndLookupIssueNoQueries() throws Exception {
+        assertStatements(0, get("/api/rooms"));
+        assertStatements(0, get("/api/rooms/" + room.getId()));
+    }
+
+    @Test
+    void availabilitySearchOnlyQueriesBookedRoomIds() throws Exception {
+        LocalDate checkIn = LocalDate.now().plusDays(3);
+        assertStatements(1, get("/api/rooms/available")
+                .param("checkIn", checkIn.toString())
+                .param("checkOut", checkIn.plusDays(2).toString()));
+    }
+
+    @Test
+    void writesThroughRoomServiceAreVisibleImmediately() throws Exception {
+        Room update = newRoom("C1", 150.0);
+        roomService.updateRoom(room.getId(), update);
+        mockMvc.perform(get("/api/rooms/" + room.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.room.pricePerNight").value(150.0));
+
+        roomService.deleteRoom(room.getId());
+        mockMvc.perform(get("/api/rooms/" + room.getId())).andExpect(status().isNotFound());
+        assertEquals(1, roomService.getAllRooms().size());
+    }
+
+    @Test
+    void roomsWrittenElsewhereAreFoundOnLookupMiss() {
+        Room external = roomRepository.save(newRoom("C3", 80.0));
+        assertEquals("C3", roomService.getRoomById(external.getId()).roomNumber());
+        assertTrue(roomService.getAllRooms().stream().anyMatch(r -> r.id().equals(external.getId())));
+    }
+
+    @Test
+    void instancesHoldingTheSameRoomsAgreeOnTheVersion() {
+        // Another instance, started at a different time and loaded once
+        RoomCatalog elsewhere = new RoomCatalog(roomRepository, new SimpleMeterRegistry());
+        elsewhere.rebuild();
+        assertEquals(roomCatalog.version(), elsewhere.version());
+
+        long before = roomCatalog.version();
+        roomService.updateRoom(room.getId(), newRoom("C1", 130.0));
+        assertNotEquals(before, roomCatalog.version());
+        elsewhere.rebuild();
+        assertEquals(roomCatalog.version(), elsewhere.version());
+    }
+
+    private void assertStatements(int expected, RequestBuilder request) throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(request).andExpect(status().isOk());
+        assertEquals(expected, SqlStatementCounter.count());
+    }
+
+    private static Room newRoom(String number, double price) {
+        Room room = new Room();
+        room.setRoomNumber(number);
+        room.setType("Double");
+        room.setCapacity(2);
+        room.setPricePerNight(price);
+        return room;
+    }
+}
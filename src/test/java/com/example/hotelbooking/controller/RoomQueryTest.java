@@ -0,0 +1,159 @@
+package com.example.hotelbooking.controller;
+
+import com.example.hotelbooking.model.Booking;
+import com.example.hotelbooking.model.BookingStatus;
+import com.example.hotelbooking.model.PaymentMethod;
+import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.model.User;
+import com.example.hotelbooking.repository.BookingRepository;
+import com.example.hotelbooking.repository.RoomRepository;
+import com.example.hotelbooking.repository.UserRepository;
+import com.example.hotelbooking.service.RoomCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Filter combinations, orders and paging of the room catalog query
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RoomQueryTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository.deleteAll();
+        roomRepository.deleteAll();
+
+        room("S1", "Single", 1, 80.0, 0.0);
+        room("S2", "Single", 1, 70.0, 10.0);
+        room("D1", "Double", 2, 120.0, 0.0);
+        Room booked = room("D2", "Double", 3, 110.0, 15.0);
+        room("T1", "Suite", 4, 300.0, 20.0);
+        roomCatalog.rebuild();
+
+        User customer = userRepository.findByEmail("customer@hotel.com").orElseThrow();
+        Booking booking = new Booking();
+        booking.setUser(customer);
+        booking.setRoom(booked);
+        booking.setCheckInDate(LocalDate.now().plusDays(10));
+        booking.setCheckOutDate(LocalDate.now().plusDays(12));
+        booking.setTotalPrice(220.0);
+        booking.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        booking.setStatus(BookingStatus.CONFIRMED);
+        bookingRepository.save(booking);
+    }
+
+    @Test
+    void cheapestRoomsArePagedInPriceOrder() throws Exception {
+        mockMvc.perform(get("/api/rooms").param("sort", "PRICE_ASC").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rooms[*].roomNumber", contains("S2", "S1")))
+                .andExpect(jsonPath("$.totalResults").value(5))
+                .andExpect(jsonPath("$.totalPages").value(3));
+
+        mockMvc.perform(get("/api/rooms").param("sort", "PRICE_ASC").param("size", "2").param("page", "1"))
+                .andExpect(jsonPath("$.rooms[*].roomNumber", contains("D2", "D1")));
+    }
+
+    @Test
+    void filtersCombine() throws Exception {
+        mockMvc.perform(get("/api/rooms")
+                        .param("minCapacity", "2")
+                        .param("maxPrice", "200")
+                        .param("discounted", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rooms[*].roomNumber", contains("D2")));
+
+        mockMvc.perform(get("/api/rooms").param("type", "single").param("minPrice", "75"))
+                .andExpect(jsonPath("$.rooms[*].roomNumber", contains("S1")));
+    }
+
+    @Test
+    void bestDiscountsFirst() throws Exception {
+        mockMvc.perform(get("/api/rooms").param("sort", "DISCOUNT_DESC").param("discounted", "true"))
+                .andExpect(jsonPath("$.rooms[*].roomNumber", contains("T1", "D2", "S2")));
+    }
+
+    @Test
+    void datesExcludeBookedRooms() throws Exception {
+        LocalDate checkIn = LocalDate.now().plusDays(11);
+        mockMvc.perform(get("/api/rooms")
+                        .param("type", "double")
+                        .param("checkIn", checkIn.toString())
+                        .param("checkOut", checkIn.plusDays(3).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rooms[*].roomNumber", contains("D1")));
+    }
+
+    @Test
+    void flexibleDatesSlideAroundABooking() throws Exception {
+        // D2 is booked for nights 10 and 11; two-night stays starting 8 to 12 days out
+        mockMvc.perform(get("/api/bookings/available-rooms/flexible")
+                        .param("earliestCheckIn", LocalDate.now().plusDays(8).toString())
+                        .param("latestCheckIn", LocalDate.now().plusDays(12).toString())
+                        .param("nights", "2")
+                        .param("type", "double"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.options[*].availableRooms", contains(2, 1, 1, 1, 2)))
+                .andExpect(jsonPath("$.options[0].rooms[*].roomNumber", contains("D2", "D1")))
+                .andExpect(jsonPath("$.options[1].rooms[*].roomNumber", contains("D1")))
+                .andExpect(jsonPath("$.options[4].checkOut").value(LocalDate.now().plusDays(14).toString()));
+    }
+
+    @Test
+    void availabilityListingIsPaged() throws Exception {
+        LocalDate checkIn = LocalDate.now().plusDays(11);
+        mockMvc.perform(get("/api/rooms/available")
+                        .param("checkIn", checkIn.toString())
+                        .param("checkOut", checkIn.plusDays(1).toString())
+                        .param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableRooms.length()").value(3))
+                .andExpect(jsonPath("$.totalAvailableRooms").value(4))
+                .andExpect(jsonPath("$.totalPages").value(2));
+    }
+
+    @Test
+    void invertedPriceRangeIsRejected() throws Exception {
+        mockMvc.perform(get("/api/rooms").param("minPrice", "200").param("maxPrice", "100"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Room room(String number, String type, int capacity, double price, double discount) {
+        Room room = new Room();
+        room.setRoomNumber(number);
+        room.setType(type);
+        room.setCapacity(capacity);
+        room.setPricePerNight(price);
+        room.setDiscountPercentage(discount);
+        return roomRepository.save(room);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.hotelbooking.controller;
+
+import com.example.hotelbooking.model.Booking;
+import com.example.hotelbooking.model.BookingStatus;
+import com.example.hotelbooking.model.PaymentMethod;
+import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.model.User;
+import com.example.hotelbooking.repository.BookingRepository;
+import com.example.hotelbooking.repository.RoomRepository;
+import com.example.hotelbooking.repository.UserRepository;
+import com.example.hotelbooking.service.RoomAllocationService;
+import com.example.hotelbooking.service.RoomCatalog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Booking by room type: the allocator fills calendar gaps first, and
+ * concurrent requests for the same type end up in different rooms
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RunOfHouseBookingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RoomAllocationService roomAllocationService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    private final LocalDate checkIn = LocalDate.now().plusDays(20);
+
+    private BookingFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new BookingFixtures(roomRepository, userRepository);
+        bookingRepository.deleteAll();
+        roomRepository.deleteAll();
+        roomCatalog.rebuild();
+    }
+
+    @Test
+    void stayThatClosesAGapGetsThatRoom() throws Exception {
+        fixtures.room("G1", "Double");
+        Room gapped = fixtures.room("G2", "Double");
+        fixtures.room("G3", "Double");
+        fixtures.room("G4", "Suite");
+        roomCatalog.rebuild();
+        // G2 has a two-night gap exactly where the request lands
+        book(gapped, fixtures.customer("run-of-house-0"), checkIn.minusDays(3), checkIn);
+        book(gapped, fixtures.customer("run-of-house-1"), checkIn.plusDays(2), checkIn.plusDays(4));
+
+        mockMvc.perform(post("/api/bookings/room-type")
+                        .with(httpBasic("customer@hotel.com", "cust123"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"userId": %d, "roomType": "double", "checkIn": "%s", "checkOut": "%s",
+                                 "paymentMethod": "ACCOUNT_BALANCE"}
+                                """.formatted(fixtures.customer("run-of-house-2").getId(), checkIn, checkIn.plusDays(2))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.booking.roomNumber").value("G2"));
+    }
+
+    @Test
+    void concurrentRequestsGetDifferentRooms() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            fixtures.room("P" + i, "Double");
+        }
+        roomCatalog.rebuild();
+
+        List<Callable<Booking>> requests = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Long userId = fixtures.customer("run-of-house-" + i).getId();
+            requests.add(() -> roomAllocationService.bookRoomOfType(userId, "Double", checkIn, checkIn.plusDays(2),
+                    PaymentMethod.ACCOUNT_BALANCE));
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        try {
+            Set<Long> rooms = new HashSet<>();
+            for (Future<Booking> booking : pool.invokeAll(requests, 30, TimeUnit.SECONDS)) {
+                rooms.add(booking.get().getRoom().getId());
+            }
+            assertEquals(6, rooms.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void noFreeRoomOfTheTypeIsABadRequest() throws Exception {
+        Room only = fixtures.room("S1", "Suite");
+        roomCatalog.rebuild();
+        book(only, fixtures.customer("run-of-house-0"), checkIn, checkIn.plusDays(5));
+
+        mockMvc.perform(post("/api/bookings/room-type")
+                        .with(httpBasic("customer@hotel.com", "cust123"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"userId": %d, "roomType": "Suite", "checkIn": "%s", "checkOut": "%s",
+                                 "paymentMethod": "CREDIT_CARD"}
+                                """.formatted(fixtures.customer("run-of-house-1").getId(), checkIn.plusDays(1), checkIn.plusDays(2))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    private void book(Room room, User user, LocalDate from, LocalDate to) {
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setRoom(room);
+        booking.setCheckInDate(from);
+        booking.setCheckOutDate(to);
+        booking.setTotalPrice(100.0);
+        booking.setPaymentMethod(PaymentMethod.CREDIT_CARD);
+        booking.setStatus(BookingStatus.CONFIRMED);
+        bookingRepository.save(booking);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.hotelbooking.controller;
+
+import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.repository.BookingRepository;
+import com.example.hotelbooking.repository.RoomRepository;
+import com.example.hotelbooking.repository.StayRestrictionRepository;
+import com.example.hotelbooking.repository.UserRepository;
+import com.example.hotelbooking.service.RoomCatalog;
+import com.example.hotelbooking.service.StayRestrictionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Stay restrictions edited through the admin API apply at once to bookings,
+ * availability searches and their ETags
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StayRestrictionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StayRestrictionRepository stayRestrictionRepository;
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    @Autowired
+    private StayRestrictionService stayRestrictionService;
+
+    private final LocalDate checkIn = LocalDate.now().plusDays(30);
+
+    private BookingFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new BookingFixtures(roomRepository, userRepository);
+        bookingRepository.deleteAll();
+        stayRestrictionRepository.deleteAll();
+        roomRepository.deleteAll();
+        roomCatalog.rebuild();
+        stayRestrictionService.rebuild();
+    }
+
+    @Test
+    void blackoutAppliesAsSoonAsItIsAddedAndEndsWhenDeleted() throws Exception {
+        Room doubleRoom = fixtures.room("SR1", "Double");
+        fixtures.room("SR2", "Suite");
+        roomCatalog.rebuild();
+        String available = "/api/rooms/available?checkIn=" + checkIn + "&checkOut=" + checkIn.plusDays(3);
+
+        String etag = mockMvc.perform(get(available))
+                .andExpect(jsonPath("$.totalAvailableRooms").value(2))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        JsonNode created = objectMapper.readTree(mockMvc.perform(post("/api/admin/stay-restrictions")
+                        .with(httpBasic("admin@hotel.com", "admin123"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"kind": "BLACKOUT", "roomType": "double", "startDate": "%s", "endDate": "%s"}
+                                """.formatted(checkIn.plusDays(1), checkIn.plusDays(1))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString());
+
+        mockMvc.perform(get(available).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalAvailableRooms").value(1))
+                .andExpect(jsonPath("$.availableRooms[0].roomNumber").value("SR2"));
+        mockMvc.perform(post("/api/bookings")
+                        .with(httpBasic("customer@hotel.com", "cust123"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"userId": %d, "roomId": %d, "checkIn": "%s", "checkOut": "%s",
+                                 "paymentMethod": "CREDIT_CARD"}
+                                """.formatted(customerId(), doubleRoom.getId(), checkIn, checkIn.plusDays(3))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("closed on the night of")));
+
+        mockMvc.perform(delete("/api/admin/stay-restrictions/" + created.path("restriction").path("id").asLong())
+                        .with(httpBasic("admin@hotel.com", "admin123")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(available))
+                .andExpect(jsonPath("$.totalAvailableRooms").value(2));
+    }
+
+    @Test
+    void ruleForBothARoomAndATypeIsRejected() throws Exception {
+        Room room = fixtures.room("SR3", "Double");
+        roomCatalog.rebuild();
+
+        mockMvc.perform(post("/api/admin/stay-restrictions")
+                        .with(httpBasic("admin@hotel.com", "admin123"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"kind": "CLOSED_TO_ARRIVAL", "roomId": %d, "roomType": "Double",
+                                 "startDate": "%s", "endDate": "%s"}
+                                """.formatted(room.getId(), checkIn, checkIn)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void suppliedIdAddsARuleRatherThanOverwritingOne() throws Exception {
+        fixtures.room("SR4", "Double");
+        roomCatalog.rebuild();
+        long existing = addBlackout("{}").path("restriction").path("id").asLong();
+
+        long added = addBlackout("{\"id\": %d}".formatted(existing)).path("restriction").path("id").asLong();
+
+        assertNotEquals(existing, added);
+        assertEquals(2, stayRestrictionRepository.count());
+    }
+
+    private JsonNode addBlackout(String extraFields) throws Exception {
+        ObjectNode body = (ObjectNode) objectMapper.readTree(extraFields);
+        body.put("kind", "BLACKOUT").put("roomType", "Double")
+                .put("startDate", checkIn.toString()).put("endDate", checkIn.toString());
+        return objectMapper.readTree(mockMvc.perform(post("/api/admin/stay-restrictions")
+                        .with(httpBasic("admin@hotel.com", "admin123"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.toString()))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private Long customerId() {
+        return userRepository.findByEmail("customer@hotel.com").orElseThrow().getId();
+    }
+}
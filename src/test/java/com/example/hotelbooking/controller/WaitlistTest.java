@@ -0,0 +1,241 @@
+package com.example.hotelbooking.controller;
+
+import com.example.hotelbooking.exception.BookingConflictException;
+import com.example.hotelbooking.exception.UserNotFoundException;
+import com.example.hotelbooking.model.Booking;
+import com.example.hotelbooking.model.BookingStatus;
+import com.example.hotelbooking.model.PaymentMethod;
+import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.model.User;
+import com.example.hotelbooking.model.WaitlistEntry;
+import com.example.hotelbooking.model.WaitlistStatus;
+import com.example.hotelbooking.repository.BookingRepository;
+import com.example.hotelbooking.repository.RoomRepository;
+import com.example.hotelbooking.repository.UserRepository;
+import com.example.hotelbooking.repository.WaitlistEntryRepository;
+import com.example.hotelbooking.service.BookingService;
+import com.example.hotelbooking.service.OccupancyPricing;
+import com.example.hotelbooking.service.RoomCatalog;
+import com.example.hotelbooking.service.WaitlistService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A cancellation holds the freed room for the oldest matching waitlist
+ * entry the guest could book, nobody else can book it meanwhile, an expired
+ * hold passes the room on to the next entry in line, and a stay that is
+ * free already cannot be waitlisted
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class WaitlistTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoSpyBean
+    private BookingService bookingService;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private WaitlistEntryRepository waitlistEntryRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoomCatalog roomCatalog;
+
+    @Autowired
+    private OccupancyPricing occupancyPricing;
+
+    private final LocalDate checkIn = LocalDate.now().plusDays(40);
+
+    private BookingFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new BookingFixtures(roomRepository, userRepository);
+        waitlistEntryRepository.deleteAll();
+        bookingRepository.deleteAll();
+        roomRepository.deleteAll();
+        roomCatalog.rebuild();
+        occupancyPricing.rebuild();
+        waitlistService.rebuild();
+    }
+
+    @Test
+    void cancellationHoldsTheRoomForTheWaitingCustomer() throws Exception {
+        Room room = fixtures.room("W1", "Suite");
+        roomCatalog.rebuild();
+        Booking taken = bookingService.createBooking(fixtures.customer("waitlist-a").getId(), room.getId(),
+                checkIn, checkIn.plusDays(3), PaymentMethod.ACCOUNT_BALANCE);
+
+        Long entryId = objectMapper.readTree(mockMvc.perform(post("/api/waitlist")
+                        .with(httpBasic("customer@hotel.com", "cust123"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"roomType": "suite", "checkIn": "%s", "checkOut": "%s",
+                                 "paymentMethod": "ACCOUNT_BALANCE"}
+                                """.formatted(checkIn.plusDays(1), checkIn.plusDays(2))))
+                        .andExpect(status().isCreated())
+                        .andExpect(jsonPath("$.entry.status").value("WAITING"))
+                        .andReturn().getResponse().getContentAsString())
+                .path("entry").path("id").asLong();
+
+        bookingService.cancelBooking(taken.getId());
+
+        WaitlistEntry offered = waitlistEntryRepository.findById(entryId).orElseThrow();
+        assertEquals(WaitlistStatus.OFFERED, offered.getStatus());
+        assertEquals(BookingStatus.PENDING,
+                bookingRepository.findById(offered.getBookingId()).orElseThrow().getStatus());
+        assertThrows(BookingConflictException.class, () -> bookingService.createBooking(
+                fixtures.customer("waitlist-b").getId(), room.getId(), checkIn, checkIn.plusDays(3),
+                PaymentMethod.ACCOUNT_BALANCE));
+
+        mockMvc.perform(post("/api/waitlist/my/" + entryId + "/confirm")
+                        .with(httpBasic("customer@hotel.com", "cust123")))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.booking.status").value("CONFIRMED"));
+        mockMvc.perform(get("/api/waitlist/my")
+                        .with(httpBasic("customer@hotel.com", "cust123")))
+                .andExpect(jsonPath("$.entries[0].status").value("BOOKED"));
+    }
+
+    @Test
+    void expiredHoldPassesTheRoomToTheNextEntry() {
+        Room room = fixtures.room("W2", "Suite");
+        roomCatalog.rebuild();
+        Booking taken = bookingService.createBooking(fixtures.customer("waitlist-a").getId(), room.getId(),
+                checkIn, checkIn.plusDays(2), PaymentMethod.ACCOUNT_BALANCE);
+        WaitlistEntry first = waitlistService.join(fixtures.customer("waitlist-b").getId(), room.getId(), null,
+                checkIn, checkIn.plusDays(2), PaymentMethod.ACCOUNT_BALANCE);
+        WaitlistEntry second = waitlistService.join(fixtures.customer("waitlist-c").getId(), room.getId(), null,
+                checkIn.plusDays(1), checkIn.plusDays(2), PaymentMethod.ACCOUNT_BALANCE);
+        assertEquals(2, waitlistEntryRepository.findByStatusOrderById(WaitlistStatus.WAITING).size());
+
+        bookingService.cancelBooking(taken.getId());
+        assertEquals(WaitlistStatus.OFFERED, statusOf(first));
+        assertEquals(WaitlistStatus.WAITING, statusOf(second));
+
+        WaitlistEntry held = waitlistEntryRepository.findById(first.getId()).orElseThrow();
+        held.setHoldExpiresAt(LocalDateTime.now().minusMinutes(1));
+        waitlistEntryRepository.save(held);
+        waitlistService.expireHolds();
+
+        assertEquals(WaitlistStatus.EXPIRED, statusOf(first));
+        assertEquals(WaitlistStatus.OFFERED, statusOf(second));
+        assertEquals(BookingStatus.CANCELLED,
+                bookingRepository.findById(held.getBookingId()).orElseThrow().getStatus());
+        assertNotNull(waitlistEntryRepository.findById(second.getId()).orElseThrow().getBookingId());
+    }
+
+    @Test
+    void freeStayIsBookedRatherThanWaitlisted() throws Exception {
+        fixtures.room("W3", "Suite");
+        roomCatalog.rebuild();
+
+        mockMvc.perform(post("/api/waitlist")
+                        .with(httpBasic("customer@hotel.com", "cust123"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"roomType": "suite", "checkIn": "%s", "checkOut": "%s",
+                                 "paymentMethod": "ACCOUNT_BALANCE"}
+                                """.formatted(checkIn, checkIn.plusDays(2))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("book it directly")));
+        assertEquals(0, waitlistEntryRepository.count());
+        assertEquals(0, bookingRepository.count());
+    }
+
+    @Test
+    void guestAtTheBookingLimitIsPassedOver() {
+        Room room = fixtures.room("W4", "Suite");
+        roomCatalog.rebuild();
+        Booking taken = bookingService.createBooking(fixtures.customer("waitlist-a").getId(), room.getId(),
+                checkIn, checkIn.plusDays(2), PaymentMethod.ACCOUNT_BALANCE);
+        User busy = fixtures.customer("waitlist-busy");
+        WaitlistEntry first = waitlistService.join(busy.getId(), room.getId(), null,
+                checkIn, checkIn.plusDays(2), PaymentMethod.ACCOUNT_BALANCE);
+        WaitlistEntry second = waitlistService.join(fixtures.customer("waitlist-b").getId(), room.getId(), null,
+                checkIn, checkIn.plusDays(2), PaymentMethod.ACCOUNT_BALANCE);
+        for (int i = 0; i < 3; i++) {
+            bookingService.createBooking(busy.getId(), room.getId(), checkIn.plusDays(10 + 2 * i),
+                    checkIn.plusDays(11 + 2 * i), PaymentMethod.ACCOUNT_BALANCE);
+        }
+
+        bookingService.cancelBooking(taken.getId());
+
+        assertEquals(WaitlistStatus.WAITING, statusOf(first));
+        assertEquals(WaitlistStatus.OFFERED, statusOf(second));
+    }
+
+    @Test
+    void failedOfferSkipsOnlyItsOwnEntry() {
+        Room room = fixtures.room("W5", "Suite");
+        roomCatalog.rebuild();
+        Booking taken = bookingService.createBooking(fixtures.customer("waitlist-a").getId(), room.getId(),
+                checkIn, checkIn.plusDays(4), PaymentMethod.ACCOUNT_BALANCE);
+        User broken = fixtures.customer("waitlist-broken");
+        WaitlistEntry first = waitlistService.join(broken.getId(), room.getId(), null,
+                checkIn, checkIn.plusDays(2), PaymentMethod.ACCOUNT_BALANCE);
+        WaitlistEntry second = waitlistService.join(fixtures.customer("waitlist-b").getId(), room.getId(), null,
+                checkIn.plusDays(2), checkIn.plusDays(4), PaymentMethod.ACCOUNT_BALANCE);
+        doThrow(new UserNotFoundException("User not found with id: " + broken.getId()))
+                .when(bookingService).holdRoom(eq(broken.getId()), anyLong(), any(), any(), any());
+
+        bookingService.cancelBooking(taken.getId());
+
+        assertEquals(WaitlistStatus.WAITING, statusOf(first));
+        assertEquals(WaitlistStatus.OFFERED, statusOf(second));
+
+        // Still waiting in the index, so the next release of its nights reaches it
+        reset(bookingService);
+        Booking again = bookingService.createBooking(fixtures.customer("waitlist-a").getId(), room.getId(),
+                checkIn, checkIn.plusDays(2), PaymentMethod.ACCOUNT_BALANCE);
+        bookingService.cancelBooking(again.getId());
+        assertEquals(WaitlistStatus.OFFERED, statusOf(first));
+    }
+
+    private WaitlistStatus statusOf(WaitlistEntry entry) {
+        return waitlistEntryRepository.findById(entry.getId()).orElseThrow().getStatus();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.hotelbooking.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadYourWritesTrackerTest {
+
+    @Test
+    void writesAreForgottenOnceTheWindowPasses() {
+        AtomicReference<Instant> now = new AtomicReference<>(Instant.parse("2030-01-01T00:00:00Z"));
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+        };
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofSeconds(5), clock, 10);
+
+        tracker.recordWrite("guest@hotel.com");
+        now.set(now.get().plusSeconds(4));
+        assertTrue(tracker.wroteRecently("guest@hotel.com"));
+        assertFalse(tracker.wroteRecently("other@hotel.com"));
+
+        now.set(now.get().plusSeconds(2));
+        assertFalse(tracker.wroteRecently("guest@hotel.com"));
+        assertEquals(0, tracker.trackedPrincipals());
+    }
+
+    @Test
+    void aFloodOfWritersStaysWithinTheLimit() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(Duration.ofMinutes(5), Clock.systemUTC(), 100);
+        for (int i = 0; i < 10_000; i++) {
+            tracker.recordWrite("writer" + i + "@hotel.com");
+        }
+
+        assertTrue(tracker.trackedPrincipals() <= 100, "tracked " + tracker.trackedPrincipals());
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.hotelbooking.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routes against two embedded H2 databases, each of which names itself, so the
+ * test can see which one served a transaction
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final Duration MAX_LAG = Duration.ofSeconds(2);
+    private static final Duration WINDOW = Duration.ofSeconds(5);
+
+    private final AtomicReference<Duration> replicaLag = new AtomicReference<>(Duration.ZERO);
+    private final MutableClock clock = new MutableClock();
+
+    private ReplicaSet replicaSet;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTx;
+    private TransactionTemplate readOnlyTx;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("routing_primary", "primary");
+        DataSource replica = database("routing_replica", "replica");
+
+        ReplicaLagProbe probe = dataSource -> {
+            Duration lag = replicaLag.get();
+            if (lag == null) {
+                throw new SQLException("replica unreachable");
+            }
+            return lag;
+        };
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        replicaSet = new ReplicaSet(Map.of("replica-0", replica), probe, MAX_LAG, registry);
+        replicaSet.checkLag();
+
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(WINDOW, clock, 1000);
+        DataSource routing = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replicaSet, tracker, registry));
+
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        writeTx = new TransactionTemplate(transactionManager);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+    }
+
+    @AfterEach
+    void clearPrincipal() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertEquals("replica", readOnlyTx.execute(status -> servedBy()));
+    }
+
+    @Test
+    void writeTransactionsAndNonTransactionalCallsGoToThePrimary() {
+        assertEquals("primary", writeTx.execute(status -> servedBy()));
+        assertEquals("primary", servedBy());
+    }
+
+    @Test
+    void laggingReplicaIsTakenOutOfRotation() {
+        replicaLag.set(Duration.ofSeconds(30));
+        replicaSet.checkLag();
+        assertEquals("primary", readOnlyTx.execute(status -> servedBy()));
+
+        replicaLag.set(Duration.ofMillis(100));
+        replicaSet.checkLag();
+        assertEquals("replica", readOnlyTx.execute(status -> servedBy()));
+    }
+
+    @Test
+    void unreachableReplicaIsTakenOutOfRotation() {
+        replicaLag.set(null);
+        replicaSet.checkLag();
+        assertEquals("primary", readOnlyTx.execute(status -> servedBy()));
+    }
+
+    @Test
+    void writerReadsItsOwnWritesFromThePrimaryWithinTheWindow() {
+        signIn("customer@hotel.com");
+        writeTx.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO note (text) VALUES ('booked')"));
+
+        // The replica never replicates in this test, so only the primary has the row
+        assertEquals(List.of("booked"), readOnlyTx.execute(status -> notes()));
+
+        signIn("someone-else@hotel.com");
+        assertEquals(List.of(), readOnlyTx.execute(status -> notes()));
+
+        signIn("customer@hotel.com");
+        clock.advance(WINDOW);
+        assertEquals(List.of(), readOnlyTx.execute(status -> notes()));
+    }
+
+    @Test
+    void rolledBackWriteDoesNotPinTheWriterToThePrimary() {
+        signIn("customer@hotel.com");
+        writeTx.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO note (text) VALUES ('abandoned')");
+            status.setRollbackOnly();
+        });
+        assertEquals("replica", readOnlyTx.execute(status -> servedBy()));
+    }
+
+    private String servedBy() {
+        return jdbcTemplate.queryForObject("SELECT name FROM whoami", String.class);
+    }
+
+    private List<String> notes() {
+        return jdbcTemplate.queryForList("SELECT text FROM note", String.class);
+    }
+
+    private static void signIn(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+
+    private static DataSource database(String name, String role) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP ALL OBJECTS");
+        jdbc.execute("CREATE TABLE whoami (name VARCHAR(20))");
+        jdbc.execute("CREATE TABLE note (text VARCHAR(20))");
+        jdbc.update("INSERT INTO whoami VALUES (?)", role);
+        return dataSource;
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2030-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
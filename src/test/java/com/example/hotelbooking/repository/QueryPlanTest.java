@@ -0,0 +1,175 @@
+package com.example.hotelbooking.repository;
+
+import com.example.hotelbooking.SqlStatementCounter;
+import com.example.hotelbooking.model.BookingStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN on the SQL Hibernate actually generates for the hot booking
+ * queries, against the migrated schema on embedded H2 in MySQL mode. Filtered
+ * queries must read bookings through one of the migration's composite indexes
+ * and scan no table. H2 does not pick indexes to satisfy ORDER BY ... LIMIT, so
+ * the unfiltered and per-user listings are only checked for not scanning booking.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:plan_test;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1")
+class QueryPlanTest {
+
+    private static final String FULL_SCAN = "tableScan";
+    private static final String BOOKING_FULL_SCAN = "public.booking.tableScan";
+    private static final String BOOKING_INDEX = "public.idx_booking_";
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2030, 1, 10);
+    private static final LocalDate CHECK_OUT = LocalDate.of(2030, 1, 14);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+    private long roomId;
+
+    @BeforeEach
+    void seed() {
+        // ANALYZE commits, so the data survives the test transaction; seed only once
+        Long existing = jdbcTemplate.queryForObject("SELECT MIN(id) FROM user WHERE username = 'plan'", Long.class);
+        if (existing != null) {
+            userId = existing;
+            roomId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM room", Long.class);
+            return;
+        }
+
+        jdbcTemplate.update("INSERT INTO user (username, password, account_balance, role, full_name, email) " +
+                "VALUES ('plan', 'x', 0, 'CUSTOMER', 'Plan User', 'plan@example.com')");
+        userId = jdbcTemplate.queryForObject("SELECT id FROM user WHERE username = 'plan'", Long.class);
+
+        List<Object[]> rooms = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            rooms.add(new Object[] { "P" + i });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO room (room_number, type, capacity, price_per_night, " +
+                "discount_percentage, available) VALUES (?, 'Double', 2, 100, 0, TRUE)", rooms);
+        roomId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM room", Long.class);
+
+        List<Object[]> bookings = new ArrayList<>();
+        LocalDate start = LocalDate.of(2029, 1, 1);
+        for (int i = 0; i < 2000; i++) {
+            LocalDate checkIn = start.plusDays(i % 400);
+            bookings.add(new Object[] {
+                roomId + (i % 50), Date.valueOf(checkIn), Date.valueOf(checkIn.plusDays(3)),
+                i % 5 == 0 ? "CANCELLED" : "CONFIRMED", Timestamp.valueOf(LocalDateTime.now().minusMinutes(i))
+            });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO booking (user_id, room_id, check_in_date, check_out_date, total_price, " +
+                "payment_method, status, booking_date) VALUES (" + userId + ", ?, ?, ?, 300, 'CREDIT_CARD', ?, ?)", bookings);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void conflictCheckUsesIndex() {
+        assertIndexed(() -> bookingRepository.findConflictingBookings(roomId, CHECK_IN, CHECK_OUT, BookingStatus.CONFIRMED),
+                roomId, "CONFIRMED", CHECK_OUT, CHECK_IN);
+    }
+
+    @Test
+    void activeConflictCheckUsesIndex() {
+        assertIndexed(() -> bookingRepository.findConflictingActiveBookings(roomId, CHECK_IN, CHECK_OUT),
+                roomId, CHECK_OUT, CHECK_IN);
+    }
+
+    @Test
+    void bookedRoomIdsUseIndex() {
+        assertIndexed(() -> bookingRepository.findBookedRoomIds(CHECK_IN, CHECK_OUT),
+                CHECK_OUT, CHECK_IN);
+    }
+
+    @Test
+    void activeBookingCountUsesIndex() {
+        assertIndexed(() -> bookingRepository.countByUserIdAndStatus(userId, BookingStatus.CONFIRMED),
+                userId, "CONFIRMED");
+    }
+
+    @Test
+    void userKeysetFirstPageUsesIndex() {
+        assertNoBookingScan(() -> bookingRepository.findSummariesByUserId(userId, Limit.of(11)),
+                userId, 11);
+    }
+
+    @Test
+    void userKeysetNextPageUsesIndex() {
+        LocalDateTime cursorDate = LocalDateTime.now().minusMinutes(100);
+        assertNoBookingScan(() -> bookingRepository.findSummariesByUserIdAfter(userId, cursorDate, 100L, Limit.of(11)),
+                userId, cursorDate, cursorDate, 100L, 11);
+    }
+
+    @Test
+    void adminKeysetPageUsesIndex() {
+        assertNoBookingScan(() -> bookingRepository.findSummaries(Limit.of(11)), 11);
+    }
+
+    @Test
+    void statusKeysetPageUsesIndex() {
+        assertIndexed(() -> bookingRepository.findSummariesByStatus(BookingStatus.CONFIRMED, Limit.of(11)),
+                "CONFIRMED", 11);
+    }
+
+    /**
+     * Asserts the query reads bookings through a composite index and scans no table
+     */
+    private void assertIndexed(Runnable repositoryCall, Object... parameters) {
+        String plan = explain(repositoryCall, parameters);
+        assertTrue(plan.contains(BOOKING_INDEX), () -> "Booking access not using a composite index:\n" + plan);
+        assertFalse(plan.contains(FULL_SCAN), () -> "Full scan in plan:\n" + plan);
+    }
+
+    /**
+     * Asserts the query never reads the whole booking table
+     */
+    private void assertNoBookingScan(Runnable repositoryCall, Object... parameters) {
+        String plan = explain(repositoryCall, parameters);
+        assertFalse(plan.contains(BOOKING_FULL_SCAN), () -> "Full scan of booking in plan:\n" + plan);
+    }
+
+    /**
+     * Runs the repository call to capture its SQL, then explains that SQL with
+     * the given parameter values bound in order of appearance
+     */
+    private String explain(Runnable repositoryCall, Object... parameters) {
+        SqlStatementCounter.reset();
+        repositoryCall.run();
+        String sql = SqlStatementCounter.lastStatement();
+        assertNotNull(sql);
+
+        String plan = jdbcTemplate.query("EXPLAIN " + sql, ps -> {
+            for (int i = 0; i < parameters.length; i++) {
+                ps.setObject(i + 1, parameters[i]);
+            }
+        }, rs -> rs.next() ? rs.getString(1) : null);
+
+        assertNotNull(plan);
+        return plan;
+    }
+}
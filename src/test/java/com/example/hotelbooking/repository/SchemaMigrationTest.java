@@ -0,0 +1,86 @@
+package com.example.hotelbooking.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Migrates a schema as ddl-auto=update left it before migrations were
+ * introduced: baselined at V1, so without V1's idx_user_email, and holding
+ * duplicate emails nothing used to prevent.
+ */
+class SchemaMigrationTest {
+
+    @Test
+    void preMigrationSchemaWithDuplicateEmailsMigrates() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:legacy_schema;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER,VALUE;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE user (
+                    id BIGINT NOT NULL AUTO_INCREMENT, username VARCHAR(255) NOT NULL, password VARCHAR(255) NOT NULL,
+                    account_balance DOUBLE NOT NULL, role VARCHAR(32) NOT NULL, full_name VARCHAR(255), email VARCHAR(255),
+                    created_at DATETIME(6), updated_at DATETIME(6), PRIMARY KEY (id), CONSTRAINT uk_user_username UNIQUE (username))""");
+        jdbcTemplate.execute("""
+                CREATE TABLE room (
+                    id BIGINT NOT NULL AUTO_INCREMENT, room_number VARCHAR(255) NOT NULL, type VARCHAR(255) NOT NULL,
+                    capacity INT NOT NULL, price_per_night DOUBLE NOT NULL, discount_percentage DOUBLE NOT NULL,
+                    available BIT NOT NULL, description VARCHAR(500), image_url VARCHAR(255), PRIMARY KEY (id),
+                    CONSTRAINT uk_room_room_number UNIQUE (room_number))""");
+        jdbcTemplate.execute("""
+                CREATE TABLE booking (
+                    id BIGINT NOT NULL AUTO_INCREMENT, user_id BIGINT NOT NULL, room_id BIGINT NOT NULL,
+                    check_in_date DATE NOT NULL, check_out_date DATE NOT NULL, total_price DOUBLE NOT NULL,
+                    payment_method VARCHAR(32) NOT NULL, booking_date DATETIME(6), status VARCHAR(32), notes VARCHAR(255),
+                    PRIMARY KEY (id), CONSTRAINT fk_booking_user FOREIGN KEY (user_id) REFERENCES user (id),
+                    CONSTRAINT fk_booking_room FOREIGN KEY (room_id) REFERENCES room (id))""");
+        String insertUser = "INSERT INTO user (username, password, account_balance, role, email) VALUES (?, 'x', 0, 'CUSTOMER', ?)";
+        jdbcTemplate.update(insertUser, "first", "shared@hotel.com");
+        jdbcTemplate.update(insertUser, "second", "shared@hotel.com");
+        jdbcTemplate.update(insertUser, "third", "own@hotel.com");
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertEquals("shared@hotel.com",
+                jdbcTemplate.queryForObject("SELECT email FROM user WHERE username = 'first'", String.class));
+        assertNull(jdbcTemplate.queryForObject("SELECT email FROM user WHERE username = 'second'", String.class));
+        assertEquals("own@hotel.com",
+                jdbcTemplate.queryForObject("SELECT email FROM user WHERE username = 'third'", String.class));
+
+        List<String> indexes = userIndexes(dataSource);
+        assertTrue(indexes.contains("uk_user_email"), indexes.toString());
+        assertFalse(indexes.contains("idx_user_email"), indexes.toString());
+        assertThrows(DataIntegrityViolationException.class,
+                () -> jdbcTemplate.update(insertUser, "fourth", "own@hotel.com"));
+    }
+
+    private static List<String> userIndexes(DriverManagerDataSource dataSource) throws Exception {
+        List<String> names = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             ResultSet indexes = connection.getMetaData()
+                     .getIndexInfo(connection.getCatalog(), connection.getSchema(), "user", false, false)) {
+            while (indexes.next()) {
+                names.add(indexes.getString("INDEX_NAME").toLowerCase());
+            }
+        }
+        return names;
+    }
+}
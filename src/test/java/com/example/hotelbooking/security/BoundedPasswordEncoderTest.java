@@ -0,0 +1,79 @@
+package com.example.hotelbooking.security;
+
+import com.example.hotelbooking.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A hashing pool with one worker and one queue slot, held busy by a
+ * delegate that blocks until released
+ */
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final PasswordEncoder blocking = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    };
+
+    @AfterEach
+    void releaseWorkers() {
+        release.countDown();
+    }
+
+    @Test
+    void rejectsImmediatelyWhenThePoolAndQueueAreFull() throws Exception {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, 1, 1, 10_000, registry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (registry.get("auth.password.hashing.queue.depth").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        long start = System.nanoTime();
+        assertThrows(PasswordHashingUnavailableException.class, () -> encoder.matches("c", "hashed:c"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertEquals(1.0, registry.get("auth.password.hashing.rejected").tag("reason", "saturated").counter().count());
+
+        release.countDown();
+        assertEquals("hashed:a", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hashed:b", queued.get(5, TimeUnit.SECONDS));
+        encoder.shutdown();
+    }
+
+    @Test
+    void givesUpOnAHashThatTakesLongerThanTheTimeout() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(blocking, 1, 1, 50, registry);
+
+        assertThrows(PasswordHashingUnavailableException.class, () -> encoder.encode("slow"));
+        assertEquals(1.0, registry.get("auth.password.hashing.rejected").tag("reason", "timeout").counter().count());
+        encoder.shutdown();
+    }
+}
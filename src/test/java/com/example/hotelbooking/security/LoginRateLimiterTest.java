@@ -0,0 +1,35 @@
+package com.example.hotelbooking.security;
+
+import com.example.hotelbooking.exception.LoginThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginRateLimiterTest {
+
+    @Test
+    void throttlesAnAccountOnceItsBucketIsEmpty() {
+        LoginRateLimiter limiter = new LoginRateLimiter(100, 60, 3, 1, 1000, new SimpleMeterRegistry());
+        for (int attempt = 0; attempt < 3; attempt++) {
+            limiter.checkLoginAllowed("10.0.0." + attempt, "Guest@Hotel.com");
+        }
+
+        LoginThrottledException e = assertThrows(LoginThrottledException.class,
+                () -> limiter.checkLoginAllowed("10.0.0.9", " guest@hotel.com"));
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+        assertDoesNotThrow(() -> limiter.checkLoginAllowed("10.0.0.9", "other@hotel.com"));
+    }
+
+    @Test
+    void aFloodOfDistinctKeysStaysWithinTheLimit() {
+        LoginRateLimiter limiter = new LoginRateLimiter(5, 60, 5, 60, 100, new SimpleMeterRegistry());
+        for (int attempt = 0; attempt < 10_000; attempt++) {
+            limiter.checkLoginAllowed("10.1." + (attempt / 256) + "." + (attempt % 256), "user" + attempt + "@hotel.com");
+        }
+
+        assertTrue(limiter.trackedKeys() <= 200, "tracked " + limiter.trackedKeys() + " keys");
+    }
+}
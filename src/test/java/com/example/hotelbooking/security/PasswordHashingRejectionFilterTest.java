@@ -0,0 +1,39 @@
+package com.example.hotelbooking.security;
+
+import com.example.hotelbooking.exception.PasswordHashingUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PasswordHashingRejectionFilterTest {
+
+    private final PasswordHashingRejectionFilter filter = new PasswordHashingRejectionFilter();
+
+    @Test
+    void wrappedSaturationBecomesA503() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), response, (request, res) -> {
+            throw new InternalAuthenticationServiceException("lookup failed",
+                    new PasswordHashingUnavailableException("Authentication service is busy"));
+        });
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertThat(response.getContentAsString(), containsString("Authentication service is busy"));
+    }
+
+    @Test
+    void otherFailuresPassThrough() {
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(new MockHttpServletRequest(),
+                new MockHttpServletResponse(), (request, res) -> {
+                    throw new IllegalStateException("unrelated");
+                }));
+    }
+}
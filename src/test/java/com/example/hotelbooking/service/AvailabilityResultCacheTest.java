@@ -0,0 +1,130 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.RoomFilter;
+import com.example.hotelbooking.dto.RoomSort;
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.event.BookingChangedEvent;
+import com.example.hotelbooking.model.StayRestriction;
+import com.example.hotelbooking.model.StayRestrictionKind;
+import com.example.hotelbooking.repository.RoomRepository;
+import com.example.hotelbooking.repository.StayRestrictionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AvailabilityResultCacheTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2030, 5, 1);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Queue<Runnable> background = new ArrayDeque<>();
+    private final BookingService bookingService = mock(BookingService.class);
+    private final StayRestrictionRepository stayRestrictionRepository = mock(StayRestrictionRepository.class);
+    private RoomCatalog roomCatalog;
+    private StayRestrictionService stayRestrictionService;
+    private AvailabilityResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        RoomRepository roomRepository = mock(RoomRepository.class);
+        when(roomRepository.findAllSummaries()).thenReturn(List.of(room(1L), room(2L), room(3L)));
+        roomCatalog = new RoomCatalog(roomRepository, new SimpleMeterRegistry());
+        when(bookingService.getCurrentBookedRoomIds(any(), any())).thenReturn(Set.of());
+        stayRestrictionService = new StayRestrictionService(stayRestrictionRepository, roomCatalog);
+        stayRestrictionService.rebuild();
+
+        // Background work is queued until the test runs it
+        cache = new AvailabilityResultCache(100, Duration.ofSeconds(5), Duration.ofSeconds(30), bookingService,
+                roomCatalog, stayRestrictionService, new SimpleMeterRegistry(), nanos::get, background::add);
+    }
+
+    @Test
+    void repeatedSearchIsServedFromCache() {
+        RoomQuery query = query(MAY_1, 3);
+        assertEquals(3, cache.get(query).getTotalElements());
+        assertEquals(3, cache.get(query).getTotalElements());
+
+        verify(bookingService, times(1)).getCurrentBookedRoomIds(MAY_1, MAY_1.plusDays(3));
+    }
+
+    @Test
+    void bookingInvalidatesOnlyOverlappingStays() {
+        cache.get(query(MAY_1, 3));
+        cache.get(query(MAY_1.plusDays(10), 2));
+        cache.get(query(MAY_1.minusDays(5), 5));
+
+        // Overlaps only the first stay; the last one checks out the day this booking starts
+        cache.onBookingChanged(new BookingChangedEvent(9L, 1L, MAY_1.plusDays(2), MAY_1.plusDays(5),
+                BookingChangedEvent.Change.BOOKED));
+        cache.get(query(MAY_1, 3));
+        cache.get(query(MAY_1.plusDays(10), 2));
+        cache.get(query(MAY_1.minusDays(5), 5));
+
+        verify(bookingService, times(2)).getCurrentBookedRoomIds(MAY_1, MAY_1.plusDays(3));
+        verify(bookingService, times(1)).getCurrentBookedRoomIds(MAY_1.plusDays(10), MAY_1.plusDays(12));
+        verify(bookingService, times(1)).getCurrentBookedRoomIds(MAY_1.minusDays(5), MAY_1);
+        assertEquals(3, cache.indexedEntries());
+    }
+
+    @Test
+    void roomChangeInvalidatesEverything() {
+        cache.get(query(MAY_1, 3));
+        roomCatalog.put(room(4L));
+
+        assertEquals(4, cache.get(query(MAY_1, 3)).getTotalElements());
+        verify(bookingService, times(2)).getCurrentBookedRoomIds(MAY_1, MAY_1.plusDays(3));
+    }
+
+    @Test
+    void restrictionEditInvalidatesEverything() {
+        cache.get(query(MAY_1, 3));
+        StayRestriction blackout = new StayRestriction();
+        blackout.setKind(StayRestrictionKind.BLACKOUT);
+        blackout.setRoomId(2L);
+        blackout.setStartDate(MAY_1.plusDays(1));
+        blackout.setEndDate(MAY_1.plusDays(1));
+        when(stayRestrictionRepository.findByEndDateGreaterThanEqualOrderById(any())).thenReturn(List.of(blackout));
+        stayRestrictionService.rebuild();
+
+        assertEquals(2, cache.get(query(MAY_1, 3)).getTotalElements());
+        verify(bookingService, times(2)).getCurrentBookedRoomIds(MAY_1, MAY_1.plusDays(3));
+    }
+
+    @Test
+    void staleEntryIsServedWhileItRefreshes() {
+        RoomQuery query = query(MAY_1, 3);
+        cache.get(query);
+        // Booked on another instance, so no event reaches this cache
+        when(bookingService.getCurrentBookedRoomIds(any(), any())).thenReturn(Set.of(1L));
+
+        nanos.addAndGet(Duration.ofSeconds(6).toNanos());
+        assertEquals(3, cache.get(query).getTotalElements());
+        while (!background.isEmpty()) {
+            background.poll().run();
+        }
+        assertEquals(2, cache.get(query).getTotalElements());
+    }
+
+    private static RoomQuery query(LocalDate checkIn, int nights) {
+        return new RoomQuery(RoomFilter.forDates(checkIn, checkIn.plusDays(nights)), RoomSort.ID, 0, 20);
+    }
+
+    private static RoomSummary room(Long id) {
+        return new RoomSummary(id, "C" + id, "Double", 2, 100.0, 0.0, true, null, null);
+    }
+}
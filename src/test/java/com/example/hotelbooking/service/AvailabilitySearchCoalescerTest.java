@@ -0,0 +1,232 @@
+package com.example.hotelbooking.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AvailabilitySearchCoalescerTest {
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2030, 5, 1);
+    private static final LocalDate CHECK_OUT = LocalDate.of(2030, 5, 4);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong committedChanges = new AtomicLong();
+    private final AvailabilityVersion version = new AvailabilityVersion(committedChanges::get,
+            shard -> committedChanges.incrementAndGet());
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @Test
+    void concurrentSearchesShareOneLookup() throws Exception {
+        AvailabilitySearchCoalescer coalescer = coalescer(0);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Set<Long>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> coalescer.bookedRoomIds(CHECK_IN, CHECK_OUT, () -> {
+                    lookups.incrementAndGet();
+                    await(release);
+                    return Set.of(1L, 2L);
+                })));
+            }
+            while (outcome("joined") < 7) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<Set<Long>> result : results) {
+                assertEquals(Set.of(1L, 2L), result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, lookups.get());
+            assertEquals(7.0 / 8, coalescer.collapseRatio(), 1e-9);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void heldResultIsReusedUntilAvailabilityChanges() {
+        AvailabilitySearchCoalescer coalescer = coalescer(60_000);
+
+        coalescer.bookedRoomIds(CHECK_IN, CHECK_OUT, this::lookup);
+        coalescer.bookedRoomIds(CHECK_IN, CHECK_OUT, this::lookup);
+        assertEquals(1, lookups.get());
+
+        bookingCommitted();
+        coalescer.bookedRoomIds(CHECK_IN, CHECK_OUT, this::lookup);
+        assertEquals(2, lookups.get());
+        assertEquals(1.0, outcome("held"));
+    }
+
+    @Test
+    void staleResultIsServedWhileAnotherCallerRevalidates() throws Exception {
+        AvailabilitySearchCoalescer coalescer = coalescer(60_000);
+        coalescer.bookedRoomIds(CHECK_IN, CHECK_OUT, () -> Set.of(1L));
+        bookingCommitted();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<Set<Long>> refresh = pool.submit(() -> coalescer.bookedRoomIds(CHECK_IN, CHECK_OUT, () -> {
+                started.countDown();
+                await(release);
+                return Set.of(1L, 2L);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertEquals(Set.of(1L), coalescer.bookedRoomIds(CHECK_IN, CHECK_OUT, this::lookup));
+            assertEquals(0, lookups.get());
+
+            release.countDown();
+            assertEquals(Set.of(1L, 2L), refresh.get(5, TimeUnit.SECONDS));
+            assertEquals(Set.of(1L, 2L), coalescer.bookedRoomIds(CHECK_IN, CHECK_OUT, this::lookup));
+            assertEquals(0, lookups.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void currentLookupWaitsForTheRevalidationInsteadOfTakingTheStaleResult() throws Exception {
+        AvailabilitySearchCoalescer coalescer = coalescer(60_000);
+        coalescer.bookedRoomIds(CHECK_IN, CHECK_OUT, () -> Set.of(1L));
+        bookingCommitted();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Set<Long>> refresh = pool.submit(() -> coalescer.bookedRoomIds(CHECK_IN, CHECK_OUT, () -> {
+                started.countDown();
+                await(release);
+                return Set.of(1L, 2L);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // A cache load for another page of the same stay joins the flight
+            Future<Set<Long>> load = pool.submit(() -> coalescer.currentBookedRoomIds(CHECK_IN, CHECK_OUT, this::lookup));
+            while (outcome("joined") < 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertEquals(Set.of(1L, 2L), load.get(5, TimeUnit.SECONDS));
+            assertEquals(Set.of(1L, 2L), refresh.get(5, TimeUnit.SECONDS));
+            assertEquals(0.0, outcome("stale"));
+            assertEquals(0, lookups.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedLookupIsNotHeld() {
+        AvailabilitySearchCoalescer coalescer = coalescer(60_000);
+
+        assertThrows(IllegalStateException.class, () -> coalescer.bookedRoomIds(CHECK_IN, CHECK_OUT, () -> {
+            throw new IllegalStateException("database unavailable");
+        }));
+        assertEquals(Set.of(7L), coalescer.bookedRoomIds(CHECK_IN, CHECK_OUT, this::lookup));
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    void leaderErrorReachesFollowers() throws Exception {
+        AvailabilitySearchCoalescer coalescer = coalescer(0);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Set<Long>> leader = pool.submit(() -> coalescer.bookedRoomIds(CHECK_IN, CHECK_OUT, () -> {
+                await(release);
+                throw new OutOfMemoryError("simulated");
+            }));
+            while (outcome("leader") < 1) {
+                Thread.sleep(5);
+            }
+            Future<Set<Long>> follower = pool.submit(() -> coalescer.bookedRoomIds(CHECK_IN, CHECK_OUT, this::lookup));
+            while (outcome("joined") < 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(OutOfMemoryError.class, failure.getCause());
+            assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            assertEquals(0, lookups.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void followerRunsItsOwnLookupWhenTheLeaderIsStuck() throws Exception {
+        AvailabilitySearchCoalescer coalescer = coalescer(0, 50);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            pool.submit(() -> coalescer.bookedRoomIds(CHECK_IN, CHECK_OUT, () -> {
+                started.countDown();
+                await(release);
+                return Set.of(1L);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            assertEquals(Set.of(7L), coalescer.bookedRoomIds(CHECK_IN, CHECK_OUT, this::lookup));
+            assertEquals(1, lookups.get());
+            assertEquals(1.0, outcome("timed-out"));
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private void bookingCommitted() {
+        committedChanges.incrementAndGet();
+        version.onBookingChanged(null);
+    }
+
+    private AvailabilitySearchCoalescer coalescer(long holdMs) {
+        return coalescer(holdMs, 5_000);
+    }
+
+    private AvailabilitySearchCoalescer coalescer(long holdMs, long followerTimeoutMs) {
+        version.refresh();
+        return new AvailabilitySearchCoalescer(holdMs, 100, followerTimeoutMs, version, registry);
+    }
+
+    private Set<Long> lookup() {
+        lookups.incrementAndGet();
+        return Set.of(7L);
+    }
+
+    private double outcome(String outcome) {
+        return registry.get("availability.search.coalescing").tag("outcome", outcome).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.BookedStay;
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.model.StayRestrictionKind;
+import com.example.hotelbooking.service.StayRestrictionCalendar.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FlexibleStaySearchTest {
+
+    private static final LocalDate START = LocalDate.of(2030, 3, 10);
+
+    private static final StayRestrictionCalendar NO_RESTRICTIONS = StayRestrictionCalendar.EMPTY;
+
+    @Test
+    void matchesCheckingEveryStartDateSeparately() {
+        Random random = new Random(7);
+        List<RoomSummary> rooms = new ArrayList<>();
+        for (long id = 1; id <= 40; id++) {
+            rooms.add(new RoomSummary(id, "R" + id, "Double", 2, 50 + random.nextInt(200),
+                    random.nextInt(4) == 0 ? 10.0 : 0.0, true, null, null));
+        }
+        List<BookedStay> stays = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            LocalDate checkIn = START.plusDays(random.nextInt(20) - 5);
+            stays.add(new BookedStay(100L + i, 1L + random.nextInt(40), checkIn,
+                    checkIn.plusDays(1 + random.nextInt(5))));
+        }
+
+        StayRestrictionCalendar restrictions = StayRestrictionCalendar.compile(List.of(
+                new Rule(StayRestrictionKind.CLOSED_TO_ARRIVAL, 3L, null, START.plusDays(2), START.plusDays(2), null),
+                new Rule(StayRestrictionKind.BLACKOUT, 4L, null, START.plusDays(3), START.plusDays(4), null),
+                new Rule(StayRestrictionKind.MIN_STAY, 5L, null, START, START.plusDays(7), 3),
+                new Rule(StayRestrictionKind.CLOSED_TO_DEPARTURE, null, "double", START.plusDays(9), START.plusDays(9),
+                        null)), START.minusDays(30), 1, 0);
+
+        for (int nights = 1; nights <= 4; nights++) {
+            List<FlexibleStaySearch.Result> results =
+                    new FlexibleStaySearch(START, START.plusDays(7), nights).run(rooms, stays, restrictions, 5);
+            assertEquals(bruteForce(rooms, stays, restrictions, nights), results);
+        }
+    }
+
+    @Test
+    void overlappingBookingsOfOneRoomCountEachNightOnce() {
+        RoomSummary room = new RoomSummary(1L, "R1", "Double", 2, 100.0, 0.0, true, null, null);
+        List<BookedStay> stays = List.of(
+                new BookedStay(100L, 1L, START.plusDays(1), START.plusDays(3)),
+                new BookedStay(101L, 1L, START.plusDays(2), START.plusDays(4)));
+
+        List<FlexibleStaySearch.Result> results =
+                new FlexibleStaySearch(START, START.plusDays(5), 1).run(List.of(room), stays, NO_RESTRICTIONS, 1);
+
+        assertEquals(List.of(START, START.plusDays(4), START.plusDays(5)),
+                results.stream().map(FlexibleStaySearch.Result::checkIn).toList());
+    }
+
+    @Test
+    void startDatesWithoutFreeRoomsAreOmitted() {
+        RoomSummary room = new RoomSummary(1L, "R1", "Double", 2, 100.0, 0.0, true, null, null);
+        List<BookedStay> stays = List.of(new BookedStay(100L, 1L, START.minusDays(1), START.plusDays(10)));
+
+        assertEquals(List.of(),
+                new FlexibleStaySearch(START, START.plusDays(3), 2).run(List.of(room), stays, NO_RESTRICTIONS, 1));
+    }
+
+    private static List<FlexibleStaySearch.Result> bruteForce(List<RoomSummary> rooms, List<BookedStay> stays,
+                                                              StayRestrictionCalendar restrictions, int nights) {
+        List<FlexibleStaySearch.Result> results = new ArrayList<>();
+        for (int s = 0; s <= 7; s++) {
+            LocalDate checkIn = START.plusDays(s);
+            LocalDate checkOut = checkIn.plusDays(nights);
+            List<RoomSummary> free = rooms.stream()
+                    .filter(room -> stays.stream().noneMatch(stay -> stay.roomId().equals(room.id())
+                            && stay.checkInDate().isBefore(checkOut) && stay.checkOutDate().isAfter(checkIn)))
+                    .filter(room -> restrictions.permits(room, checkIn, checkOut))
+                    .sorted(FlexibleStaySearch.BY_EFFECTIVE_RATE)
+                    .toList();
+            if (!free.isEmpty()) {
+                results.add(new FlexibleStaySearch.Result(checkIn, checkOut, free.size(),
+                        free.subList(0, Math.min(5, free.size()))));
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.BookedStay;
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.event.BookingChangedEvent;
+import com.example.hotelbooking.exception.PriceQuoteExpiredException;
+import com.example.hotelbooking.repository.BookingRepository;
+import com.example.hotelbooking.repository.RoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OccupancyPricingTest {
+
+    private static final LocalDate D = LocalDate.now().plusDays(10);
+
+    private final AtomicLong millis = new AtomicLong();
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+    };
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+    private RoomCatalog roomCatalog;
+    private OccupancyPricing pricing;
+
+    @BeforeEach
+    void setUp() {
+        RoomRepository roomRepository = mock(RoomRepository.class);
+        when(roomRepository.findAllSummaries()).thenReturn(List.of(
+                room(1L, "Double"), room(2L, "Double"), room(3L, "Double"), room(4L, "Double"), room(5L, "Suite")));
+        roomCatalog = new RoomCatalog(roomRepository, new SimpleMeterRegistry());
+        when(bookingRepository.findBookedStays(any(), any())).thenReturn(List.of());
+
+        pricing = pricing("shared-secret");
+        pricing.rebuild();
+    }
+
+    @Test
+    void crossingATierRepricesOnlyThoseNights() {
+        PriceTable initial = pricing.current();
+        pricing.onBookingChanged(booked(1L, D, D.plusDays(3)));
+        // One of four doubles is below the first tier
+        assertSame(initial, pricing.current());
+
+        pricing.onBookingChanged(booked(2L, D.plusDays(1), D.plusDays(2)));
+
+        PriceTable prices = pricing.current();
+        assertEquals(new BigDecimal("1.2"), prices.multiplier("double", D.plusDays(1)));
+        assertEquals(BigDecimal.ONE, prices.multiplier("Double", D));
+        assertEquals(BigDecimal.ONE, prices.multiplier("Suite", D.plusDays(1)));
+        assertEquals(new BigDecimal("3.2"), prices.multiplierSum("Double", D, D.plusDays(3)));
+    }
+
+    @Test
+    void quotedPricesHoldOnAnyInstanceUntilTheQuoteExpires() {
+        pricing.onBookingChanged(booked(1L, D, D.plusDays(1)));
+        pricing.onBookingChanged(booked(2L, D, D.plusDays(1)));
+        String quote = pricing.quote(pricing.current(), List.of("Double", "Suite"), D, D.plusDays(2));
+
+        pricing.onBookingChanged(released(2L, D, D.plusDays(1)));
+        assertEquals(BigDecimal.ONE, pricing.current().multiplier("Double", D));
+
+        // Another instance, which never saw these bookings, honours the quote as well
+        OccupancyPricing other = pricing("shared-secret");
+        other.rebuild();
+        for (OccupancyPricing instance : List.of(pricing, other)) {
+            assertEquals(new BigDecimal("2.2"), instance.quoted(quote, "double", D, D.plusDays(2)));
+            assertEquals(new BigDecimal("2"), instance.quoted(quote, "Suite", D, D.plusDays(2)));
+        }
+
+        millis.addAndGet(Duration.ofMinutes(16).toMillis());
+        PriceQuoteExpiredException expired = assertThrows(PriceQuoteExpiredException.class,
+                () -> pricing.quoted(quote, "Double", D, D.plusDays(2)));
+        assertTrue(expired.getMessage().contains("expired"));
+    }
+
+    @Test
+    void quoteOnlyBooksTheStayAndTypesItWasMadeFor() {
+        String quote = pricing.quote(pricing.current(), List.of("Double"), D, D.plusDays(2));
+
+        assertThrows(PriceQuoteExpiredException.class, () -> pricing.quoted(quote, "Double", D, D.plusDays(3)));
+        assertThrows(PriceQuoteExpiredException.class, () -> pricing.quoted(quote, "Suite", D, D.plusDays(2)));
+        assertThrows(PriceQuoteExpiredException.class,
+                () -> pricing("other-secret").quoted(quote, "Double", D, D.plusDays(2)));
+        String tampered = (quote.charAt(0) == 'A' ? "B" : "A") + quote.substring(1);
+        assertThrows(PriceQuoteExpiredException.class, () -> pricing.quoted(tampered, "Double", D, D.plusDays(2)));
+        assertThrows(PriceQuoteExpiredException.class, () -> pricing.quoted("42", "Double", D, D.plusDays(2)));
+    }
+
+    @Test
+    void changeReadByARebuildIsNotCountedAgainWhenItsEventFollows() {
+        // Both bookings committed after the rebuild read them, and their events arrive afterwards
+        when(bookingRepository.findBookedStays(any(), any())).thenReturn(List.of(
+                new BookedStay(100L, 1L, D, D.plusDays(2)),
+                new BookedStay(200L, 2L, D, D.plusDays(2))));
+        pricing.rebuild();
+        pricing.onBookingChanged(booked(1L, D, D.plusDays(2)));
+        pricing.onBookingChanged(booked(2L, D, D.plusDays(2)));
+
+        assertEquals(new BigDecimal("1.2"), pricing.current().multiplier("Double", D));
+
+        // A cancellation the rebuild already missed is not taken off again either
+        pricing.onBookingChanged(released(3L, D, D.plusDays(2)));
+        assertEquals(new BigDecimal("1.2"), pricing.current().multiplier("Double", D));
+
+        // A date change gives up one night and keeps the other
+        pricing.onBookingChanged(released(2L, D.plusDays(1), D.plusDays(2)));
+        assertEquals(new BigDecimal("1.2"), pricing.current().multiplier("Double", D));
+        assertEquals(BigDecimal.ONE, pricing.current().multiplier("Double", D.plusDays(1)));
+    }
+
+    @Test
+    void rebuildCountsBookingsFromTheDatabase() {
+        when(bookingRepository.findBookedStays(any(), any())).thenReturn(List.of(
+                new BookedStay(100L, 1L, D, D.plusDays(2)),
+                new BookedStay(200L, 2L, D, D.plusDays(1)),
+                new BookedStay(300L, 3L, D.minusDays(1), D.plusDays(1)),
+                new BookedStay(500L, 5L, D, D.plusDays(1))));
+        pricing.rebuild();
+
+        PriceTable prices = pricing.current();
+        assertEquals(new BigDecimal("1.5"), prices.multiplier("Double", D));
+        assertEquals(BigDecimal.ONE, prices.multiplier("Double", D.plusDays(1)));
+        // The only suite is full
+        assertEquals(new BigDecimal("1.5"), prices.multiplier("Suite", D));
+    }
+
+    @Test
+    void addingRoomsOfATypeLowersItsOccupancy() {
+        pricing.onBookingChanged(booked(1L, D, D.plusDays(1)));
+        pricing.onBookingChanged(booked(2L, D, D.plusDays(1)));
+        assertEquals(new BigDecimal("1.2"), pricing.current().multiplier("Double", D));
+
+        roomCatalog.put(room(6L, "Double"));
+
+        assertEquals(BigDecimal.ONE, pricing.current().multiplier("Double", D));
+    }
+
+    private OccupancyPricing pricing(String quoteSecret) {
+        return new OccupancyPricing("0.5=1.2,0.75=1.5", 60, Duration.ofMinutes(15), quoteSecret,
+                bookingRepository, roomCatalog, clock);
+    }
+
+    private static BookingChangedEvent booked(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return new BookingChangedEvent(roomId * 100, roomId, checkIn, checkOut, BookingChangedEvent.Change.BOOKED);
+    }
+
+    private static BookingChangedEvent released(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return new BookingChangedEvent(roomId * 100, roomId, checkIn, checkOut, BookingChangedEvent.Change.RELEASED);
+    }
+
+    private static RoomSummary room(Long id, String type) {
+        return new RoomSummary(id, "O" + id, type, 2, 100.0, 0.0, true, null, null);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.SqlStatementCounter;
+import com.example.hotelbooking.exception.PromotionNotApplicableException;
+import com.example.hotelbooking.model.Promotion;
+import com.example.hotelbooking.repository.PromotionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two instances redeeming the same capped code concurrently never redeem
+ * more than the cap between them, and lookups do not touch the database
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PromotionServiceTest {
+
+    @Autowired
+    private PromotionService promotionService;
+
+    @Autowired
+    private PromotionRepository promotionRepository;
+
+    @BeforeEach
+    void setUp() {
+        promotionService.flush();
+        promotionRepository.deleteAll();
+        promotionService.rebuild();
+    }
+
+    @Test
+    void concurrentRedemptionsAcrossInstancesStopAtTheCap() throws Exception {
+        Promotion flash = promotionService.addPromotion(promotion("FLASH", 100, null));
+        PromotionService otherInstance = new PromotionService(promotionRepository, 7, new SimpleMeterRegistry());
+        otherInstance.rebuild();
+
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger redeemed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            PromotionService instance = t % 2 == 0 ? promotionService : otherInstance;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 20; i++) {
+                    try {
+                        instance.redeem("flash", "Double");
+                        redeemed.incrementAndGet();
+                    } catch (PromotionNotApplicableException e) {
+                        // Fully redeemed
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(100, redeemed.get());
+        promotionService.flush();
+        otherInstance.flush();
+        Promotion stored = promotionRepository.findById(flash.getId()).orElseThrow();
+        assertEquals(100, stored.getRedemptions());
+        assertEquals(100, stored.getClaimedRedemptions());
+    }
+
+    @Test
+    void redeemingWithinAClaimedBlockRunsNoQueries() {
+        promotionService.addPromotion(promotion("BLOCK", 10, null));
+        promotionService.redeem("BLOCK", "Suite");
+
+        SqlStatementCounter.reset();
+        for (int i = 0; i < 5; i++) {
+            promotionService.redeem(" block ", "Suite");
+        }
+        assertEquals(0, SqlStatementCounter.count());
+    }
+
+    @Test
+    void quietCodesHandTheirClaimsBack() {
+        Promotion quiet = promotionService.addPromotion(promotion("QUIET", 10, null));
+        promotionService.redeem("QUIET", "Single");
+
+        promotionService.flush();
+        assertEquals(1, promotionRepository.findById(quiet.getId()).orElseThrow().getRedemptions());
+        assertEquals(10, promotionRepository.findById(quiet.getId()).orElseThrow().getClaimedRedemptions());
+
+        promotionService.flush();
+        assertEquals(1, promotionRepository.findById(quiet.getId()).orElseThrow().getClaimedRedemptions());
+    }
+
+    @Test
+    void redemptionsOfADeactivatedCodeAreStillHandedBack() {
+        Promotion dropped = promotionService.addPromotion(promotion("DROPPED", 10, null));
+        PromotionService.Redemption beforeFlush = promotionService.redeem("DROPPED", "Double");
+        PromotionService.Redemption afterFlush = promotionService.redeem("DROPPED", "Double");
+        promotionService.deactivatePromotion(dropped.getId());
+
+        // Still retired: returned to its state and written back on the next flush
+        promotionService.handBack(beforeFlush);
+        promotionService.flush();
+        // Written back for the last time: undone in the database directly
+        promotionService.handBack(afterFlush);
+
+        Promotion stored = promotionRepository.findById(dropped.getId()).orElseThrow();
+        assertEquals(0, stored.getRedemptions());
+        assertEquals(0, stored.getClaimedRedemptions());
+    }
+
+    @Test
+    void shutdownWritesBackRetiredCodes() {
+        PromotionService instance = new PromotionService(promotionRepository, 10, new SimpleMeterRegistry());
+        Promotion dropped = promotionService.addPromotion(promotion("RETIRED", 10, null));
+        instance.rebuild();
+        instance.redeem("RETIRED", "Double");
+        PromotionService.Redemption returned = instance.redeem("RETIRED", "Double");
+        promotionService.deactivatePromotion(dropped.getId());
+        instance.rebuild();
+
+        instance.handBack(returned);
+        instance.shutdown();
+
+        Promotion stored = promotionRepository.findById(dropped.getId()).orElseThrow();
+        assertEquals(1, stored.getRedemptions());
+        assertEquals(1, stored.getClaimedRedemptions());
+    }
+
+    @Test
+    void codesOutsideTheirWindowOrRoomTypeAreRejected() {
+        Promotion future = promotion("LATER", null, null);
+        future.setValidFrom(LocalDate.now().plusDays(1));
+        promotionService.addPromotion(future);
+        promotionService.addPromotion(promotion("SUITES", null, "Suite"));
+
+        assertThrows(PromotionNotApplicableException.class, () -> promotionService.redeem("LATER", "Suite"));
+        assertThrows(PromotionNotApplicableException.class, () -> promotionService.redeem("SUITES", "Double"));
+        assertThrows(PromotionNotApplicableException.class, () -> promotionService.redeem("NOSUCH", "Suite"));
+        assertTrue(promotionService.redeem("SUITES", "suite").discountPercentage() > 0);
+    }
+
+    private Promotion promotion(String code, Integer maxRedemptions, String roomType) {
+        Promotion promotion = new Promotion();
+        promotion.setCode(code);
+        promotion.setDiscountPercentage(20);
+        promotion.setRoomType(roomType);
+        promotion.setValidFrom(LocalDate.now());
+        promotion.setValidUntil(LocalDate.now().plusDays(30));
+        promotion.setMaxRedemptions(maxRedemptions);
+        return promotion;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.exception.PaymentProcessingException;
+import com.example.hotelbooking.model.Booking;
+import com.example.hotelbooking.model.PaymentMethod;
+import com.example.hotelbooking.repository.BookingRepository;
+import com.example.hotelbooking.repository.RoomRepository;
+import com.example.hotelbooking.repository.StayRestrictionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Claims on a room only hold back requests for overlapping nights, and a
+ * claimed room is still tried once the unclaimed candidates are used up
+ */
+class RoomAllocationServiceTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2030, 5, 1);
+
+    private final BookingService bookingService = mock(BookingService.class);
+    private final CountDownLatch firstAttemptStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstAttempt = new CountDownLatch(1);
+    private final ExecutorService pool = Executors.newSingleThreadExecutor();
+    private RoomAllocationService allocation;
+
+    @BeforeEach
+    void setUp() {
+        RoomRepository roomRepository = mock(RoomRepository.class);
+        when(roomRepository.findAllSummaries()).thenReturn(List.of(
+                new RoomSummary(1L, "S1", "Suite", 2, 300.0, 0.0, true, null, null)));
+        RoomCatalog roomCatalog = new RoomCatalog(roomRepository, new SimpleMeterRegistry());
+        StayRestrictionService stayRestrictionService =
+                new StayRestrictionService(mock(StayRestrictionRepository.class), roomCatalog);
+        stayRestrictionService.rebuild();
+        BookingRepository bookingRepository = mock(BookingRepository.class);
+        when(bookingRepository.findBookedStaysForRooms(anyList(), any(), any())).thenReturn(List.of());
+
+        // User 1's attempt holds its claim until released, then fails on payment
+        when(bookingService.createBooking(eq(1L), eq(1L), any(), any(), any())).thenAnswer(invocation -> {
+            firstAttemptStarted.countDown();
+            releaseFirstAttempt.await(5, TimeUnit.SECONDS);
+            throw new PaymentProcessingException("Card declined");
+        });
+        when(bookingService.createBooking(eq(2L), eq(1L), any(), any(), any())).thenReturn(new Booking());
+
+        allocation = new RoomAllocationService(bookingService, bookingRepository, roomCatalog,
+                stayRestrictionService, 14, 3, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseFirstAttempt.countDown();
+        pool.shutdownNow();
+    }
+
+    @Test
+    void claimForOtherNightsDoesNotHoldTheRoomBack() throws Exception {
+        Future<Booking> first = pool.submit(() -> book(1L, MAY_1, MAY_1.plusDays(3)));
+        assertTrue(firstAttemptStarted.await(5, TimeUnit.SECONDS));
+
+        assertNotNull(book(2L, MAY_1.plusDays(3), MAY_1.plusDays(5)));
+
+        releaseFirstAttempt.countDown();
+        assertFailedOnPayment(first);
+    }
+
+    @Test
+    void claimedRoomIsTriedLastRatherThanDropped() throws Exception {
+        Future<Booking> first = pool.submit(() -> book(1L, MAY_1, MAY_1.plusDays(3)));
+        assertTrue(firstAttemptStarted.await(5, TimeUnit.SECONDS));
+
+        // The only suite is claimed for overlapping nights; the booking itself decides
+        assertNotNull(book(2L, MAY_1.plusDays(1), MAY_1.plusDays(2)));
+
+        releaseFirstAttempt.countDown();
+        assertFailedOnPayment(first);
+    }
+
+    private Booking book(Long userId, LocalDate checkIn, LocalDate checkOut) {
+        return allocation.bookRoomOfType(userId, "Suite", checkIn, checkOut, PaymentMethod.CREDIT_CARD);
+    }
+
+    private static void assertFailedOnPayment(Future<Booking> attempt) {
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> attempt.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PaymentProcessingException.class, failure.getCause());
+    }
+}
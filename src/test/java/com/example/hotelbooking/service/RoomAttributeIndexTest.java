@@ -0,0 +1,82 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.RoomFilter;
+import com.example.hotelbooking.dto.RoomSummary;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomAttributeIndexTest {
+
+    private static final String[] TYPES = { "Single", "Double", "Suite", "Family" };
+    private static final LocalDate CHECK_IN = LocalDate.of(2030, 1, 1);
+
+    @Test
+    void everyFilterCombinationMatchesAPlainScan() {
+        // 1,000 rooms spans many full words plus a partial last word
+        List<RoomSummary> rooms = randomRooms(1_000, new Random(42));
+        RoomAttributeIndex index = new RoomAttributeIndex(rooms);
+
+        for (String type : new String[] { null, "double", "SUITE" }) {
+            for (Integer minCapacity : new Integer[] { null, 3 }) {
+                for (Double[] range : new Double[][] { { null, null }, { 100.0, null }, { 90.0, 180.0 } }) {
+                    for (boolean discounted : new boolean[] { false, true }) {
+                        for (boolean dated : new boolean[] { false, true }) {
+                            RoomFilter filter = new RoomFilter(type, minCapacity, range[0], range[1], discounted,
+                                    dated ? CHECK_IN : null, dated ? CHECK_IN.plusDays(2) : null);
+                            assertEquals(scan(rooms, filter), index.select(filter), filter.toString());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void unknownTypeAndEmptyCatalogSelectNothing() {
+        RoomAttributeIndex index = new RoomAttributeIndex(randomRooms(10, new Random(1)));
+        assertTrue(index.select(new RoomFilter("Penthouse", null, null, null, false, null, null)).isEmpty());
+        assertTrue(new RoomAttributeIndex(List.of()).select(RoomFilter.none()).isEmpty());
+    }
+
+    @Test
+    void unconstrainedFilterSelectsEveryRoomOfAnExactWordMultiple() {
+        RoomAttributeIndex index = new RoomAttributeIndex(randomRooms(128, new Random(7)));
+        assertEquals(128, index.select(RoomFilter.none()).cardinality());
+    }
+
+    private static BitSet scan(List<RoomSummary> rooms, RoomFilter filter) {
+        Predicate<RoomSummary> matches = room ->
+                (filter.type() == null || filter.type().equalsIgnoreCase(room.type()))
+                && (filter.minCapacity() == null || room.capacity() >= filter.minCapacity())
+                && (filter.minPrice() == null || room.pricePerNight() >= filter.minPrice())
+                && (filter.maxPrice() == null || room.pricePerNight() <= filter.maxPrice())
+                && (!filter.discountedOnly() || room.discountPercentage() > 0)
+                && (!filter.dateSpecific() || room.available());
+        BitSet expected = new BitSet();
+        for (int i = 0; i < rooms.size(); i++) {
+            if (matches.test(rooms.get(i))) {
+                expected.set(i);
+            }
+        }
+        return expected;
+    }
+
+    private static List<RoomSummary> randomRooms(int count, Random random) {
+        List<RoomSummary> rooms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rooms.add(new RoomSummary((long) i + 1, String.valueOf(i), TYPES[random.nextInt(TYPES.length)],
+                    1 + random.nextInt(5), 50 + random.nextInt(250), random.nextInt(4) == 0 ? 15.0 : 0.0,
+                    random.nextInt(10) != 0, null, null));
+        }
+        return rooms;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.SqlStatementCounter;
+import com.example.hotelbooking.dto.CacheRegionStats;
+import com.example.hotelbooking.model.Room;
+import com.example.hotelbooking.repository.BookingRepository;
+import com.example.hotelbooking.repository.RoomRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rooms and the stable room queries are cached, and an update through
+ * RoomService is visible to the very next read of either
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RoomSecondLevelCacheTest {
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository.deleteAll();
+        roomRepository.deleteAll();
+        cacheStatisticsService.evictAll();
+        room = roomService.addRoom(newRoom("L1", "Single", 100.0));
+        roomService.addRoom(newRoom("L2", "Double", 140.0));
+    }
+
+    @Test
+    void repeatedReadsAreServedFromTheCache() {
+        roomRepository.findById(room.getId());
+        roomRepository.findByTypeIgnoreCase("single");
+
+        SqlStatementCounter.reset();
+        roomRepository.findById(room.getId());
+        roomRepository.findByTypeIgnoreCase("single");
+        assertEquals(0, SqlStatementCounter.count());
+
+        assertTrue(hits("rooms") > 0);
+        assertTrue(hits(RoomRepository.ROOM_QUERY_REGION) > 0);
+    }
+
+    @Test
+    void updateThroughRoomServiceIsVisibleImmediately() {
+        // Warm the entity cache and every cached room query
+        roomRepository.findById(room.getId());
+        roomRepository.findByTypeIgnoreCase("single");
+        roomRepository.findByAvailableTrue();
+        roomRepository.findByAvailableTrueOrderByPricePerNightAsc();
+
+        Room update = newRoom("L1", "Suite", 200.0);
+        roomService.updateRoom(room.getId(), update);
+
+        Room reloaded = roomRepository.findById(room.getId()).orElseThrow();
+        assertEquals("Suite", reloaded.getType());
+        assertEquals(200.0, reloaded.getPricePerNight());
+
+        assertTrue(roomRepository.findByTypeIgnoreCase("single").isEmpty());
+        assertEquals(List.of(room.getId()), ids(roomRepository.findByTypeIgnoreCase("suite")));
+        assertEquals(2, roomRepository.findByAvailableTrue().size());
+
+        List<Room> byPrice = roomRepository.findByAvailableTrueOrderByPricePerNightAsc();
+        assertEquals(room.getId(), byPrice.get(byPrice.size() - 1).getId());
+        assertEquals(200.0, byPrice.get(byPrice.size() - 1).getPricePerNight());
+    }
+
+    @Test
+    void disablingARoomDropsItFromCachedAvailabilityQueries() {
+        roomRepository.findByAvailableTrue();
+
+        Room update = newRoom("L1", "Single", 100.0);
+        update.setAvailable(false);
+        roomService.updateRoom(room.getId(), update);
+
+        assertTrue(roomRepository.findByAvailableTrue().stream().noneMatch(r -> r.getId().equals(room.getId())));
+    }
+
+    private long hits(String region) {
+        return cacheStatisticsService.getRegionStatistics().stream()
+                .filter(stats -> stats.region().equals(region))
+                .mapToLong(CacheRegionStats::hits)
+                .sum();
+    }
+
+    private static List<Long> ids(List<Room> rooms) {
+        return rooms.stream().map(Room::getId).toList();
+    }
+
+    private static Room newRoom(String number, String type, double price) {
+        Room room = new Room();
+        room.setRoomNumber(number);
+        room.setType(type);
+        room.setCapacity(2);
+        room.setPricePerNight(price);
+        return room;
+    }
+}
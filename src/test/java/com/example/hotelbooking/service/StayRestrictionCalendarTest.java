@@ -0,0 +1,104 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.dto.RoomSummary;
+import com.example.hotelbooking.model.StayRestrictionKind;
+import com.example.hotelbooking.service.StayRestrictionCalendar.Rule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StayRestrictionCalendarTest {
+
+    private static final LocalDate BASE = LocalDate.of(2030, 6, 1);
+    private static final LocalDate D = BASE.plusDays(10);
+
+    private static final RoomSummary DOUBLE_1 = room(1L, "Double");
+    private static final RoomSummary DOUBLE_2 = room(2L, "Double");
+    private static final RoomSummary SUITE = room(3L, "Suite");
+
+    @Test
+    void blackoutBlocksStaysThatIncludeTheNight() {
+        StayRestrictionCalendar calendar = compile(rule(StayRestrictionKind.BLACKOUT, 1L, null, D, D, null));
+
+        assertFalse(calendar.permits(DOUBLE_1, D, D.plusDays(1)));
+        assertFalse(calendar.permits(DOUBLE_1, D.minusDays(5), D.plusDays(5)));
+        // Checking out on the blacked-out day does not include its night
+        assertTrue(calendar.permits(DOUBLE_1, D.minusDays(2), D));
+        assertTrue(calendar.permits(DOUBLE_1, D.plusDays(1), D.plusDays(3)));
+        assertTrue(calendar.permits(DOUBLE_2, D, D.plusDays(1)));
+    }
+
+    @Test
+    void closedDaysOnlyRestrictArrivingOrLeavingThatDay() {
+        StayRestrictionCalendar calendar = compile(
+                rule(StayRestrictionKind.CLOSED_TO_ARRIVAL, 1L, null, D, D, null),
+                rule(StayRestrictionKind.CLOSED_TO_DEPARTURE, 1L, null, D.plusDays(5), D.plusDays(5), null));
+
+        assertEquals("Arrival is not allowed on " + D, calendar.violation(1L, "Double", D, D.plusDays(2)));
+        assertTrue(calendar.permits(DOUBLE_1, D.minusDays(1), D.plusDays(2)));
+        assertEquals("Departure is not allowed on " + D.plusDays(5),
+                calendar.violation(1L, "Double", D.plusDays(2), D.plusDays(5)));
+        assertTrue(calendar.permits(DOUBLE_1, D.plusDays(2), D.plusDays(6)));
+    }
+
+    @Test
+    void minimumStayDependsOnTheArrivalDay() {
+        StayRestrictionCalendar calendar = compile(
+                rule(StayRestrictionKind.MIN_STAY, 1L, null, D, D.plusDays(1), 3),
+                rule(StayRestrictionKind.MIN_STAY, 1L, null, D.plusDays(1), D.plusDays(1), 5));
+
+        assertEquals("Stays arriving on " + D + " must be at least 3 nights",
+                calendar.violation(1L, "Double", D, D.plusDays(2)));
+        assertTrue(calendar.permits(DOUBLE_1, D, D.plusDays(3)));
+        // Overlapping rules keep the longest minimum
+        assertFalse(calendar.permits(DOUBLE_1, D.plusDays(1), D.plusDays(5)));
+        assertTrue(calendar.permits(DOUBLE_1, D.plusDays(1), D.plusDays(6)));
+        // Staying through the restricted days without arriving on them is fine
+        assertTrue(calendar.permits(DOUBLE_1, D.minusDays(1), D.plusDays(1)));
+    }
+
+    @Test
+    void typeRulesApplyToEveryRoomOfTheTypeAlongsideRoomRules() {
+        StayRestrictionCalendar calendar = compile(
+                rule(StayRestrictionKind.BLACKOUT, null, "DOUBLE", D, D, null),
+                rule(StayRestrictionKind.CLOSED_TO_ARRIVAL, 1L, null, D.plusDays(3), D.plusDays(3), null));
+
+        assertFalse(calendar.permits(DOUBLE_1, D, D.plusDays(1)));
+        assertFalse(calendar.permits(DOUBLE_2, D, D.plusDays(1)));
+        assertTrue(calendar.permits(SUITE, D, D.plusDays(1)));
+        assertFalse(calendar.permits(DOUBLE_1, D.plusDays(3), D.plusDays(4)));
+        assertTrue(calendar.permits(DOUBLE_2, D.plusDays(3), D.plusDays(4)));
+        assertTrue(calendar.restricts(DOUBLE_2));
+        assertFalse(calendar.restricts(SUITE));
+    }
+
+    @Test
+    void nightsBeforeTheBaseDateAreDropped() {
+        StayRestrictionCalendar calendar = compile(
+                rule(StayRestrictionKind.BLACKOUT, 1L, null, BASE.minusDays(5), BASE.minusDays(1), null),
+                rule(StayRestrictionKind.BLACKOUT, 2L, null, BASE.minusDays(5), BASE, null));
+
+        assertFalse(calendar.restricts(DOUBLE_1));
+        assertFalse(calendar.permits(DOUBLE_2, BASE, BASE.plusDays(1)));
+        assertNull(calendar.violation(2L, "Double", BASE.plusDays(1), BASE.plusDays(400)));
+    }
+
+    private static StayRestrictionCalendar compile(Rule... rules) {
+        return StayRestrictionCalendar.compile(List.of(rules), BASE, 1, 0);
+    }
+
+    private static Rule rule(StayRestrictionKind kind, Long roomId, String roomType, LocalDate start, LocalDate end,
+                             Integer minNights) {
+        return new Rule(kind, roomId, roomType, start, end, minNights);
+    }
+
+    private static RoomSummary room(Long id, String type) {
+        return new RoomSummary(id, "R" + id, type, 2, 100.0, 0.0, true, null, null);
+    }
+}
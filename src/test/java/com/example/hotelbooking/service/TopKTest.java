@@ -0,0 +1,48 @@
+package com.example.hotelbooking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TopKTest {
+
+    @Test
+    void keepsTheSmallestKInOrder() {
+        TopK<Integer> top = new TopK<>(Comparator.naturalOrder(), 3);
+        List.of(9, 4, 7, 1, 8, 3, 6).forEach(top::offer);
+
+        assertEquals(List.of(1, 3, 4), top.sorted());
+        assertEquals(7, top.offered());
+    }
+
+    @Test
+    void keepsEverythingWhenFewerThanKAreOffered() {
+        TopK<Integer> top = new TopK<>(Comparator.reverseOrder(), 10);
+        List.of(2, 5, 1).forEach(top::offer);
+
+        assertEquals(List.of(5, 2, 1), top.sorted());
+    }
+
+    @Test
+    void matchesAFullSortOnLargeInput() {
+        List<Integer> values = IntStream.range(0, 10_000).map(i -> (i * 7919) % 10_007).boxed().toList();
+        TopK<Integer> top = new TopK<>(Comparator.naturalOrder(), 50);
+        values.forEach(top::offer);
+
+        assertEquals(values.stream().sorted().limit(50).toList(), top.sorted());
+    }
+
+    @Test
+    void zeroKeepsNothingButCounts() {
+        TopK<Integer> top = new TopK<>(Comparator.naturalOrder(), 0);
+        List.of(1, 2).forEach(top::offer);
+
+        assertTrue(top.sorted().isEmpty());
+        assertEquals(2, top.offered());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.hotelbooking.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTest {
+
+    private TrigramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // room number, type, description
+        index = new TrigramIndex(5, 3, 1);
+        index.put(1, "101", "Single", "Quiet room facing the garden");
+        index.put(2, "102", "Double", "Sea view with balcony");
+        index.put(3, "201", "Suite", "Double bed, sea view and kitchen");
+        index.put(4, "B2", "Double", null);
+    }
+
+    @Test
+    void matchesSubstringsCaseInsensitively() {
+        assertEquals(List.of(1L), ids("GARD"));
+        assertEquals(List.of(2L), ids("alcon"));
+    }
+
+    @Test
+    void ranksExactAndHeavierFieldMatchesFirst() {
+        // Exact type matches outrank a description mention
+        assertEquals(List.of(2L, 4L, 3L), ids("double"));
+    }
+
+    @Test
+    void requiresEveryTerm() {
+        assertEquals(List.of(3L), ids("sea kitchen"));
+        assertTrue(ids("sea garden").isEmpty());
+    }
+
+    @Test
+    void verifiesCandidatesAgainstTheText() {
+        // Every trigram of "abcde" occurs in the description, the term itself does not
+        index.put(5, "301", "Single", "abcd bcde");
+        assertTrue(ids("abcde").isEmpty());
+        assertEquals(List.of(5L), ids("abcd"));
+    }
+
+    @Test
+    void shortTermsFallBackToScanningTheDocuments() {
+        assertEquals(List.of(4L), ids("b2"));
+        assertEquals(List.of(1L, 2L, 3L), ids("0"));
+    }
+
+    @Test
+    void updatesAndRemovalsApplyImmediately() {
+        index.put(1, "101", "Single", "Renovated with a balcony");
+        assertTrue(ids("garden").isEmpty());
+        assertEquals(List.of(1L, 2L), ids("balcony"));
+
+        index.remove(2);
+        assertEquals(List.of(1L), ids("balcony"));
+        assertEquals(3, index.size());
+    }
+
+    private List<Long> ids(String query) {
+        return index.search(query).stream().map(TrigramIndex.Hit::id).toList();
+    }
+}
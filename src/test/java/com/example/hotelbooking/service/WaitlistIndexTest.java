@@ -0,0 +1,67 @@
+package com.example.hotelbooking.service;
+
+import com.example.hotelbooking.service.WaitlistIndex.Stay;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WaitlistIndexTest {
+
+    private static final LocalDate BASE = LocalDate.of(2030, 3, 1);
+
+    @Test
+    void overlapQueriesMatchABruteForceScan() {
+        Random random = new Random(7);
+        List<Stay> stays = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            stays.add(randomStay(random, id));
+        }
+        WaitlistIndex index = WaitlistIndex.of(stays);
+
+        for (int query = 0; query < 200; query++) {
+            Long roomId = (long) random.nextInt(4);
+            String type = random.nextBoolean() ? "Double" : "SUITE";
+            LocalDate checkIn = BASE.plusDays(random.nextInt(90));
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(10));
+
+            List<Long> expected = stays.stream()
+                    .filter(s -> roomId.equals(s.roomId()) || (s.roomId() == null && s.roomType().equalsIgnoreCase(type)))
+                    .filter(s -> s.checkIn().isBefore(checkOut) && s.checkOut().isAfter(checkIn))
+                    .map(Stay::entryId)
+                    .sorted()
+                    .toList();
+            assertEquals(expected, index.overlapping(roomId, type, checkIn, checkOut).stream()
+                    .map(Stay::entryId).toList());
+        }
+    }
+
+    @Test
+    void addingAndRemovingEntriesOnlyChangesTheirOwnResults() {
+        Stay early = new Stay(1L, 10L, null, BASE, BASE.plusDays(3));
+        Stay late = new Stay(2L, 10L, null, BASE.plusDays(5), BASE.plusDays(7));
+        Stay suite = new Stay(3L, null, "Suite", BASE.plusDays(1), BASE.plusDays(2));
+        WaitlistIndex index = WaitlistIndex.EMPTY.with(early).with(late).with(suite);
+
+        assertEquals(List.of(early, suite), index.overlapping(10L, "suite", BASE.plusDays(1), BASE.plusDays(2)));
+        assertEquals(List.of(late), index.overlapping(10L, "Double", BASE.plusDays(3), BASE.plusDays(6)));
+
+        WaitlistIndex without = index.without(1L);
+        assertEquals(List.of(suite), without.overlapping(10L, "Suite", BASE, BASE.plusDays(3)));
+        assertEquals(2, without.size());
+        assertEquals(3, index.size());
+    }
+
+    private static Stay randomStay(Random random, long id) {
+        LocalDate checkIn = BASE.plusDays(random.nextInt(100));
+        LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(14));
+        if (random.nextBoolean()) {
+            return new Stay(id, (long) random.nextInt(4), null, checkIn, checkOut);
+        }
+        return new Stay(id, null, random.nextBoolean() ? "double" : "Suite", checkIn, checkOut);
+    }
+}